@@ -1,11 +1,15 @@
 package com.github.yuu1111;
 
+import com.github.yuu1111.api.WorldTimeAPIClient;
+import com.github.yuu1111.api.WorldTimeAPIConfig;
 import com.github.yuu1111.server.MCPServer;
+import com.github.yuu1111.services.clock.ClockDisciplineService;
+import com.github.yuu1111.services.zone.OffsetTables;
+import com.github.yuu1111.services.zone.TzdbSnapshotWatcher;
+import com.github.yuu1111.services.zone.TzdbSnapshots;
 import com.github.yuu1111.server.ServerConfig;
-import com.github.yuu1111.tools.impl.GetCurrentTime;
+import com.github.yuu1111.tools.ToolDiscovery;
 import com.github.yuu1111.tools.impl.ConvertTimezone;
-import com.github.yuu1111.tools.impl.GetReligiousCalendar;
-import com.github.yuu1111.tools.impl.GetAstronomicalInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,6 +23,13 @@ import java.util.Properties;
  */
 public class Main {
 
+    static {
+        // tzdataを再起動なしで切り替えられるよう、java.timeの初期化より前に既定のプロバイダーを指定する
+        if (System.getProperty(TzdbSnapshots.PROVIDER_PROPERTY) == null) {
+            System.setProperty(TzdbSnapshots.PROVIDER_PROPERTY, TzdbSnapshots.PROVIDER_CLASS);
+        }
+    }
+
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
     private static final String VERSION = "1.0.0";
     
@@ -29,6 +40,30 @@ public class Main {
             // 設定をロード
             Properties properties = loadProperties();
             ServerConfig config = buildServerConfig(properties);
+
+            // WorldTimeAPIクライアント（worldtime.api.*の設定を反映）
+            WorldTimeAPIClient worldTimeClient =
+                new WorldTimeAPIClient(WorldTimeAPIConfig.fromProperties(properties));
+            WorldTimeAPIClient.install(worldTimeClient);
+            worldTimeClient.start();
+
+            // 時刻同期を開始（ツールは補正済みの時計を使う）
+            ClockDisciplineService clockService = ClockDisciplineService.fromProperties(properties);
+            ClockDisciplineService.install(clockService);
+            clockService.start();
+
+            // オフセット表（必要ならすべてのタイムゾーン分をバックグラウンドで作成）
+            OffsetTables offsetTables = OffsetTables.fromProperties(properties);
+            OffsetTables.install(offsetTables);
+            if (offsetTables.config().preload()) {
+                Thread.ofVirtual().name("offset-table-preload").start(offsetTables::preloadAll);
+            }
+
+            // tzdataスナップショットの監視（更新されたtzdb.datを再起動なしで反映）
+            TzdbSnapshotWatcher.fromProperties(properties).start();
+
+            // convert_timezoneの並列変換の閾値
+            ConvertTimezone.configure(properties);
             
             // MCPサーバーを作成
             MCPServer server = new MCPServer(config);
@@ -72,9 +107,9 @@ public class Main {
     }
     
     /**
-     * プロパティをロード
+     * プロパティをロード（StdioMainと共通）
      */
-    private static Properties loadProperties() {
+    static Properties loadProperties() {
         Properties properties = new Properties();
         
         // デフォルト設定をロード
@@ -123,6 +158,12 @@ public class Main {
             properties.setProperty("cache.enabled", cacheEnabled);
         }
         
+        // tzdataスナップショットのディレクトリ
+        String tzdbDirectory = System.getenv("TZDB_DIRECTORY");
+        if (tzdbDirectory != null) {
+            properties.setProperty("zone.tzdb.directory", tzdbDirectory);
+        }
+        
         // ログレベル
         String logLevel = System.getenv("LOG_LEVEL");
         if (logLevel != null) {
@@ -165,17 +206,9 @@ public class Main {
      * ツールを登録
      */
     private static void registerTools(MCPServer server) {
-        // Phase 1: 基本ツール
-        server.registerTool(new GetCurrentTime());
-        server.registerTool(new ConvertTimezone());
-        
-        // Phase 2: 高度な機能
-        server.registerTool(new GetReligiousCalendar());
-        server.registerTool(new GetAstronomicalInfo());
-        
-        // Phase 3以降で追加予定のツール
-        // server.registerTool(new GetTimeDifference());
-        // server.registerTool(new GetHolidays());
+        // META-INF/servicesに登録されたツールを検出
+        // 実装（ICU・suncalcなど）は各ツールの初回呼び出し時に生成される
+        ToolDiscovery.discoverTools().forEach(server::registerTool);
         
         logger.info("Registered {} tools", server.getToolRegistry().size());
     }
@@ -1,18 +1,31 @@
 package com.github.yuu1111;
 
+import com.github.yuu1111.api.WorldTimeAPIClient;
+import com.github.yuu1111.api.WorldTimeAPIConfig;
 import com.github.yuu1111.server.StdioMCPServer;
-import com.github.yuu1111.tools.impl.GetCurrentTime;
+import com.github.yuu1111.services.clock.ClockDisciplineService;
+import com.github.yuu1111.services.zone.OffsetTables;
+import com.github.yuu1111.services.zone.TzdbSnapshotWatcher;
+import com.github.yuu1111.services.zone.TzdbSnapshots;
+import com.github.yuu1111.tools.ToolDiscovery;
 import com.github.yuu1111.tools.impl.ConvertTimezone;
-import com.github.yuu1111.tools.impl.GetReligiousCalendar;
-import com.github.yuu1111.tools.impl.GetAstronomicalInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Properties;
+
 /**
  * Stdio方式のMCPサーバーメインクラス
  * Claude Codeとの通信用
  */
 public class StdioMain {
+
+    static {
+        // tzdataを再起動なしで切り替えられるよう、java.timeの初期化より前に既定のプロバイダーを指定する
+        if (System.getProperty(TzdbSnapshots.PROVIDER_PROPERTY) == null) {
+            System.setProperty(TzdbSnapshots.PROVIDER_PROPERTY, TzdbSnapshots.PROVIDER_CLASS);
+        }
+    }
     
     private static final Logger logger = LoggerFactory.getLogger(StdioMain.class);
     
@@ -21,6 +34,33 @@ public class StdioMain {
             // ロギングをファイルに出力（標準出力を使わない）
             System.setProperty("logback.configurationFile", "logback-stdio.xml");
             
+            // 設定をロード
+            Properties properties = Main.loadProperties();
+            
+            // WorldTimeAPIクライアント（worldtime.api.*の設定を反映）
+            WorldTimeAPIClient worldTimeClient =
+                new WorldTimeAPIClient(WorldTimeAPIConfig.fromProperties(properties));
+            WorldTimeAPIClient.install(worldTimeClient);
+            worldTimeClient.start();
+            
+            // 時刻同期を開始（ツールは補正済みの時計を使う）
+            ClockDisciplineService clockService = ClockDisciplineService.fromProperties(properties);
+            ClockDisciplineService.install(clockService);
+            clockService.start();
+            
+            // オフセット表（必要ならすべてのタイムゾーン分をバックグラウンドで作成）
+            OffsetTables offsetTables = OffsetTables.fromProperties(properties);
+            OffsetTables.install(offsetTables);
+            if (offsetTables.config().preload()) {
+                Thread.ofVirtual().name("offset-table-preload").start(offsetTables::preloadAll);
+            }
+            
+            // tzdataスナップショットの監視（更新されたtzdb.datを再起動なしで反映）
+            TzdbSnapshotWatcher.fromProperties(properties).start();
+            
+            // convert_timezoneの並列変換の閾値
+            ConvertTimezone.configure(properties);
+            
             // StdioMCPサーバーを作成
             StdioMCPServer server = new StdioMCPServer();
             
@@ -40,13 +80,9 @@ public class StdioMain {
      * ツールを登録
      */
     private static void registerTools(StdioMCPServer server) {
-        // Phase 1: 基本ツール
-        server.registerTool(new GetCurrentTime());
-        server.registerTool(new ConvertTimezone());
-        
-        // Phase 2: 高度な機能
-        server.registerTool(new GetReligiousCalendar());
-        server.registerTool(new GetAstronomicalInfo());
+        // META-INF/servicesに登録されたツールを検出
+        // 実装（ICU・suncalcなど）は各ツールの初回呼び出し時に生成される
+        ToolDiscovery.discoverTools().forEach(server::registerTool);
         
         logger.info("Registered {} tools", server.getToolRegistry().size());
     }
@@ -0,0 +1,71 @@
+package com.github.yuu1111.api;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ヘッジリクエストの方針
+ * 遅延は計測したレイテンシのパーセンタイルから決め、送信数は呼び出し数に比例する予算で制限する
+ * 予算は呼び出しごとにbudgetRatio分だけ貯まり、ヘッジ1回で1消費するため負荷の増加は最大でも比率分に収まる
+ */
+final class HedgePolicy {
+
+  /**
+   * ヘッジ遅延を計算するのに必要な最小計測数
+   */
+  static final long MIN_SAMPLES = 20;
+
+  private static final Duration WINDOW = Duration.ofSeconds(30);
+  private static final long TOKEN = 1_000;
+  private static final long MAX_TOKENS = 10 * TOKEN;
+
+  private final LatencyHistogram histogram = new LatencyHistogram(WINDOW);
+  private final double percentile;
+  private final long minDelayNanos;
+  private final long deposit;
+  private final AtomicLong tokens = new AtomicLong();
+
+  HedgePolicy(WorldTimeAPIConfig config) {
+    this.percentile = config.hedgePercentile();
+    this.minDelayNanos = config.hedgeMinDelay().toNanos();
+    this.deposit = Math.round(config.hedgeBudgetRatio() * TOKEN);
+  }
+
+  /**
+   * 応答のレイテンシを記録
+   */
+  void record(long nanos) {
+    histogram.record(nanos);
+  }
+
+  /**
+   * 呼び出しごとに予算を積み立てる
+   */
+  void onCall() {
+    if (deposit > 0) {
+      tokens.accumulateAndGet(deposit, (current, added) -> Math.min(MAX_TOKENS, current + added));
+    }
+  }
+
+  /**
+   * ヘッジを送信するまでの遅延（ナノ秒） 計測数が足りない場合は-1を返す
+   */
+  long delayNanos() {
+    long observed = histogram.percentile(percentile, MIN_SAMPLES);
+    return observed < 0 ? -1 : Math.max(minDelayNanos, observed);
+  }
+
+  /**
+   * 予算からヘッジ1回分を消費 残っていなければfalseを返す
+   */
+  boolean tryAcquire() {
+    long current;
+    do {
+      current = tokens.get();
+      if (current < TOKEN) {
+        return false;
+      }
+    } while (!tokens.compareAndSet(current, current - TOKEN));
+    return true;
+  }
+}
@@ -0,0 +1,340 @@
+package com.github.yuu1111.api;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * IPアドレスのプレフィックスからタイムゾーンを引くキャッシュ
+ * API応答からIPv4は/24、IPv6は/48単位で対応を学習し、最長一致でネットワークなしに応答する
+ * 読み込んだプレフィックスは配列で表現した二分トライに格納し、期限も上限も設けない
+ * 学習した対応は件数の上限と有効期限のあるキャッシュに別に保持し、アクセスの少ないものから破棄する
+ * タイムゾーン名は1つのインスタンスを共有する
+ */
+final class IpPrefixCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(IpPrefixCache.class);
+
+  /**
+   * 学習するプレフィックス長
+   */
+  static final int IPV4_LEARN_PREFIX = 24;
+  static final int IPV6_LEARN_PREFIX = 48;
+
+  private final Trie ipv4 = new Trie();
+  private final Trie ipv6 = new Trie();
+  private final Cache<String, String> learned;
+  private final Map<String, String> zoneNames = new ConcurrentHashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * コンストラクタ
+   *
+   * @param learnedMaxSize 学習した対応の最大数
+   * @param learnedTtl     学習した対応の有効期限
+   */
+  IpPrefixCache(long learnedMaxSize, Duration learnedTtl) {
+    this(learnedMaxSize, learnedTtl, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * コンストラクタ（破棄を実行するExecutor指定）
+   */
+  IpPrefixCache(long learnedMaxSize, Duration learnedTtl, Executor executor) {
+    this.learned = Caffeine.newBuilder()
+        .maximumSize(learnedMaxSize)
+        .expireAfterWrite(learnedTtl)
+        .executor(executor)
+        .build();
+  }
+
+  /**
+   * IPアドレスのタイムゾーンを検索 該当するプレフィックスがなければnullを返す
+   * 学習した対応より長い読み込み済みのプレフィックスに該当する場合はそちらを優先する
+   */
+  String lookup(byte[] address) {
+    int learnPrefix = address.length == 4 ? IPV4_LEARN_PREFIX : IPV6_LEARN_PREFIX;
+    String specific;
+    String general;
+    lock.readLock().lock();
+    try {
+      Trie trie = trieFor(address);
+      specific = trie.longestMatch(address, learnPrefix + 1);
+      general = specific != null ? specific : trie.longestMatch(address, 0);
+    } finally {
+      lock.readLock().unlock();
+    }
+    String zone = specific;
+    if (zone == null) {
+      String learnedZone = learned.getIfPresent(learnedPrefix(address));
+      zone = learnedZone != null ? learnedZone : general;
+    }
+    (zone != null ? hits : misses).increment();
+    return zone;
+  }
+
+  /**
+   * API応答からIPアドレスの属するプレフィックスとタイムゾーンの対応を学習
+   * 上限を超えた場合や有効期限を過ぎた場合は破棄され、次の問い合わせで学習し直す
+   */
+  void learn(byte[] address, String zone) {
+    learned.put(learnedPrefix(address), zoneNames.computeIfAbsent(zone, name -> name));
+  }
+
+  /**
+   * プレフィックスとタイムゾーンの対応を読み込み済みのトライに登録
+   */
+  void insert(byte[] address, int prefixLength, String zone) {
+    lock.writeLock().lock();
+    try {
+      String shared = zoneNames.computeIfAbsent(zone, name -> name);
+      trieFor(address).insert(address, prefixLength, shared);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * プレフィックスファイルを読み込む
+   * 1行に「CIDR タイムゾーン」を空白またはカンマ区切りで記述し、#以降はコメントとして扱う
+   *
+   * @return 登録したプレフィックス数
+   */
+  int preload(Path file) throws IOException {
+    int loaded = 0;
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      int lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        int comment = line.indexOf('#');
+        String entry = (comment >= 0 ? line.substring(0, comment) : line).trim();
+        if (entry.isEmpty()) {
+          continue;
+        }
+        String[] parts = entry.split("[\\s,]+");
+        if (parts.length != 2 || !insertCidr(parts[0], parts[1])) {
+          logger.warn("Skipping invalid prefix entry at {}:{}: {}", file, lineNumber, line);
+          continue;
+        }
+        loaded++;
+      }
+    }
+    logger.info("Loaded {} IP prefixes from {}", loaded, file);
+    return loaded;
+  }
+
+  private boolean insertCidr(String cidr, String zone) {
+    int slash = cidr.indexOf('/');
+    byte[] address = parseAddress(slash >= 0 ? cidr.substring(0, slash) : cidr);
+    if (address == null || !isValidZone(zone)) {
+      return false;
+    }
+    int prefixLength = address.length * 8;
+    if (slash >= 0) {
+      try {
+        prefixLength = Integer.parseInt(cidr.substring(slash + 1));
+      } catch (NumberFormatException e) {
+        return false;
+      }
+    }
+    if (prefixLength < 0 || prefixLength > address.length * 8) {
+      return false;
+    }
+    insert(address, prefixLength, zone);
+    return true;
+  }
+
+  private static boolean isValidZone(String zone) {
+    try {
+      ZoneId.of(zone);
+      return true;
+    } catch (DateTimeException e) {
+      return false;
+    }
+  }
+
+  /**
+   * キャッシュから応答した回数
+   */
+  long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * 該当するプレフィックスがなかった回数
+   */
+  long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * 登録済みのプレフィックス数（読み込み済みと学習済みの合計）
+   */
+  int size() {
+    return preloadedSize() + learnedSize();
+  }
+
+  /**
+   * 読み込み済みのプレフィックス数
+   */
+  int preloadedSize() {
+    lock.readLock().lock();
+    try {
+      return ipv4.size + ipv6.size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 学習済みの対応の数
+   */
+  int learnedSize() {
+    learned.cleanUp();
+    return (int) learned.estimatedSize();
+  }
+
+  /**
+   * IPアドレスが属する学習単位のプレフィックス（/24・/48）を表すキー
+   */
+  static String learnedPrefix(byte[] address) {
+    int bytes = (address.length == 4 ? IPV4_LEARN_PREFIX : IPV6_LEARN_PREFIX) / 8;
+    return HexFormat.of().formatHex(address, 0, bytes);
+  }
+
+  private Trie trieFor(byte[] address) {
+    return address.length == 4 ? ipv4 : ipv6;
+  }
+
+  /**
+   * IPアドレスのリテラルをバイト列に変換 リテラルでない場合はnullを返す
+   * ホスト名の名前解決は行わない IPv4射影アドレスはIPv4として扱う
+   */
+  static byte[] parseAddress(String value) {
+    if (value == null || value.isEmpty()) {
+      return null;
+    }
+    if (value.indexOf(':') < 0) {
+      return parseIpv4(value);
+    }
+    if (value.indexOf('%') >= 0) {
+      return null;
+    }
+    try {
+      // コロンを含む文字列はIPv6リテラルとして解釈され、名前解決は行われない
+      return InetAddress.getByName(value).getAddress();
+    } catch (UnknownHostException e) {
+      return null;
+    }
+  }
+
+  private static byte[] parseIpv4(String value) {
+    byte[] address = new byte[4];
+    int octet = 0;
+    int current = -1;
+    for (int i = 0; i <= value.length(); i++) {
+      char c = i < value.length() ? value.charAt(i) : '.';
+      if (c == '.') {
+        if (current < 0 || octet >= 4) {
+          return null;
+        }
+        address[octet++] = (byte) current;
+        current = -1;
+      } else if (c >= '0' && c <= '9') {
+        current = (current < 0 ? 0 : current * 10) + (c - '0');
+        if (current > 255) {
+          return null;
+        }
+      } else {
+        return null;
+      }
+    }
+    return octet == 4 ? address : null;
+  }
+
+  /**
+   * 配列で表現した二分トライ ノード0が根で、子がない場合は0を格納する
+   */
+  private static final class Trie {
+
+    private int[] zero = new int[64];
+    private int[] one = new int[64];
+    private String[] zones = new String[64];
+    private int nodes = 1;
+    private int size;
+
+    void insert(byte[] address, int prefixLength, String zone) {
+      int node = 0;
+      for (int bit = 0; bit < prefixLength; bit++) {
+        int[] children = bitAt(address, bit) == 0 ? zero : one;
+        int child = children[node];
+        if (child == 0) {
+          child = allocate();
+          // allocateで配列が置き換わる可能性があるため参照し直す
+          (bitAt(address, bit) == 0 ? zero : one)[node] = child;
+        }
+        node = child;
+      }
+      if (zones[node] == null) {
+        size++;
+      }
+      zones[node] = zone;
+    }
+
+    /**
+     * 最長一致するプレフィックスのタイムゾーン minLength未満のプレフィックスしか該当しなければnull
+     */
+    String longestMatch(byte[] address, int minLength) {
+      String match = minLength == 0 ? zones[0] : null;
+      int node = 0;
+      int bits = address.length * 8;
+      for (int bit = 0; bit < bits; bit++) {
+        node = (bitAt(address, bit) == 0 ? zero : one)[node];
+        if (node == 0) {
+          break;
+        }
+        if (zones[node] != null && bit + 1 >= minLength) {
+          match = zones[node];
+        }
+      }
+      return match;
+    }
+
+    private int allocate() {
+      if (nodes == zones.length) {
+        int capacity = nodes * 2;
+        zero = Arrays.copyOf(zero, capacity);
+        one = Arrays.copyOf(one, capacity);
+        zones = Arrays.copyOf(zones, capacity);
+      }
+      return nodes++;
+    }
+
+    private static int bitAt(byte[] address, int bit) {
+      return (address[bit >>> 3] >>> (7 - (bit & 7))) & 1;
+    }
+  }
+}
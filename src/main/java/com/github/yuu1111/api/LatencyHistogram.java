@@ -0,0 +1,117 @@
+package com.github.yuu1111.api;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ローリング窓のレイテンシヒストグラム
+ * マイクロ秒単位の値を2のべき乗ごとに8分割した対数バケットに記録し、相対誤差は約12.5%以内に収まる
+ * 現在と直前の2つの窓を集計するため、古い計測値は窓2つ分の時間で消える
+ */
+final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_MAGNITUDE = 40;
+  private static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+  private static final long MAX_VALUE = (1L << MAX_MAGNITUDE) - 1;
+
+  private final long windowNanos;
+  private volatile Window current;
+  private volatile Window previous;
+
+  LatencyHistogram(Duration window) {
+    this.windowNanos = window.toNanos();
+    long now = System.nanoTime();
+    this.current = new Window(now);
+    this.previous = new Window(now);
+  }
+
+  /**
+   * レイテンシを記録
+   */
+  void record(long nanos) {
+    long micros = Math.min(MAX_VALUE, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    rotate(System.nanoTime()).counts.incrementAndGet(indexOf(micros));
+  }
+
+  /**
+   * 指定したパーセンタイルのレイテンシ（ナノ秒）を取得
+   * 計測数がminSamples未満の場合は-1を返す
+   */
+  long percentile(double quantile, long minSamples) {
+    Window latest = rotate(System.nanoTime());
+    Window older = previous;
+    long[] counts = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = latest.counts.get(i) + older.counts.get(i);
+      total += counts[i];
+    }
+    if (total == 0 || total < minSamples) {
+      return -1;
+    }
+
+    long rank = (long) Math.ceil(quantile * total);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return TimeUnit.MICROSECONDS.toNanos(upperBoundOf(i));
+      }
+    }
+    return TimeUnit.MICROSECONDS.toNanos(MAX_VALUE);
+  }
+
+  /**
+   * 窓の期限が切れていれば切り替える 2窓分以上経過していれば直前の窓も破棄する
+   */
+  private Window rotate(long now) {
+    Window window = current;
+    if (now - window.start < windowNanos) {
+      return window;
+    }
+    synchronized (this) {
+      window = current;
+      if (now - window.start >= windowNanos) {
+        previous = now - window.start >= 2 * windowNanos ? new Window(now) : window;
+        window = new Window(now);
+        current = window;
+      }
+      return window;
+    }
+  }
+
+  static int indexOf(long micros) {
+    int magnitude = 63 - Long.numberOfLeadingZeros(micros | 1);
+    if (magnitude < SUB_BUCKET_BITS) {
+      return (int) micros;
+    }
+    int shift = magnitude - SUB_BUCKET_BITS;
+    int sub = (int) (micros >>> shift) & (SUB_BUCKETS - 1);
+    return (shift + 1) * SUB_BUCKETS + sub;
+  }
+
+  static long upperBoundOf(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    return lower + (1L << shift) - 1;
+  }
+
+  /**
+   * 1つの計測窓
+   */
+  private static final class Window {
+
+    private final long start;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    Window(long start) {
+      this.start = start;
+    }
+  }
+}
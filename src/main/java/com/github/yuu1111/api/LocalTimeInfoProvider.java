@@ -0,0 +1,133 @@
+package com.github.yuu1111.api;
+
+import com.github.yuu1111.api.WorldTimeAPIClient.TimeInfo;
+import com.github.yuu1111.services.zone.ZoneResolver;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ローカルのtzdbから時刻情報を計算するプロバイダー
+ * WorldTimeAPIと同じフィールドをjava.time.ZoneRulesから導出するため、ネットワークを必要としない
+ */
+public class LocalTimeInfoProvider implements TimeInfoProvider {
+
+  /**
+   * WorldTimeAPIと同じ形式（マイクロ秒・数値オフセット）の日時フォーマット
+   */
+  private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern(
+      "yyyy-MM-dd'T'HH:mm:ss.SSSSSSxxx", Locale.ROOT);
+  private static final DateTimeFormatter TRANSITION_FORMATTER = DateTimeFormatter.ofPattern(
+      "yyyy-MM-dd'T'HH:mm:ssxxx", Locale.ROOT);
+  private static final DateTimeFormatter OFFSET_FORMATTER = DateTimeFormatter.ofPattern("xxx",
+      Locale.ROOT);
+  private static final DateTimeFormatter ABBREVIATION_FORMATTER = DateTimeFormatter.ofPattern(
+      "zzz", Locale.ENGLISH);
+
+  private final Clock clock;
+
+  /**
+   * コンストラクタ
+   */
+  public LocalTimeInfoProvider() {
+    this(Clock.systemUTC());
+  }
+
+  /**
+   * コンストラクタ（時計指定）
+   */
+  public LocalTimeInfoProvider(Clock clock) {
+    this.clock = clock;
+  }
+
+  @Override
+  public TimeInfo getTimeSync(String timezone) throws IOException {
+    ZoneId zoneId = ZoneResolver.shared().resolve(timezone);
+    if (zoneId == null) {
+      throw new TimezoneNotFoundException("Timezone not found: %s".formatted(timezone));
+    }
+    return getTimeInfo(zoneId, clock.instant());
+  }
+
+  @Override
+  public CompletableFuture<TimeInfo> getCurrentTime(String timezone) {
+    try {
+      return CompletableFuture.completedFuture(getTimeSync(timezone));
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  @Override
+  public List<String> getTimezonesSync() {
+    return ZoneId.getAvailableZoneIds().stream().sorted().toList();
+  }
+
+  @Override
+  public CompletableFuture<List<String>> getAvailableTimezones() {
+    return CompletableFuture.completedFuture(getTimezonesSync());
+  }
+
+  /**
+   * 指定した時点の時刻情報を計算
+   */
+  public TimeInfo getTimeInfo(ZoneId zoneId, Instant instant) {
+    ZoneRules rules = zoneId.getRules();
+    ZonedDateTime dateTime = instant.atZone(zoneId);
+
+    // DST期間中のみ開始・終了日時を持つ
+    boolean dst = rules.isDaylightSavings(instant);
+    Duration dstOffset = rules.getDaylightSavings(instant);
+    String dstFrom = null;
+    String dstUntil = null;
+    if (dst) {
+      ZoneOffsetTransition previous = rules.previousTransition(instant);
+      ZoneOffsetTransition next = rules.nextTransition(instant);
+      dstFrom = previous != null ? formatTransition(previous) : null;
+      dstUntil = next != null ? formatTransition(next) : null;
+    }
+
+    return new TimeInfo(zoneId.getId(), dateTime.format(DATETIME_FORMATTER),
+        instant.atOffset(ZoneOffset.UTC).format(DATETIME_FORMATTER),
+        OFFSET_FORMATTER.format(dateTime), instant.getEpochSecond(), dst,
+        (int) dstOffset.getSeconds(), dstFrom, dstUntil,
+        rules.getStandardOffset(instant).getTotalSeconds(), abbreviation(dateTime),
+        dateTime.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR),
+        dateTime.getDayOfWeek().getValue() % 7, // WorldTimeAPIは日曜日を0とする
+        dateTime.getDayOfYear(), null, TimeInfo.Source.LOCAL);
+  }
+
+  /**
+   * 切り替え日時をUTCでフォーマット
+   */
+  private String formatTransition(ZoneOffsetTransition transition) {
+    return transition.getInstant().atOffset(ZoneOffset.UTC).format(TRANSITION_FORMATTER);
+  }
+
+  /**
+   * タイムゾーンの略称を取得
+   * 略称を持たないゾーンは "GMT+03:00" ではなくWorldTimeAPIと同じ "+03" 形式で返す
+   */
+  private String abbreviation(ZonedDateTime dateTime) {
+    String name = dateTime.format(ABBREVIATION_FORMATTER);
+    if (name.startsWith("GMT") && name.length() > 3) {
+      int totalSeconds = dateTime.getOffset().getTotalSeconds();
+      int minutes = Math.abs(totalSeconds) / 60 % 60;
+      String hours = "%s%02d".formatted(totalSeconds < 0 ? "-" : "+",
+          Math.abs(totalSeconds) / 3600);
+      return minutes == 0 ? hours : hours + "%02d".formatted(minutes);
+    }
+    return name;
+  }
+}
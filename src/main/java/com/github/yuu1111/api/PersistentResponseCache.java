@@ -0,0 +1,101 @@
+package com.github.yuu1111.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.yuu1111.json.JsonSupport;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 変化の少ないAPI応答を保存する永続キャッシュ
+ * 起動時にファイルから読み込み、更新のたびに一時ファイル経由でアトミックに書き戻す
+ * 条件付きリクエスト用にETagとLast-Modifiedも保持する
+ */
+final class PersistentResponseCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(PersistentResponseCache.class);
+
+  private static final TypeReference<Map<String, Entry>> ENTRIES_TYPE = new TypeReference<>() {
+  };
+
+  private final Path file;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  PersistentResponseCache(Path file) {
+    this.file = file;
+    load();
+  }
+
+  /**
+   * 保存された応答を取得
+   */
+  Entry get(String key) {
+    return entries.get(key);
+  }
+
+  /**
+   * 応答を保存してファイルに書き戻す
+   */
+  void put(String key, Entry entry) {
+    entries.put(key, entry);
+    persist();
+  }
+
+  private void load() {
+    if (!Files.isRegularFile(file)) {
+      return;
+    }
+    try {
+      entries.putAll(JsonSupport.mapper().readValue(file.toFile(), ENTRIES_TYPE));
+      logger.info("Loaded {} cached API responses from {}", entries.size(), file);
+    } catch (IOException e) {
+      logger.warn("Ignoring unreadable response cache {}: {}", file, e.getMessage());
+    }
+  }
+
+  private synchronized void persist() {
+    try {
+      Path parent = file.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+      JsonSupport.mapper().writeValue(temp.toFile(), entries);
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      logger.warn("Failed to persist response cache {}: {}", file, e.getMessage());
+    }
+  }
+
+  /**
+   * 保存された応答
+   *
+   * @param body         応答ボディ
+   * @param etag         ETagヘッダー
+   * @param lastModified Last-Modifiedヘッダー
+   * @param fetchedAt    最後に取得・検証した時刻（エポックミリ秒）
+   */
+  record Entry(String body, String etag, String lastModified, long fetchedAt) {
+
+    /**
+     * 最大保持期間内かどうか
+     */
+    boolean isFresh(Duration maxAge, long nowMillis) {
+      return nowMillis - fetchedAt < maxAge.toMillis();
+    }
+
+    /**
+     * 304応答で検証された場合の更新
+     */
+    Entry revalidated(long nowMillis) {
+      return new Entry(body, etag, lastModified, nowMillis);
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package com.github.yuu1111.api;
+
+import com.github.yuu1111.api.WorldTimeAPIClient.TimeInfo;
+import com.github.yuu1111.resilience.CircuitBreaker;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * サーキットブレーカー付きの時刻情報プロバイダー
+ * リモートの取得元がエラーまたは遅延の閾値を超えるとブレーカーが開き、OPEN中はローカルのtzdbで応答する
+ * HALF_OPEN状態の試行呼び出しが成功すればリモートの経路に戻る
+ */
+public class ResilientTimeInfoProvider implements TimeInfoProvider {
+
+  private static final Logger logger = LoggerFactory.getLogger(ResilientTimeInfoProvider.class);
+
+  /**
+   * WorldTimeAPI向けのデフォルト設定 1秒を超える応答は遅延として扱う
+   */
+  public static final CircuitBreaker.Config DEFAULT_CIRCUIT_BREAKER_CONFIG =
+      CircuitBreaker.Config.builder()
+          .slowCallDuration(Duration.ofSeconds(1))
+          .openDuration(Duration.ofSeconds(30))
+          .build();
+
+  private final TimeInfoProvider remote;
+  private final TimeInfoProvider local;
+  private final CircuitBreaker circuitBreaker;
+  private final AtomicLong fallbackCount = new AtomicLong();
+
+  /**
+   * コンストラクタ
+   */
+  public ResilientTimeInfoProvider(TimeInfoProvider remote) {
+    this(remote, new LocalTimeInfoProvider(), DEFAULT_CIRCUIT_BREAKER_CONFIG);
+  }
+
+  /**
+   * コンストラクタ（代替プロバイダー・ブレーカー設定指定）
+   */
+  public ResilientTimeInfoProvider(TimeInfoProvider remote, TimeInfoProvider local,
+      CircuitBreaker.Config config) {
+    this.remote = remote;
+    this.local = local;
+    this.circuitBreaker = new CircuitBreaker("worldtimeapi", config);
+  }
+
+  @Override
+  public TimeInfo getTimeSync(String timezone) throws IOException {
+    if (!circuitBreaker.tryAcquirePermission()) {
+      return fallback(local.getTimeSync(timezone));
+    }
+
+    long start = System.nanoTime();
+    try {
+      TimeInfo info = remote.getTimeSync(timezone);
+      circuitBreaker.onSuccess(System.nanoTime() - start);
+      return info;
+    } catch (TimezoneNotFoundException e) {
+      // 取得元は正常に応答しているため成功として扱う
+      circuitBreaker.onSuccess(System.nanoTime() - start);
+      throw e;
+    } catch (IOException | RuntimeException e) {
+      circuitBreaker.onError(System.nanoTime() - start);
+      logger.warn("Remote time lookup failed for {}, using local tzdb: {}", timezone,
+          e.getMessage());
+      return fallback(local.getTimeSync(timezone));
+    }
+  }
+
+  @Override
+  public CompletableFuture<TimeInfo> getCurrentTime(String timezone) {
+    if (!circuitBreaker.tryAcquirePermission()) {
+      return local.getCurrentTime(timezone).thenApply(this::fallback);
+    }
+
+    long start = System.nanoTime();
+    return remote.getCurrentTime(timezone)
+        .handle((info, error) -> {
+          long duration = System.nanoTime() - start;
+          Throwable cause = unwrap(error);
+          if (cause == null) {
+            circuitBreaker.onSuccess(duration);
+            return CompletableFuture.completedFuture(info);
+          }
+          if (cause instanceof TimezoneNotFoundException) {
+            circuitBreaker.onSuccess(duration);
+            return CompletableFuture.<TimeInfo>failedFuture(cause);
+          }
+          circuitBreaker.onError(duration);
+          logger.warn("Remote time lookup failed for {}, using local tzdb: {}", timezone,
+              cause.getMessage());
+          return local.getCurrentTime(timezone).thenApply(this::fallback);
+        })
+        .thenCompose(Function.identity());
+  }
+
+  @Override
+  public List<String> getTimezonesSync() throws IOException {
+    if (!circuitBreaker.tryAcquirePermission()) {
+      fallbackCount.incrementAndGet();
+      return local.getTimezonesSync();
+    }
+
+    long start = System.nanoTime();
+    try {
+      List<String> timezones = remote.getTimezonesSync();
+      circuitBreaker.onSuccess(System.nanoTime() - start);
+      return timezones;
+    } catch (IOException | RuntimeException e) {
+      circuitBreaker.onError(System.nanoTime() - start);
+      logger.warn("Remote timezone list failed, using local tzdb: {}", e.getMessage());
+      fallbackCount.incrementAndGet();
+      return local.getTimezonesSync();
+    }
+  }
+
+  @Override
+  public CompletableFuture<List<String>> getAvailableTimezones() {
+    if (!circuitBreaker.tryAcquirePermission()) {
+      fallbackCount.incrementAndGet();
+      return local.getAvailableTimezones();
+    }
+
+    long start = System.nanoTime();
+    return remote.getAvailableTimezones()
+        .handle((timezones, error) -> {
+          long duration = System.nanoTime() - start;
+          Throwable cause = unwrap(error);
+          if (cause == null) {
+            circuitBreaker.onSuccess(duration);
+            return CompletableFuture.completedFuture(timezones);
+          }
+          circuitBreaker.onError(duration);
+          logger.warn("Remote timezone list failed, using local tzdb: {}", cause.getMessage());
+          fallbackCount.incrementAndGet();
+          return local.getAvailableTimezones();
+        })
+        .thenCompose(Function.identity());
+  }
+
+  /**
+   * ブレーカーの状態
+   */
+  public CircuitBreaker.Metrics getCircuitBreakerMetrics() {
+    return circuitBreaker.getMetrics();
+  }
+
+  /**
+   * ローカルのtzdbで代替した回数
+   */
+  public long getFallbackCount() {
+    return fallbackCount.get();
+  }
+
+  private TimeInfo fallback(TimeInfo info) {
+    fallbackCount.incrementAndGet();
+    return info.withSource(TimeInfo.Source.LOCAL_FALLBACK);
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null
+        ? error.getCause() : error;
+  }
+}
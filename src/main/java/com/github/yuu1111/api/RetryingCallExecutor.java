@@ -0,0 +1,418 @@
+package com.github.yuu1111.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 非同期リトライ実行
+ * OkHttpのenqueueで呼び出し、再試行はスケジューラで予約するため待機中にスレッドを占有しない
+ * 待機時間はdecorrelated jitterで決定し、呼び出し全体の期限（deadline）を超える再試行は行わない
+ * 429応答のRetry-Afterヘッダーを尊重する
+ * ヘッジが有効な場合、GETリクエストが遅延の閾値内に応答しなければ2つ目の試行を送信し、先に得た応答を使う
+ * 停止後は再試行を予約できないため、未完了の試行は待たせずに失敗させる
+ */
+final class RetryingCallExecutor {
+
+  private static final Logger logger = LoggerFactory.getLogger(RetryingCallExecutor.class);
+
+  private final OkHttpClient httpClient;
+  private final ScheduledExecutorService scheduler;
+  private final int maxRetries;
+  private final long baseDelayNanos;
+  private final long maxDelayNanos;
+  private final long deadlineNanos;
+  private final HedgePolicy hedgePolicy;
+
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder attempts = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder hedges = new LongAdder();
+  private final LongAdder hedgeWins = new LongAdder();
+  private final Set<Attempt> pending = ConcurrentHashMap.newKeySet();
+
+  RetryingCallExecutor(OkHttpClient httpClient, ScheduledExecutorService scheduler,
+      WorldTimeAPIConfig config) {
+    this.httpClient = httpClient;
+    this.scheduler = scheduler;
+    this.maxRetries = config.maxRetries();
+    this.baseDelayNanos = config.retryBaseDelay().toNanos();
+    this.maxDelayNanos = config.retryMaxDelay().toNanos();
+    this.deadlineNanos = config.callDeadline().toNanos();
+    this.hedgePolicy = config.hedgingEnabled() ? new HedgePolicy(config) : null;
+  }
+
+  /**
+   * リクエストを非同期に実行
+   * 成功応答・リトライ対象外の応答・最後の試行の応答で完了する
+   */
+  CompletableFuture<Response> execute(Request request) {
+    calls.increment();
+    long deadline = System.nanoTime() + deadlineNanos;
+    Attempt attempt = new Attempt(request, deadline);
+    attempt.start();
+    if (hedgePolicy == null || !"GET".equals(request.method())) {
+      return attempt.result;
+    }
+
+    hedgePolicy.onCall();
+    long delay = hedgePolicy.delayNanos();
+    if (delay < 0 || delay >= deadlineNanos || scheduler.isShutdown()) {
+      return attempt.result;
+    }
+    return new HedgedCall(request, deadline, attempt, delay).result;
+  }
+
+  /**
+   * 停止 再試行の予約を止め、完了していない試行をすべて失敗させる
+   */
+  void shutdown() {
+    scheduler.shutdownNow();
+    IOException shutdown = new IOException("WorldTimeAPI client is shut down");
+    for (Attempt attempt : pending) {
+      attempt.fail(shutdown);
+    }
+  }
+
+  /**
+   * 論理的な呼び出し数
+   */
+  long getCallCount() {
+    return calls.sum();
+  }
+
+  /**
+   * HTTPリクエストの送信回数
+   */
+  long getAttemptCount() {
+    return attempts.sum();
+  }
+
+  /**
+   * 再試行の回数
+   */
+  long getRetryCount() {
+    return retries.sum();
+  }
+
+  /**
+   * 再試行後も失敗した呼び出し数
+   */
+  long getFailureCount() {
+    return failures.sum();
+  }
+
+  /**
+   * ヘッジの送信回数
+   */
+  long getHedgeCount() {
+    return hedges.sum();
+  }
+
+  /**
+   * ヘッジが先に応答した回数
+   */
+  long getHedgeWinCount() {
+    return hedgeWins.sum();
+  }
+
+  /**
+   * 現在のヘッジ遅延（ナノ秒） ヘッジが無効か計測数が足りない場合は-1を返す
+   */
+  long getHedgeDelayNanos() {
+    return hedgePolicy != null ? hedgePolicy.delayNanos() : -1;
+  }
+
+  /**
+   * ヘッジ付きの呼び出し
+   * 最初の試行が遅延内に完了しなければ予算の範囲で2つ目の試行を送信し、先に使える応答を得た方を結果とする
+   * 一方が失敗した場合はもう一方の結果を待つ
+   */
+  private final class HedgedCall {
+
+    private final CompletableFuture<Response> result = new CompletableFuture<>();
+    private final Request request;
+    private final long deadline;
+    private final Attempt primary;
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private final AtomicBoolean settled = new AtomicBoolean();
+    private final ScheduledFuture<?> timer;
+    private volatile Attempt hedge;
+
+    HedgedCall(Request request, long deadline, Attempt primary, long delayNanos) {
+      this.request = request;
+      this.deadline = deadline;
+      this.primary = primary;
+      join(primary);
+      this.timer = scheduleHedge(delayNanos);
+      result.whenComplete((response, error) -> {
+        if (timer != null) {
+          timer.cancel(false);
+        }
+        primary.result.cancel(true);
+        Attempt started = hedge;
+        if (started != null) {
+          started.result.cancel(true);
+        }
+      });
+    }
+
+    /**
+     * ヘッジの送信を予約 停止済みの場合は予約せず、最初の試行の結果だけを待つ
+     */
+    private ScheduledFuture<?> scheduleHedge(long delayNanos) {
+      try {
+        return scheduler.schedule(this::startHedge, delayNanos, TimeUnit.NANOSECONDS);
+      } catch (RejectedExecutionException e) {
+        return null;
+      }
+    }
+
+    private void startHedge() {
+      if (result.isDone() || !hedgePolicy.tryAcquire()) {
+        return;
+      }
+      pending.incrementAndGet();
+      hedges.increment();
+      Attempt attempt = new Attempt(request, deadline);
+      hedge = attempt;
+      join(attempt);
+      logger.debug("Hedging {} after {}ms", request.url(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - primary.startedAt));
+      attempt.start();
+      if (result.isDone()) {
+        attempt.result.cancel(true);
+      }
+    }
+
+    private void join(Attempt attempt) {
+      attempt.result.whenComplete((response, error) -> {
+        boolean last = pending.decrementAndGet() == 0;
+        boolean usable = response != null
+            && (response.isSuccessful() || !isRetryable(response.code()));
+        if (!usable && !last) {
+          // もう一方の試行の結果を待つ
+          if (response != null) {
+            response.close();
+          }
+          return;
+        }
+
+        // 結果を完了する前に勝者を確定して計測値を更新し、呼び出し元が結果を受け取った時点でメトリクスに反映済みにする
+        // どちらも失敗して最後に完了したのがヘッジの場合は勝ちとして数えない
+        if (!settled.compareAndSet(false, true)) {
+          if (response != null) {
+            response.close();
+          }
+          return;
+        }
+        if (attempt != primary && usable) {
+          hedgeWins.increment();
+          // 打ち切られた最初の試行の経過時間も記録し、遅い応答がヒストグラムから抜け落ちないようにする
+          hedgePolicy.record(System.nanoTime() - primary.startedAt);
+        }
+        if (error != null) {
+          result.completeExceptionally(error);
+        } else {
+          result.complete(response);
+        }
+      });
+    }
+  }
+
+  /**
+   * 1回の呼び出しの状態 試行回数・前回の待機時間・期限を保持する
+   */
+  private final class Attempt implements Callback {
+
+    private final Request request;
+    private final long deadline;
+    private final CompletableFuture<Response> result = new CompletableFuture<>();
+    private volatile Call call;
+    private int retryCount;
+    private long previousDelayNanos = baseDelayNanos;
+    private volatile long startedAt;
+
+    Attempt(Request request, long deadline) {
+      this.request = request;
+      this.deadline = deadline;
+      pending.add(this);
+      result.whenComplete((response, error) -> {
+        pending.remove(this);
+        if (error instanceof CancellationException && call != null) {
+          call.cancel();
+        }
+      });
+    }
+
+    /**
+     * 試行を失敗させ、実行中のHTTP呼び出しを取り消す
+     */
+    void fail(IOException e) {
+      if (result.completeExceptionally(e)) {
+        failures.increment();
+        Call current = call;
+        if (current != null) {
+          current.cancel();
+        }
+      }
+    }
+
+    void start() {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        failures.increment();
+        result.completeExceptionally(new InterruptedIOException("Deadline exceeded"));
+        return;
+      }
+      Call next = httpClient.newCall(request);
+      // 1回の試行が残りの期限を超えないようにする
+      next.timeout().timeout(remaining, TimeUnit.NANOSECONDS);
+      call = next;
+      if (result.isCancelled()) {
+        next.cancel();
+        return;
+      }
+      attempts.increment();
+      startedAt = System.nanoTime();
+      next.enqueue(this);
+    }
+
+    @Override
+    public void onResponse(Call call, Response response) {
+      if (hedgePolicy != null) {
+        hedgePolicy.record(System.nanoTime() - startedAt);
+      }
+      if (result.isDone()) {
+        response.close();
+        return;
+      }
+      if (response.isSuccessful() || !isRetryable(response.code())) {
+        complete(response);
+        return;
+      }
+
+      long delay = nextDelay(response);
+      if (!scheduleRetry(delay)) {
+        failures.increment();
+        complete(response);
+        return;
+      }
+      logger.debug("Retrying {} after {} ({}ms)", request.url(), response.code(),
+          TimeUnit.NANOSECONDS.toMillis(delay));
+      response.close();
+    }
+
+    /**
+     * 応答で完了 停止などで先に完了していた場合は応答を閉じる
+     */
+    private void complete(Response response) {
+      if (!result.complete(response)) {
+        response.close();
+      }
+    }
+
+    @Override
+    public void onFailure(Call call, IOException e) {
+      if (result.isDone()) {
+        return;
+      }
+      long delay = nextDelay(null);
+      if (!scheduleRetry(delay)) {
+        failures.increment();
+        result.completeExceptionally(e);
+        return;
+      }
+      logger.debug("Retrying {} after {} ({}ms)", request.url(), e.toString(),
+          TimeUnit.NANOSECONDS.toMillis(delay));
+    }
+
+    /**
+     * 次の試行を予約 試行回数または期限を超える場合はfalseを返す
+     * 停止済みで予約できない場合は試行を失敗させてtrueを返す
+     */
+    private boolean scheduleRetry(long delayNanos) {
+      if (retryCount >= maxRetries || result.isDone()) {
+        return false;
+      }
+      if (System.nanoTime() + delayNanos >= deadline) {
+        return false;
+      }
+      try {
+        scheduler.schedule(this::start, delayNanos, TimeUnit.NANOSECONDS);
+      } catch (RejectedExecutionException e) {
+        fail(new IOException("WorldTimeAPI client is shut down", e));
+        return true;
+      }
+      retryCount++;
+      retries.increment();
+      return true;
+    }
+
+    /**
+     * 待機時間を計算 Retry-Afterがあればそれを優先し、なければdecorrelated jitterを使う
+     */
+    private long nextDelay(Response response) {
+      if (response != null && response.code() == 429) {
+        long retryAfter = parseRetryAfter(response.header("Retry-After"));
+        if (retryAfter >= 0) {
+          return retryAfter;
+        }
+      }
+      // sleep = min(cap, random(base, previous * 3))
+      long upper = Math.max(baseDelayNanos + 1, Math.min(maxDelayNanos, previousDelayNanos * 3));
+      long delay = ThreadLocalRandom.current().nextLong(baseDelayNanos, upper);
+      previousDelayNanos = delay;
+      return delay;
+    }
+  }
+
+  /**
+   * 429・5xx応答のみ再試行する
+   */
+  static boolean isRetryable(int code) {
+    return code == 429 || code >= 500;
+  }
+
+  /**
+   * Retry-Afterヘッダー（秒数またはHTTP日付）をナノ秒に変換 解釈できない場合は-1を返す
+   */
+  static long parseRetryAfter(String value) {
+    if (value == null || value.isBlank()) {
+      return -1;
+    }
+    try {
+      return TimeUnit.SECONDS.toNanos(Math.max(0, Long.parseLong(value.trim())));
+    } catch (NumberFormatException ignored) {
+    }
+    try {
+      ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+      return Math.max(0, Duration.between(ZonedDateTime.now(at.getZone()), at).toNanos());
+    } catch (DateTimeParseException e) {
+      return -1;
+    }
+  }
+}
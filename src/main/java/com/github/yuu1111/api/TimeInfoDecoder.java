@@ -0,0 +1,112 @@
+package com.github.yuu1111.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.yuu1111.api.WorldTimeAPIClient.TimeInfo;
+import com.github.yuu1111.json.JsonSupport;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WorldTimeAPI応答のストリーミングデコーダー
+ * 応答ボディを文字列やMapに変換せず、JsonParserでフィールドを直接読み取る
+ * 数値は型を問わず読み取るため、IntegerとLongの違いで失敗しない
+ */
+final class TimeInfoDecoder {
+
+  private static final JsonFactory FACTORY = JsonSupport.mapper().getFactory();
+
+  private TimeInfoDecoder() {
+  }
+
+  /**
+   * 時刻情報をデコード
+   */
+  static TimeInfo decodeTimeInfo(InputStream input) throws IOException {
+    String timezone = null;
+    String datetime = null;
+    String utcDatetime = null;
+    String utcOffset = null;
+    Long unixtime = null;
+    Boolean dst = null;
+    Integer dstOffset = null;
+    String dstFrom = null;
+    String dstUntil = null;
+    Integer rawOffset = null;
+    String abbreviation = null;
+    Integer weekNumber = null;
+    Integer dayOfWeek = null;
+    Integer dayOfYear = null;
+    String clientIp = null;
+
+    try (JsonParser parser = FACTORY.createParser(input)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Expected JSON object in time response");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        JsonToken value = parser.nextToken();
+        switch (field) {
+          case "timezone" -> timezone = text(parser, value);
+          case "datetime" -> datetime = text(parser, value);
+          case "utc_datetime" -> utcDatetime = text(parser, value);
+          case "utc_offset" -> utcOffset = text(parser, value);
+          case "unixtime" -> unixtime = longValue(parser, value);
+          case "dst" -> dst = value == JsonToken.VALUE_NULL ? null : parser.getValueAsBoolean();
+          case "dst_offset" -> dstOffset = intValue(parser, value);
+          case "dst_from" -> dstFrom = text(parser, value);
+          case "dst_until" -> dstUntil = text(parser, value);
+          case "raw_offset" -> rawOffset = intValue(parser, value);
+          case "abbreviation" -> abbreviation = text(parser, value);
+          case "week_number" -> weekNumber = intValue(parser, value);
+          case "day_of_week" -> dayOfWeek = intValue(parser, value);
+          case "day_of_year" -> dayOfYear = intValue(parser, value);
+          case "client_ip" -> clientIp = text(parser, value);
+          default -> parser.skipChildren();
+        }
+      }
+    }
+
+    if (unixtime == null) {
+      throw new IOException("Missing unixtime in time response");
+    }
+    return new TimeInfo(timezone, datetime, utcDatetime, utcOffset, unixtime, dst, dstOffset,
+        dstFrom, dstUntil, rawOffset, abbreviation, weekNumber, dayOfWeek, dayOfYear, clientIp);
+  }
+
+  /**
+   * タイムゾーンリストをデコード
+   */
+  static List<String> decodeTimezones(InputStream input) throws IOException {
+    List<String> timezones = new ArrayList<>(512);
+    try (JsonParser parser = FACTORY.createParser(input)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new IOException("Expected JSON array in timezone list response");
+      }
+      JsonToken token;
+      while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+        if (token == JsonToken.VALUE_STRING) {
+          timezones.add(parser.getText());
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    return timezones;
+  }
+
+  private static String text(JsonParser parser, JsonToken token) throws IOException {
+    return token == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+  }
+
+  private static Long longValue(JsonParser parser, JsonToken token) throws IOException {
+    return token.isNumeric() ? parser.getValueAsLong() : null;
+  }
+
+  private static Integer intValue(JsonParser parser, JsonToken token) throws IOException {
+    return token.isNumeric() ? parser.getValueAsInt() : null;
+  }
+}
@@ -0,0 +1,33 @@
+package com.github.yuu1111.api;
+
+import com.github.yuu1111.api.WorldTimeAPIClient.TimeInfo;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 時刻情報プロバイダー
+ * WorldTimeAPIとローカルのtzdbのどちらからでも同じ形式の時刻情報を取得できるようにする
+ */
+public interface TimeInfoProvider {
+
+  /**
+   * 同期的に時刻を取得
+   */
+  TimeInfo getTimeSync(String timezone) throws IOException;
+
+  /**
+   * 現在時刻を取得
+   */
+  CompletableFuture<TimeInfo> getCurrentTime(String timezone);
+
+  /**
+   * 同期的にタイムゾーンリストを取得
+   */
+  List<String> getTimezonesSync() throws IOException;
+
+  /**
+   * 利用可能なタイムゾーンのリストを取得
+   */
+  CompletableFuture<List<String>> getAvailableTimezones();
+}
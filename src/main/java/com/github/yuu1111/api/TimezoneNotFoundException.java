@@ -0,0 +1,18 @@
+package com.github.yuu1111.api;
+
+import java.io.IOException;
+import java.io.Serial;
+
+/**
+ * 指定されたタイムゾーンが存在しない場合の例外
+ * 取得元の障害ではないため、サーキットブレーカーの失敗には数えない
+ */
+public class TimezoneNotFoundException extends IOException {
+
+  @Serial
+  private static final long serialVersionUID = 1L;
+
+  public TimezoneNotFoundException(String message) {
+    super(message);
+  }
+}
@@ -1,60 +1,155 @@
 package com.github.yuu1111.api;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * WorldTimeAPI クライアント
  * <a href="http://worldtimeapi.org/">...</a> との連携
+ * すべての呼び出しはOkHttpのenqueueで非同期に実行し、専用の上限付きディスパッチャーで処理する
  */
-public class WorldTimeAPIClient {
+public class WorldTimeAPIClient implements TimeInfoProvider {
 
   private static final Logger logger = LoggerFactory.getLogger(WorldTimeAPIClient.class);
 
-  private static final String BASE_URL = "http://worldtimeapi.org/api";
-  private static final int DEFAULT_TIMEOUT = 5000; // 5秒
-  private static final int MAX_RETRIES = 3;
-  private static final long CACHE_TTL = 60000; // 1分
+  private static final String CATALOGUE_KEY = "timezone";
 
+  private static volatile WorldTimeAPIClient shared;
+
+  private final WorldTimeAPIConfig config;
   private final OkHttpClient httpClient;
-  private final ObjectMapper objectMapper;
-  private final Map<String, CachedResponse> cache;
-  private final boolean cacheEnabled;
+  private final RetryingCallExecutor callExecutor;
+  private final AsyncLoadingCache<String, TimeInfo> cache;
+  private final PersistentResponseCache responseCache;
+  private final IpPrefixCache ipCache;
+  private final AtomicReference<CompletableFuture<Void>> catalogueRefresh =
+      new AtomicReference<>();
+  private volatile DecodedCatalogue catalogue;
 
   /**
    * コンストラクタ
    */
   public WorldTimeAPIClient() {
-    this(true);
+    this(WorldTimeAPIConfig.defaultConfig());
   }
 
   /**
    * コンストラクタ（キャッシュ設定付き）
    */
   public WorldTimeAPIClient(boolean enableCache) {
+    this(WorldTimeAPIConfig.builder().cacheEnabled(enableCache).build());
+  }
+
+  /**
+   * コンストラクタ（設定指定）
+   */
+  public WorldTimeAPIClient(WorldTimeAPIConfig config) {
+    this.config = config;
     this.httpClient = createHttpClient();
-    this.objectMapper = createObjectMapper();
-    this.cache = new ConcurrentHashMap<>();
-    this.cacheEnabled = enableCache;
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "WorldTimeAPI-Retry");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.callExecutor = new RetryingCallExecutor(httpClient, scheduler, config);
+    this.cache = config.cacheEnabled() ? createCache() : null;
+    this.responseCache = config.catalogueFile() != null
+        ? new PersistentResponseCache(config.catalogueFile()) : null;
+
+    this.ipCache = new IpPrefixCache(config.ipPrefixLearnedMaxSize(), config.ipPrefixLearnedTtl());
+    if (config.ipPrefixFile() != null) {
+      preloadIpPrefixes(config.ipPrefixFile());
+    }
+  }
+
+  /**
+   * 起動時の処理を開始 保存済みのタイムゾーン一覧が古い場合はバックグラウンドで更新する
+   */
+  public void start() {
+    if (responseCache != null && !isCatalogueFresh(responseCache.get(CATALOGUE_KEY))) {
+      refreshCatalogue();
+    }
+  }
 
-    // キャッシュクリーンアップタスクを開始
-    if (cacheEnabled) {
-      startCacheCleanup();
+  /**
+   * 共有するクライアントを取得 設定されていなければデフォルト設定のクライアントを作成する
+   */
+  public static WorldTimeAPIClient shared() {
+    WorldTimeAPIClient client = shared;
+    if (client == null) {
+      synchronized (WorldTimeAPIClient.class) {
+        client = shared;
+        if (client == null) {
+          client = new WorldTimeAPIClient();
+          shared = client;
+        }
+      }
+    }
+    return client;
+  }
+
+  /**
+   * 共有するクライアントを設定
+   */
+  public static void install(WorldTimeAPIClient client) {
+    shared = client;
+  }
+
+  /**
+   * クライアントの設定を取得
+   */
+  public WorldTimeAPIConfig config() {
+    return config;
+  }
+
+  /**
+   * IPプレフィックスとタイムゾーンの対応ファイルを読み込む ファイルがなければ学習のみで動作する
+   */
+  private void preloadIpPrefixes(Path file) {
+    if (!Files.isRegularFile(file)) {
+      logger.debug("IP prefix file {} not found, learning prefixes from responses only", file);
+      return;
+    }
+    try {
+      ipCache.preload(file);
+    } catch (IOException e) {
+      logger.warn("Failed to load IP prefix file {}: {}", file, e.getMessage());
     }
   }
 
@@ -62,150 +157,310 @@ public class WorldTimeAPIClient {
    * HTTPクライアントを作成
    */
   private OkHttpClient createHttpClient() {
-    return new OkHttpClient.Builder().connectTimeout(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS)
-        .readTimeout(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS)
-        .writeTimeout(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS)
+    long timeout = config.timeout().toMillis();
+    return new OkHttpClient.Builder().connectTimeout(timeout, TimeUnit.MILLISECONDS)
+        .readTimeout(timeout, TimeUnit.MILLISECONDS)
+        .writeTimeout(timeout, TimeUnit.MILLISECONDS)
         .connectionPool(new ConnectionPool(5, 5, TimeUnit.MINUTES))
-        .addInterceptor(new RetryInterceptor(MAX_RETRIES)).addInterceptor(new LoggingInterceptor())
+        .dispatcher(createDispatcher())
+        .addInterceptor(new LoggingInterceptor())
         .build();
   }
 
   /**
-   * ObjectMapperを作成
+   * 専用のディスパッチャーを作成
+   * 同時実行数はDispatcherのmaxRequestsだけで制限し、スレッドプールには上限を設けない
+   * OkHttpは終了する呼び出しのスレッドから次の呼び出しを投入するため、プールの上限をmaxRequestsに揃えると
+   * 飽和時に投入が拒否され、呼び出しが「executor rejected」で失敗する
+   * スレッド数は実行中の呼び出し数に終了処理中のスレッドを加えた数に収まり、アイドル状態が60秒続くと解放する
+   */
+  private Dispatcher createDispatcher() {
+    AtomicInteger threadNumber = new AtomicInteger();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60,
+        TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+      Thread thread = new Thread(runnable,
+          "WorldTimeAPI-Dispatcher-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    Dispatcher dispatcher = new Dispatcher(executor);
+    dispatcher.setMaxRequests(config.dispatcherMaxRequests());
+    dispatcher.setMaxRequestsPerHost(config.dispatcherMaxRequestsPerHost());
+    return dispatcher;
+  }
+
+  /**
+   * 時刻情報キャッシュを作成
+   * アクセスされたエントリは期限切れ前に非同期でリフレッシュし、リフレッシュ中は古い値を返す
+   * アクセスされないエントリのみがTTLで失効する
    */
-  private ObjectMapper createObjectMapper() {
-    ObjectMapper mapper = new ObjectMapper();
-    mapper.registerModule(new JavaTimeModule());
-    return mapper;
+  private AsyncLoadingCache<String, TimeInfo> createCache() {
+    return Caffeine.newBuilder()
+        .maximumSize(config.cacheMaxSize())
+        .expireAfterWrite(config.cacheTtl())
+        .refreshAfterWrite(config.cacheRefreshAfter())
+        .recordStats()
+        .buildAsync((timezone, executor) -> fetchTime(timezone));
   }
 
   /**
    * 現在時刻を取得
    */
+  @Override
   public CompletableFuture<TimeInfo> getCurrentTime(String timezone) {
-    return CompletableFuture.supplyAsync(() -> {
-      try {
-        return getTimeSync(timezone);
-      } catch (IOException e) {
-        throw new RuntimeException("Failed to get time for timezone: %s".formatted(timezone), e);
-      }
-    });
+    if (cache == null) {
+      return fetchTime(timezone);
+    }
+    return cache.get(timezone);
   }
 
   /**
    * 同期的に時刻を取得
    */
+  @Override
   public TimeInfo getTimeSync(String timezone) throws IOException {
-    // キャッシュチェック
-    if (cacheEnabled) {
-      CachedResponse cached = cache.get(timezone);
-      if (cached != null && !cached.isExpired()) {
-        logger.debug("Cache hit for timezone: {}", timezone);
-        return cached.data;
-      }
-    }
-
-    // APIコール
-    String url = String.format("%s/timezone/%s", BASE_URL, timezone);
-    Request request = new Request.Builder().url(url).get().build();
-
-    try (Response response = httpClient.newCall(request).execute()) {
-      if (!response.isSuccessful()) {
-        handleErrorResponse(response);
-      }
-
-      String body = response.body().string();
-      Map<String, Object> data = objectMapper.readValue(body, new TypeReference<>() {
-      });
-
-      TimeInfo timeInfo = parseTimeInfo(data);
-
-      // キャッシュに保存
-      if (cacheEnabled) {
-        cache.put(timezone, new CachedResponse(timeInfo));
-      }
+    return await(getCurrentTime(timezone));
+  }
 
-      return timeInfo;
-    }
+  /**
+   * APIから時刻を取得 キャッシュのロード・リフレッシュにも使用する
+   */
+  private CompletableFuture<TimeInfo> fetchTime(String timezone) {
+    String url = String.format("%s/timezone/%s", config.baseUrl(), timezone);
+    return fetchTimeInfo(url);
   }
 
   /**
    * 利用可能なタイムゾーンのリストを取得
+   * 永続キャッシュが有効な場合はネットワークを待たずに応答する
+   * 保存済みの一覧が新しければそれを返し、古いか存在しなければJVMのtzdbの一覧を返して裏で更新する
    */
+  @Override
   public CompletableFuture<List<String>> getAvailableTimezones() {
-    return CompletableFuture.supplyAsync(() -> {
+    if (responseCache == null) {
+      String url = "%s/timezone".formatted(config.baseUrl());
+      return fetch(url, TimeInfoDecoder::decodeTimezones);
+    }
+
+    PersistentResponseCache.Entry entry = responseCache.get(CATALOGUE_KEY);
+    if (isCatalogueFresh(entry)) {
       try {
-        return getTimezonesSync();
+        return CompletableFuture.completedFuture(decodeCatalogue(entry));
       } catch (IOException e) {
-        throw new RuntimeException("Failed to get available timezones", e);
+        logger.warn("Cached timezone catalogue is corrupt, refreshing: {}", e.getMessage());
       }
-    });
+    }
+    refreshCatalogue();
+    return CompletableFuture.completedFuture(
+        ZoneId.getAvailableZoneIds().stream().sorted().toList());
   }
 
   /**
-   * 同期的にタイムゾーンリストを取得
+   * タイムゾーン一覧を条件付きリクエストで更新
+   * 304応答の場合は保存済みの一覧の検証時刻のみを更新する 更新中の場合は実行中の更新を返す
    */
-  public List<String> getTimezonesSync() throws IOException {
-    String url = "%s/timezone".formatted(BASE_URL);
-    Request request = new Request.Builder().url(url).get().build();
-
-    try (Response response = httpClient.newCall(request).execute()) {
-      if (!response.isSuccessful()) {
-        handleErrorResponse(response);
+  CompletableFuture<Void> refreshCatalogue() {
+    CompletableFuture<Void> pending = new CompletableFuture<>();
+    CompletableFuture<Void> previous;
+    do {
+      previous = catalogueRefresh.get();
+      if (previous != null && !previous.isDone()) {
+        return previous;
       }
+    } while (!catalogueRefresh.compareAndSet(previous, pending));
 
-      String body = response.body().string();
+    PersistentResponseCache.Entry cached = responseCache.get(CATALOGUE_KEY);
+    Request.Builder builder = new Request.Builder()
+        .url("%s/timezone".formatted(config.baseUrl())).get();
+    if (cached != null && cached.etag() != null) {
+      builder.header("If-None-Match", cached.etag());
+    }
+    if (cached != null && cached.lastModified() != null) {
+      builder.header("If-Modified-Since", cached.lastModified());
+    }
 
-      return objectMapper.readValue(body, new TypeReference<>() {
-      });
+    callExecutor.execute(builder.build())
+        .thenAccept(response -> {
+          try (response) {
+            long now = System.currentTimeMillis();
+            if (response.code() == 304 && cached != null) {
+              responseCache.put(CATALOGUE_KEY, cached.revalidated(now));
+              logger.debug("Timezone catalogue not modified");
+            } else if (response.isSuccessful()) {
+              String body = response.body().string();
+              responseCache.put(CATALOGUE_KEY, new PersistentResponseCache.Entry(body,
+                  response.header("ETag"), response.header("Last-Modified"), now));
+              logger.info("Refreshed timezone catalogue");
+            } else {
+              logger.warn("Failed to refresh timezone catalogue: {}", response.code());
+            }
+          } catch (IOException e) {
+            throw new CompletionException(e);
+          }
+        })
+        .whenComplete((ignored, error) -> {
+          if (error != null) {
+            logger.warn("Failed to refresh timezone catalogue: {}", error.getMessage());
+          }
+          pending.complete(null);
+        });
+    return pending;
+  }
+
+  /**
+   * 最後に開始したタイムゾーン一覧の更新 更新を開始していなければnull
+   * 一覧の保存はこのFutureの完了前に終わる
+   */
+  CompletableFuture<Void> lastCatalogueRefresh() {
+    return catalogueRefresh.get();
+  }
+
+  private boolean isCatalogueFresh(PersistentResponseCache.Entry entry) {
+    return entry != null && entry.isFresh(config.catalogueMaxAge(), System.currentTimeMillis());
+  }
+
+  /**
+   * 保存済みの一覧をデコード 同じエントリに対しては一度だけデコードする
+   */
+  private List<String> decodeCatalogue(PersistentResponseCache.Entry entry) throws IOException {
+    DecodedCatalogue decoded = catalogue;
+    if (decoded != null && decoded.body() == entry.body()) {
+      return decoded.timezones();
     }
+    List<String> timezones = List.copyOf(TimeInfoDecoder.decodeTimezones(
+        new ByteArrayInputStream(entry.body().getBytes(StandardCharsets.UTF_8))));
+    catalogue = new DecodedCatalogue(entry.body(), timezones);
+    return timezones;
+  }
+
+  /**
+   * 同期的にタイムゾーンリストを取得
+   */
+  @Override
+  public List<String> getTimezonesSync() throws IOException {
+    return await(getAvailableTimezones());
   }
 
   /**
    * IPアドレスから時刻を取得
+   * 学習済みのプレフィックスに該当する場合はIPの問い合わせを行わず、タイムゾーンの時刻情報を返す
    */
   public CompletableFuture<TimeInfo> getTimeByIP(String ipAddress) {
-    return CompletableFuture.supplyAsync(() -> {
-      try {
-        String url = String.format("%s/ip/%s", BASE_URL, ipAddress);
-        return fetchTimeInfo(url);
-      } catch (IOException e) {
-        throw new RuntimeException("Failed to get time for IP: %s".formatted(ipAddress), e);
+    byte[] address = IpPrefixCache.parseAddress(ipAddress);
+    String zone = address != null ? ipCache.lookup(address) : null;
+    if (zone != null) {
+      return getCurrentTime(zone).thenApply(info -> info.withClientIp(ipAddress));
+    }
+
+    String url = String.format("%s/ip/%s", config.baseUrl(), ipAddress);
+    return fetchTimeInfo(url).thenApply(info -> {
+      if (address != null && info.timezone != null) {
+        ipCache.learn(address, info.timezone);
       }
+      return info;
     });
   }
 
   /**
-   * 時刻情報を取得
+   * 複数のIPアドレスの時刻をまとめて取得（アクセスログなどの一括処理用）
+   * 未学習のプレフィックスごとに1件だけIPを問い合わせ、残りは学習した対応とタイムゾーン単位の取得で解決する
+   *
+   * @return 入力順のIPアドレスと時刻情報の対応 取得に失敗したIPアドレスは含まない
    */
-  private TimeInfo fetchTimeInfo(String url) throws IOException {
-    Request request = new Request.Builder().url(url).get().build();
-
-    try (Response response = httpClient.newCall(request).execute()) {
-      if (!response.isSuccessful()) {
-        handleErrorResponse(response);
+  public CompletableFuture<Map<String, TimeInfo>> getTimesByIP(Collection<String> ipAddresses) {
+    Map<String, CompletableFuture<TimeInfo>> lookups = new LinkedHashMap<>();
+    Map<String, CompletableFuture<TimeInfo>> prefixProbes = new HashMap<>();
+    for (String ipAddress : ipAddresses) {
+      if (lookups.containsKey(ipAddress)) {
+        continue;
       }
+      byte[] address = IpPrefixCache.parseAddress(ipAddress);
+      String zone = address != null ? ipCache.lookup(address) : null;
+      if (zone != null) {
+        lookups.put(ipAddress, getCurrentTime(zone).thenApply(info -> info.withClientIp(ipAddress)));
+      } else if (address == null) {
+        lookups.put(ipAddress, getTimeByIP(ipAddress));
+      } else {
+        // 同じプレフィックスのIPは最初の問い合わせで学習した対応を使う
+        String prefix = IpPrefixCache.learnedPrefix(address);
+        CompletableFuture<TimeInfo> probe = prefixProbes.get(prefix);
+        if (probe == null) {
+          probe = getTimeByIP(ipAddress);
+          prefixProbes.put(prefix, probe);
+          lookups.put(ipAddress, probe);
+        } else {
+          lookups.put(ipAddress, probe.handle((info, error) -> null)
+              .thenCompose(ignored -> getTimeByIP(ipAddress)));
+        }
+      }
+    }
 
-      String body = response.body().string();
-      Map<String, Object> data = objectMapper.readValue(body, new TypeReference<>() {
+    CompletableFuture<?>[] settled = lookups.values().stream()
+        .map(future -> future.handle((info, error) -> null))
+        .toArray(CompletableFuture[]::new);
+    return CompletableFuture.allOf(settled).thenApply(ignored -> {
+      Map<String, TimeInfo> results = new LinkedHashMap<>();
+      lookups.forEach((ipAddress, future) -> {
+        if (future.isCompletedExceptionally()) {
+          logger.debug("Failed to resolve time for {}", ipAddress);
+        } else {
+          results.put(ipAddress, future.join());
+        }
       });
+      return results;
+    });
+  }
 
-      return parseTimeInfo(data);
-    }
+  /**
+   * 時刻情報を取得
+   */
+  private CompletableFuture<TimeInfo> fetchTimeInfo(String url) {
+    return fetch(url, TimeInfoDecoder::decodeTimeInfo);
+  }
+
+  /**
+   * リクエストを非同期に実行し、応答ボディをデコード
+   * デコードは応答を受信したディスパッチャースレッド上で行う
+   */
+  private <T> CompletableFuture<T> fetch(String url, BodyDecoder<T> decoder) {
+    Request request = new Request.Builder().url(url).get().build();
+    return callExecutor.execute(request).thenApply(response -> {
+      try (response) {
+        if (!response.isSuccessful()) {
+          handleErrorResponse(response);
+        }
+        ResponseBody body = response.body();
+        return decoder.decode(body.byteStream());
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    });
   }
 
   /**
-   * TimeInfo をパース
+   * 非同期呼び出しの完了を待機 同期APIから利用する
+   * 待機は呼び出し全体の期限（再試行を含む）までとし、停止などで完了しない呼び出しに呼び出し元を留めない
    */
-  private TimeInfo parseTimeInfo(Map<String, Object> data) {
-    return new TimeInfo((String) data.get("timezone"), (String) data.get("datetime"),
-        (String) data.get("utc_datetime"), (String) data.get("utc_offset"),
-        ((Number) data.get("unixtime")).longValue(), (Boolean) data.get("dst"),
-        (Integer) data.get("dst_offset"), (String) data.get("dst_from"),
-        (String) data.get("dst_until"), (Integer) data.get("raw_offset"),
-        (String) data.get("abbreviation"), (Integer) data.get("week_number"),
-        (Integer) data.get("day_of_week"), (Integer) data.get("day_of_year"),
-        (String) data.get("client_ip"));
+  private <T> T await(CompletableFuture<T> future) throws IOException {
+    try {
+      return future.get(config.callDeadline().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      throw new InterruptedIOException("Deadline exceeded");
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Request interrupted");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof CompletionException && cause.getCause() != null) {
+        cause = cause.getCause();
+      }
+      if (cause instanceof IOException ioException) {
+        throw ioException;
+      }
+      throw new IOException("Request failed", cause);
+    }
   }
 
   /**
@@ -216,7 +471,7 @@ public class WorldTimeAPIClient {
 
     switch (response.code()) {
       case 404:
-        throw new IOException("Timezone not found: %s".formatted(errorBody));
+        throw new TimezoneNotFoundException("Timezone not found: %s".formatted(errorBody));
       case 429:
         throw new IOException("Rate limit exceeded");
       case 500:
@@ -229,52 +484,122 @@ public class WorldTimeAPIClient {
   }
 
   /**
-   * キャッシュクリーンアップタスクを開始
+   * キャッシュをクリア
    */
-  private void startCacheCleanup() {
-    Thread cleanupThread = new Thread(() -> {
-      while (!Thread.currentThread().isInterrupted()) {
-        try {
-          Thread.sleep(60000); // 1分ごと
-          cleanupCache();
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
-          break;
-        }
-      }
-    }, "WorldTimeAPI-Cache-Cleanup");
-    cleanupThread.setDaemon(true);
-    cleanupThread.start();
+  public void clearCache() {
+    if (cache != null) {
+      cache.synchronous().invalidateAll();
+    }
   }
 
   /**
-   * 期限切れキャッシュをクリーンアップ
+   * キャッシュの統計情報（ヒット・ミス・ロード時間）を取得
    */
-  private void cleanupCache() {
-    cache.entrySet().removeIf(entry -> entry.getValue().isExpired());
-    logger.debug("Cache cleanup completed. Current size: {}", cache.size());
+  public CacheStats getCacheStats() {
+    return cache != null ? cache.synchronous().stats() : CacheStats.empty();
   }
 
   /**
-   * キャッシュをクリア
+   * クライアントのメトリクスを取得
    */
-  public void clearCache() {
-    cache.clear();
+  public Metrics getMetrics() {
+    Dispatcher dispatcher = httpClient.dispatcher();
+    long hedgeDelay = callExecutor.getHedgeDelayNanos();
+    return new Metrics(dispatcher.runningCallsCount(), dispatcher.queuedCallsCount(),
+        callExecutor.getCallCount(), callExecutor.getAttemptCount(),
+        callExecutor.getRetryCount(), callExecutor.getFailureCount(),
+        callExecutor.getHedgeCount(), callExecutor.getHedgeWinCount(),
+        hedgeDelay < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(hedgeDelay), ipCache.size(),
+        ipCache.getHitCount(), ipCache.getMissCount());
   }
 
   /**
    * クライアントをシャットダウン
+   * 実行中のタイムゾーン一覧の更新とファイルへの保存、ディスパッチャーで実行中の呼び出しの終了を待ってから停止する
+   * 待機時間はそれぞれ呼び出しの期限まで 再試行を待っている呼び出しなど、その時点で未完了の呼び出しは失敗させる
    */
   public void shutdown() {
-    httpClient.dispatcher().executorService().shutdown();
+    long timeout = config.callDeadline().toMillis();
+    CompletableFuture<Void> refresh = catalogueRefresh.get();
+    try {
+      if (refresh != null) {
+        refresh.get(timeout, TimeUnit.MILLISECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException e) {
+      logger.warn("Timezone catalogue refresh did not finish before shutdown");
+    }
+
+    callExecutor.shutdown();
+    ExecutorService executor = httpClient.dispatcher().executorService();
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+        logger.warn("WorldTimeAPI dispatcher did not terminate within {}ms", timeout);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
     httpClient.connectionPool().evictAll();
   }
 
+  /**
+   * クライアントのメトリクス
+   *
+   * @param runningCalls  実行中のHTTP呼び出し数
+   * @param queuedCalls   ディスパッチャーで待機中の呼び出し数
+   * @param calls         論理的な呼び出し数（再試行を含まない）
+   * @param attempts      HTTPリクエストの送信回数（再試行を含む）
+   * @param retries       再試行の回数
+   * @param failures      再試行後も失敗した呼び出し数
+   * @param hedges        ヘッジの送信回数
+   * @param hedgeWins     ヘッジが先に応答した回数
+   * @param hedgeDelayMs  現在のヘッジ遅延（ミリ秒） ヘッジが無効か計測数が足りない場合は-1
+   * @param ipPrefixes    IPプレフィックスキャッシュの登録数
+   * @param ipCacheHits   IPプレフィックスキャッシュから応答した回数
+   * @param ipCacheMisses IPプレフィックスキャッシュに該当がなかった回数
+   */
+  public record Metrics(int runningCalls, int queuedCalls, long calls, long attempts,
+                        long retries, long failures, long hedges, long hedgeWins,
+                        long hedgeDelayMs, int ipPrefixes, long ipCacheHits,
+                        long ipCacheMisses) {
+
+  }
+
+  /**
+   * デコード済みのタイムゾーン一覧
+   */
+  private record DecodedCatalogue(String body, List<String> timezones) {
+
+  }
+
+  /**
+   * 応答ボディのデコーダー
+   */
+  @FunctionalInterface
+  private interface BodyDecoder<T> {
+
+    T decode(InputStream input) throws IOException;
+  }
+
   /**
    * 時刻情報クラス
    */
   public static class TimeInfo {
 
+    /**
+     * 時刻情報の取得元
+     */
+    public enum Source {
+      /** WorldTimeAPIから取得 */
+      REMOTE,
+      /** ローカルのtzdbから計算 */
+      LOCAL,
+      /** WorldTimeAPIが利用できないためローカルのtzdbで代替 */
+      LOCAL_FALLBACK
+    }
+
     public final String timezone;
     public final String datetime;
     public final String utcDatetime;
@@ -290,11 +615,21 @@ public class WorldTimeAPIClient {
     public final Integer dayOfWeek;
     public final Integer dayOfYear;
     public final String clientIp;
+    public final Source source;
 
     public TimeInfo(String timezone, String datetime, String utcDatetime, String utcOffset,
         long unixtime, Boolean dst, Integer dstOffset, String dstFrom, String dstUntil,
         Integer rawOffset, String abbreviation, Integer weekNumber, Integer dayOfWeek,
         Integer dayOfYear, String clientIp) {
+      this(timezone, datetime, utcDatetime, utcOffset, unixtime, dst, dstOffset, dstFrom,
+          dstUntil, rawOffset, abbreviation, weekNumber, dayOfWeek, dayOfYear, clientIp,
+          Source.REMOTE);
+    }
+
+    public TimeInfo(String timezone, String datetime, String utcDatetime, String utcOffset,
+        long unixtime, Boolean dst, Integer dstOffset, String dstFrom, String dstUntil,
+        Integer rawOffset, String abbreviation, Integer weekNumber, Integer dayOfWeek,
+        Integer dayOfYear, String clientIp, Source source) {
       this.timezone = timezone;
       this.datetime = datetime;
       this.utcDatetime = utcDatetime;
@@ -310,88 +645,35 @@ public class WorldTimeAPIClient {
       this.dayOfWeek = dayOfWeek;
       this.dayOfYear = dayOfYear;
       this.clientIp = clientIp;
+      this.source = source;
     }
 
-    public ZonedDateTime toZonedDateTime() {
-      return ZonedDateTime.parse(datetime);
+    /**
+     * クライアントIPを設定したコピーを作成
+     */
+    public TimeInfo withClientIp(String clientIp) {
+      return new TimeInfo(timezone, datetime, utcDatetime, utcOffset, unixtime, dst, dstOffset,
+          dstFrom, dstUntil, rawOffset, abbreviation, weekNumber, dayOfWeek, dayOfYear, clientIp,
+          source);
     }
 
-    @Override
-    public String toString() {
-      return String.format("TimeInfo{timezone='%s', datetime='%s', dst=%s}", timezone, datetime,
-          dst);
+    /**
+     * 取得元を変更したコピーを作成
+     */
+    public TimeInfo withSource(Source source) {
+      return new TimeInfo(timezone, datetime, utcDatetime, utcOffset, unixtime, dst, dstOffset,
+          dstFrom, dstUntil, rawOffset, abbreviation, weekNumber, dayOfWeek, dayOfYear, clientIp,
+          source);
     }
-  }
-
-  /**
-   * キャッシュされたレスポンス
-   */
-  private static class CachedResponse {
-
-    final TimeInfo data;
-    final long timestamp;
-
-    CachedResponse(TimeInfo data) {
-      this.data = data;
-      this.timestamp = System.currentTimeMillis();
-    }
-
-    boolean isExpired() {
-      return System.currentTimeMillis() - timestamp > CACHE_TTL;
-    }
-  }
-
-  /**
-   * リトライインターセプター
-   */
-  private static class RetryInterceptor implements Interceptor {
-
-    private final int maxRetries;
 
-    RetryInterceptor(int maxRetries) {
-      this.maxRetries = maxRetries;
+    public ZonedDateTime toZonedDateTime() {
+      return ZonedDateTime.parse(datetime);
     }
 
     @Override
-    public Response intercept(Chain chain) throws IOException {
-      Request request = chain.request();
-      Response response = null;
-      IOException lastException = null;
-
-      for (int i = 0; i <= maxRetries; i++) {
-        try {
-          if (response != null) {
-            response.close();
-          }
-          response = chain.proceed(request);
-
-          if (response.isSuccessful()) {
-            return response;
-          }
-
-          // 4xx エラーはリトライしない
-          if (response.code() >= 400 && response.code() < 500) {
-            return response;
-          }
-
-        } catch (IOException e) {
-          lastException = e;
-          if (i < maxRetries) {
-            try {
-              Thread.sleep((long) Math.pow(2, i) * 1000); // Exponential backoff
-            } catch (InterruptedException ie) {
-              Thread.currentThread().interrupt();
-              throw new IOException("Retry interrupted", ie);
-            }
-          }
-        }
-      }
-
-      if (lastException != null) {
-        throw lastException;
-      }
-
-      return response;
+    public String toString() {
+      return String.format("TimeInfo{timezone='%s', datetime='%s', dst=%s, source=%s}", timezone,
+          datetime, dst, source);
     }
   }
 
@@ -0,0 +1,371 @@
+package com.github.yuu1111.api;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * WorldTimeAPIクライアント設定 Java 21のRecordとBuilderパターンを使用
+ */
+public record WorldTimeAPIConfig(String baseUrl, Duration timeout, int maxRetries,
+                                 Duration retryBaseDelay, Duration retryMaxDelay,
+                                 Duration callDeadline, int dispatcherMaxRequests,
+                                 int dispatcherMaxRequestsPerHost, boolean cacheEnabled,
+                                 Duration cacheTtl, long cacheMaxSize,
+                                 Duration cacheRefreshAhead, Path catalogueFile,
+                                 Duration catalogueMaxAge, boolean hedgingEnabled,
+                                 double hedgePercentile, Duration hedgeMinDelay,
+                                 double hedgeBudgetRatio, Path ipPrefixFile,
+                                 long ipPrefixLearnedMaxSize, Duration ipPrefixLearnedTtl) {
+
+  /**
+   * デフォルト値
+   */
+  public static final String DEFAULT_BASE_URL = "http://worldtimeapi.org/api";
+  public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+  public static final int DEFAULT_MAX_RETRIES = 3;
+  public static final Duration DEFAULT_RETRY_BASE_DELAY = Duration.ofMillis(100);
+  public static final Duration DEFAULT_RETRY_MAX_DELAY = Duration.ofSeconds(2);
+  public static final Duration DEFAULT_CALL_DEADLINE = Duration.ofSeconds(8);
+  public static final int DEFAULT_DISPATCHER_MAX_REQUESTS = 32;
+  public static final int DEFAULT_DISPATCHER_MAX_REQUESTS_PER_HOST = 16;
+  public static final boolean DEFAULT_CACHE_ENABLED = true;
+  public static final Duration DEFAULT_CACHE_TTL = Duration.ofMinutes(1);
+  public static final long DEFAULT_CACHE_MAX_SIZE = 1000;
+  public static final Duration DEFAULT_CACHE_REFRESH_AHEAD = Duration.ofSeconds(10);
+  public static final Duration DEFAULT_CATALOGUE_MAX_AGE = Duration.ofDays(1);
+  public static final boolean DEFAULT_HEDGING_ENABLED = false;
+  public static final double DEFAULT_HEDGE_PERCENTILE = 0.9;
+  public static final Duration DEFAULT_HEDGE_MIN_DELAY = Duration.ofMillis(50);
+  public static final double DEFAULT_HEDGE_BUDGET_RATIO = 0.1;
+  public static final long DEFAULT_IP_PREFIX_LEARNED_MAX_SIZE = 65_536;
+  public static final Duration DEFAULT_IP_PREFIX_LEARNED_TTL = Duration.ofDays(7);
+
+  /**
+   * 永続化するファイルの相対パスの基準ディレクトリ（作業ディレクトリに依存しないようホームディレクトリ配下に置く）
+   */
+  public static final Path DEFAULT_DATA_DIRECTORY =
+      Path.of(System.getProperty("user.home"), ".fetchtime-mcp");
+
+  public WorldTimeAPIConfig {
+    if (maxRetries < 0) {
+      throw new IllegalArgumentException("maxRetries must not be negative");
+    }
+    if (retryBaseDelay.isNegative() || retryBaseDelay.isZero()) {
+      throw new IllegalArgumentException("retryBaseDelay must be positive");
+    }
+    if (retryMaxDelay.compareTo(retryBaseDelay) < 0) {
+      throw new IllegalArgumentException("retryMaxDelay must not be shorter than retryBaseDelay");
+    }
+    if (callDeadline.isNegative() || callDeadline.isZero()) {
+      throw new IllegalArgumentException("callDeadline must be positive");
+    }
+    if (dispatcherMaxRequests <= 0 || dispatcherMaxRequestsPerHost <= 0) {
+      throw new IllegalArgumentException("dispatcher limits must be positive");
+    }
+    if (cacheTtl.isNegative() || cacheTtl.isZero()) {
+      throw new IllegalArgumentException("cacheTtl must be positive");
+    }
+    if (cacheMaxSize <= 0) {
+      throw new IllegalArgumentException("cacheMaxSize must be positive");
+    }
+    if (cacheRefreshAhead.isNegative()) {
+      throw new IllegalArgumentException("cacheRefreshAhead must not be negative");
+    }
+    if (catalogueMaxAge.isNegative() || catalogueMaxAge.isZero()) {
+      throw new IllegalArgumentException("catalogueMaxAge must be positive");
+    }
+    if (hedgePercentile <= 0 || hedgePercentile >= 1) {
+      throw new IllegalArgumentException("hedgePercentile must be between 0 and 1");
+    }
+    if (hedgeMinDelay.isNegative()) {
+      throw new IllegalArgumentException("hedgeMinDelay must not be negative");
+    }
+    if (hedgeBudgetRatio < 0 || hedgeBudgetRatio > 1) {
+      throw new IllegalArgumentException("hedgeBudgetRatio must be between 0 and 1");
+    }
+    if (ipPrefixLearnedMaxSize < 0) {
+      throw new IllegalArgumentException("ipPrefixLearnedMaxSize must not be negative");
+    }
+    if (ipPrefixLearnedTtl.isNegative() || ipPrefixLearnedTtl.isZero()) {
+      throw new IllegalArgumentException("ipPrefixLearnedTtl must be positive");
+    }
+  }
+
+  /**
+   * 期限切れ前に非同期リフレッシュを開始するまでの時間
+   * 先読み時間がTTL以上の場合はTTLの半分でリフレッシュする
+   */
+  public Duration cacheRefreshAfter() {
+    Duration refreshAfter = cacheTtl.minus(cacheRefreshAhead);
+    if (refreshAfter.isNegative() || refreshAfter.isZero()) {
+      return cacheTtl.dividedBy(2);
+    }
+    return refreshAfter;
+  }
+
+  /**
+   * デフォルト設定を作成
+   */
+  public static WorldTimeAPIConfig defaultConfig() {
+    return builder().build();
+  }
+
+  /**
+   * application.properties の worldtime.api.* から設定を作成
+   * ファイルの相対パスは worldtime.api.data.directory（省略時は DEFAULT_DATA_DIRECTORY）を基準に解決する
+   */
+  public static WorldTimeAPIConfig fromProperties(Properties properties) {
+    String directory = properties.getProperty("worldtime.api.data.directory", "");
+    Path dataDirectory = directory.isBlank() ? DEFAULT_DATA_DIRECTORY : Path.of(directory);
+    return builder()
+        .baseUrl(properties.getProperty("worldtime.api.url", DEFAULT_BASE_URL))
+        .timeout(Duration.ofMillis(Long.parseLong(properties.getProperty("worldtime.api.timeout",
+            String.valueOf(DEFAULT_TIMEOUT.toMillis())))))
+        .maxRetries(Integer.parseInt(properties.getProperty("worldtime.api.retry.count",
+            String.valueOf(DEFAULT_MAX_RETRIES))))
+        .retryBaseDelay(Duration.ofMillis(Long.parseLong(properties.getProperty(
+            "worldtime.api.retry.base.delay", String.valueOf(DEFAULT_RETRY_BASE_DELAY.toMillis())))))
+        .retryMaxDelay(Duration.ofMillis(Long.parseLong(properties.getProperty(
+            "worldtime.api.retry.max.delay", String.valueOf(DEFAULT_RETRY_MAX_DELAY.toMillis())))))
+        .callDeadline(Duration.ofMillis(Long.parseLong(properties.getProperty(
+            "worldtime.api.deadline", String.valueOf(DEFAULT_CALL_DEADLINE.toMillis())))))
+        .dispatcherMaxRequests(Integer.parseInt(properties.getProperty(
+            "worldtime.api.dispatcher.max.requests",
+            String.valueOf(DEFAULT_DISPATCHER_MAX_REQUESTS))))
+        .dispatcherMaxRequestsPerHost(Integer.parseInt(properties.getProperty(
+            "worldtime.api.dispatcher.max.requests.per.host",
+            String.valueOf(DEFAULT_DISPATCHER_MAX_REQUESTS_PER_HOST))))
+        .cacheEnabled(Boolean.parseBoolean(properties.getProperty("worldtime.api.cache.enabled",
+            String.valueOf(DEFAULT_CACHE_ENABLED))))
+        .cacheTtl(Duration.ofMillis(Long.parseLong(properties.getProperty(
+            "worldtime.api.cache.ttl", String.valueOf(DEFAULT_CACHE_TTL.toMillis())))))
+        .cacheMaxSize(Long.parseLong(properties.getProperty("worldtime.api.cache.max.size",
+            String.valueOf(DEFAULT_CACHE_MAX_SIZE))))
+        .cacheRefreshAhead(Duration.ofMillis(Long.parseLong(properties.getProperty(
+            "worldtime.api.cache.refresh.ahead",
+            String.valueOf(DEFAULT_CACHE_REFRESH_AHEAD.toMillis())))))
+        .catalogueFile(resolveFile(properties, "worldtime.api.catalogue.file", dataDirectory))
+        .catalogueMaxAge(Duration.ofMillis(Long.parseLong(properties.getProperty(
+            "worldtime.api.catalogue.max.age",
+            String.valueOf(DEFAULT_CATALOGUE_MAX_AGE.toMillis())))))
+        .hedgingEnabled(Boolean.parseBoolean(properties.getProperty(
+            "worldtime.api.hedge.enabled", String.valueOf(DEFAULT_HEDGING_ENABLED))))
+        .hedgePercentile(Double.parseDouble(properties.getProperty(
+            "worldtime.api.hedge.percentile", String.valueOf(DEFAULT_HEDGE_PERCENTILE))))
+        .hedgeMinDelay(Duration.ofMillis(Long.parseLong(properties.getProperty(
+            "worldtime.api.hedge.min.delay", String.valueOf(DEFAULT_HEDGE_MIN_DELAY.toMillis())))))
+        .hedgeBudgetRatio(Double.parseDouble(properties.getProperty(
+            "worldtime.api.hedge.budget.ratio", String.valueOf(DEFAULT_HEDGE_BUDGET_RATIO))))
+        .ipPrefixFile(resolveFile(properties, "worldtime.api.ip.prefix.file", dataDirectory))
+        .ipPrefixLearnedMaxSize(Long.parseLong(properties.getProperty(
+            "worldtime.api.ip.prefix.learned.max.size",
+            String.valueOf(DEFAULT_IP_PREFIX_LEARNED_MAX_SIZE))))
+        .ipPrefixLearnedTtl(Duration.ofMillis(Long.parseLong(properties.getProperty(
+            "worldtime.api.ip.prefix.learned.ttl",
+            String.valueOf(DEFAULT_IP_PREFIX_LEARNED_TTL.toMillis())))))
+        .build();
+  }
+
+  /**
+   * ファイルのパスを基準ディレクトリから解決 未設定または空の場合はnull
+   */
+  private static Path resolveFile(Properties properties, String key, Path dataDirectory) {
+    String value = properties.getProperty(key, "");
+    return value.isBlank() ? null : dataDirectory.resolve(value);
+  }
+
+  /**
+   * ビルダーを作成
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * この設定を初期値とするビルダーを作成
+   */
+  public Builder toBuilder() {
+    return new Builder()
+        .baseUrl(baseUrl)
+        .timeout(timeout)
+        .maxRetries(maxRetries)
+        .retryBaseDelay(retryBaseDelay)
+        .retryMaxDelay(retryMaxDelay)
+        .callDeadline(callDeadline)
+        .dispatcherMaxRequests(dispatcherMaxRequests)
+        .dispatcherMaxRequestsPerHost(dispatcherMaxRequestsPerHost)
+        .cacheEnabled(cacheEnabled)
+        .cacheTtl(cacheTtl)
+        .cacheMaxSize(cacheMaxSize)
+        .cacheRefreshAhead(cacheRefreshAhead)
+        .catalogueFile(catalogueFile)
+        .catalogueMaxAge(catalogueMaxAge)
+        .hedgingEnabled(hedgingEnabled)
+        .hedgePercentile(hedgePercentile)
+        .hedgeMinDelay(hedgeMinDelay)
+        .hedgeBudgetRatio(hedgeBudgetRatio)
+        .ipPrefixFile(ipPrefixFile)
+        .ipPrefixLearnedMaxSize(ipPrefixLearnedMaxSize)
+        .ipPrefixLearnedTtl(ipPrefixLearnedTtl);
+  }
+
+  /**
+   * 設定ビルダー
+   */
+  public static class Builder {
+
+    private String baseUrl = DEFAULT_BASE_URL;
+    private Duration timeout = DEFAULT_TIMEOUT;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private Duration retryBaseDelay = DEFAULT_RETRY_BASE_DELAY;
+    private Duration retryMaxDelay = DEFAULT_RETRY_MAX_DELAY;
+    private Duration callDeadline = DEFAULT_CALL_DEADLINE;
+    private int dispatcherMaxRequests = DEFAULT_DISPATCHER_MAX_REQUESTS;
+    private int dispatcherMaxRequestsPerHost = DEFAULT_DISPATCHER_MAX_REQUESTS_PER_HOST;
+    private boolean cacheEnabled = DEFAULT_CACHE_ENABLED;
+    private Duration cacheTtl = DEFAULT_CACHE_TTL;
+    private long cacheMaxSize = DEFAULT_CACHE_MAX_SIZE;
+    private Duration cacheRefreshAhead = DEFAULT_CACHE_REFRESH_AHEAD;
+    private Path catalogueFile;
+    private Duration catalogueMaxAge = DEFAULT_CATALOGUE_MAX_AGE;
+    private boolean hedgingEnabled = DEFAULT_HEDGING_ENABLED;
+    private double hedgePercentile = DEFAULT_HEDGE_PERCENTILE;
+    private Duration hedgeMinDelay = DEFAULT_HEDGE_MIN_DELAY;
+    private double hedgeBudgetRatio = DEFAULT_HEDGE_BUDGET_RATIO;
+    private Path ipPrefixFile;
+    private long ipPrefixLearnedMaxSize = DEFAULT_IP_PREFIX_LEARNED_MAX_SIZE;
+    private Duration ipPrefixLearnedTtl = DEFAULT_IP_PREFIX_LEARNED_TTL;
+
+    public Builder baseUrl(String baseUrl) {
+      this.baseUrl = baseUrl;
+      return this;
+    }
+
+    public Builder timeout(Duration timeout) {
+      this.timeout = timeout;
+      return this;
+    }
+
+    public Builder maxRetries(int maxRetries) {
+      this.maxRetries = maxRetries;
+      return this;
+    }
+
+    public Builder retryBaseDelay(Duration delay) {
+      this.retryBaseDelay = delay;
+      return this;
+    }
+
+    public Builder retryMaxDelay(Duration delay) {
+      this.retryMaxDelay = delay;
+      return this;
+    }
+
+    public Builder callDeadline(Duration deadline) {
+      this.callDeadline = deadline;
+      return this;
+    }
+
+    public Builder dispatcherMaxRequests(int maxRequests) {
+      this.dispatcherMaxRequests = maxRequests;
+      return this;
+    }
+
+    public Builder dispatcherMaxRequestsPerHost(int maxRequestsPerHost) {
+      this.dispatcherMaxRequestsPerHost = maxRequestsPerHost;
+      return this;
+    }
+
+    public Builder cacheEnabled(boolean enable) {
+      this.cacheEnabled = enable;
+      return this;
+    }
+
+    public Builder cacheTtl(Duration ttl) {
+      this.cacheTtl = ttl;
+      return this;
+    }
+
+    public Builder cacheMaxSize(long size) {
+      this.cacheMaxSize = size;
+      return this;
+    }
+
+    public Builder cacheRefreshAhead(Duration refreshAhead) {
+      this.cacheRefreshAhead = refreshAhead;
+      return this;
+    }
+
+    /**
+     * タイムゾーン一覧などを永続化するファイル nullの場合は永続化しない
+     */
+    public Builder catalogueFile(Path file) {
+      this.catalogueFile = file;
+      return this;
+    }
+
+    public Builder catalogueMaxAge(Duration maxAge) {
+      this.catalogueMaxAge = maxAge;
+      return this;
+    }
+
+    public Builder hedgingEnabled(boolean enable) {
+      this.hedgingEnabled = enable;
+      return this;
+    }
+
+    /**
+     * ヘッジ遅延に使うレイテンシのパーセンタイル（0.9でp90）
+     */
+    public Builder hedgePercentile(double percentile) {
+      this.hedgePercentile = percentile;
+      return this;
+    }
+
+    public Builder hedgeMinDelay(Duration delay) {
+      this.hedgeMinDelay = delay;
+      return this;
+    }
+
+    /**
+     * 呼び出し数に対するヘッジの上限比率（0.1で呼び出し10回につき最大1回）
+     */
+    public Builder hedgeBudgetRatio(double ratio) {
+      this.hedgeBudgetRatio = ratio;
+      return this;
+    }
+
+    /**
+     * 起動時に読み込むIPプレフィックスとタイムゾーンの対応ファイル nullの場合は応答からの学習のみ
+     */
+    public Builder ipPrefixFile(Path file) {
+      this.ipPrefixFile = file;
+      return this;
+    }
+
+    /**
+     * API応答から学習したIPプレフィックスの最大数 読み込んだプレフィックスは含まない 0の場合は学習しない
+     */
+    public Builder ipPrefixLearnedMaxSize(long maxSize) {
+      this.ipPrefixLearnedMaxSize = maxSize;
+      return this;
+    }
+
+    /**
+     * API応答から学習したIPプレフィックスの有効期限
+     */
+    public Builder ipPrefixLearnedTtl(Duration ttl) {
+      this.ipPrefixLearnedTtl = ttl;
+      return this;
+    }
+
+    public WorldTimeAPIConfig build() {
+      return new WorldTimeAPIConfig(baseUrl, timeout, maxRetries, retryBaseDelay, retryMaxDelay,
+          callDeadline, dispatcherMaxRequests, dispatcherMaxRequestsPerHost, cacheEnabled,
+          cacheTtl, cacheMaxSize, cacheRefreshAhead, catalogueFile, catalogueMaxAge,
+          hedgingEnabled, hedgePercentile, hedgeMinDelay, hedgeBudgetRatio, ipPrefixFile,
+          ipPrefixLearnedMaxSize, ipPrefixLearnedTtl);
+    }
+  }
+}
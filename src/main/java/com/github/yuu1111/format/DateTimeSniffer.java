@@ -0,0 +1,281 @@
+package com.github.yuu1111.format;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 日時文字列の形式判定とパース
+ * 入力の長さ・区切り文字・数字の位置を一度だけ調べて形式を決め、その形式のパーサーだけを使う
+ * 解析に失敗しても例外は投げずnullを返す
+ *
+ * <p>判定の順序:
+ * <ol>
+ *   <li>10桁または13桁の整数（先頭の-を含む）: Unix時間の秒またはミリ秒</li>
+ *   <li>yyyy-MM-ddTHH:mm[:ss[.fraction]] に Z または ±HH[[:]mm[:ss]] が続く: オフセット付きISO形式</li>
+ *   <li>上記にさらに [region] が続く: リージョン付きISO形式</li>
+ *   <li>yyyy-MM-ddTHH:mm[:ss[.fraction]]: オフセットなしのISO形式</li>
+ *   <li>yyyy-MM-dd HH:mm:ss</li>
+ *   <li>yyyy/MM/dd HH:mm:ss</li>
+ *   <li>NN/NN/yyyy HH:mm:ss: 先頭が13以上なら dd/MM/yyyy、2番目が13以上なら MM/dd/yyyy、
+ *       どちらとも取れる場合は dd/MM/yyyy</li>
+ * </ol>
+ * 日付と時刻の値は厳密に検証し、存在しない日付（2月30日など）は受け付けない
+ */
+public final class DateTimeSniffer {
+
+  /**
+   * 入力の形式
+   */
+  public enum Shape {
+    EPOCH_SECONDS,
+    EPOCH_MILLIS,
+    ISO_OFFSET,
+    ISO_ZONED,
+    ISO_LOCAL,
+    DASH_YMD,
+    SLASH_YMD,
+    SLASH_DMY,
+    SLASH_MDY,
+    UNKNOWN
+  }
+
+  private static final int DATE_LENGTH = 10;
+  private static final int DATE_TIME_LENGTH = 19;
+  private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+
+  private DateTimeSniffer() {
+  }
+
+  /**
+   * 入力の形式を判定
+   */
+  public static Shape classify(String text) {
+    int length = text.length();
+    if (isEpoch(text)) {
+      return length == 10 ? Shape.EPOCH_SECONDS : Shape.EPOCH_MILLIS;
+    }
+    if (length < DATE_TIME_LENGTH - 3) {
+      return Shape.UNKNOWN;
+    }
+
+    char c2 = text.charAt(2);
+    char c4 = text.charAt(4);
+    char c10 = text.charAt(DATE_LENGTH);
+    if (c4 == '-' && text.charAt(7) == '-') {
+      if (c10 == 'T') {
+        return classifyIsoTail(text);
+      }
+      return c10 == ' ' && length == DATE_TIME_LENGTH ? Shape.DASH_YMD : Shape.UNKNOWN;
+    }
+    if (c10 != ' ' || length != DATE_TIME_LENGTH) {
+      return Shape.UNKNOWN;
+    }
+    if (c4 == '/' && text.charAt(7) == '/') {
+      return Shape.SLASH_YMD;
+    }
+    if (c2 == '/' && text.charAt(5) == '/') {
+      int first = digits(text, 0, 2);
+      int second = digits(text, 3, 2);
+      return first <= 12 && second > 12 ? Shape.SLASH_MDY : Shape.SLASH_DMY;
+    }
+    return Shape.UNKNOWN;
+  }
+
+  /**
+   * 日時文字列をパース オフセットを含まない形式はzoneの時刻として扱う 解析できない場合はnull
+   */
+  public static ZonedDateTime parse(String text, ZoneId zone) {
+    return switch (classify(text)) {
+      case EPOCH_SECONDS -> ZonedDateTime.ofInstant(
+          Instant.ofEpochSecond(Long.parseLong(text)), zone);
+      case EPOCH_MILLIS -> ZonedDateTime.ofInstant(
+          Instant.ofEpochMilli(Long.parseLong(text)), zone);
+      case ISO_OFFSET -> parseIsoOffset(text);
+      case ISO_ZONED -> parseIsoZoned(text);
+      case ISO_LOCAL -> atZone(parseIsoLocal(text, new int[1]), zone);
+      case DASH_YMD, SLASH_YMD -> atZone(dateTime(text,
+          digits(text, 0, 4), digits(text, 5, 2), digits(text, 8, 2)), zone);
+      case SLASH_DMY -> atZone(dateTime(text,
+          digits(text, 6, 4), digits(text, 3, 2), digits(text, 0, 2)), zone);
+      case SLASH_MDY -> atZone(dateTime(text,
+          digits(text, 6, 4), digits(text, 0, 2), digits(text, 3, 2)), zone);
+      case UNKNOWN -> null;
+    };
+  }
+
+  private static boolean isEpoch(String text) {
+    int length = text.length();
+    if (length != 10 && length != 13) {
+      return false;
+    }
+    for (int i = text.charAt(0) == '-' ? 1 : 0; i < length; i++) {
+      if (!isDigit(text.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * ISO形式の時刻部分より後ろを見てオフセットとリージョンの有無を判定
+   */
+  private static Shape classifyIsoTail(String text) {
+    for (int i = DATE_LENGTH + 1; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == 'Z' || c == '+' || c == '-') {
+        return text.charAt(text.length() - 1) == ']' ? Shape.ISO_ZONED : Shape.ISO_OFFSET;
+      }
+    }
+    return Shape.ISO_LOCAL;
+  }
+
+  private static ZonedDateTime parseIsoOffset(String text) {
+    int[] end = new int[1];
+    LocalDateTime local = parseIsoLocal(text, end);
+    if (local == null) {
+      return null;
+    }
+    ZoneOffset offset = parseOffset(text, end[0]);
+    return offset == null ? null : ZonedDateTime.of(local, offset);
+  }
+
+  /**
+   * リージョン付きの形式はリージョンIDの検証が必要なため標準のパーサーに任せる
+   */
+  private static ZonedDateTime parseIsoZoned(String text) {
+    try {
+      return ZonedDateTime.parse(text);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  /**
+   * yyyy-MM-ddTHH:mm[:ss[.fraction]] をパースし、読み終えた位置をendに設定
+   * 文字列がここで終わらない場合は、後ろにオフセットが続く前提でそのまま返す
+   */
+  private static LocalDateTime parseIsoLocal(String text, int[] end) {
+    int length = text.length();
+    int year = digits(text, 0, 4);
+    int month = digits(text, 5, 2);
+    int day = digits(text, 8, 2);
+    int hour = digits(text, 11, 2);
+    if (text.charAt(13) != ':') {
+      return null;
+    }
+    int minute = digits(text, 14, 2);
+    int second = 0;
+    int nano = 0;
+    int pos = 16;
+    if (pos < length && text.charAt(pos) == ':') {
+      second = digits(text, pos + 1, 2);
+      pos += 3;
+      if (pos < length && text.charAt(pos) == '.') {
+        int start = ++pos;
+        while (pos < length && pos - start < 9 && isDigit(text.charAt(pos))) {
+          nano = nano * 10 + (text.charAt(pos++) - '0');
+        }
+        if (pos == start) {
+          return null;
+        }
+        for (int i = pos - start; i < 9; i++) {
+          nano *= 10;
+        }
+      }
+    }
+    end[0] = pos;
+    if (pos < length && text.charAt(pos) != 'Z' && text.charAt(pos) != '+'
+        && text.charAt(pos) != '-') {
+      return null;
+    }
+    return of(year, month, day, hour, minute, second, nano);
+  }
+
+  /**
+   * Z または ±HH、±HHmm、±HH:mm、±HH:mm:ss をパース
+   */
+  private static ZoneOffset parseOffset(String text, int pos) {
+    int length = text.length();
+    char sign = text.charAt(pos);
+    if (sign == 'Z') {
+      return pos + 1 == length ? ZoneOffset.UTC : null;
+    }
+    int hours = digits(text, pos + 1, 2);
+    int minutes = 0;
+    int seconds = 0;
+    int remaining = length - pos - 3;
+    if (remaining == 2) {
+      minutes = digits(text, pos + 3, 2);
+    } else if (remaining == 3 && text.charAt(pos + 3) == ':') {
+      minutes = digits(text, pos + 4, 2);
+    } else if (remaining == 6 && text.charAt(pos + 3) == ':' && text.charAt(pos + 6) == ':') {
+      minutes = digits(text, pos + 4, 2);
+      seconds = digits(text, pos + 7, 2);
+    } else if (remaining != 0) {
+      return null;
+    }
+    if (hours < 0 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59) {
+      return null;
+    }
+    int total = hours * 3600 + minutes * 60 + seconds;
+    if (total > MAX_OFFSET_SECONDS) {
+      return null;
+    }
+    return ZoneOffset.ofTotalSeconds(sign == '-' ? -total : total);
+  }
+
+  /**
+   * 日付の位置を指定し、11文字目以降の HH:mm:ss と合わせて日時を作る
+   */
+  private static LocalDateTime dateTime(String text, int year, int month, int day) {
+    if (text.charAt(13) != ':' || text.charAt(16) != ':') {
+      return null;
+    }
+    return of(year, month, day, digits(text, 11, 2), digits(text, 14, 2), digits(text, 17, 2), 0);
+  }
+
+  /**
+   * 値を検証してから日時を作る 範囲外の値があればnull
+   */
+  private static LocalDateTime of(int year, int month, int day, int hour, int minute, int second,
+      int nano) {
+    if (year < 0 || month < 1 || month > 12 || day < 1
+        || day > Month.of(month).length(Year.isLeap(year))
+        || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+      return null;
+    }
+    return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+  }
+
+  private static ZonedDateTime atZone(LocalDateTime local, ZoneId zone) {
+    return local == null ? null : local.atZone(zone);
+  }
+
+  /**
+   * 指定位置から count 桁の数字を読む 範囲外や数字以外を含む場合は-1
+   */
+  private static int digits(String text, int start, int count) {
+    if (start < 0 || start + count > text.length()) {
+      return -1;
+    }
+    int value = 0;
+    for (int i = start; i < start + count; i++) {
+      char c = text.charAt(i);
+      if (!isDigit(c)) {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+}
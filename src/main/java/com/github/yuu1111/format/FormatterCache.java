@@ -0,0 +1,92 @@
+package com.github.yuu1111.format;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * 共有DateTimeFormatterキャッシュ
+ * パターンとロケールごとにコンパイル済みのフォーマッタを保持し、すべてのツールで共有する
+ * 不正なパターンもエラー内容とともにキャッシュし、同じパターンを繰り返し解析しない
+ */
+public final class FormatterCache {
+
+  /**
+   * キャッシュするパターンの最大数
+   */
+  public static final long MAXIMUM_SIZE = 1024;
+
+  private static final Cache<Key, Compiled> CACHE = Caffeine.newBuilder()
+      .maximumSize(MAXIMUM_SIZE)
+      .recordStats()
+      .build();
+
+  private FormatterCache() {
+  }
+
+  /**
+   * デフォルトのロケールでフォーマッタを取得
+   * DateTimeFormatter.ofPattern(pattern) と同じく不正なパターンではIllegalArgumentExceptionを投げる
+   */
+  public static DateTimeFormatter ofPattern(String pattern) {
+    return ofPattern(pattern, Locale.getDefault(Locale.Category.FORMAT));
+  }
+
+  /**
+   * ロケールを指定してフォーマッタを取得 不正なパターンではIllegalArgumentExceptionを投げる
+   */
+  public static DateTimeFormatter ofPattern(String pattern, Locale locale) {
+    Compiled compiled = compile(pattern, locale);
+    if (compiled.formatter() == null) {
+      throw new IllegalArgumentException(compiled.error());
+    }
+    return compiled.formatter();
+  }
+
+  /**
+   * デフォルトのロケールでフォーマッタを取得 不正なパターンの場合はnullを返す
+   */
+  public static DateTimeFormatter find(String pattern) {
+    return find(pattern, Locale.getDefault(Locale.Category.FORMAT));
+  }
+
+  /**
+   * ロケールを指定してフォーマッタを取得 不正なパターンの場合はnullを返す
+   */
+  public static DateTimeFormatter find(String pattern, Locale locale) {
+    return compile(pattern, locale).formatter();
+  }
+
+  /**
+   * キャッシュの統計情報を取得
+   */
+  public static CacheStats stats() {
+    return CACHE.stats();
+  }
+
+  private static Compiled compile(String pattern, Locale locale) {
+    return CACHE.get(new Key(pattern, locale), key -> {
+      try {
+        return new Compiled(DateTimeFormatter.ofPattern(key.pattern(), key.locale()), null);
+      } catch (IllegalArgumentException e) {
+        return new Compiled(null, e.getMessage());
+      }
+    });
+  }
+
+  /**
+   * キャッシュのキー
+   */
+  private record Key(String pattern, Locale locale) {
+
+  }
+
+  /**
+   * コンパイル結果 不正なパターンの場合はformatterがnullでerrorにエラー内容を保持する
+   */
+  private record Compiled(DateTimeFormatter formatter, String error) {
+
+  }
+}
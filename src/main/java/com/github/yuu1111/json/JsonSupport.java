@@ -0,0 +1,89 @@
+package com.github.yuu1111.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.github.yuu1111.protocol.MCPError;
+import com.github.yuu1111.protocol.MCPRequest;
+import com.github.yuu1111.protocol.MCPResponse;
+import com.github.yuu1111.tools.ToolResponse;
+import com.github.yuu1111.tools.result.AstronomyResult;
+import com.github.yuu1111.tools.result.BulkConversionResult;
+import com.github.yuu1111.tools.result.ConversionResult;
+import com.github.yuu1111.tools.result.CurrentTimeResult;
+import com.github.yuu1111.tools.result.ReligiousCalendarResult;
+import com.github.yuu1111.tools.result.TimezoneSearchResult;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 共有ObjectMapper
+ * アプリケーション全体で1つのObjectMapperとシリアライザキャッシュを共有する
+ * Blackbirdモジュールによりリフレクションの代わりに生成されたアクセサを使用する
+ */
+public final class JsonSupport {
+
+  private static final Logger logger = LoggerFactory.getLogger(JsonSupport.class);
+
+  /**
+   * 起動時にシリアライザを事前生成するレスポンス型
+   */
+  private static final List<Class<?>> SERIALIZED_TYPES = List.of(MCPResponse.class,
+      MCPError.class, MCPRequest.class, ToolResponse.WithMetadata.class, CurrentTimeResult.class,
+      ConversionResult.class, BulkConversionResult.class, AstronomyResult.class,
+      ReligiousCalendarResult.class, TimezoneSearchResult.class);
+
+  /**
+   * 起動時にデシリアライザを事前生成するリクエスト型
+   */
+  private static final List<Class<?>> DESERIALIZED_TYPES = List.of(MCPRequest.class);
+
+  private static final ObjectMapper MAPPER = createObjectMapper();
+
+  private static volatile boolean prewarmed = false;
+
+  private JsonSupport() {
+  }
+
+  /**
+   * 共有ObjectMapperを取得
+   */
+  public static ObjectMapper mapper() {
+    return MAPPER;
+  }
+
+  /**
+   * すべてのレスポンス型のシリアライザを事前に生成
+   * 初回リクエスト時のイントロスペクションとアクセサ生成の遅延をなくす
+   */
+  public static void prewarm() {
+    if (prewarmed) {
+      return;
+    }
+    long start = System.nanoTime();
+    for (Class<?> type : SERIALIZED_TYPES) {
+      if (!MAPPER.canSerialize(type)) {
+        logger.warn("No serializer available for {}", type.getName());
+      }
+    }
+    for (Class<?> type : DESERIALIZED_TYPES) {
+      if (!MAPPER.canDeserialize(MAPPER.constructType(type))) {
+        logger.warn("No deserializer available for {}", type.getName());
+      }
+    }
+    prewarmed = true;
+    logger.info("Prewarmed JSON serializers for {} types in {}ms",
+        SERIALIZED_TYPES.size() + DESERIALIZED_TYPES.size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * ObjectMapperの設定
+   */
+  private static ObjectMapper createObjectMapper() {
+    return JsonMapper.builder().addModule(new JavaTimeModule()).addModule(new BlackbirdModule())
+        .build();
+  }
+}
@@ -1,5 +1,6 @@
 package com.github.yuu1111.protocol;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.Map;
 
@@ -20,6 +21,7 @@ public record MCPRequest(@JsonProperty("jsonrpc") String jsonrpc, @JsonProperty(
   /**
    * バリデーション
    */
+  @JsonIgnore
   public boolean isValid() {
     return "2.0".equals(jsonrpc) && id != null && !id.isEmpty() && method != null
         && !method.isEmpty();
@@ -28,6 +30,7 @@ public record MCPRequest(@JsonProperty("jsonrpc") String jsonrpc, @JsonProperty(
   /**
    * ツール実行リクエストかどうかを判定
    */
+  @JsonIgnore
   public boolean isToolExecution() {
     return method != null && method.startsWith("tools/");
   }
@@ -35,6 +38,7 @@ public record MCPRequest(@JsonProperty("jsonrpc") String jsonrpc, @JsonProperty(
   /**
    * ツール名を取得
    */
+  @JsonIgnore
   public String getToolName() {
     if (!isToolExecution()) {
       return null;
@@ -1,5 +1,6 @@
 package com.github.yuu1111.protocol;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -35,6 +36,7 @@ public record MCPResponse(@JsonProperty("jsonrpc") String jsonrpc, @JsonProperty
   /**
    * 成功レスポンスかどうか
    */
+  @JsonIgnore
   public boolean isSuccess() {
     return error == null && result != null;
   }
@@ -42,6 +44,7 @@ public record MCPResponse(@JsonProperty("jsonrpc") String jsonrpc, @JsonProperty
   /**
    * エラーレスポンスかどうか
    */
+  @JsonIgnore
   public boolean isError() {
     return error != null;
   }
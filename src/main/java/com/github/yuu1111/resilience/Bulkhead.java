@@ -0,0 +1,97 @@
+package com.github.yuu1111.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * バルクヘッド 同時実行数と待機キューの長さを制限し、1つの処理が資源を占有しないようにする
+ */
+public class Bulkhead {
+
+  private final String name;
+  private final Config config;
+  private final Semaphore permits;
+  private final AtomicInteger queued = new AtomicInteger();
+
+  public Bulkhead(String name, Config config) {
+    this.name = name;
+    this.config = config;
+    this.permits = new Semaphore(config.maxConcurrentCalls(), true);
+  }
+
+  /**
+   * 実行枠を取得 キューが満杯、または待機時間を超えた場合はfalseを返す
+   */
+  public boolean tryEnter() throws InterruptedException {
+    if (permits.tryAcquire()) {
+      return true;
+    }
+
+    if (queued.incrementAndGet() > config.maxQueueSize()) {
+      queued.decrementAndGet();
+      return false;
+    }
+    try {
+      return permits.tryAcquire(config.maxWait().toNanos(), TimeUnit.NANOSECONDS);
+    } finally {
+      queued.decrementAndGet();
+    }
+  }
+
+  /**
+   * 実行枠を返却
+   */
+  public void exit() {
+    permits.release();
+  }
+
+  /**
+   * 実行中の呼び出し数
+   */
+  public int getActiveCalls() {
+    return config.maxConcurrentCalls() - permits.availablePermits();
+  }
+
+  /**
+   * 待機中の呼び出し数
+   */
+  public int getQueuedCalls() {
+    return queued.get();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Config getConfig() {
+    return config;
+  }
+
+  /**
+   * バルクヘッド設定
+   */
+  public record Config(int maxConcurrentCalls, int maxQueueSize, Duration maxWait) {
+
+    public static final int DEFAULT_MAX_CONCURRENT_CALLS = 16;
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 32;
+    public static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(2);
+
+    public Config {
+      if (maxConcurrentCalls <= 0) {
+        throw new IllegalArgumentException("maxConcurrentCalls must be positive");
+      }
+      if (maxQueueSize < 0) {
+        throw new IllegalArgumentException("maxQueueSize must not be negative");
+      }
+    }
+
+    /**
+     * デフォルト設定を作成
+     */
+    public static Config defaultConfig() {
+      return new Config(DEFAULT_MAX_CONCURRENT_CALLS, DEFAULT_MAX_QUEUE_SIZE, DEFAULT_MAX_WAIT);
+    }
+  }
+}
@@ -0,0 +1,288 @@
+package com.github.yuu1111.resilience;
+
+import java.time.Duration;
+
+/**
+ * サーキットブレーカー 直近の呼び出しのエラー率と遅延率を監視し、閾値を超えた場合に呼び出しを遮断する
+ */
+public class CircuitBreaker {
+
+  /**
+   * ブレーカーの状態
+   */
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final String name;
+  private final Config config;
+  private final long slowCallNanos;
+  private final long openNanos;
+
+  // 直近の呼び出し結果を保持するリングバッファ
+  private final boolean[] failures;
+  private final boolean[] slowCalls;
+  private int bufferedCalls;
+  private int nextIndex;
+  private int failureCount;
+  private int slowCallCount;
+
+  private State state = State.CLOSED;
+  private long openedAt;
+  private int halfOpenInFlight;
+  private long notPermittedCalls;
+
+  public CircuitBreaker(String name, Config config) {
+    this.name = name;
+    this.config = config;
+    this.slowCallNanos = config.slowCallDuration().toNanos();
+    this.openNanos = config.openDuration().toNanos();
+    this.failures = new boolean[config.slidingWindowSize()];
+    this.slowCalls = new boolean[config.slidingWindowSize()];
+  }
+
+  /**
+   * 呼び出しの許可を取得 OPEN状態の場合はfalseを返す
+   */
+  public synchronized boolean tryAcquirePermission() {
+    if (state == State.OPEN) {
+      if (System.nanoTime() - openedAt < openNanos) {
+        notPermittedCalls++;
+        return false;
+      }
+      transitionTo(State.HALF_OPEN);
+    }
+
+    if (state == State.HALF_OPEN) {
+      if (halfOpenInFlight >= config.permittedCallsInHalfOpen()) {
+        notPermittedCalls++;
+        return false;
+      }
+      halfOpenInFlight++;
+    }
+    return true;
+  }
+
+  /**
+   * 実行されなかった呼び出しの許可を返却
+   */
+  public synchronized void releasePermission() {
+    if (state == State.HALF_OPEN && halfOpenInFlight > 0) {
+      halfOpenInFlight--;
+    }
+  }
+
+  /**
+   * 成功した呼び出しを記録
+   */
+  public void onSuccess(long durationNanos) {
+    record(false, durationNanos);
+  }
+
+  /**
+   * 失敗した呼び出しを記録
+   */
+  public void onError(long durationNanos) {
+    record(true, durationNanos);
+  }
+
+  private synchronized void record(boolean failed, long durationNanos) {
+    if (state == State.OPEN) {
+      // OPEN前に開始された呼び出しの結果は無視
+      return;
+    }
+
+    boolean slow = durationNanos >= slowCallNanos;
+    if (bufferedCalls == failures.length) {
+      if (failures[nextIndex]) {
+        failureCount--;
+      }
+      if (slowCalls[nextIndex]) {
+        slowCallCount--;
+      }
+    } else {
+      bufferedCalls++;
+    }
+    failures[nextIndex] = failed;
+    slowCalls[nextIndex] = slow;
+    if (failed) {
+      failureCount++;
+    }
+    if (slow) {
+      slowCallCount++;
+    }
+    nextIndex = (nextIndex + 1) % failures.length;
+
+    if (state == State.HALF_OPEN) {
+      // 試行呼び出しがすべて完了した時点で判定
+      if (bufferedCalls >= config.permittedCallsInHalfOpen()) {
+        transitionTo(isThresholdExceeded() ? State.OPEN : State.CLOSED);
+      }
+    } else if (bufferedCalls >= config.minimumNumberOfCalls() && isThresholdExceeded()) {
+      transitionTo(State.OPEN);
+    }
+  }
+
+  private boolean isThresholdExceeded() {
+    return failureRate() >= config.failureRateThreshold()
+        || slowCallRate() >= config.slowCallRateThreshold();
+  }
+
+  private void transitionTo(State newState) {
+    state = newState;
+    bufferedCalls = 0;
+    nextIndex = 0;
+    failureCount = 0;
+    slowCallCount = 0;
+    halfOpenInFlight = 0;
+    if (newState == State.OPEN) {
+      openedAt = System.nanoTime();
+    }
+  }
+
+  private float failureRate() {
+    return bufferedCalls == 0 ? 0 : failureCount * 100f / bufferedCalls;
+  }
+
+  private float slowCallRate() {
+    return bufferedCalls == 0 ? 0 : slowCallCount * 100f / bufferedCalls;
+  }
+
+  /**
+   * 現在の状態を取得
+   */
+  public synchronized State getState() {
+    if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+      return State.HALF_OPEN;
+    }
+    return state;
+  }
+
+  /**
+   * OPEN状態が解除されるまでの残り時間（ミリ秒）
+   */
+  public synchronized long getRemainingOpenMillis() {
+    if (state != State.OPEN) {
+      return 0;
+    }
+    return Math.max(0, (openNanos - (System.nanoTime() - openedAt)) / 1_000_000);
+  }
+
+  /**
+   * 統計情報を取得
+   */
+  public synchronized Metrics getMetrics() {
+    return new Metrics(getState(), failureRate(), slowCallRate(), bufferedCalls,
+        notPermittedCalls);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * ブレーカーの統計情報
+   */
+  public record Metrics(State state, float failureRate, float slowCallRate, int bufferedCalls,
+                        long notPermittedCalls) {
+
+  }
+
+  /**
+   * ブレーカー設定
+   */
+  public record Config(int slidingWindowSize, int minimumNumberOfCalls, float failureRateThreshold,
+                       Duration slowCallDuration, float slowCallRateThreshold,
+                       Duration openDuration, int permittedCallsInHalfOpen) {
+
+    public static final int DEFAULT_SLIDING_WINDOW_SIZE = 20;
+    public static final int DEFAULT_MINIMUM_NUMBER_OF_CALLS = 10;
+    public static final float DEFAULT_FAILURE_RATE_THRESHOLD = 50;
+    public static final Duration DEFAULT_SLOW_CALL_DURATION = Duration.ofSeconds(5);
+    public static final float DEFAULT_SLOW_CALL_RATE_THRESHOLD = 80;
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+    public static final int DEFAULT_PERMITTED_CALLS_IN_HALF_OPEN = 3;
+
+    public Config {
+      if (slidingWindowSize <= 0) {
+        throw new IllegalArgumentException("slidingWindowSize must be positive");
+      }
+      if (minimumNumberOfCalls <= 0 || minimumNumberOfCalls > slidingWindowSize) {
+        throw new IllegalArgumentException(
+            "minimumNumberOfCalls must be between 1 and slidingWindowSize");
+      }
+      if (permittedCallsInHalfOpen <= 0 || permittedCallsInHalfOpen > slidingWindowSize) {
+        throw new IllegalArgumentException(
+            "permittedCallsInHalfOpen must be between 1 and slidingWindowSize");
+      }
+    }
+
+    /**
+     * デフォルト設定を作成
+     */
+    public static Config defaultConfig() {
+      return builder().build();
+    }
+
+    /**
+     * ビルダーを作成
+     */
+    public static Builder builder() {
+      return new Builder();
+    }
+
+    /**
+     * 設定ビルダー
+     */
+    public static class Builder {
+
+      private int slidingWindowSize = DEFAULT_SLIDING_WINDOW_SIZE;
+      private int minimumNumberOfCalls = DEFAULT_MINIMUM_NUMBER_OF_CALLS;
+      private float failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+      private Duration slowCallDuration = DEFAULT_SLOW_CALL_DURATION;
+      private float slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+      private Duration openDuration = DEFAULT_OPEN_DURATION;
+      private int permittedCallsInHalfOpen = DEFAULT_PERMITTED_CALLS_IN_HALF_OPEN;
+
+      public Builder slidingWindowSize(int size) {
+        this.slidingWindowSize = size;
+        return this;
+      }
+
+      public Builder minimumNumberOfCalls(int calls) {
+        this.minimumNumberOfCalls = calls;
+        return this;
+      }
+
+      public Builder failureRateThreshold(float percentage) {
+        this.failureRateThreshold = percentage;
+        return this;
+      }
+
+      public Builder slowCallDuration(Duration duration) {
+        this.slowCallDuration = duration;
+        return this;
+      }
+
+      public Builder slowCallRateThreshold(float percentage) {
+        this.slowCallRateThreshold = percentage;
+        return this;
+      }
+
+      public Builder openDuration(Duration duration) {
+        this.openDuration = duration;
+        return this;
+      }
+
+      public Builder permittedCallsInHalfOpen(int calls) {
+        this.permittedCallsInHalfOpen = calls;
+        return this;
+      }
+
+      public Config build() {
+        return new Config(slidingWindowSize, minimumNumberOfCalls, failureRateThreshold,
+            slowCallDuration, slowCallRateThreshold, openDuration, permittedCallsInHalfOpen);
+      }
+    }
+  }
+}
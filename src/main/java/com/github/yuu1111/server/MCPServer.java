@@ -1,8 +1,9 @@
 package com.github.yuu1111.server;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.yuu1111.json.JsonSupport;
 import com.github.yuu1111.protocol.*;
+import com.github.yuu1111.services.zone.TzdbSnapshots;
 import com.github.yuu1111.tools.MCPTool;
 import com.github.yuu1111.tools.ToolExecutionException;
 import com.github.yuu1111.tools.ToolResponse;
@@ -47,7 +48,7 @@ public class MCPServer {
         this.port = config.port();
         this.server = new Server();
         this.toolRegistry = new ToolRegistry();
-        this.objectMapper = createObjectMapper();
+        this.objectMapper = JsonSupport.mapper();
         // Java 21のVirtual Threadsを使用
         this.executor = Executors.newVirtualThreadPerTaskExecutor();
         
@@ -61,15 +62,6 @@ public class MCPServer {
         this(ServerConfig.builder().port(port).build());
     }
     
-    /**
-     * ObjectMapperの設定
-     */
-    private ObjectMapper createObjectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        return mapper;
-    }
-    
     /**
      * サーバーの設定
      */
@@ -106,6 +98,7 @@ public class MCPServer {
      */
     public void start() throws Exception {
         logger.info("Starting MCP Server on port {}", port);
+        JsonSupport.prewarm();
         server.start();
         logger.info("MCP Server started successfully");
         
@@ -193,9 +186,9 @@ public class MCPServer {
         }
         
         try {
-            // ツールを実行
-            ToolResponse response = tool.execute(request.params());
-            return MCPResponse.success(request.id(), response.data());
+            // ツールを実行（バルクヘッド・サーキットブレーカー経由）
+            ToolResponse response = toolRegistry.execute(toolName, request.params());
+            return MCPResponse.success(request.id(), response.body(request.params()));
             
         } catch (ToolExecutionException e) {
             logger.error("Tool execution failed: {}", toolName, e);
@@ -233,7 +226,9 @@ public class MCPServer {
                 "tools", true,
                 "websocket", config.enableWebSocket(),
                 "caching", config.enableCaching()
-            )
+            ),
+            "tool_health", toolRegistry.getToolHealth(),
+            "tzdata", TzdbSnapshots.describe()
         ));
     }
     
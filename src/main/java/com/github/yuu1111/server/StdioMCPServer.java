@@ -2,7 +2,8 @@ package com.github.yuu1111.server;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.yuu1111.json.JsonSupport;
+import com.github.yuu1111.services.zone.TzdbSnapshots;
 import com.github.yuu1111.tools.MCPTool;
 import com.github.yuu1111.tools.ToolExecutionException;
 import com.github.yuu1111.tools.ToolResponse;
@@ -33,19 +34,17 @@ public class StdioMCPServer {
    * コンストラクタ
    */
   public StdioMCPServer() {
-    this.toolRegistry = new ToolRegistry();
-    this.objectMapper = createObjectMapper();
-    this.reader = new BufferedReader(new InputStreamReader(System.in));
-    this.writer = new PrintWriter(System.out, true);
+    this(new BufferedReader(new InputStreamReader(System.in)), new PrintWriter(System.out, true));
   }
 
   /**
-   * ObjectMapperの設定
+   * コンストラクタ（入出力指定）
    */
-  private ObjectMapper createObjectMapper() {
-    ObjectMapper mapper = new ObjectMapper();
-    mapper.registerModule(new JavaTimeModule());
-    return mapper;
+  StdioMCPServer(BufferedReader reader, PrintWriter writer) {
+    this.toolRegistry = new ToolRegistry();
+    this.objectMapper = JsonSupport.mapper();
+    this.reader = reader;
+    this.writer = writer;
   }
 
   /**
@@ -53,6 +52,7 @@ public class StdioMCPServer {
    */
   public void start() {
     logger.info("Starting Stdio MCP Server");
+    JsonSupport.prewarm();
     running = true;
 
     // 初期化メッセージを送信
@@ -128,6 +128,9 @@ public class StdioMCPServer {
         case "ping":
           handlePing(id);
           break;
+        case "server/info":
+          handleServerInfo(id);
+          break;
         default:
           sendErrorResponse(id, -32601, "Method not found: " + method);
       }
@@ -180,12 +183,13 @@ public class StdioMCPServer {
       // パラメータをMapに変換
       Map<String, Object> toolParams = objectMapper.convertValue(arguments, Map.class);
 
-      // ツールを実行
-      ToolResponse response = tool.execute(toolParams);
+      // ツールを実行（バルクヘッド・サーキットブレーカー経由）
+      ToolResponse response = toolRegistry.execute(toolName, toolParams);
 
       // 結果を返す
       List<Map<String, Object>> content = new ArrayList<>();
-      content.add(Map.of("type", "text", "text", objectMapper.writeValueAsString(response.data())));
+      content.add(Map.of("type", "text", "text",
+          objectMapper.writeValueAsString(response.body(toolParams))));
 
       sendResponse(id, Map.of("content", content));
 
@@ -198,6 +202,20 @@ public class StdioMCPServer {
     }
   }
 
+  /**
+   * server/infoハンドラ HTTPサーバーと同じく、有効なtzdataとツールの稼働状況を返す
+   */
+  private void handleServerInfo(String id) {
+    sendResponse(id, Map.of(
+        "name", "FetchTimeMCP",
+        "version", "1.0.0",
+        "protocol", "MCP/2.0",
+        "capabilities", Map.of("tools", true),
+        "tool_health", toolRegistry.getToolHealth(),
+        "tzdata", TzdbSnapshots.describe()
+    ));
+  }
+
   /**
    * pingハンドラ
    */
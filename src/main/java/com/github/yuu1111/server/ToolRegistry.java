@@ -1,6 +1,12 @@
 package com.github.yuu1111.server;
 
+import com.github.yuu1111.protocol.MCPError;
+import com.github.yuu1111.resilience.Bulkhead;
+import com.github.yuu1111.resilience.CircuitBreaker;
+import com.github.yuu1111.tools.FieldSet;
 import com.github.yuu1111.tools.MCPTool;
+import com.github.yuu1111.tools.ToolExecutionException;
+import com.github.yuu1111.tools.ToolResponse;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -15,6 +21,7 @@ import org.slf4j.LoggerFactory;
 
 /**
  * ツールレジストリ MCPツールの登録と管理を行う
+ * ツールごとにバルクヘッドとサーキットブレーカーを持ち、1つのツールの障害が他へ波及しないようにする
  */
 public class ToolRegistry {
 
@@ -22,6 +29,24 @@ public class ToolRegistry {
 
   private final Map<String, MCPTool> tools = new ConcurrentHashMap<>();
   private final Map<String, ToolMetadata> metadata = new ConcurrentHashMap<>();
+  private final Map<String, ToolGuard> guards = new ConcurrentHashMap<>();
+  private final Bulkhead.Config bulkheadConfig;
+  private final CircuitBreaker.Config circuitBreakerConfig;
+
+  /**
+   * コンストラクタ（デフォルト設定）
+   */
+  public ToolRegistry() {
+    this(Bulkhead.Config.defaultConfig(), CircuitBreaker.Config.defaultConfig());
+  }
+
+  /**
+   * コンストラクタ（バルクヘッド・サーキットブレーカー設定付き）
+   */
+  public ToolRegistry(Bulkhead.Config bulkheadConfig, CircuitBreaker.Config circuitBreakerConfig) {
+    this.bulkheadConfig = bulkheadConfig;
+    this.circuitBreakerConfig = circuitBreakerConfig;
+  }
 
   /**
    * ツールを登録
@@ -38,6 +63,7 @@ public class ToolRegistry {
 
     tools.put(name, tool);
     metadata.put(name, createMetadata(tool));
+    guards.put(name, new ToolGuard(name));
     logger.info("Registered tool: {} - {}", name, tool.getDescription());
   }
 
@@ -55,6 +81,34 @@ public class ToolRegistry {
     return tools.get(name);
   }
 
+  /**
+   * ツールを実行 ツールごとの同時実行数制限とサーキットブレーカーを適用する
+   * fieldsパラメータが指定された場合は射影をコンパイルしてツールに渡す
+   */
+  public ToolResponse execute(String name, Map<String, Object> parameters)
+      throws ToolExecutionException {
+    MCPTool tool = tools.get(name);
+    ToolGuard guard = guards.get(name);
+    if (tool == null || guard == null) {
+      throw new ToolExecutionException(MCPError.methodNotFound("Tool not found: " + name));
+    }
+
+    FieldSet fields;
+    try {
+      fields = FieldSet.fromParameters(parameters);
+    } catch (IllegalArgumentException e) {
+      throw ToolExecutionException.invalidParameter(FieldSet.PARAMETER, e.getMessage());
+    }
+
+    ToolResponse response = guard.execute(tool, parameters, fields);
+
+    // 射影に対応していないツールの結果はここで絞り込む
+    if (!fields.isAll() && !tool.supportsFieldProjection()) {
+      return ToolResponse.of(fields.project(response.result()), response.metadataSupplier());
+    }
+    return response;
+  }
+
   /**
    * ツールが存在するか確認
    */
@@ -69,6 +123,7 @@ public class ToolRegistry {
     MCPTool removed = tools.remove(name);
     if (removed != null) {
       metadata.remove(name);
+      guards.remove(name);
       logger.info("Unregistered tool: {}", name);
     }
   }
@@ -96,7 +151,7 @@ public class ToolRegistry {
       Map<String, Object> toolInfo = new HashMap<>();
       toolInfo.put("name", tool.getName());
       toolInfo.put("description", tool.getDescription());
-      toolInfo.put("parameters", tool.getParameterSchema());
+      toolInfo.put("parameters", withCommonParameters(tool.getParameterSchema()));
 
       // メタデータを追加
       ToolMetadata meta = metadata.get(entry.getKey());
@@ -111,6 +166,25 @@ public class ToolRegistry {
     }).collect(Collectors.toList());
   }
 
+  /**
+   * ツールのスキーマに全ツール共通のパラメータを追加する
+   * fieldsとinclude_metadataはレジストリとレスポンス生成側で全ツールに適用されるため、ここで一括して公開する
+   * ツールごとに記述しないことで、ツール間で説明や型がずれないようにする
+   */
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> withCommonParameters(Map<String, Object> schema) {
+    Map<String, Object> merged = new HashMap<>(schema);
+    Map<String, Object> properties = new HashMap<>();
+    if (schema.get("properties") instanceof Map<?, ?> existing) {
+      properties.putAll((Map<String, Object>) existing);
+    }
+    properties.putIfAbsent(FieldSet.PARAMETER, FieldSet.SCHEMA);
+    properties.putIfAbsent(ToolResponse.INCLUDE_METADATA_PARAMETER,
+        ToolResponse.INCLUDE_METADATA_SCHEMA);
+    merged.put("properties", properties);
+    return merged;
+  }
+
   /**
    * カテゴリ別にツールを取得
    */
@@ -133,6 +207,15 @@ public class ToolRegistry {
         .map(Map.Entry::getKey).collect(Collectors.toList());
   }
 
+  /**
+   * ツールごとの稼働状況を取得（バルクヘッド・サーキットブレーカー）
+   */
+  public Map<String, Map<String, Object>> getToolHealth() {
+    Map<String, Map<String, Object>> result = new HashMap<>();
+    guards.forEach((name, guard) -> result.put(name, guard.health()));
+    return result;
+  }
+
   /**
    * ツールのメタデータを作成
    */
@@ -169,6 +252,7 @@ public class ToolRegistry {
   public void clear() {
     tools.clear();
     metadata.clear();
+    guards.clear();
     logger.info("Tool registry cleared");
   }
 
@@ -186,6 +270,82 @@ public class ToolRegistry {
     return tools.isEmpty();
   }
 
+  /**
+   * ツール実行ガード ツール単位のバルクヘッドとサーキットブレーカーを保持
+   */
+  private class ToolGuard {
+
+    private final String name;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+
+    ToolGuard(String name) {
+      this.name = name;
+      this.bulkhead = new Bulkhead(name, bulkheadConfig);
+      this.circuitBreaker = new CircuitBreaker(name, circuitBreakerConfig);
+    }
+
+    ToolResponse execute(MCPTool tool, Map<String, Object> parameters, FieldSet fields)
+        throws ToolExecutionException {
+      // ブレーカーがOPENの場合は即座に失敗させる
+      if (!circuitBreaker.tryAcquirePermission()) {
+        logger.warn("Circuit breaker open, rejecting call to tool: {}", name);
+        throw new ToolExecutionException(MCPError.API_ERROR,
+            "Circuit breaker open for tool: " + name,
+            Map.of("retry_after_ms", circuitBreaker.getRemainingOpenMillis()));
+      }
+
+      boolean entered;
+      try {
+        entered = bulkhead.tryEnter();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        circuitBreaker.releasePermission();
+        throw new ToolExecutionException(MCPError.API_ERROR,
+            "Interrupted while waiting for tool: " + name);
+      }
+      if (!entered) {
+        circuitBreaker.releasePermission();
+        logger.warn("Bulkhead full, rejecting call to tool: {}", name);
+        throw new ToolExecutionException(MCPError.API_ERROR, "Tool is saturated: " + name,
+            Map.of("max_concurrent_calls", bulkheadConfig.maxConcurrentCalls(), "max_queue_size",
+                bulkheadConfig.maxQueueSize()));
+      }
+
+      long start = System.nanoTime();
+      try {
+        ToolResponse response = tool.execute(parameters, fields);
+        circuitBreaker.onSuccess(System.nanoTime() - start);
+        return response;
+      } catch (ToolExecutionException e) {
+        // パラメータ誤りなどクライアント起因のエラーはブレーカーの判定に含めない
+        if (isServerFailure(e.getMcpError())) {
+          circuitBreaker.onError(System.nanoTime() - start);
+        } else {
+          circuitBreaker.onSuccess(System.nanoTime() - start);
+        }
+        throw e;
+      } catch (RuntimeException e) {
+        circuitBreaker.onError(System.nanoTime() - start);
+        throw e;
+      } finally {
+        bulkhead.exit();
+      }
+    }
+
+    private boolean isServerFailure(MCPError error) {
+      return error.code() == MCPError.INTERNAL_ERROR || error.code() == MCPError.API_ERROR;
+    }
+
+    Map<String, Object> health() {
+      CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+      return Map.of("state", metrics.state().name(), "failure_rate", metrics.failureRate(),
+          "slow_call_rate", metrics.slowCallRate(), "not_permitted_calls",
+          metrics.notPermittedCalls(), "active_calls", bulkhead.getActiveCalls(), "queued_calls",
+          bulkhead.getQueuedCalls());
+    }
+  }
+
   /**
    * ツールメタデータ
    */
@@ -5,6 +5,8 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.EnumSet;
+import java.util.Set;
 import org.shredzone.commons.suncalc.MoonIllumination;
 import org.shredzone.commons.suncalc.MoonPhase;
 import org.shredzone.commons.suncalc.MoonPosition;
@@ -21,23 +23,64 @@ public class AstronomyService {
 
   private static final Logger logger = LoggerFactory.getLogger(AstronomyService.class);
 
+  /**
+   * 個別に実行できる計算の種類
+   */
+  public enum Calculation {
+    /** 日の出・日の入り・南中・日長 */
+    SUN_TIMES,
+    /** 市民・航海・天文薄明 */
+    TWILIGHT,
+    /** 月の出・月の入り */
+    MOON_TIMES,
+    /** 月相・照度・月齢 */
+    MOON_PHASE,
+    /** 地球からの月の距離 */
+    MOON_DISTANCE,
+    /** 正午の太陽位置 */
+    SOLAR_POSITION
+  }
+
   /**
    * 指定された位置と日付の天文情報を取得
    */
   public AstronomicalInfo getAstronomicalInfo(double latitude, double longitude, LocalDate date) {
-    logger.debug("Calculating astronomical info for lat:{}, lon:{}, date:{}", latitude, longitude,
-        date);
+    return getAstronomicalInfo(latitude, longitude, date, EnumSet.allOf(Calculation.class));
+  }
+
+  /**
+   * 指定された計算のみを実行して天文情報を取得 含まれない項目は未設定のまま返す
+   */
+  public AstronomicalInfo getAstronomicalInfo(double latitude, double longitude, LocalDate date,
+      Set<Calculation> calculations) {
+    logger.debug("Calculating astronomical info for lat:{}, lon:{}, date:{}, calculations:{}",
+        latitude, longitude, date, calculations);
 
     AstronomicalInfo info = new AstronomicalInfo();
 
     // 太陽情報の計算
-    calculateSunInfo(info, latitude, longitude, date);
+    if (calculations.contains(Calculation.SUN_TIMES)) {
+      calculateSunInfo(info, latitude, longitude, date);
+    }
+    if (calculations.contains(Calculation.TWILIGHT)) {
+      calculateTwilight(info, latitude, longitude, date);
+    }
 
     // 月情報の計算
-    calculateMoonInfo(info, latitude, longitude, date);
+    if (calculations.contains(Calculation.MOON_TIMES)) {
+      calculateMoonTimes(info, latitude, longitude, date);
+    }
+    if (calculations.contains(Calculation.MOON_PHASE)) {
+      calculateMoonPhase(info, date);
+    }
+    if (calculations.contains(Calculation.MOON_DISTANCE)) {
+      calculateMoonDistance(info, latitude, longitude, date);
+    }
 
     // 太陽位置の計算
-    calculateSolarPosition(info, latitude, longitude, date);
+    if (calculations.contains(Calculation.SOLAR_POSITION)) {
+      calculateSolarPosition(info, latitude, longitude, date);
+    }
 
     return info;
   }
@@ -68,9 +111,6 @@ public class AstronomyService {
         info.setDayLength(formatDuration(dayLength));
       }
 
-      // トワイライト計算
-      calculateTwilight(info, latitude, longitude, date);
-
     } catch (Exception e) {
       logger.error("Failed to calculate sun info", e);
       // 極地や特殊な条件での例外処理
@@ -126,12 +166,11 @@ public class AstronomyService {
   }
 
   /**
-   * 月情報を計算
+   * 月の出・月の入りを計算
    */
-  private void calculateMoonInfo(AstronomicalInfo info, double latitude, double longitude,
+  private void calculateMoonTimes(AstronomicalInfo info, double latitude, double longitude,
       LocalDate date) {
     try {
-      // 月の出・月の入り
       MoonTimes moonTimes = MoonTimes.compute().on(date).at(latitude, longitude).execute();
 
       if (moonTimes.getRise() != null) {
@@ -141,6 +180,18 @@ public class AstronomyService {
         info.setMoonset(moonTimes.getSet().toString());
       }
 
+    } catch (Exception e) {
+      logger.error("Failed to calculate moon times", e);
+      info.setMoonrise("N/A");
+      info.setMoonset("N/A");
+    }
+  }
+
+  /**
+   * 月相・照度・月齢を計算
+   */
+  private void calculateMoonPhase(AstronomicalInfo info, LocalDate date) {
+    try {
       // 月相計算
       MoonPhase moonPhase = MoonPhase.compute().on(date).execute();
 
@@ -157,17 +208,25 @@ public class AstronomyService {
       double moonAge = calculateMoonAge(date);
       info.setMoonAge(moonAge);
 
-      // 月の距離
+    } catch (Exception e) {
+      logger.error("Failed to calculate moon phase", e);
+      info.setMoonPhase(MoonPhaseType.UNKNOWN);
+    }
+  }
+
+  /**
+   * 月の距離を計算
+   */
+  private void calculateMoonDistance(AstronomicalInfo info, double latitude, double longitude,
+      LocalDate date) {
+    try {
       MoonPosition moonPosition = MoonPosition.compute().on(date.atStartOfDay(ZoneId.of("UTC")))
           .at(latitude, longitude).execute();
 
       info.setMoonDistance(moonPosition.getDistance());
 
     } catch (Exception e) {
-      logger.error("Failed to calculate moon info", e);
-      info.setMoonrise("N/A");
-      info.setMoonset("N/A");
-      info.setMoonPhase(MoonPhaseType.UNKNOWN);
+      logger.error("Failed to calculate moon distance", e);
     }
   }
 
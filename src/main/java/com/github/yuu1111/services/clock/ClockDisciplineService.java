@@ -0,0 +1,434 @@
+package com.github.yuu1111.services.clock;
+
+import com.github.yuu1111.api.LocalTimeInfoProvider;
+import com.github.yuu1111.api.ResilientTimeInfoProvider;
+import com.github.yuu1111.api.TimeInfoProvider;
+import com.github.yuu1111.api.WorldTimeAPIClient;
+import com.github.yuu1111.api.WorldTimeAPIConfig;
+import com.github.yuu1111.resilience.CircuitBreaker;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 時刻同期サービス
+ * バックグラウンドで参照元と定期的に時刻を交換し、NTPと同様の往復計算でローカル時計のずれと周波数誤差を推定する
+ * ツールは補正済みの時計を使うため、リクエストごとのネットワーク呼び出しは不要になる
+ */
+public class ClockDisciplineService {
+
+  private static final Logger logger = LoggerFactory.getLogger(ClockDisciplineService.class);
+
+  /**
+   * 最後の同期からの経過時間あたりの誤差の増加（NTPのPHIと同じ15ppm）
+   */
+  static final double DISPERSION_RATE = 15e-6;
+
+  /**
+   * 推定する周波数誤差の上限（NTPの許容値と同じ500ppm）
+   */
+  static final double MAX_DRIFT = 500e-6;
+
+  private static final int FILTER_SIZE = 8;
+  private static final int MIN_DRIFT_SAMPLES = 3;
+
+  private static volatile ClockDisciplineService shared = new ClockDisciplineService(null,
+      Config.builder().enabled(false).build(), Clock.systemUTC());
+
+  private final TimeReference reference;
+  private final Config config;
+  private final Clock localClock;
+  private final Deque<ClockSample> samples = new ArrayDeque<>(FILTER_SIZE);
+  private ScheduledExecutorService scheduler;
+  private volatile Estimate estimate = Estimate.UNSYNCHRONIZED;
+
+  /**
+   * コンストラクタ
+   */
+  public ClockDisciplineService(TimeReference reference, Config config) {
+    this(reference, config, Clock.systemUTC());
+  }
+
+  /**
+   * コンストラクタ（ローカル時計指定）
+   */
+  public ClockDisciplineService(TimeReference reference, Config config, Clock localClock) {
+    this.reference = reference;
+    this.config = config;
+    this.localClock = localClock;
+  }
+
+  /**
+   * ツールが共有するサービスを取得 設定されていなければ補正しないサービスを返す
+   */
+  public static ClockDisciplineService shared() {
+    return shared;
+  }
+
+  /**
+   * 共有するサービスを設定
+   */
+  public static void install(ClockDisciplineService service) {
+    shared = service;
+  }
+
+  /**
+   * application.properties の clock.* からサービスを作成
+   */
+  public static ClockDisciplineService fromProperties(Properties properties) {
+    Config config = Config.fromProperties(properties);
+    if (!config.enabled()) {
+      return new ClockDisciplineService(null, config);
+    }
+    TimeReference reference = switch (config.reference()) {
+      case "sntp" -> new SntpTimeReference(config.sntpHost(), config.sntpPort(), config.timeout());
+      case "http" -> new HttpTimeReference(httpProvider(properties, config));
+      case "local" -> new ClockTimeReference("local", Clock.systemUTC());
+      default -> throw new IllegalArgumentException(
+          "Unknown clock reference: " + config.reference());
+    };
+    return new ClockDisciplineService(reference, config);
+  }
+
+  /**
+   * HTTP参照元のプロバイダーを作成
+   * 停止中や遅延中のWorldTimeAPIにポーリングのたびにタイムアウトまで待たないよう、サーキットブレーカーで包む
+   * ブレーカーが開いている間はローカルのtzdbで応答するが、HttpTimeReferenceはそれを参照時刻として使わず、その回の同期を即座に失敗させる
+   * 往復がmaxDelayを超える応答は同期に使えないため遅延として数え、直近3回がすべて失敗またはすべて遅延の場合は
+   * ポーリング間隔の3倍の間遮断する
+   * 接続先やディスパッチャーなどはworldtime.api.*に従うが、キャッシュした時刻は参照にならないためキャッシュと再試行は使わず、
+   * 共有クライアントと同じファイルに書き込まないよう永続化もしない
+   */
+  static TimeInfoProvider httpProvider(Properties properties, Config config) {
+    WorldTimeAPIClient client = new WorldTimeAPIClient(
+        WorldTimeAPIConfig.fromProperties(properties).toBuilder()
+            .timeout(config.timeout())
+            .maxRetries(0)
+            .cacheEnabled(false)
+            .catalogueFile(null)
+            .ipPrefixFile(null)
+            .build());
+    return new ResilientTimeInfoProvider(client, new LocalTimeInfoProvider(),
+        CircuitBreaker.Config.builder()
+            .slidingWindowSize(3)
+            .minimumNumberOfCalls(3)
+            .failureRateThreshold(100)
+            .slowCallDuration(config.maxDelay())
+            .slowCallRateThreshold(100)
+            .openDuration(config.pollInterval().multipliedBy(3))
+            .permittedCallsInHalfOpen(1)
+            .build());
+  }
+
+  /**
+   * 定期的な同期を開始
+   */
+  public synchronized void start() {
+    if (reference == null || !config.enabled() || scheduler != null) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "ClockDiscipline");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(this::poll, 0, config.pollInterval().toMillis(),
+        TimeUnit.MILLISECONDS);
+    logger.info("Clock discipline started with {} every {}", reference.getName(),
+        config.pollInterval());
+  }
+
+  /**
+   * 同期を停止
+   */
+  public synchronized void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+  }
+
+  /**
+   * 参照元と1回同期する 失敗した場合は直前の推定を維持する
+   */
+  public void poll() {
+    try {
+      ClockSample sample = reference.sample(localClock);
+      if (sample.delayNanos() > config.maxDelay().toNanos()) {
+        logger.debug("Discarding clock sample with {}ms round trip from {}",
+            TimeUnit.NANOSECONDS.toMillis(sample.delayNanos()), reference.getName());
+        return;
+      }
+      update(sample);
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Clock sample from {} failed: {}", reference.getName(), e.getMessage());
+    }
+  }
+
+  /**
+   * 計測値を追加して推定を更新
+   * 直近の計測のうち往復遅延が最小のものをずれの推定に使い（NTPのクロックフィルタ）、
+   * 全計測に対する最小二乗法で周波数誤差を推定する
+   * 最小遅延の計測は最大でFILTER_SIZE回前のものになるため、同期の鮮度と最終同期時刻は今回の計測から求める
+   */
+  synchronized void update(ClockSample sample) {
+    if (samples.size() == FILTER_SIZE) {
+      samples.removeFirst();
+    }
+    samples.addLast(sample);
+
+    ClockSample best = samples.peekLast();
+    for (ClockSample candidate : samples) {
+      if (candidate.delayNanos() < best.delayNanos()) {
+        best = candidate;
+      }
+    }
+    Estimate next = new Estimate(best.offsetNanos(), estimateDrift(), best.errorBoundNanos(),
+        best.monotonicNanos(), sample.monotonicNanos(),
+        Instant.ofEpochSecond(0, sample.destination() + sample.offsetNanos()), samples.size());
+    estimate = next;
+    logger.debug("Clock offset {}us ±{}us, drift {}ppm from {}", next.offsetNanos() / 1_000,
+        next.errorBoundNanos() / 1_000, Math.round(next.drift() * 1e6 * 100) / 100.0,
+        reference.getName());
+  }
+
+  private double estimateDrift() {
+    if (samples.size() < MIN_DRIFT_SAMPLES) {
+      return 0;
+    }
+    long base = samples.peekFirst().monotonicNanos();
+    double meanX = 0;
+    double meanY = 0;
+    for (ClockSample sample : samples) {
+      meanX += sample.monotonicNanos() - base;
+      meanY += sample.offsetNanos();
+    }
+    meanX /= samples.size();
+    meanY /= samples.size();
+
+    double covariance = 0;
+    double variance = 0;
+    for (ClockSample sample : samples) {
+      double dx = sample.monotonicNanos() - base - meanX;
+      covariance += dx * (sample.offsetNanos() - meanY);
+      variance += dx * dx;
+    }
+    if (variance == 0) {
+      return 0;
+    }
+    return Math.max(-MAX_DRIFT, Math.min(MAX_DRIFT, covariance / variance));
+  }
+
+  /**
+   * 現在の補正値と誤差の上限を取得
+   */
+  public Status status() {
+    Estimate current = estimate;
+    String name = reference != null ? reference.getName() : null;
+    if (current.samples() == 0) {
+      return new Status(false, name, 0, -1, 0, null);
+    }
+    long now = System.nanoTime();
+    long offset = current.offsetAt(now - current.monotonicNanos());
+    long sinceSync = now - current.syncNanos();
+    long errorBound = current.errorBoundNanos() + (long) (DISPERSION_RATE * sinceSync);
+    boolean synced = sinceSync <= config.pollInterval().multipliedBy(4).toNanos();
+    return new Status(synced, name, offset, errorBound, current.drift(), current.lastSync());
+  }
+
+  /**
+   * 補正済みの時計を取得 同期していない場合はローカル時計と同じ時刻を返す
+   */
+  public Clock clock() {
+    return new DisciplinedClock(ZoneOffset.UTC);
+  }
+
+  /**
+   * 推定値
+   *
+   * @param offsetNanos     ずれの推定値
+   * @param drift           周波数誤差（秒/秒）
+   * @param errorBoundNanos ずれの推定に使った計測の誤差の上限
+   * @param monotonicNanos  ずれの推定に使った計測のSystem.nanoTime
+   * @param syncNanos       最後に成功した同期のSystem.nanoTime
+   * @param lastSync        最後に成功した同期の補正後の時刻
+   * @param samples         推定に使った計測数
+   */
+  private record Estimate(long offsetNanos, double drift, long errorBoundNanos,
+                          long monotonicNanos, long syncNanos, Instant lastSync, int samples) {
+
+    static final Estimate UNSYNCHRONIZED = new Estimate(0, 0, 0, 0, 0, null, 0);
+
+    long offsetAt(long ageNanos) {
+      return offsetNanos + (long) (drift * ageNanos);
+    }
+  }
+
+  /**
+   * 同期状態
+   *
+   * @param synced          最近の同期に成功しているか
+   * @param reference       参照元の名前
+   * @param offsetNanos     ローカル時計に加える補正値
+   * @param errorBoundNanos 補正後の時刻の誤差の上限 同期していない場合は-1
+   * @param drift           周波数誤差（秒/秒）
+   * @param lastSync        最後に同期した時刻
+   */
+  public record Status(boolean synced, String reference, long offsetNanos, long errorBoundNanos,
+                       double drift, Instant lastSync) {
+
+  }
+
+  /**
+   * 推定したずれをローカル時計に加える時計
+   */
+  private final class DisciplinedClock extends Clock {
+
+    private final ZoneId zone;
+
+    DisciplinedClock(ZoneId zone) {
+      this.zone = zone;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return zone.equals(this.zone) ? this : new DisciplinedClock(zone);
+    }
+
+    @Override
+    public Instant instant() {
+      Estimate current = estimate;
+      Instant local = localClock.instant();
+      if (current.samples() == 0) {
+        return local;
+      }
+      return local.plusNanos(current.offsetAt(System.nanoTime() - current.monotonicNanos()));
+    }
+  }
+
+  /**
+   * 時刻同期の設定
+   */
+  public record Config(boolean enabled, String reference, String sntpHost, int sntpPort,
+                       Duration pollInterval, Duration timeout, Duration maxDelay) {
+
+    public static final boolean DEFAULT_ENABLED = true;
+    public static final String DEFAULT_REFERENCE = "sntp";
+    public static final String DEFAULT_SNTP_HOST = "pool.ntp.org";
+    public static final Duration DEFAULT_POLL_INTERVAL = Duration.ofMinutes(5);
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(3);
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(1);
+
+    public Config {
+      if (pollInterval.isNegative() || pollInterval.isZero()) {
+        throw new IllegalArgumentException("pollInterval must be positive");
+      }
+      if (timeout.isNegative() || timeout.isZero()) {
+        throw new IllegalArgumentException("timeout must be positive");
+      }
+    }
+
+    /**
+     * application.properties の clock.* から設定を作成
+     */
+    public static Config fromProperties(Properties properties) {
+      return builder()
+          .enabled(Boolean.parseBoolean(properties.getProperty("clock.discipline.enabled",
+              String.valueOf(DEFAULT_ENABLED))))
+          .reference(properties.getProperty("clock.reference", DEFAULT_REFERENCE))
+          .sntpHost(properties.getProperty("clock.sntp.host", DEFAULT_SNTP_HOST))
+          .sntpPort(Integer.parseInt(properties.getProperty("clock.sntp.port",
+              String.valueOf(SntpTimeReference.DEFAULT_PORT))))
+          .pollInterval(Duration.ofMillis(Long.parseLong(properties.getProperty(
+              "clock.poll.interval", String.valueOf(DEFAULT_POLL_INTERVAL.toMillis())))))
+          .timeout(Duration.ofMillis(Long.parseLong(properties.getProperty("clock.timeout",
+              String.valueOf(DEFAULT_TIMEOUT.toMillis())))))
+          .maxDelay(Duration.ofMillis(Long.parseLong(properties.getProperty("clock.max.delay",
+              String.valueOf(DEFAULT_MAX_DELAY.toMillis())))))
+          .build();
+    }
+
+    /**
+     * ビルダーを作成
+     */
+    public static Builder builder() {
+      return new Builder();
+    }
+
+    /**
+     * 設定ビルダー
+     */
+    public static class Builder {
+
+      private boolean enabled = DEFAULT_ENABLED;
+      private String reference = DEFAULT_REFERENCE;
+      private String sntpHost = DEFAULT_SNTP_HOST;
+      private int sntpPort = SntpTimeReference.DEFAULT_PORT;
+      private Duration pollInterval = DEFAULT_POLL_INTERVAL;
+      private Duration timeout = DEFAULT_TIMEOUT;
+      private Duration maxDelay = DEFAULT_MAX_DELAY;
+
+      public Builder enabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+      }
+
+      /**
+       * 参照元の種類（sntp・http・local）
+       */
+      public Builder reference(String reference) {
+        this.reference = reference;
+        return this;
+      }
+
+      public Builder sntpHost(String host) {
+        this.sntpHost = host;
+        return this;
+      }
+
+      public Builder sntpPort(int port) {
+        this.sntpPort = port;
+        return this;
+      }
+
+      public Builder pollInterval(Duration interval) {
+        this.pollInterval = interval;
+        return this;
+      }
+
+      public Builder timeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+      }
+
+      /**
+       * これより往復遅延の大きい計測は誤差が大きいため破棄する
+       */
+      public Builder maxDelay(Duration maxDelay) {
+        this.maxDelay = maxDelay;
+        return this;
+      }
+
+      public Config build() {
+        return new Config(enabled, reference, sntpHost, sntpPort, pollInterval, timeout,
+            maxDelay);
+      }
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package com.github.yuu1111.services.clock;
+
+import java.time.Instant;
+
+/**
+ * 参照時計との1回の時刻交換 NTPと同じ4つのタイムスタンプ（エポックからのナノ秒）を保持する
+ *
+ * @param origin         要求を送信したローカル時刻（t1）
+ * @param receive        参照側が要求を受信した時刻（t2）
+ * @param transmit       参照側が応答を送信した時刻（t3）
+ * @param destination    応答を受信したローカル時刻（t4）
+ * @param precisionNanos 参照側のタイムスタンプの精度
+ * @param monotonicNanos 応答を受信した時点のSystem.nanoTime
+ */
+public record ClockSample(long origin, long receive, long transmit, long destination,
+                          long precisionNanos, long monotonicNanos) {
+
+  /**
+   * 参照時計に対するローカル時計のずれ θ = ((t2 - t1) + (t3 - t4)) / 2
+   * 正の値はローカル時計が遅れていることを示す
+   */
+  public long offsetNanos() {
+    return ((receive - origin) + (transmit - destination)) / 2;
+  }
+
+  /**
+   * 往復の遅延 δ = (t4 - t1) - (t3 - t2)
+   */
+  public long delayNanos() {
+    return Math.max(0, (destination - origin) - (transmit - receive));
+  }
+
+  /**
+   * この交換から得られるずれの誤差の上限 往復遅延の半分と参照側の精度の和
+   */
+  public long errorBoundNanos() {
+    return delayNanos() / 2 + precisionNanos;
+  }
+
+  /**
+   * Instantをエポックからのナノ秒に変換
+   */
+  public static long epochNanos(Instant instant) {
+    return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L),
+        instant.getNano());
+  }
+}
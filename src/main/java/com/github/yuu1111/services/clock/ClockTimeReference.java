@@ -0,0 +1,34 @@
+package com.github.yuu1111.services.clock;
+
+import java.time.Clock;
+
+/**
+ * Clockを参照元とするローカルの代替 ネットワークのない環境やテストで使う
+ */
+public class ClockTimeReference implements TimeReference {
+
+  private final String name;
+  private final Clock reference;
+
+  /**
+   * コンストラクタ
+   */
+  public ClockTimeReference(String name, Clock reference) {
+    this.name = name;
+    this.reference = reference;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public ClockSample sample(Clock localClock) {
+    long origin = ClockSample.epochNanos(localClock.instant());
+    long referenceTime = ClockSample.epochNanos(reference.instant());
+    long destination = ClockSample.epochNanos(localClock.instant());
+    return new ClockSample(origin, referenceTime, referenceTime, destination, 1_000,
+        System.nanoTime());
+  }
+}
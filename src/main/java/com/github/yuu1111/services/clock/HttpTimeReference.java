@@ -0,0 +1,55 @@
+package com.github.yuu1111.services.clock;
+
+import com.github.yuu1111.api.TimeInfoProvider;
+import com.github.yuu1111.api.WorldTimeAPIClient.TimeInfo;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * HTTPの時刻APIを参照元とする WorldTimeAPIのutc_datetime（マイクロ秒精度）を参照時刻として使う
+ * 応答のキャッシュや再試行は計測を歪めるため、キャッシュを無効にしたプロバイダーを渡すこと
+ */
+public class HttpTimeReference implements TimeReference {
+
+  private static final String REFERENCE_ZONE = "Etc/UTC";
+
+  private final TimeInfoProvider provider;
+
+  /**
+   * コンストラクタ
+   */
+  public HttpTimeReference(TimeInfoProvider provider) {
+    this.provider = provider;
+  }
+
+  @Override
+  public String getName() {
+    return "http";
+  }
+
+  @Override
+  public ClockSample sample(Clock localClock) throws IOException {
+    long origin = ClockSample.epochNanos(localClock.instant());
+    TimeInfo info = provider.getTimeSync(REFERENCE_ZONE);
+    long destination = ClockSample.epochNanos(localClock.instant());
+    long monotonic = System.nanoTime();
+
+    if (info.source != TimeInfo.Source.REMOTE) {
+      throw new IOException("Time reference answered from " + info.source);
+    }
+    long serverTime = info.unixtime * 1_000_000_000L;
+    long precision = 1_000_000_000L;
+    if (info.utcDatetime != null) {
+      try {
+        serverTime = ClockSample.epochNanos(OffsetDateTime.parse(info.utcDatetime).toInstant());
+        precision = 1_000;
+      } catch (DateTimeParseException e) {
+        // 解釈できない場合は秒単位のunixtimeを使う
+      }
+    }
+    // 参照側の受信と送信の区別がないため同じ時刻とみなす
+    return new ClockSample(origin, serverTime, serverTime, destination, precision, monotonic);
+  }
+}
@@ -0,0 +1,129 @@
+package com.github.yuu1111.services.clock;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * SNTP（RFC 4330）のサーバーを参照元とする UDPで1パケットを交換し、4つのタイムスタンプを得る
+ */
+public class SntpTimeReference implements TimeReference {
+
+  public static final int DEFAULT_PORT = 123;
+
+  private static final int PACKET_SIZE = 48;
+  private static final int RECEIVE_OFFSET = 32;
+  private static final int TRANSMIT_OFFSET = 40;
+  private static final int ORIGINATE_OFFSET = 24;
+  private static final int MODE_CLIENT = 3;
+  private static final int MODE_SERVER = 4;
+  private static final int VERSION = 4;
+
+  /**
+   * 1900年1月1日（NTPの基準）から1970年1月1日までの秒数
+   */
+  private static final long NTP_EPOCH_OFFSET = 2_208_988_800L;
+
+  private final String host;
+  private final int port;
+  private final Duration timeout;
+
+  /**
+   * コンストラクタ
+   */
+  public SntpTimeReference(String host, int port, Duration timeout) {
+    this.host = host;
+    this.port = port;
+    this.timeout = timeout;
+  }
+
+  @Override
+  public String getName() {
+    return "sntp://" + host + (port == DEFAULT_PORT ? "" : ":" + port);
+  }
+
+  @Override
+  public ClockSample sample(Clock localClock) throws IOException {
+    InetAddress address = InetAddress.getByName(host);
+    byte[] request = new byte[PACKET_SIZE];
+    request[0] = (byte) (VERSION << 3 | MODE_CLIENT);
+
+    try (DatagramSocket socket = new DatagramSocket()) {
+      socket.setSoTimeout((int) timeout.toMillis());
+      long origin = ClockSample.epochNanos(localClock.instant());
+      writeTimestamp(request, TRANSMIT_OFFSET, origin);
+      socket.send(new DatagramPacket(request, PACKET_SIZE, address, port));
+
+      byte[] response = new byte[PACKET_SIZE];
+      DatagramPacket packet = new DatagramPacket(response, PACKET_SIZE);
+      socket.receive(packet);
+      long destination = ClockSample.epochNanos(localClock.instant());
+      long monotonic = System.nanoTime();
+
+      validate(packet, request, response);
+      long receive = readTimestamp(response, RECEIVE_OFFSET);
+      long transmit = readTimestamp(response, TRANSMIT_OFFSET);
+      // 精度はlog2秒の符号付き整数
+      long precision = (long) (Math.pow(2, response[3]) * 1_000_000_000L);
+      return new ClockSample(origin, receive, transmit, destination, Math.max(1, precision),
+          monotonic);
+    }
+  }
+
+  private static void validate(DatagramPacket packet, byte[] request, byte[] response)
+      throws IOException {
+    if (packet.getLength() < PACKET_SIZE) {
+      throw new IOException("Short SNTP response: " + packet.getLength() + " bytes");
+    }
+    int mode = response[0] & 0x7;
+    if (mode != MODE_SERVER) {
+      throw new IOException("Unexpected SNTP mode: " + mode);
+    }
+    int leap = (response[0] >> 6) & 0x3;
+    int stratum = response[1] & 0xff;
+    if (leap == 3 || stratum == 0 || stratum > 15) {
+      // stratum 0はKiss-o'-Death（レート制限など）
+      throw new IOException("SNTP server is unsynchronized (leap=%d, stratum=%d)"
+          .formatted(leap, stratum));
+    }
+    for (int i = 0; i < 8; i++) {
+      if (response[ORIGINATE_OFFSET + i] != request[TRANSMIT_OFFSET + i]) {
+        throw new IOException("SNTP response does not match the request");
+      }
+    }
+  }
+
+  /**
+   * NTPタイムスタンプ（1900年からの秒と32ビットの小数部）をエポックからのナノ秒に変換
+   */
+  static long readTimestamp(byte[] buffer, int offset) {
+    long seconds = readUnsigned32(buffer, offset);
+    long fraction = readUnsigned32(buffer, offset + 4);
+    return (seconds - NTP_EPOCH_OFFSET) * 1_000_000_000L + (fraction * 1_000_000_000L >>> 32);
+  }
+
+  /**
+   * エポックからのナノ秒をNTPタイムスタンプとして書き込む
+   */
+  static void writeTimestamp(byte[] buffer, int offset, long epochNanos) {
+    long seconds = Math.floorDiv(epochNanos, 1_000_000_000L) + NTP_EPOCH_OFFSET;
+    long fraction = (Math.floorMod(epochNanos, 1_000_000_000L) << 32) / 1_000_000_000L;
+    writeUnsigned32(buffer, offset, seconds);
+    writeUnsigned32(buffer, offset + 4, fraction);
+  }
+
+  private static long readUnsigned32(byte[] buffer, int offset) {
+    return ((buffer[offset] & 0xffL) << 24) | ((buffer[offset + 1] & 0xffL) << 16)
+        | ((buffer[offset + 2] & 0xffL) << 8) | (buffer[offset + 3] & 0xffL);
+  }
+
+  private static void writeUnsigned32(byte[] buffer, int offset, long value) {
+    buffer[offset] = (byte) (value >>> 24);
+    buffer[offset + 1] = (byte) (value >>> 16);
+    buffer[offset + 2] = (byte) (value >>> 8);
+    buffer[offset + 3] = (byte) value;
+  }
+}
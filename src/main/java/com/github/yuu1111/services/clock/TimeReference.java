@@ -0,0 +1,22 @@
+package com.github.yuu1111.services.clock;
+
+import java.io.IOException;
+import java.time.Clock;
+
+/**
+ * 時刻同期の参照元
+ */
+public interface TimeReference {
+
+  /**
+   * 参照元の名前
+   */
+  String getName();
+
+  /**
+   * 参照元と時刻を1回交換する
+   *
+   * @param localClock 送信・受信時刻の記録に使うローカル時計
+   */
+  ClockSample sample(Clock localClock) throws IOException;
+}
@@ -0,0 +1,225 @@
+package com.github.yuu1111.services.zone;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+/**
+ * 1つのタイムゾーンのオフセット表
+ * 指定した年の範囲の切り替え時刻（エポック秒）とその後のオフセットをプリミティブ配列に展開しておき、
+ * 二分探索だけでオフセットを求める 範囲内の検索ではオブジェクトを生成しない
+ * 範囲外の時刻はZoneRulesに委ねる
+ *
+ * 壁時計のオフセットが変わらずに標準時オフセットだけが変わる時刻も切り替えとして持つ
+ */
+public final class OffsetTable {
+
+  /**
+   * 標準時オフセットの変化を調べる間隔（90日）
+   */
+  private static final long STANDARD_SCAN_STEP = 90L * 24 * 3600;
+
+  private final String zoneId;
+  private final ZoneRules rules;
+  private final long rangeStart;
+  private final long rangeEnd;
+  // transitions[i]の時点からoffsets[i + 1]になる offsets[0]は範囲の開始時点のオフセット
+  private final long[] transitions;
+  private final int[] offsets;
+  private final int[] standardOffsets;
+
+  private OffsetTable(String zoneId, ZoneRules rules, long rangeStart, long rangeEnd,
+      long[] transitions, int[] offsets, int[] standardOffsets) {
+    this.zoneId = zoneId;
+    this.rules = rules;
+    this.rangeStart = rangeStart;
+    this.rangeEnd = rangeEnd;
+    this.transitions = transitions;
+    this.offsets = offsets;
+    this.standardOffsets = standardOffsets;
+  }
+
+  /**
+   * startYearの1月1日からendYearの12月31日まで（UTC）の表を作る
+   */
+  public static OffsetTable build(String zoneId, ZoneRules rules, int startYear, int endYear) {
+    long start = LocalDate.of(startYear, 1, 1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    long end = LocalDate.of(endYear + 1, 1, 1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    Builder builder = new Builder(rules.isFixedOffset() ? 0 : 2 * (endYear - startYear + 1));
+
+    Instant cursor = Instant.ofEpochSecond(start);
+    int offset = rules.getOffset(cursor).getTotalSeconds();
+    builder.first(offset, standardOffset(rules, start));
+    long segmentStart = start;
+    ZoneOffsetTransition transition = rules.isFixedOffset() ? null : rules.nextTransition(cursor);
+    while (true) {
+      long segmentEnd = transition != null ? Math.min(transition.toEpochSecond(), end) : end;
+      addStandardChanges(builder, rules, segmentStart, segmentEnd, offset);
+      if (transition == null || transition.toEpochSecond() >= end) {
+        break;
+      }
+      cursor = transition.getInstant();
+      offset = transition.getOffsetAfter().getTotalSeconds();
+      segmentStart = transition.toEpochSecond();
+      builder.add(segmentStart, offset, standardOffset(rules, segmentStart));
+      transition = rules.nextTransition(cursor);
+    }
+    return builder.build(zoneId, rules, start, end);
+  }
+
+  /**
+   * 壁時計のオフセットが変わらない区間で標準時オフセットだけが変わる時刻を探し、切り替えとして追加する
+   * ZoneRulesはこの変化を公開していないため、区間を一定の間隔で調べ、変化のあった間隔を二分探索する
+   * 変化して元に戻る場合もあるため、区間の両端だけでは判定できない
+   */
+  private static void addStandardChanges(Builder builder, ZoneRules rules, long from, long to,
+      int offset) {
+    int standard = builder.lastStandard();
+    long previous = from;
+    while (previous < to - 1) {
+      long next = Math.min(previous + STANDARD_SCAN_STEP, to - 1);
+      if (standardOffset(rules, next) != standard) {
+        long low = previous + 1;
+        long high = next;
+        while (low < high) {
+          long middle = low + (high - low) / 2;
+          if (standardOffset(rules, middle) != standard) {
+            high = middle;
+          } else {
+            low = middle + 1;
+          }
+        }
+        standard = standardOffset(rules, low);
+        builder.add(low, offset, standard);
+        next = low;
+      }
+      previous = next;
+    }
+  }
+
+  private static int standardOffset(ZoneRules rules, long epochSecond) {
+    return rules.getStandardOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+  }
+
+  /**
+   * タイムゾーンID
+   */
+  public String zoneId() {
+    return zoneId;
+  }
+
+  /**
+   * 表に含まれる切り替えの数
+   */
+  public int transitionCount() {
+    return transitions.length;
+  }
+
+  /**
+   * 表がその時刻を含むかどうか
+   */
+  public boolean covers(long epochSecond) {
+    return epochSecond >= rangeStart && epochSecond < rangeEnd;
+  }
+
+  /**
+   * UTCオフセット（秒）
+   */
+  public int offsetSeconds(long epochSecond) {
+    if (!covers(epochSecond)) {
+      return rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+    }
+    return offsets[slot(epochSecond)];
+  }
+
+  /**
+   * 標準時のUTCオフセット（秒）
+   */
+  public int standardOffsetSeconds(long epochSecond) {
+    if (!covers(epochSecond)) {
+      return rules.getStandardOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+    }
+    return standardOffsets[slot(epochSecond)];
+  }
+
+  /**
+   * 夏時間による差（秒） 夏時間でなければ0
+   */
+  public int daylightSavingsSeconds(long epochSecond) {
+    if (!covers(epochSecond)) {
+      return (int) rules.getDaylightSavings(Instant.ofEpochSecond(epochSecond)).getSeconds();
+    }
+    int slot = slot(epochSecond);
+    return offsets[slot] - standardOffsets[slot];
+  }
+
+  /**
+   * 夏時間かどうか
+   */
+  public boolean isDaylightSavings(long epochSecond) {
+    return daylightSavingsSeconds(epochSecond) != 0;
+  }
+
+  /**
+   * その時刻に適用されるoffsetsの位置 切り替え時刻ちょうどは切り替え後とする
+   */
+  private int slot(long epochSecond) {
+    int low = 0;
+    int high = transitions.length - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (transitions[middle] <= epochSecond) {
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * 表を組み立てるビルダー
+   */
+  private static final class Builder {
+
+    private long[] transitions;
+    private int[] offsets;
+    private int[] standardOffsets;
+    private int count;
+
+    Builder(int capacity) {
+      this.transitions = new long[capacity];
+      this.offsets = new int[capacity + 1];
+      this.standardOffsets = new int[capacity + 1];
+    }
+
+    void first(int offset, int standard) {
+      offsets[0] = offset;
+      standardOffsets[0] = standard;
+    }
+
+    void add(long epochSecond, int offset, int standard) {
+      if (count == transitions.length) {
+        transitions = Arrays.copyOf(transitions, Math.max(4, count * 2));
+        offsets = Arrays.copyOf(offsets, transitions.length + 1);
+        standardOffsets = Arrays.copyOf(standardOffsets, transitions.length + 1);
+      }
+      transitions[count] = epochSecond;
+      offsets[count + 1] = offset;
+      standardOffsets[count + 1] = standard;
+      count++;
+    }
+
+    int lastStandard() {
+      return standardOffsets[count];
+    }
+
+    OffsetTable build(String zoneId, ZoneRules rules, long start, long end) {
+      return new OffsetTable(zoneId, rules, start, end, Arrays.copyOf(transitions, count),
+          Arrays.copyOf(offsets, count + 1), Arrays.copyOf(standardOffsets, count + 1));
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package com.github.yuu1111.services.zone;
+
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * タイムゾーンごとのオフセット表 すべてのツールで共有する
+ * 表は最初に使われたときに作るか、preloadAllで利用可能なすべてのタイムゾーンについて事前に作る
+ */
+public final class OffsetTables {
+
+  private static final Logger logger = LoggerFactory.getLogger(OffsetTables.class);
+
+  private static volatile OffsetTables shared = new OffsetTables(Config.builder().build());
+
+  private final Config config;
+  private final Map<String, OffsetTable> tables = new ConcurrentHashMap<>();
+
+  /**
+   * コンストラクタ
+   */
+  public OffsetTables(Config config) {
+    this.config = config;
+  }
+
+  /**
+   * application.properties から作成
+   */
+  public static OffsetTables fromProperties(Properties properties) {
+    return new OffsetTables(Config.fromProperties(properties));
+  }
+
+  /**
+   * ツールが共有する表を取得
+   */
+  public static OffsetTables shared() {
+    return shared;
+  }
+
+  /**
+   * 共有する表を設定
+   */
+  public static void install(OffsetTables tables) {
+    shared = tables;
+  }
+
+  /**
+   * 設定
+   */
+  public Config config() {
+    return config;
+  }
+
+  /**
+   * タイムゾーンの表を取得 まだなければ作る
+   */
+  public OffsetTable forZone(ZoneId zone) {
+    return tables.computeIfAbsent(zone.getId(), id ->
+        OffsetTable.build(id, TzdbSnapshots.rules(zone), config.startYear(), config.endYear()));
+  }
+
+  /**
+   * 指定したタイムゾーンの表を破棄する 次に使われたときに有効なtzdataで作り直す
+   */
+  public void invalidate(Set<String> zoneIds) {
+    tables.keySet().removeAll(zoneIds);
+  }
+
+  /**
+   * 利用可能なすべてのタイムゾーンの表を作る
+   */
+  public void preloadAll() {
+    long start = System.nanoTime();
+    long transitions = 0;
+    for (String id : ZoneId.getAvailableZoneIds()) {
+      transitions += forZone(ZoneId.of(id)).transitionCount();
+    }
+    logger.info("Built offset tables for {} zones ({}-{}, {} transitions) in {}ms",
+        tables.size(), config.startYear(), config.endYear(), transitions,
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * 作成済みの表の数
+   */
+  public int size() {
+    return tables.size();
+  }
+
+  /**
+   * オフセット表の設定
+   */
+  public record Config(int startYear, int endYear, boolean preload) {
+
+    public static final int DEFAULT_START_YEAR = 1900;
+    public static final int DEFAULT_END_YEAR = 2100;
+    public static final boolean DEFAULT_PRELOAD = false;
+
+    public Config {
+      if (endYear < startYear) {
+        throw new IllegalArgumentException("endYear must not be before startYear");
+      }
+    }
+
+    /**
+     * application.properties の zone.offset.table.* から設定を作成
+     */
+    public static Config fromProperties(Properties properties) {
+      return builder()
+          .startYear(Integer.parseInt(properties.getProperty("zone.offset.table.start.year",
+              String.valueOf(DEFAULT_START_YEAR))))
+          .endYear(Integer.parseInt(properties.getProperty("zone.offset.table.end.year",
+              String.valueOf(DEFAULT_END_YEAR))))
+          .preload(Boolean.parseBoolean(properties.getProperty("zone.offset.table.preload",
+              String.valueOf(DEFAULT_PRELOAD))))
+          .build();
+    }
+
+    /**
+     * ビルダーを作成
+     */
+    public static Builder builder() {
+      return new Builder();
+    }
+
+    /**
+     * 設定ビルダー
+     */
+    public static class Builder {
+
+      private int startYear = DEFAULT_START_YEAR;
+      private int endYear = DEFAULT_END_YEAR;
+      private boolean preload = DEFAULT_PRELOAD;
+
+      public Builder startYear(int startYear) {
+        this.startYear = startYear;
+        return this;
+      }
+
+      public Builder endYear(int endYear) {
+        this.endYear = endYear;
+        return this;
+      }
+
+      /**
+       * 起動時にすべてのタイムゾーンの表を作るかどうか
+       */
+      public Builder preload(boolean preload) {
+        this.preload = preload;
+        return this;
+      }
+
+      public Config build() {
+        return new Config(startYear, endYear, preload);
+      }
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package com.github.yuu1111.services.zone;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.zone.ZoneRules;
+import java.time.zone.ZoneRulesException;
+import java.time.zone.ZoneRulesProvider;
+import java.util.HashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 差し替え可能なtzdataを提供するZoneRulesProvider
+ * システムプロパティ java.time.zone.DefaultZoneRulesProvider にこのクラスを指定すると、JDK標準のプロバイダーの代わりに使われる
+ * 起動時はJDKのlib/tzdb.datを読み、TzdbSnapshotsで有効なスナップショットが切り替わるとそのルールを返す
+ *
+ * <p>キャッシュ用の問い合わせにはnullを返すため、ZoneIdはルールを保持せず毎回このプロバイダーに問い合わせる
+ * そのため作成済みのZoneIdにも切り替えが反映される
+ * 利用可能なIDは登録時に固定されるため、後のスナップショットで追加されたIDは使えない
+ *
+ * <p>java.timeの初期化中に作られるため、コンストラクタとルールの取得ではログを出さずZoneIdも使わない
+ */
+public final class SnapshotZoneRulesProvider extends ZoneRulesProvider {
+
+  private static volatile TzdbSnapshot base;
+  private static volatile TzdbSnapshot active;
+
+  /**
+   * コンストラクタ JDKのtzdb.datを読み込む
+   */
+  public SnapshotZoneRulesProvider() {
+    try {
+      TzdbSnapshot jdk = TzdbSnapshot.load(jdkFile());
+      base = jdk;
+      if (active == null) {
+        active = jdk;
+      }
+    } catch (IOException e) {
+      throw new ZoneRulesException("Unable to load TZDB time-zone rules", e);
+    }
+  }
+
+  /**
+   * JDKに同梱されたtzdb.datのパス
+   */
+  static Path jdkFile() {
+    return Path.of(System.getProperty("java.home"), "lib", "tzdb.dat");
+  }
+
+  /**
+   * java.timeのプロバイダーとして登録されているかどうか
+   */
+  static boolean isInstalled() {
+    return base != null;
+  }
+
+  /**
+   * 有効なスナップショット まだ何も読み込んでいなければnull
+   */
+  static TzdbSnapshot active() {
+    return active;
+  }
+
+  /**
+   * 有効なスナップショットを切り替える
+   */
+  static void activate(TzdbSnapshot snapshot) {
+    active = snapshot;
+  }
+
+  @Override
+  protected Set<String> provideZoneIds() {
+    return new HashSet<>(base.zoneIds());
+  }
+
+  @Override
+  protected ZoneRules provideRules(String zoneId, boolean forCaching) {
+    if (forCaching) {
+      return null;
+    }
+    TzdbSnapshot snapshot = active;
+    return snapshot.contains(zoneId) ? snapshot.rules(zoneId) : base.rules(zoneId);
+  }
+
+  @Override
+  protected NavigableMap<String, ZoneRules> provideVersions(String zoneId) {
+    TreeMap<String, ZoneRules> versions = new TreeMap<>();
+    versions.put(active.version(), provideRules(zoneId, false));
+    return versions;
+  }
+}
@@ -0,0 +1,347 @@
+package com.github.yuu1111.services.zone;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneOffsetTransitionRule;
+import java.time.zone.ZoneOffsetTransitionRule.TimeDefinition;
+import java.time.zone.ZoneRules;
+import java.time.zone.ZoneRulesException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * コンパイル済みのtzdata（JDKのlib/tzdb.datと同じ形式）
+ * ファイルはメモリマップし、読み込み時にはヘッダーと各ルールの位置だけを調べる（形式の確認のためUTCのルールのみデコードする）
+ * ZoneRulesは最初に使われたときにデコードし、同じルールを共有するタイムゾーンは同じインスタンスを返す
+ *
+ * <p>形式: 形式番号(1) "TZDB" バージョン一覧 リージョン一覧 ルールのバイト列一覧 リージョンとルールの対応表
+ * 複数のバージョンを含む場合はJDKと同様に最後のバージョンを使う
+ */
+public final class TzdbSnapshot {
+
+  /**
+   * 直列化形式でZoneRulesを表す種別
+   */
+  private static final byte ZONE_RULES_TYPE = 1;
+
+  /**
+   * 3バイト形式のエポック秒の基準（1825-01-01T00:00Z）
+   */
+  private static final long EPOCH_SECOND_BASE = 4575744000L;
+
+  /**
+   * 読み込み時に形式の確認に使うタイムゾーン
+   */
+  private static final String VALIDATION_ZONE = "Etc/UTC";
+
+  private final String version;
+  private final String source;
+  // リージョンIDからrulesの位置
+  private final Map<String, Integer> regions;
+  private final ByteBuffer[] rules;
+  private final AtomicReferenceArray<ZoneRules> decoded;
+
+  private TzdbSnapshot(String version, String source, Map<String, Integer> regions,
+      ByteBuffer[] rules) {
+    this.version = version;
+    this.source = source;
+    this.regions = regions;
+    this.rules = rules;
+    this.decoded = new AtomicReferenceArray<>(rules.length);
+  }
+
+  /**
+   * ファイルをメモリマップして読み込む
+   */
+  public static TzdbSnapshot load(Path file) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    TzdbSnapshot snapshot;
+    try {
+      snapshot = parse(buffer, file.toAbsolutePath().toString());
+    } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      throw new StreamCorruptedException("Truncated tzdb file: " + file);
+    }
+    snapshot.validate();
+    return snapshot;
+  }
+
+  /**
+   * 既知のタイムゾーンをデコードして形式を確かめる
+   * UTCは固定オフセットのルールになるはずで、そうならなければ形式が想定と異なるため読み込まない
+   */
+  private void validate() throws IOException {
+    String probe = contains(VALIDATION_ZONE) ? VALIDATION_ZONE : "UTC";
+    if (!contains(probe)) {
+      throw new StreamCorruptedException("No UTC rules in " + source);
+    }
+    ZoneRules decodedRules;
+    try {
+      decodedRules = rules(probe);
+    } catch (ZoneRulesException e) {
+      throw new StreamCorruptedException(
+          "Could not decode " + probe + " from " + source + ": " + e.getMessage());
+    }
+    if (!decodedRules.equals(ZoneOffset.UTC.getRules())) {
+      throw new StreamCorruptedException(
+          "Unexpected " + probe + " rules in " + source + ": " + decodedRules);
+    }
+  }
+
+  private static TzdbSnapshot parse(ByteBuffer buffer, String source) throws IOException {
+    if (buffer.get() != 1 || !"TZDB".equals(readUtf(buffer))) {
+      throw new StreamCorruptedException("File format not recognised: " + source);
+    }
+    int versionCount = buffer.getShort();
+    String version = null;
+    for (int i = 0; i < versionCount; i++) {
+      version = readUtf(buffer);
+    }
+    if (version == null) {
+      throw new StreamCorruptedException("No tzdb version in " + source);
+    }
+    String[] regionArray = new String[buffer.getShort()];
+    for (int i = 0; i < regionArray.length; i++) {
+      regionArray[i] = readUtf(buffer);
+    }
+    ByteBuffer[] ruleArray = new ByteBuffer[buffer.getShort() & 0xffff];
+    for (int i = 0; i < ruleArray.length; i++) {
+      int length = buffer.getShort() & 0xffff;
+      ruleArray[i] = buffer.slice(buffer.position(), length);
+      buffer.position(buffer.position() + length);
+    }
+    Map<String, Integer> regions = new HashMap<>();
+    for (int i = 0; i < versionCount; i++) {
+      int count = buffer.getShort();
+      regions.clear();
+      for (int j = 0; j < count; j++) {
+        String region = regionArray[buffer.getShort()];
+        regions.put(region, buffer.getShort() & 0xffff);
+      }
+    }
+    return new TzdbSnapshot(version, source, regions, ruleArray);
+  }
+
+  /**
+   * DataInput.readUTFと同じ形式（長さ2バイト + 修正UTF-8） IDはASCIIのみのため通常のUTF-8として読む
+   */
+  private static String readUtf(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getShort() & 0xffff];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * tzdataのバージョン（2024aなど）
+   */
+  public String version() {
+    return version;
+  }
+
+  /**
+   * 読み込んだファイルのパス
+   */
+  public String source() {
+    return source;
+  }
+
+  /**
+   * 含まれるリージョンID
+   */
+  public Set<String> zoneIds() {
+    return Collections.unmodifiableSet(regions.keySet());
+  }
+
+  /**
+   * リージョンIDを含むかどうか
+   */
+  public boolean contains(String zoneId) {
+    return regions.containsKey(zoneId);
+  }
+
+  /**
+   * リージョンのルールを取得 含まれないIDや壊れたデータはZoneRulesException
+   */
+  public ZoneRules rules(String zoneId) {
+    Integer index = regions.get(zoneId);
+    if (index == null) {
+      throw new ZoneRulesException("Unknown time-zone ID: " + zoneId + ", version: " + version);
+    }
+    ZoneRules cached = decoded.get(index);
+    if (cached != null) {
+      return cached;
+    }
+    try {
+      ZoneRules rules = decode(this.rules[index]);
+      return decoded.compareAndSet(index, null, rules) ? rules : decoded.get(index);
+    } catch (IOException | DateTimeException | IllegalArgumentException
+             | IndexOutOfBoundsException e) {
+      throw new ZoneRulesException(
+          "Invalid binary time-zone data: TZDB:" + zoneId + ", version: " + version, e);
+    }
+  }
+
+  /**
+   * このスナップショットとpreviousでルールが異なるリージョンID（片方にしかないIDを含む）
+   * ルールはデコードせずバイト列で比較する
+   */
+  public Set<String> changedZones(TzdbSnapshot previous) {
+    Set<String> changed = new HashSet<>();
+    regions.forEach((id, index) -> {
+      Integer other = previous.regions.get(id);
+      if (other == null || !rules[index].equals(previous.rules[other])) {
+        changed.add(id);
+      }
+    });
+    for (String id : previous.regions.keySet()) {
+      if (!regions.containsKey(id)) {
+        changed.add(id);
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * ルールのバイト列 ファイルを組み立て直すテスト用
+   */
+  byte[] ruleBytes(String zoneId) {
+    ByteBuffer bytes = rules[regions.get(zoneId)];
+    byte[] copy = new byte[bytes.remaining()];
+    bytes.duplicate().get(copy);
+    return copy;
+  }
+
+  /**
+   * ルールのバイト列をデコード
+   * tzdb.datのルールはZoneRulesの直列化形式（Java SEのSerialized Formで定義された種別1バイト + 外部化データ）で
+   * 書かれているため、それを読み取り公開APIのZoneRules.ofで組み立てる
+   * JDK内部のクラスには依存しない 形式はJava 8から変わっておらず、JDK 21で全タイムゾーンがJDKと一致することを確認している
+   */
+  private static ZoneRules decode(ByteBuffer ruleBytes) throws IOException {
+    byte[] data = new byte[ruleBytes.remaining()];
+    ruleBytes.duplicate().get(data);
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+    if (in.readByte() != ZONE_RULES_TYPE) {
+      throw new StreamCorruptedException("Not a ZoneRules entry");
+    }
+
+    long[] standardTransitions = readEpochSeconds(in, in.readInt());
+    ZoneOffset[] standardOffsets = readOffsets(in, standardTransitions.length + 1);
+    long[] savingsTransitions = readEpochSeconds(in, in.readInt());
+    ZoneOffset[] wallOffsets = readOffsets(in, savingsTransitions.length + 1);
+    List<ZoneOffsetTransitionRule> lastRules = new ArrayList<>();
+    for (int i = in.readByte(); i > 0; i--) {
+      lastRules.add(readTransitionRule(in));
+    }
+    return ZoneRules.of(standardOffsets[0], wallOffsets[0],
+        transitions(standardTransitions, standardOffsets),
+        transitions(savingsTransitions, wallOffsets), lastRules);
+  }
+
+  private static List<ZoneOffsetTransition> transitions(long[] epochSeconds,
+      ZoneOffset[] offsets) {
+    List<ZoneOffsetTransition> transitions = new ArrayList<>(epochSeconds.length);
+    for (int i = 0; i < epochSeconds.length; i++) {
+      transitions.add(ZoneOffsetTransition.of(
+          LocalDateTime.ofEpochSecond(epochSeconds[i], 0, offsets[i]), offsets[i], offsets[i + 1]));
+    }
+    return transitions;
+  }
+
+  private static long[] readEpochSeconds(DataInputStream in, int count) throws IOException {
+    if (count < 0) {
+      throw new StreamCorruptedException("Negative transition count: " + count);
+    }
+    long[] epochSeconds = new long[count];
+    for (int i = 0; i < count; i++) {
+      epochSeconds[i] = readEpochSecond(in);
+    }
+    return epochSeconds;
+  }
+
+  private static ZoneOffset[] readOffsets(DataInputStream in, int count) throws IOException {
+    ZoneOffset[] offsets = new ZoneOffset[count];
+    for (int i = 0; i < count; i++) {
+      offsets[i] = readOffset(in);
+    }
+    return offsets;
+  }
+
+  /**
+   * エポック秒 1825年から2300年までの15分単位の値は3バイト、それ以外は255に続く8バイト
+   */
+  private static long readEpochSecond(DataInputStream in) throws IOException {
+    int high = in.readUnsignedByte();
+    if (high == 255) {
+      return in.readLong();
+    }
+    int middle = in.readUnsignedByte();
+    int low = in.readUnsignedByte();
+    long quarters = (high << 16) + (middle << 8) + low;
+    return quarters * 900 - EPOCH_SECOND_BASE;
+  }
+
+  /**
+   * オフセット 15分単位の値は1バイト、それ以外は127に続く秒数
+   */
+  private static ZoneOffset readOffset(DataInputStream in) throws IOException {
+    int quarters = in.readByte();
+    return quarters == 127
+        ? ZoneOffset.ofTotalSeconds(in.readInt()) : ZoneOffset.ofTotalSeconds(quarters * 900);
+  }
+
+  /**
+   * 最後の遷移以降の規則 月・日・曜日・時刻・基準・各オフセットを4バイトに詰め、収まらない値は後ろに続く
+   */
+  private static ZoneOffsetTransitionRule readTransitionRule(DataInputStream in)
+      throws IOException {
+    int data = in.readInt();
+    Month month = Month.of(data >>> 28);
+    int dayOfMonth = ((data & (63 << 22)) >>> 22) - 32;
+    int dayOfWeek = (data & (7 << 19)) >>> 19;
+    int timeByte = (data & (31 << 14)) >>> 14;
+    TimeDefinition definition = TimeDefinition.values()[(data & (3 << 12)) >>> 12];
+    int standardByte = (data & (255 << 4)) >>> 4;
+    int beforeByte = (data & (3 << 2)) >>> 2;
+    int afterByte = data & 3;
+
+    LocalTime time = timeByte == 31
+        ? LocalTime.ofSecondOfDay(in.readInt()) : LocalTime.of(timeByte % 24, 0);
+    ZoneOffset standard = standardByte == 255
+        ? ZoneOffset.ofTotalSeconds(in.readInt())
+        : ZoneOffset.ofTotalSeconds((standardByte - 128) * 900);
+    ZoneOffset before = beforeByte == 3
+        ? ZoneOffset.ofTotalSeconds(in.readInt())
+        : ZoneOffset.ofTotalSeconds(standard.getTotalSeconds() + beforeByte * 1800);
+    ZoneOffset after = afterByte == 3
+        ? ZoneOffset.ofTotalSeconds(in.readInt())
+        : ZoneOffset.ofTotalSeconds(standard.getTotalSeconds() + afterByte * 1800);
+    return ZoneOffsetTransitionRule.of(month, dayOfMonth,
+        dayOfWeek == 0 ? null : DayOfWeek.of(dayOfWeek), time, timeByte == 24, definition,
+        standard, before, after);
+  }
+}
@@ -0,0 +1,171 @@
+package com.github.yuu1111.services.zone;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.zone.ZoneRulesException;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * tzdataスナップショットの監視
+ * ディレクトリ内のtzdb.datを定期的に確認し、更新されていれば読み込んでTzdbSnapshotsで切り替える
+ * ファイルは別名で書き込んでから名前を変更して置き換えること（読み込み中のファイルを上書きしない）
+ */
+public class TzdbSnapshotWatcher {
+
+  private static final Logger logger = LoggerFactory.getLogger(TzdbSnapshotWatcher.class);
+
+  /**
+   * ディレクトリ内で読み込むファイル名
+   */
+  public static final String FILE_NAME = "tzdb.dat";
+
+  private final Config config;
+  private ScheduledExecutorService scheduler;
+  // 最後に読み込みを試みたファイルの更新日時とサイズ 同じファイルは失敗しても読み直さない
+  private String lastAttempt;
+
+  /**
+   * コンストラクタ
+   */
+  public TzdbSnapshotWatcher(Config config) {
+    this.config = config;
+  }
+
+  /**
+   * application.properties から作成
+   */
+  public static TzdbSnapshotWatcher fromProperties(Properties properties) {
+    return new TzdbSnapshotWatcher(Config.fromProperties(properties));
+  }
+
+  /**
+   * 設定
+   */
+  public Config config() {
+    return config;
+  }
+
+  /**
+   * 定期的な確認を開始 最初の確認はすぐに行う
+   */
+  public synchronized void start() {
+    if (config.directory() == null || scheduler != null) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "TzdbSnapshotWatcher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(this::poll, 0, config.pollInterval().toMillis(),
+        TimeUnit.MILLISECONDS);
+    logger.info("Watching {} for tzdata snapshots every {}", config.directory(),
+        config.pollInterval());
+  }
+
+  /**
+   * 確認を停止
+   */
+  public synchronized void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+  }
+
+  /**
+   * ファイルを1回確認する 更新されていれば読み込んで切り替える
+   *
+   * @return 切り替えた場合はtrue
+   */
+  public synchronized boolean poll() {
+    if (config.directory() == null) {
+      return false;
+    }
+    Path file = config.directory().resolve(FILE_NAME);
+    try {
+      if (!Files.isRegularFile(file)) {
+        return false;
+      }
+      BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+      String attempt = attributes.lastModifiedTime() + "/" + attributes.size();
+      if (attempt.equals(lastAttempt)) {
+        return false;
+      }
+      lastAttempt = attempt;
+      TzdbSnapshots.load(file);
+      return true;
+    } catch (IOException | ZoneRulesException e) {
+      logger.error("Failed to load tzdata snapshot {}, keeping tzdata {} from {}: {}", file,
+          TzdbSnapshots.version(), TzdbSnapshots.source(), e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * tzdata監視の設定 directoryがnullなら監視しない
+   */
+  public record Config(Path directory, Duration pollInterval) {
+
+    public static final Duration DEFAULT_POLL_INTERVAL = Duration.ofMinutes(1);
+
+    public Config {
+      if (pollInterval.isNegative() || pollInterval.isZero()) {
+        throw new IllegalArgumentException("pollInterval must be positive");
+      }
+    }
+
+    /**
+     * application.properties の zone.tzdb.* から設定を作成
+     */
+    public static Config fromProperties(Properties properties) {
+      String directory = properties.getProperty("zone.tzdb.directory", "").strip();
+      return builder()
+          .directory(directory.isEmpty() ? null : Path.of(directory))
+          .pollInterval(Duration.ofMillis(Long.parseLong(properties.getProperty(
+              "zone.tzdb.poll.interval", String.valueOf(DEFAULT_POLL_INTERVAL.toMillis())))))
+          .build();
+    }
+
+    /**
+     * ビルダーを作成
+     */
+    public static Builder builder() {
+      return new Builder();
+    }
+
+    /**
+     * 設定ビルダー
+     */
+    public static class Builder {
+
+      private Path directory;
+      private Duration pollInterval = DEFAULT_POLL_INTERVAL;
+
+      /**
+       * tzdb.datを置くディレクトリ
+       */
+      public Builder directory(Path directory) {
+        this.directory = directory;
+        return this;
+      }
+
+      public Builder pollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+        return this;
+      }
+
+      public Config build() {
+        return new Config(directory, pollInterval);
+      }
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package com.github.yuu1111.services.zone;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.time.zone.ZoneRulesException;
+import java.time.zone.ZoneRulesProvider;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 有効なtzdataスナップショットの管理 すべてのツールとキャッシュはここを通してルールを取得する
+ * 切り替えはスナップショットの参照を1つ書き換えるだけで行い、ルールが変わったタイムゾーンのキャッシュだけを破棄する
+ *
+ * <p>SnapshotZoneRulesProviderが登録されていればjava.time全体（ZonedDateTimeなど）に切り替えが反映される
+ * 登録されていない場合はZoneResolverとOffsetTablesが返すルールだけが切り替わる
+ */
+public final class TzdbSnapshots {
+
+  /**
+   * java.timeが既定のプロバイダーを決めるシステムプロパティ
+   */
+  public static final String PROVIDER_PROPERTY = "java.time.zone.DefaultZoneRulesProvider";
+
+  /**
+   * 差し替え可能なプロバイダーのクラス名
+   * java.timeの初期化前に参照できるよう、クラスを読み込まない定数にしている
+   */
+  public static final String PROVIDER_CLASS =
+      "com.github.yuu1111.services.zone.SnapshotZoneRulesProvider";
+
+  private static final Logger logger = LoggerFactory.getLogger(TzdbSnapshots.class);
+
+  private TzdbSnapshots() {
+  }
+
+  /**
+   * 有効なスナップショットのルールを取得 固定オフセットとスナップショットにないIDはZoneId自身のルール
+   */
+  public static ZoneRules rules(ZoneId zone) {
+    TzdbSnapshot snapshot = SnapshotZoneRulesProvider.active();
+    if (snapshot == null || zone instanceof ZoneOffset || SnapshotZoneRulesProvider.isInstalled()
+        || !snapshot.contains(zone.getId())) {
+      return zone.getRules();
+    }
+    return snapshot.rules(zone.getId());
+  }
+
+  /**
+   * ファイルを読み込んで有効なスナップショットにする
+   *
+   * @return ルールが変わったタイムゾーンのID
+   */
+  public static Set<String> load(Path file) throws IOException {
+    return activate(TzdbSnapshot.load(file));
+  }
+
+  /**
+   * スナップショットを有効にし、ルールが変わったタイムゾーンのキャッシュを破棄する
+   * 変わったタイムゾーンのルールは切り替え前にデコードし、壊れていればZoneRulesExceptionで切り替えない
+   *
+   * @return ルールが変わったタイムゾーンのID
+   */
+  public static synchronized Set<String> activate(TzdbSnapshot snapshot) {
+    TzdbSnapshot previous = current();
+    Set<String> changed = previous != null
+        ? snapshot.changedZones(previous) : snapshot.zoneIds();
+    for (String id : changed) {
+      if (snapshot.contains(id)) {
+        snapshot.rules(id);
+      }
+    }
+
+    SnapshotZoneRulesProvider.activate(snapshot);
+    ZoneResolver.shared().invalidate(changed);
+    OffsetTables.shared().invalidate(changed);
+    // ZoneSearchIndexはルールに依存しないため破棄しない（search_timezonesのオフセットはOffsetTablesから取る）
+
+    Set<String> available = ZoneId.getAvailableZoneIds();
+    long unknown = changed.stream().filter(id -> !available.contains(id)).count();
+    logger.info("Activated tzdata {} from {} ({} zones changed, {} unknown to this JVM)",
+        snapshot.version(), snapshot.source(), changed.size(), unknown);
+    return changed;
+  }
+
+  /**
+   * 有効なtzdataのバージョン
+   */
+  public static String version() {
+    TzdbSnapshot snapshot = SnapshotZoneRulesProvider.active();
+    if (snapshot != null) {
+      return snapshot.version();
+    }
+    try {
+      return ZoneRulesProvider.getVersions("UTC").lastKey();
+    } catch (ZoneRulesException e) {
+      return "unknown";
+    }
+  }
+
+  /**
+   * 有効なtzdataの読み込み元 JDKに同梱されたデータのままならjdk
+   */
+  public static String source() {
+    TzdbSnapshot snapshot = SnapshotZoneRulesProvider.active();
+    return snapshot != null ? snapshot.source() : "jdk";
+  }
+
+  /**
+   * java.time全体に切り替えが反映されるかどうか
+   */
+  public static boolean isProviderInstalled() {
+    return SnapshotZoneRulesProvider.isInstalled();
+  }
+
+  /**
+   * server/info用のtzdataの状態（バージョン・読み込み元・プロバイダーの導入有無）
+   */
+  public static Map<String, Object> describe() {
+    return Map.of(
+        "version", version(),
+        "source", source(),
+        "provider_installed", isProviderInstalled()
+    );
+  }
+
+  /**
+   * 比較元のスナップショット まだ何も読み込んでいなければJDKのtzdb.datを読む
+   */
+  private static TzdbSnapshot current() {
+    TzdbSnapshot snapshot = SnapshotZoneRulesProvider.active();
+    if (snapshot != null) {
+      return snapshot;
+    }
+    try {
+      return TzdbSnapshot.load(SnapshotZoneRulesProvider.jdkFile());
+    } catch (IOException e) {
+      logger.warn("Could not read JDK tzdb.dat, treating every zone as changed: {}",
+          e.getMessage());
+      return null;
+    }
+  }
+}
@@ -0,0 +1,228 @@
+package com.github.yuu1111.services.zone;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * タイムゾーン名の解決 すべてのツールで共有する
+ * IANAのID（大文字小文字を区別しない）、略称（JST・PDTなど）、旧形式のID、固定オフセット（+09:00・UTC+9）を受け付ける
+ * 入力文字列ごとに解決結果をキャッシュし、同じタイムゾーンは表記が違っても同じZoneIdとZoneRulesを返す
+ * 解決できない名前もキャッシュするため、2回目以降はどちらもハッシュ参照1回で済む
+ * ルールはTzdbSnapshotsから取得し、tzdataが切り替わると変わったタイムゾーンの結果だけを破棄する
+ */
+public final class ZoneResolver {
+
+  /**
+   * キャッシュする入力文字列の最大数
+   */
+  public static final long MAXIMUM_SIZE = 8192;
+
+  /**
+   * よく使われる略称 夏時間の略称も標準時と同じ地域に対応させる
+   * 複数の地域で使われる略称（CST・IST・BSTなど）は利用者の多い地域を選んでいる
+   * GMT・CET・EET・WETはIANAのIDとして解決するためここには含めない
+   */
+  private static final Map<String, String> ABBREVIATIONS = Map.ofEntries(
+      Map.entry("JST", "Asia/Tokyo"),
+      Map.entry("KST", "Asia/Seoul"),
+      Map.entry("CST", "America/Chicago"),
+      Map.entry("CDT", "America/Chicago"),
+      Map.entry("EST", "America/New_York"),
+      Map.entry("EDT", "America/New_York"),
+      Map.entry("MST", "America/Denver"),
+      Map.entry("MDT", "America/Denver"),
+      Map.entry("PST", "America/Los_Angeles"),
+      Map.entry("PDT", "America/Los_Angeles"),
+      Map.entry("AKST", "America/Anchorage"),
+      Map.entry("AKDT", "America/Anchorage"),
+      Map.entry("HST", "Pacific/Honolulu"),
+      Map.entry("AST", "America/Halifax"),
+      Map.entry("ADT", "America/Halifax"),
+      Map.entry("NST", "America/St_Johns"),
+      Map.entry("NDT", "America/St_Johns"),
+      Map.entry("BRT", "America/Sao_Paulo"),
+      Map.entry("ART", "America/Argentina/Buenos_Aires"),
+      Map.entry("CLT", "America/Santiago"),
+      Map.entry("BST", "Europe/London"),
+      Map.entry("IST", "Asia/Kolkata"),
+      Map.entry("WEST", "Europe/Lisbon"),
+      Map.entry("CEST", "Europe/Paris"),
+      Map.entry("EEST", "Europe/Athens"),
+      Map.entry("MSK", "Europe/Moscow"),
+      Map.entry("TRT", "Europe/Istanbul"),
+      Map.entry("GST", "Asia/Dubai"),
+      Map.entry("PKT", "Asia/Karachi"),
+      Map.entry("NPT", "Asia/Kathmandu"),
+      Map.entry("ICT", "Asia/Bangkok"),
+      Map.entry("WIB", "Asia/Jakarta"),
+      Map.entry("SGT", "Asia/Singapore"),
+      Map.entry("HKT", "Asia/Hong_Kong"),
+      Map.entry("PHT", "Asia/Manila"),
+      Map.entry("AWST", "Australia/Perth"),
+      Map.entry("ACST", "Australia/Adelaide"),
+      Map.entry("ACDT", "Australia/Adelaide"),
+      Map.entry("AEST", "Australia/Sydney"),
+      Map.entry("AEDT", "Australia/Sydney"),
+      Map.entry("NZST", "Pacific/Auckland"),
+      Map.entry("NZDT", "Pacific/Auckland"),
+      Map.entry("SAST", "Africa/Johannesburg"),
+      Map.entry("CAT", "Africa/Maputo"),
+      Map.entry("EAT", "Africa/Nairobi"),
+      Map.entry("WAT", "Africa/Lagos")
+  );
+
+  /**
+   * 時の桁が1桁の固定オフセット（UTC+5:30、GMT-3など） ZoneId.ofは受け付けないため2桁に揃える
+   */
+  private static final Pattern SHORT_OFFSET =
+      Pattern.compile("(UTC|GMT|UT)?([+-])(\\d{1,2})(?::?(\\d{2}))?");
+
+  private static final Resolved UNKNOWN = new Resolved(null, null);
+
+  private static volatile ZoneResolver shared = new ZoneResolver();
+
+  // 正規化した名前（小文字）から正式なIDへの索引
+  private final Map<String, String> index;
+  // 正式なIDごとの解決結果 表記が違っても同じインスタンスを共有する
+  private final Map<String, Resolved> canonical = new ConcurrentHashMap<>();
+  private final Cache<String, Resolved> cache = Caffeine.newBuilder()
+      .maximumSize(MAXIMUM_SIZE)
+      .recordStats()
+      .build();
+
+  /**
+   * コンストラクタ JVMのタイムゾーンデータから索引を作る
+   */
+  public ZoneResolver() {
+    Map<String, String> names = new HashMap<>();
+    ZoneId.SHORT_IDS.forEach((alias, id) -> names.put(alias.toLowerCase(Locale.ROOT), id));
+    ABBREVIATIONS.forEach((abbreviation, id) ->
+        names.put(abbreviation.toLowerCase(Locale.ROOT), id));
+    for (String id : ZoneId.getAvailableZoneIds()) {
+      names.put(id.toLowerCase(Locale.ROOT), id);
+    }
+    this.index = names;
+  }
+
+  /**
+   * ツールが共有するリゾルバーを取得
+   */
+  public static ZoneResolver shared() {
+    return shared;
+  }
+
+  /**
+   * 共有するリゾルバーを設定
+   */
+  public static void install(ZoneResolver resolver) {
+    shared = resolver;
+  }
+
+  /**
+   * タイムゾーン名を解決 解決できない場合はnull
+   */
+  public ZoneId resolve(String name) {
+    return lookup(name).zone();
+  }
+
+  /**
+   * タイムゾーン名を解決してZoneRulesを取得 解決できない場合はnull
+   */
+  public ZoneRules rules(String name) {
+    return lookup(name).rules();
+  }
+
+  /**
+   * タイムゾーン名を解決 解決できない場合はzoneとrulesがnullの結果を返す
+   */
+  public Resolved lookup(String name) {
+    if (name == null) {
+      return UNKNOWN;
+    }
+    return cache.get(name, this::compute);
+  }
+
+  /**
+   * 指定したタイムゾーンの解決結果を破棄する ほかのタイムゾーンの結果はそのまま使い続ける
+   */
+  public void invalidate(Set<String> zoneIds) {
+    canonical.keySet().removeAll(zoneIds);
+    cache.asMap().values().removeIf(resolved ->
+        resolved.isKnown() && zoneIds.contains(resolved.zone().getId()));
+  }
+
+  /**
+   * 略称とIDの対応表
+   */
+  public Map<String, String> abbreviations() {
+    return Collections.unmodifiableMap(ABBREVIATIONS);
+  }
+
+  /**
+   * キャッシュの統計情報を取得
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  /**
+   * 名前を正式なIDにしてから解決する 順序はIANAのID、略称、旧形式のID（いずれも大文字小文字を区別しない）、固定オフセット
+   */
+  private Resolved compute(String name) {
+    String trimmed = name.strip();
+    if (trimmed.isEmpty()) {
+      return UNKNOWN;
+    }
+    String id = index.get(trimmed.toLowerCase(Locale.ROOT));
+    if (id != null) {
+      return canonical(id);
+    }
+    // 固定オフセット（+09:00、UTC+9など）
+    String upper = trimmed.toUpperCase(Locale.ROOT);
+    Matcher matcher = SHORT_OFFSET.matcher(upper);
+    if (matcher.matches()) {
+      upper = "%s%s%02d:%s".formatted(matcher.group(1) == null ? "" : matcher.group(1),
+          matcher.group(2), Integer.parseInt(matcher.group(3)),
+          matcher.group(4) == null ? "00" : matcher.group(4));
+    }
+    return canonical(upper);
+  }
+
+  private Resolved canonical(String id) {
+    Resolved resolved = canonical.get(id);
+    if (resolved != null) {
+      return resolved;
+    }
+    try {
+      ZoneId zone = ZoneId.of(id);
+      return canonical.computeIfAbsent(zone.getId(), key -> new Resolved(zone, TzdbSnapshots.rules(zone)));
+    } catch (DateTimeException e) {
+      return UNKNOWN;
+    }
+  }
+
+  /**
+   * 解決結果
+   */
+  public record Resolved(ZoneId zone, ZoneRules rules) {
+
+    /**
+     * 解決できたかどうか
+     */
+    public boolean isKnown() {
+      return zone != null;
+    }
+  }
+}
@@ -0,0 +1,481 @@
+package com.github.yuu1111.services.zone;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * タイムゾーン名の検索索引 すべてのツールで共有する
+ * IANAのID、IDの都市部分、略称、主要都市と国名の別名を3文字ずつのN-gramで索引し、
+ * N-gramが共通する候補だけを編集距離（隣接文字の入れ替えを1回と数える）で順位付けする
+ * 索引は作成時に一度だけ組み立てるため、検索ごとにタイムゾーンの一覧を走査しない
+ *
+ * <p>索引が持つのは名前とIDの対応だけで、ルールやオフセットは持たない
+ * tzdataスナップショットを切り替えてもJVMが解決できるタイムゾーンIDは起動時から変わらないため
+ * （スナップショットにだけあるIDはZoneId.ofで使えず、スナップショットにないIDはJDKのルールで解決される）、
+ * 切り替え時に索引は作り直さない オフセットは検索結果を使う側がOffsetTablesから取得し、そちらは切り替えで破棄される
+ */
+public final class ZoneSearchIndex {
+
+  /**
+   * 検索結果の既定の件数
+   */
+  public static final int DEFAULT_LIMIT = 10;
+
+  /**
+   * 結果に含める最低のスコア
+   */
+  static final double MIN_SCORE = 0.5;
+
+  /**
+   * 編集距離を計算する候補とするN-gramの一致度（Dice係数）の下限
+   */
+  private static final double MIN_GRAM_SIMILARITY = 0.2;
+
+  /**
+   * 編集距離を計算する候補の最大数
+   */
+  private static final int MAX_CANDIDATES = 32;
+
+  /**
+   * 入力を見出し語の先頭と比べた類似度の重み 完全な一致より低く評価する
+   */
+  private static final double PREFIX_WEIGHT = 0.85;
+
+  /**
+   * N-gramの先頭と末尾の区切り
+   */
+  private static final char START = '\u0002';
+  private static final char END = '\u0003';
+
+  /**
+   * IANAのIDに都市名として含まれない主要都市
+   */
+  private static final Map<String, String> CITY_ALIASES = Map.ofEntries(
+      Map.entry("Osaka", "Asia/Tokyo"),
+      Map.entry("Kyoto", "Asia/Tokyo"),
+      Map.entry("Sapporo", "Asia/Tokyo"),
+      Map.entry("Busan", "Asia/Seoul"),
+      Map.entry("Beijing", "Asia/Shanghai"),
+      Map.entry("Shenzhen", "Asia/Shanghai"),
+      Map.entry("Guangzhou", "Asia/Shanghai"),
+      Map.entry("Mumbai", "Asia/Kolkata"),
+      Map.entry("Bombay", "Asia/Kolkata"),
+      Map.entry("Delhi", "Asia/Kolkata"),
+      Map.entry("New Delhi", "Asia/Kolkata"),
+      Map.entry("Bangalore", "Asia/Kolkata"),
+      Map.entry("Bengaluru", "Asia/Kolkata"),
+      Map.entry("Chennai", "Asia/Kolkata"),
+      Map.entry("Hyderabad", "Asia/Kolkata"),
+      Map.entry("Lahore", "Asia/Karachi"),
+      Map.entry("Islamabad", "Asia/Karachi"),
+      Map.entry("Hanoi", "Asia/Ho_Chi_Minh"),
+      Map.entry("Saigon", "Asia/Ho_Chi_Minh"),
+      Map.entry("Abu Dhabi", "Asia/Dubai"),
+      Map.entry("Tel Aviv", "Asia/Jerusalem"),
+      Map.entry("St Petersburg", "Europe/Moscow"),
+      Map.entry("Kiev", "Europe/Kyiv"),
+      Map.entry("Barcelona", "Europe/Madrid"),
+      Map.entry("Milan", "Europe/Rome"),
+      Map.entry("Munich", "Europe/Berlin"),
+      Map.entry("Frankfurt", "Europe/Berlin"),
+      Map.entry("Hamburg", "Europe/Berlin"),
+      Map.entry("Geneva", "Europe/Zurich"),
+      Map.entry("Manchester", "Europe/London"),
+      Map.entry("Edinburgh", "Europe/London"),
+      Map.entry("Washington", "America/New_York"),
+      Map.entry("Boston", "America/New_York"),
+      Map.entry("Miami", "America/New_York"),
+      Map.entry("Atlanta", "America/New_York"),
+      Map.entry("Philadelphia", "America/New_York"),
+      Map.entry("Houston", "America/Chicago"),
+      Map.entry("Dallas", "America/Chicago"),
+      Map.entry("Austin", "America/Chicago"),
+      Map.entry("Salt Lake City", "America/Denver"),
+      Map.entry("San Francisco", "America/Los_Angeles"),
+      Map.entry("Seattle", "America/Los_Angeles"),
+      Map.entry("San Diego", "America/Los_Angeles"),
+      Map.entry("Las Vegas", "America/Los_Angeles"),
+      Map.entry("Montreal", "America/Toronto"),
+      Map.entry("Ottawa", "America/Toronto"),
+      Map.entry("Rio de Janeiro", "America/Sao_Paulo"),
+      Map.entry("Brasilia", "America/Sao_Paulo"),
+      Map.entry("Cape Town", "Africa/Johannesburg"),
+      Map.entry("Wellington", "Pacific/Auckland")
+  );
+
+  /**
+   * 国名と代表的なタイムゾーン 複数のタイムゾーンがある国は首都または人口の多い地域を選んでいる
+   */
+  private static final Map<String, String> COUNTRY_ALIASES = Map.ofEntries(
+      Map.entry("Japan", "Asia/Tokyo"),
+      Map.entry("South Korea", "Asia/Seoul"),
+      Map.entry("Korea", "Asia/Seoul"),
+      Map.entry("China", "Asia/Shanghai"),
+      Map.entry("Taiwan", "Asia/Taipei"),
+      Map.entry("Hong Kong", "Asia/Hong_Kong"),
+      Map.entry("India", "Asia/Kolkata"),
+      Map.entry("Pakistan", "Asia/Karachi"),
+      Map.entry("Bangladesh", "Asia/Dhaka"),
+      Map.entry("Nepal", "Asia/Kathmandu"),
+      Map.entry("Sri Lanka", "Asia/Colombo"),
+      Map.entry("Thailand", "Asia/Bangkok"),
+      Map.entry("Vietnam", "Asia/Ho_Chi_Minh"),
+      Map.entry("Indonesia", "Asia/Jakarta"),
+      Map.entry("Malaysia", "Asia/Kuala_Lumpur"),
+      Map.entry("Singapore", "Asia/Singapore"),
+      Map.entry("Philippines", "Asia/Manila"),
+      Map.entry("United Arab Emirates", "Asia/Dubai"),
+      Map.entry("UAE", "Asia/Dubai"),
+      Map.entry("Saudi Arabia", "Asia/Riyadh"),
+      Map.entry("Iran", "Asia/Tehran"),
+      Map.entry("Israel", "Asia/Jerusalem"),
+      Map.entry("Turkey", "Europe/Istanbul"),
+      Map.entry("Russia", "Europe/Moscow"),
+      Map.entry("Ukraine", "Europe/Kyiv"),
+      Map.entry("United Kingdom", "Europe/London"),
+      Map.entry("UK", "Europe/London"),
+      Map.entry("England", "Europe/London"),
+      Map.entry("Ireland", "Europe/Dublin"),
+      Map.entry("France", "Europe/Paris"),
+      Map.entry("Germany", "Europe/Berlin"),
+      Map.entry("Italy", "Europe/Rome"),
+      Map.entry("Spain", "Europe/Madrid"),
+      Map.entry("Portugal", "Europe/Lisbon"),
+      Map.entry("Netherlands", "Europe/Amsterdam"),
+      Map.entry("Belgium", "Europe/Brussels"),
+      Map.entry("Switzerland", "Europe/Zurich"),
+      Map.entry("Austria", "Europe/Vienna"),
+      Map.entry("Poland", "Europe/Warsaw"),
+      Map.entry("Czechia", "Europe/Prague"),
+      Map.entry("Czech Republic", "Europe/Prague"),
+      Map.entry("Hungary", "Europe/Budapest"),
+      Map.entry("Romania", "Europe/Bucharest"),
+      Map.entry("Greece", "Europe/Athens"),
+      Map.entry("Sweden", "Europe/Stockholm"),
+      Map.entry("Norway", "Europe/Oslo"),
+      Map.entry("Denmark", "Europe/Copenhagen"),
+      Map.entry("Finland", "Europe/Helsinki"),
+      Map.entry("Egypt", "Africa/Cairo"),
+      Map.entry("Morocco", "Africa/Casablanca"),
+      Map.entry("Nigeria", "Africa/Lagos"),
+      Map.entry("Kenya", "Africa/Nairobi"),
+      Map.entry("South Africa", "Africa/Johannesburg"),
+      Map.entry("United States", "America/New_York"),
+      Map.entry("USA", "America/New_York"),
+      Map.entry("Canada", "America/Toronto"),
+      Map.entry("Mexico", "America/Mexico_City"),
+      Map.entry("Brazil", "America/Sao_Paulo"),
+      Map.entry("Argentina", "America/Argentina/Buenos_Aires"),
+      Map.entry("Chile", "America/Santiago"),
+      Map.entry("Colombia", "America/Bogota"),
+      Map.entry("Peru", "America/Lima"),
+      Map.entry("Australia", "Australia/Sydney"),
+      Map.entry("New Zealand", "Pacific/Auckland")
+  );
+
+  private static volatile ZoneSearchIndex shared = new ZoneSearchIndex();
+
+  // 見出し語ごとの正規化した文字列・表示用の文字列・タイムゾーン・種類
+  private final String[] terms;
+  private final String[] labels;
+  private final String[] zones;
+  private final Kind[] kinds;
+  // 見出し語ごとのN-gramの数
+  private final int[] gramCounts;
+  // N-gramから見出し語の位置
+  private final Map<String, int[]> postings;
+  private final int maxTermLength;
+
+  /**
+   * コンストラクタ JVMのタイムゾーンデータとZoneResolverの略称から索引を作る
+   */
+  public ZoneSearchIndex() {
+    Set<String> available = ZoneId.getAvailableZoneIds();
+    Map<String, Entry> entries = new HashMap<>();
+    for (String id : available.stream().sorted().toList()) {
+      add(entries, id, id, Kind.ZONE);
+      int slash = id.lastIndexOf('/');
+      if (slash >= 0) {
+        add(entries, id.substring(slash + 1).replace('_', ' '), id, Kind.CITY);
+      }
+    }
+    ZoneResolver.shared().abbreviations().forEach((abbreviation, id) ->
+        add(entries, abbreviation, id, Kind.ABBREVIATION));
+    CITY_ALIASES.forEach((city, id) -> add(entries, city, id, Kind.CITY));
+    COUNTRY_ALIASES.forEach((country, id) -> add(entries, country, id, Kind.COUNTRY));
+    entries.values().removeIf(entry -> !available.contains(entry.zone()));
+
+    List<Entry> sorted = entries.values().stream()
+        .sorted(Comparator.comparing(Entry::term).thenComparing(Entry::zone))
+        .toList();
+    int size = sorted.size();
+    this.terms = new String[size];
+    this.labels = new String[size];
+    this.zones = new String[size];
+    this.kinds = new Kind[size];
+    this.gramCounts = new int[size];
+    Map<String, List<Integer>> lists = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      Entry entry = sorted.get(i);
+      terms[i] = entry.term();
+      labels[i] = entry.label();
+      zones[i] = entry.zone();
+      kinds[i] = entry.kind();
+      Set<String> grams = grams(entry.term());
+      gramCounts[i] = grams.size();
+      for (String gram : grams) {
+        lists.computeIfAbsent(gram, key -> new ArrayList<>()).add(i);
+      }
+    }
+    this.maxTermLength = Arrays.stream(terms).mapToInt(String::length).max().orElse(0);
+    this.postings = new HashMap<>(lists.size() * 2);
+    lists.forEach((gram, list) ->
+        postings.put(gram, list.stream().mapToInt(Integer::intValue).toArray()));
+  }
+
+  private static void add(Map<String, Entry> entries, String label, String zone, Kind kind) {
+    String term = normalize(label);
+    // 同じ見出し語とタイムゾーンの組は最初に追加した種類（ID、都市、略称、別名の順）を残す
+    entries.putIfAbsent(term + '\n' + zone, new Entry(term, label, zone, kind));
+  }
+
+  /**
+   * ツールが共有する索引を取得
+   */
+  public static ZoneSearchIndex shared() {
+    return shared;
+  }
+
+  /**
+   * 共有する索引を設定
+   */
+  public static void install(ZoneSearchIndex index) {
+    shared = index;
+  }
+
+  /**
+   * 見出し語の数
+   */
+  public int size() {
+    return terms.length;
+  }
+
+  /**
+   * 名前に近いタイムゾーンをスコアの高い順に最大limit件返す 1つのタイムゾーンは最もスコアの高い見出し語で1回だけ現れる
+   */
+  public List<Match> search(String query, int limit) {
+    String normalized = query == null ? "" : normalize(query);
+    if (normalized.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+    Set<String> queryGrams = grams(normalized);
+    int[] shared = new int[terms.length];
+    int[] touched = new int[terms.length];
+    int touchedCount = 0;
+    for (String gram : queryGrams) {
+      int[] list = postings.get(gram);
+      if (list != null) {
+        for (int term : list) {
+          if (shared[term]++ == 0) {
+            touched[touchedCount++] = term;
+          }
+        }
+      }
+    }
+
+    // 部分一致する見出し語は区切りを含まないN-gramをすべて含むため、それより少なければ部分一致を調べない
+    int interior = 0;
+    for (String gram : queryGrams) {
+      if (gram.charAt(0) != START && gram.charAt(2) != END) {
+        interior++;
+      }
+    }
+
+    // 部分一致する見出し語を優先し、次にN-gramの一致度が高い順に候補を絞る
+    // 上位32ビットに優先度、下位32ビットに見出し語の位置を入れて整列する
+    // 3文字未満の入力は区切りを含まないN-gramがなく、途中に含む見出し語を索引から引けないためすべてを調べる
+    int scanned = interior == 0 ? terms.length : touchedCount;
+    long[] ranked = new long[scanned];
+    int candidates = 0;
+    for (int k = 0; k < scanned; k++) {
+      int i = interior == 0 ? k : touched[k];
+      double gramSimilarity = 2.0 * shared[i] / (queryGrams.size() + gramCounts[i]);
+      boolean contains = shared[i] >= interior && terms[i].contains(normalized);
+      if (gramSimilarity < MIN_GRAM_SIMILARITY && !contains) {
+        continue;
+      }
+      long priority = (long) (gramSimilarity * 1_000_000) + (contains ? 2_000_000 : 0);
+      ranked[candidates++] = priority << 32 | i;
+    }
+    Arrays.sort(ranked, 0, candidates);
+
+    Map<String, Match> best = new HashMap<>();
+    int[] rows = new int[3 * (maxTermLength + 1)];
+    for (int k = candidates - 1; k >= Math.max(0, candidates - MAX_CANDIDATES); k--) {
+      int i = (int) ranked[k];
+      double gramSimilarity = 2.0 * shared[i] / (queryGrams.size() + gramCounts[i]);
+      double score = score(normalized, terms[i], gramSimilarity, rows);
+      if (score < MIN_SCORE) {
+        continue;
+      }
+      Match match = new Match(zones[i], labels[i], kinds[i], score);
+      best.merge(zones[i], match, (a, b) -> b.score() > a.score() ? b : a);
+    }
+    return best.values().stream()
+        .sorted(Comparator.comparingDouble(Match::score).reversed()
+            .thenComparing(Match::kind)
+            .thenComparing(Match::zone))
+        .limit(limit)
+        .toList();
+  }
+
+  /**
+   * 完全一致は1、前方一致と部分一致は0.9と0.75から長さの比率に応じて加点、
+   * それ以外は編集距離による類似度、入力を見出し語の先頭と比べた類似度（入力途中の補完用）、N-gramの一致度のうち最も高いもの
+   */
+  private static double score(String query, String term, double gramSimilarity, int[] rows) {
+    if (term.equals(query)) {
+      return 1.0;
+    }
+    double ratio = (double) query.length() / term.length();
+    if (term.startsWith(query)) {
+      return 0.9 + 0.09 * ratio;
+    }
+    if (term.contains(query)) {
+      return 0.75 + 0.09 * ratio;
+    }
+    // 長さの差だけでMIN_SCOREに届かない場合と、先頭との比較が既に求めた値を超えられない場合は距離を計算しない
+    // 距離の計算もMIN_SCOREに届かなくなった時点で打ち切る
+    double score = 0.75 * gramSimilarity;
+    int length = Math.max(query.length(), term.length());
+    int limit = (int) ((1.0 - MIN_SCORE) * length);
+    if (Math.abs(query.length() - term.length()) <= limit) {
+      score = Math.max(score,
+          1.0 - (double) distance(query, term, term.length(), limit, rows) / length);
+    }
+    if (term.length() > query.length() && score < PREFIX_WEIGHT) {
+      int prefixLimit = (int) ((1.0 - Math.max(score, MIN_SCORE) / PREFIX_WEIGHT)
+          * query.length());
+      score = Math.max(score, PREFIX_WEIGHT * (1.0
+          - (double) distance(query, term, query.length(), prefixLimit, rows) / query.length()));
+    }
+    return score;
+  }
+
+  /**
+   * aとbの先頭length文字の編集距離 挿入・削除・置換と隣接する2文字の入れ替えを1回と数える
+   * 距離がlimitを超えることが確定した時点でlimit + 1を返す
+   */
+  static int distance(String a, String b, int length, int limit) {
+    return distance(a, b, length, limit, new int[3 * (length + 1)]);
+  }
+
+  /**
+   * 作業用の配列（3 * (length + 1)以上）を指定して編集距離を求める
+   */
+  private static int distance(String a, String b, int length, int limit, int[] rows) {
+    // 共通の先頭と末尾は距離に影響しないため除く
+    int start = 0;
+    int aEnd = a.length();
+    int bEnd = length;
+    while (start < aEnd && start < bEnd && a.charAt(start) == b.charAt(start)) {
+      start++;
+    }
+    while (aEnd > start && bEnd > start && a.charAt(aEnd - 1) == b.charAt(bEnd - 1)) {
+      aEnd--;
+      bEnd--;
+    }
+    int m = aEnd - start;
+    int n = bEnd - start;
+    if (m == 0 || n == 0) {
+      return Math.min(Math.max(m, n), limit + 1);
+    }
+    // 3行分を1つの配列で持ち、行の役割を入れ替えて使う
+    int previous2 = 0;
+    int previous = n + 1;
+    int current = 2 * (n + 1);
+    for (int j = 0; j <= n; j++) {
+      rows[previous + j] = j;
+    }
+    for (int i = 1; i <= m; i++) {
+      rows[current] = i;
+      int rowMinimum = i;
+      char ca = a.charAt(start + i - 1);
+      for (int j = 1; j <= n; j++) {
+        char cb = b.charAt(start + j - 1);
+        int cost = ca == cb ? 0 : 1;
+        int value = Math.min(Math.min(rows[previous + j] + 1, rows[current + j - 1] + 1),
+            rows[previous + j - 1] + cost);
+        if (i > 1 && j > 1 && ca == b.charAt(start + j - 2) && a.charAt(start + i - 2) == cb) {
+          value = Math.min(value, rows[previous2 + j - 2] + 1);
+        }
+        rows[current + j] = value;
+        rowMinimum = Math.min(rowMinimum, value);
+      }
+      if (rowMinimum > limit) {
+        return limit + 1;
+      }
+      int recycled = previous2;
+      previous2 = previous;
+      previous = current;
+      current = recycled;
+    }
+    return Math.min(rows[previous + n], limit + 1);
+  }
+
+  /**
+   * 小文字にし、アンダースコアと連続する空白を1つの空白にする
+   */
+  static String normalize(String text) {
+    String lower = text.strip().toLowerCase(Locale.ROOT).replace('_', ' ');
+    StringBuilder builder = new StringBuilder(lower.length());
+    for (int i = 0; i < lower.length(); i++) {
+      char c = lower.charAt(i);
+      if (c != ' ' || (builder.length() > 0 && builder.charAt(builder.length() - 1) != ' ')) {
+        builder.append(c);
+      }
+    }
+    return builder.toString();
+  }
+
+  /**
+   * 先頭に2文字、末尾に1文字の区切りを付けた3文字のN-gram 先頭の文字ほど多くのN-gramに含まれる
+   */
+  private static Set<String> grams(String term) {
+    String padded = "" + START + START + term + END;
+    Set<String> grams = new LinkedHashSet<>();
+    for (int i = 0; i + 3 <= padded.length(); i++) {
+      grams.add(padded.substring(i, i + 3));
+    }
+    return grams;
+  }
+
+  /**
+   * 見出し語の種類
+   */
+  public enum Kind {
+    ZONE,
+    CITY,
+    COUNTRY,
+    ABBREVIATION
+  }
+
+  /**
+   * 検索結果 matchedは一致した見出し語（別名や略称の場合はその表記）
+   */
+  public record Match(String zone, String matched, Kind kind, double score) {
+
+  }
+
+  private record Entry(String term, String label, String zone, Kind kind) {
+
+  }
+}
@@ -0,0 +1,213 @@
+package com.github.yuu1111.tools;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.yuu1111.json.JsonSupport;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * フィールド射影 クライアントが要求した出力フィールドの集合
+ * リクエストのfieldsパラメータ（"sun.sunset" のようなドット区切りのパス）をコンパイルしたもの
+ * ツールは含まれないフィールドの計算とシリアライズを省略できる
+ */
+public final class FieldSet {
+
+  /**
+   * 射影を指定するためのリクエストパラメータ名
+   */
+  public static final String PARAMETER = "fields";
+
+  /**
+   * fieldsパラメータのスキーマ 全ツール共通のためtools/listで各ツールのスキーマに追加する
+   */
+  public static final Map<String, Object> SCHEMA = Map.of(
+      "type", "string",
+      "description", "Comma-separated output fields to compute (e.g. 'sun.sunset,moon.phase'). "
+          + "All fields when omitted",
+      "example", "sun.sunset"
+  );
+
+  /**
+   * すべてのフィールドを含む射影
+   */
+  public static final FieldSet ALL = new FieldSet(null);
+
+  /**
+   * どのフィールドも含まない射影
+   */
+  public static final FieldSet NONE = new FieldSet(Map.of());
+
+  private static final int MAX_CACHED_SPECS = 1024;
+  private static final Map<String, FieldSet> compiled = new ConcurrentHashMap<>();
+
+  // nullの場合はすべてのフィールドを含む
+  private final Map<String, FieldSet> children;
+
+  private FieldSet(Map<String, FieldSet> children) {
+    this.children = children;
+  }
+
+  /**
+   * リクエストパラメータから射影を取得
+   */
+  public static FieldSet fromParameters(Map<String, Object> parameters) {
+    return parameters == null ? ALL : compile(parameters.get(PARAMETER));
+  }
+
+  /**
+   * 射影をコンパイル 文字列（カンマ区切り）またはパスのリストを受け付ける
+   */
+  public static FieldSet compile(Object spec) {
+    String key;
+    if (spec == null) {
+      return ALL;
+    } else if (spec instanceof String s) {
+      key = s;
+    } else if (spec instanceof Collection<?> paths) {
+      key = String.join(",", paths.stream().map(String::valueOf).toList());
+    } else {
+      throw new IllegalArgumentException("fields must be a string or an array of strings");
+    }
+    if (key.isBlank()) {
+      return ALL;
+    }
+
+    FieldSet cached = compiled.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    FieldSet fieldSet = parse(key);
+    if (compiled.size() < MAX_CACHED_SPECS) {
+      compiled.put(key, fieldSet);
+    }
+    return fieldSet;
+  }
+
+  /**
+   * パス文字列を木構造に変換
+   */
+  private static FieldSet parse(String spec) {
+    Map<String, Object> root = new HashMap<>();
+    for (String rawPath : spec.split(",")) {
+      String path = rawPath.trim();
+      if (path.isEmpty()) {
+        continue;
+      }
+      Map<String, Object> node = root;
+      String[] segments = path.split("\\.");
+      for (int i = 0; i < segments.length; i++) {
+        String segment = segments[i].trim();
+        if (i == segments.length - 1) {
+          // 末端のパスはその配下をすべて含む
+          node.put(segment, Boolean.TRUE);
+          break;
+        }
+        Object child = node.get(segment);
+        if (child == Boolean.TRUE) {
+          break;
+        }
+        if (child == null) {
+          child = new HashMap<String, Object>();
+          node.put(segment, child);
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> next = (Map<String, Object>) child;
+        node = next;
+      }
+    }
+    return root.isEmpty() ? ALL : build(root);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static FieldSet build(Map<String, Object> node) {
+    Map<String, FieldSet> children = new HashMap<>();
+    node.forEach((name, child) -> children.put(name,
+        child == Boolean.TRUE ? ALL : build((Map<String, Object>) child)));
+    return new FieldSet(Map.copyOf(children));
+  }
+
+  /**
+   * すべてのフィールドを含むかどうか
+   */
+  public boolean isAll() {
+    return children == null;
+  }
+
+  /**
+   * 指定したフィールドを含むかどうか
+   */
+  public boolean includes(String field) {
+    return children == null || children.containsKey(field);
+  }
+
+  /**
+   * 指定したフィールドのいずれかを含むかどうか
+   */
+  public boolean includesAny(String... fields) {
+    for (String field : fields) {
+      if (includes(field)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 指定したフィールドが明示的に要求されたかどうか（ALLによる暗黙の包含を除く）
+   */
+  public boolean isExplicit(String field) {
+    return children != null && children.containsKey(field);
+  }
+
+  /**
+   * 指定したフィールド配下の射影を取得
+   */
+  public FieldSet select(String field) {
+    if (children == null) {
+      return ALL;
+    }
+    return children.getOrDefault(field, NONE);
+  }
+
+  /**
+   * 射影に対応していないツールの結果を汎用的に絞り込む
+   */
+  public Object project(Object result) {
+    if (children == null || result == null) {
+      return result;
+    }
+    JsonNode tree = JsonSupport.mapper().valueToTree(result);
+    prune(tree, this);
+    return tree;
+  }
+
+  private static void prune(JsonNode node, FieldSet fields) {
+    if (fields.children == null) {
+      return;
+    }
+    if (node instanceof ArrayNode array) {
+      array.forEach(element -> prune(element, fields));
+    } else if (node instanceof ObjectNode object) {
+      Iterator<Map.Entry<String, JsonNode>> iterator = object.fields();
+      while (iterator.hasNext()) {
+        Map.Entry<String, JsonNode> entry = iterator.next();
+        FieldSet child = fields.children.get(entry.getKey());
+        if (child == null) {
+          iterator.remove();
+        } else {
+          prune(entry.getValue(), child);
+        }
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return children == null ? "*" : children.toString();
+  }
+}
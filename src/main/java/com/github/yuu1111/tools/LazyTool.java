@@ -0,0 +1,95 @@
+package com.github.yuu1111.tools;
+
+import com.github.yuu1111.protocol.MCPError;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 遅延生成ツール
+ * 記述情報はプロバイダーから返し、実装は最初の呼び出し時に一度だけ生成する
+ */
+public final class LazyTool implements MCPTool {
+
+    private static final Logger logger = LoggerFactory.getLogger(LazyTool.class);
+
+    private final ToolProvider provider;
+    private volatile MCPTool delegate;
+
+    public LazyTool(ToolProvider provider) {
+        this.provider = provider;
+    }
+
+    @Override
+    public String getName() {
+        return provider.getName();
+    }
+
+    @Override
+    public String getDescription() {
+        return provider.getDescription();
+    }
+
+    @Override
+    public Map<String, Object> getParameterSchema() {
+        return provider.getParameterSchema();
+    }
+
+    @Override
+    public ToolResponse execute(Map<String, Object> parameters) throws ToolExecutionException {
+        return instance().execute(parameters);
+    }
+
+    @Override
+    public ToolResponse execute(Map<String, Object> parameters, FieldSet fields)
+            throws ToolExecutionException {
+        return instance().execute(parameters, fields);
+    }
+
+    @Override
+    public boolean supportsFieldProjection() {
+        return instance().supportsFieldProjection();
+    }
+
+    @Override
+    public MCPError validateParameters(Map<String, Object> parameters) {
+        return instance().validateParameters(parameters);
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return provider.isCacheable();
+    }
+
+    @Override
+    public int getCacheTTL() {
+        return provider.getCacheTTL();
+    }
+
+    /**
+     * 実装が生成済みかどうか
+     */
+    public boolean isInstantiated() {
+        return delegate != null;
+    }
+
+    /**
+     * 実装を取得（未生成の場合は生成）
+     */
+    private MCPTool instance() {
+        MCPTool tool = delegate;
+        if (tool == null) {
+            synchronized (this) {
+                tool = delegate;
+                if (tool == null) {
+                    long start = System.nanoTime();
+                    tool = provider.create();
+                    delegate = tool;
+                    logger.info("Instantiated tool {} in {}ms", getName(),
+                        (System.nanoTime() - start) / 1_000_000);
+                }
+            }
+        }
+        return tool;
+    }
+}
@@ -33,6 +33,28 @@ public interface MCPTool {
      */
     ToolResponse execute(Map<String, Object> parameters) throws ToolExecutionException;
     
+    /**
+     * フィールド射影付きでツールを実行
+     * 射影に対応するツールは含まれないフィールドの計算を省略する
+     * 
+     * @param parameters ツールのパラメータ
+     * @param fields クライアントが要求したフィールド
+     * @return 実行結果
+     * @throws ToolExecutionException ツール実行時のエラー
+     */
+    default ToolResponse execute(Map<String, Object> parameters, FieldSet fields)
+            throws ToolExecutionException {
+        return execute(parameters);
+    }
+    
+    /**
+     * ツール自身がフィールド射影に対応しているかどうか
+     * 対応していない場合はサーバー側で結果を絞り込む
+     */
+    default boolean supportsFieldProjection() {
+        return false;
+    }
+    
     /**
      * パラメータの検証
      * 
@@ -0,0 +1,38 @@
+package com.github.yuu1111.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ツール検出
+ * META-INF/servicesに登録されたToolProviderを検出し、遅延生成ツールとして返す
+ */
+public final class ToolDiscovery {
+
+    private static final Logger logger = LoggerFactory.getLogger(ToolDiscovery.class);
+
+    private ToolDiscovery() {
+    }
+
+    /**
+     * 登録されているツールを検出
+     */
+    public static List<MCPTool> discoverTools() {
+        return discoverTools(ToolDiscovery.class.getClassLoader());
+    }
+
+    /**
+     * 指定したクラスローダーからツールを検出
+     */
+    public static List<MCPTool> discoverTools(ClassLoader classLoader) {
+        List<MCPTool> tools = new ArrayList<>();
+        for (ToolProvider provider : ServiceLoader.load(ToolProvider.class, classLoader)) {
+            logger.debug("Discovered tool provider: {}", provider.getClass().getName());
+            tools.add(new LazyTool(provider));
+        }
+        return tools;
+    }
+}
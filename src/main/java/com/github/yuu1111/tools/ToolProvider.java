@@ -0,0 +1,44 @@
+package com.github.yuu1111.tools;
+
+import java.util.Map;
+
+/**
+ * ツールプロバイダー (ServiceLoader用SPI)
+ * ツールの名前・説明・スキーマを実装を生成せずに公開し、実装は必要になった時点で生成する
+ */
+public interface ToolProvider {
+
+    /**
+     * ツールの名前を取得
+     */
+    String getName();
+
+    /**
+     * ツールの説明を取得
+     */
+    String getDescription();
+
+    /**
+     * ツールのパラメータスキーマを取得 (JSON Schema形式)
+     */
+    Map<String, Object> getParameterSchema();
+
+    /**
+     * ツールがキャッシュ可能かどうか
+     */
+    default boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * キャッシュのTTL（秒）
+     */
+    default int getCacheTTL() {
+        return 0;
+    }
+
+    /**
+     * ツールの実装を生成
+     */
+    MCPTool create();
+}
@@ -1,33 +1,56 @@
 package com.github.yuu1111.tools;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.yuu1111.json.JsonSupport;
 import java.time.Instant;
-import java.util.Map;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * ツール実行結果
  * Java 21のRecordを使用
+ * resultには型付きのRecordを保持し、そのままJSONにシリアライズする
+ * メタデータはクライアントが要求した場合にのみ生成する
  */
 public record ToolResponse(
-    Map<String, Object> data,
-    Map<String, Object> metadata,
-    Instant timestamp
+    Object result,
+    Supplier<Map<String, Object>> metadataSupplier
 ) {
-    
+
+    /**
+     * メタデータを要求するためのリクエストパラメータ名
+     */
+    public static final String INCLUDE_METADATA_PARAMETER = "include_metadata";
+
+    /**
+     * include_metadataパラメータのスキーマ 全ツール共通のためtools/listで各ツールのスキーマに追加する
+     */
+    public static final Map<String, Object> INCLUDE_METADATA_SCHEMA = Map.of(
+        "type", "boolean",
+        "description", "Include response metadata (_meta) alongside the result",
+        "default", false
+    );
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
     /**
-     * データのみでレスポンスを作成
+     * 結果のみでレスポンスを作成
      */
-    public static ToolResponse of(Map<String, Object> data) {
-        return new ToolResponse(data, new HashMap<>(), Instant.now());
+    public static ToolResponse of(Object result) {
+        return new ToolResponse(result, null);
     }
-    
+
     /**
-     * データとメタデータでレスポンスを作成
+     * 結果と遅延生成されるメタデータでレスポンスを作成
      */
-    public static ToolResponse of(Map<String, Object> data, Map<String, Object> metadata) {
-        return new ToolResponse(data, metadata, Instant.now());
+    public static ToolResponse of(Object result, Supplier<Map<String, Object>> metadata) {
+        return new ToolResponse(result, metadata);
     }
-    
+
     /**
      * 単一の値でレスポンスを作成
      */
@@ -36,50 +59,48 @@ public record ToolResponse(
         data.put(key, value);
         return of(data);
     }
-    
+
     /**
-     * ビルダーパターンでレスポンスを構築
+     * 結果をMap形式で取得
+     * シリアライズ経路では使用しない（テストやログ出力用の変換ビュー）
      */
-    public static Builder builder() {
-        return new Builder();
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> data() {
+        if (result instanceof Map<?, ?> map) {
+            return (Map<String, Object>) map;
+        }
+        return JsonSupport.mapper().convertValue(result, MAP_TYPE);
     }
-    
+
     /**
-     * レスポンスビルダー
+     * メタデータを生成
      */
-    public static class Builder {
-        private final Map<String, Object> data = new HashMap<>();
-        private final Map<String, Object> metadata = new HashMap<>();
-        
-        public Builder withData(String key, Object value) {
-            this.data.put(key, value);
-            return this;
-        }
-        
-        public Builder withAllData(Map<String, Object> data) {
-            this.data.putAll(data);
-            return this;
-        }
-        
-        public Builder withMetadata(String key, Object value) {
-            this.metadata.put(key, value);
-            return this;
-        }
-        
-        public Builder withCacheInfo(boolean cached, String cacheKey) {
-            this.metadata.put("cached", cached);
-            this.metadata.put("cacheKey", cacheKey);
-            return this;
+    public Map<String, Object> metadata() {
+        Map<String, Object> metadata = new HashMap<>();
+        if (metadataSupplier != null) {
+            metadata.putAll(metadataSupplier.get());
         }
-        
-        public Builder withApiInfo(String apiName, long responseTime) {
-            this.metadata.put("api", apiName);
-            this.metadata.put("responseTime", responseTime);
-            return this;
-        }
-        
-        public ToolResponse build() {
-            return new ToolResponse(data, metadata, Instant.now());
+        metadata.put("timestamp", Instant.now().toString());
+        return metadata;
+    }
+
+    /**
+     * クライアントの要求に応じてシリアライズ対象を返す
+     */
+    public Object body(Map<String, Object> parameters) {
+        if (parameters != null && Boolean.TRUE.equals(parameters.get(INCLUDE_METADATA_PARAMETER))) {
+            return new WithMetadata(result, metadata());
         }
+        return result;
+    }
+
+    /**
+     * メタデータ付きの結果 結果のフィールドと同じ階層に_metaを追加する
+     */
+    public record WithMetadata(
+        @JsonUnwrapped Object result,
+        @JsonProperty("_meta") Map<String, Object> meta
+    ) {
+
     }
-}
\ No newline at end of file
+}
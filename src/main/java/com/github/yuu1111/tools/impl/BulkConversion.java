@@ -0,0 +1,224 @@
+package com.github.yuu1111.tools.impl;
+
+import com.github.yuu1111.format.DateTimeSniffer;
+import com.github.yuu1111.json.JsonSupport;
+import com.github.yuu1111.services.zone.OffsetTable;
+import com.github.yuu1111.services.zone.OffsetTables;
+import com.github.yuu1111.tools.FieldSet;
+import com.github.yuu1111.tools.ToolExecutionException;
+import com.github.yuu1111.tools.result.BulkConversionResult;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * convert_timezone の一括変換 多数の日時を複数のタイムゾーンへ列形式で変換する
+ * 入力は先にエポック秒とナノ秒の配列に変換し、タイムゾーンごとにオフセット表を一度だけ取得して各行に適用する
+ */
+final class BulkConversion {
+
+  /**
+   * 一度に変換できる最大行数
+   */
+  static final int MAX_ROWS = 1_000_000;
+
+  // どのオフセットでもLocalDateTimeに変換できる範囲
+  private static final long MIN_EPOCH_SECOND = LocalDateTime.MIN.toEpochSecond(ZoneOffset.MIN);
+  private static final long MAX_EPOCH_SECOND = LocalDateTime.MAX.toEpochSecond(ZoneOffset.MAX);
+
+  private final long[] epochSeconds;
+  private final int[] nanos;
+  private final BitSet invalid;
+  private final int size;
+
+  private BulkConversion(long[] epochSeconds, int[] nanos, BitSet invalid, int size) {
+    this.epochSeconds = epochSeconds;
+    this.nanos = nanos;
+    this.invalid = invalid;
+    this.size = size;
+  }
+
+  /**
+   * 配列の入力を読み込む 文字列はconvert_timezoneの日時形式、数値はエポック秒として扱う
+   */
+  static BulkConversion fromValues(List<?> values, ZoneId zone) throws ToolExecutionException {
+    checkSize(values.size());
+    Builder builder = new Builder(values.size());
+    for (Object value : values) {
+      builder.add(value, zone);
+    }
+    return builder.build();
+  }
+
+  /**
+   * NDJSONの入力を読み込む 各行はJSONの文字列または数値 空行は無視する
+   */
+  static BulkConversion fromNdjson(String ndjson, ZoneId zone) throws ToolExecutionException {
+    Builder builder = new Builder(Math.max(16, ndjson.length() / 16));
+    int start = 0;
+    while (start < ndjson.length()) {
+      int end = ndjson.indexOf('\n', start);
+      if (end < 0) {
+        end = ndjson.length();
+      }
+      String line = ndjson.substring(start, end).strip();
+      start = end + 1;
+      if (line.isEmpty()) {
+        continue;
+      }
+      checkSize(builder.size + 1);
+      builder.add(parseLine(line), zone);
+    }
+    return builder.build();
+  }
+
+  /**
+   * 行数
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * 変換先タイムゾーンごとに列を作る
+   */
+  BulkConversionResult convert(List<ZoneId> zones, FieldSet fields) {
+    List<BulkConversionResult.Column> columns = null;
+    if (fields.includes("targets")) {
+      FieldSet columnFields = fields.select("targets");
+      columns = new ArrayList<>(zones.size());
+      for (ZoneId zone : zones) {
+        columns.add(column(zone, columnFields));
+      }
+    }
+    return new BulkConversionResult(
+        size,
+        fields.includes("epoch_seconds") ? Arrays.copyOf(epochSeconds, size) : null,
+        columns,
+        fields.includes("invalid_rows") && !invalid.isEmpty() ? invalid.stream().toArray() : null);
+  }
+
+  private BulkConversionResult.Column column(ZoneId zone, FieldSet fields) {
+    boolean wantOffsets = fields.includes("offset_seconds");
+    boolean wantLocal = fields.includes("local_datetimes");
+    int[] offsets = wantOffsets ? new int[size] : null;
+    String[] local = wantLocal ? new String[size] : null;
+
+    // オフセットは表の二分探索で求め、行ごとにオブジェクトを生成しない
+    OffsetTable table = OffsetTables.shared().forZone(zone);
+    for (int i = 0; i < size; i++) {
+      if (invalid.get(i)) {
+        continue;
+      }
+      int offset = table.offsetSeconds(epochSeconds[i]);
+      if (wantOffsets) {
+        offsets[i] = offset;
+      }
+      if (wantLocal) {
+        local[i] = LocalDateTime.ofEpochSecond(epochSeconds[i], nanos[i],
+            ZoneOffset.ofTotalSeconds(offset)).toString();
+      }
+    }
+    return new BulkConversionResult.Column(
+        fields.includes("timezone") ? zone.getId() : null, offsets, local);
+  }
+
+  /**
+   * NDJSONの1行を値に変換 解析できない行はnull
+   */
+  private static Object parseLine(String line) {
+    char first = line.charAt(0);
+    if (first == '"') {
+      try {
+        return JsonSupport.mapper().readValue(line, String.class);
+      } catch (IOException e) {
+        return null;
+      }
+    }
+    if (first == '-' || (first >= '0' && first <= '9')) {
+      try {
+        return new BigDecimal(line);
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  private static void checkSize(int rows) throws ToolExecutionException {
+    if (rows > MAX_ROWS) {
+      throw new ToolExecutionException(
+          "Too many datetimes for bulk conversion (max " + MAX_ROWS + ")");
+    }
+  }
+
+  /**
+   * 入力を列に詰めるビルダー
+   */
+  private static final class Builder {
+
+    private long[] epochSeconds;
+    private int[] nanos;
+    private final BitSet invalid = new BitSet();
+    private int size;
+
+    Builder(int capacity) {
+      this.epochSeconds = new long[capacity];
+      this.nanos = new int[capacity];
+    }
+
+    void add(Object value, ZoneId zone) {
+      if (size == epochSeconds.length) {
+        int capacity = Math.max(16, size * 2);
+        epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+        nanos = Arrays.copyOf(nanos, capacity);
+      }
+      if (!set(size, value, zone)) {
+        invalid.set(size);
+      }
+      size++;
+    }
+
+    private boolean set(int index, Object value, ZoneId zone) {
+      if (value instanceof Integer || value instanceof Long) {
+        return set(index, ((Number) value).longValue(), 0);
+      }
+      if (value instanceof Number number) {
+        try {
+          BigDecimal decimal = number instanceof BigDecimal d ? d : new BigDecimal(number.toString());
+          BigDecimal seconds = decimal.setScale(0, RoundingMode.FLOOR);
+          return set(index, seconds.longValueExact(),
+              decimal.subtract(seconds).movePointRight(9).intValue());
+        } catch (NumberFormatException | ArithmeticException e) {
+          return false;
+        }
+      }
+      if (value instanceof String text) {
+        ZonedDateTime parsed = DateTimeSniffer.parse(text, zone);
+        return parsed != null && set(index, parsed.toEpochSecond(), parsed.getNano());
+      }
+      return false;
+    }
+
+    private boolean set(int index, long seconds, int nano) {
+      if (seconds < MIN_EPOCH_SECOND || seconds > MAX_EPOCH_SECOND) {
+        return false;
+      }
+      epochSeconds[index] = seconds;
+      nanos[index] = nano;
+      return true;
+    }
+
+    BulkConversion build() {
+      return new BulkConversion(epochSeconds, nanos, invalid, size);
+    }
+  }
+}
@@ -1,21 +1,31 @@
 package com.github.yuu1111.tools.impl;
 
+import com.github.yuu1111.format.DateTimeSniffer;
+import com.github.yuu1111.format.FormatterCache;
+import com.github.yuu1111.services.zone.OffsetTable;
+import com.github.yuu1111.services.zone.OffsetTables;
+import com.github.yuu1111.services.zone.ZoneResolver;
+import com.github.yuu1111.tools.FieldSet;
 import com.github.yuu1111.tools.MCPTool;
 import com.github.yuu1111.tools.ToolExecutionException;
+import com.github.yuu1111.tools.ToolProvider;
 import com.github.yuu1111.tools.ToolResponse;
+import com.github.yuu1111.tools.result.ConversionResult;
+import java.io.Serial;
 import java.time.DateTimeException;
 import java.time.Duration;
-import java.time.Instant;
-import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,64 +38,127 @@ public class ConvertTimezone implements MCPTool {
     private static final Logger logger = LoggerFactory.getLogger(ConvertTimezone.class);
 
     private static final DateTimeFormatter DEFAULT_FORMATTER = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
-    private static final Set<String> COMMON_FORMATS = Set.of(
-        "yyyy-MM-dd HH:mm:ss",
-        "yyyy-MM-dd'T'HH:mm:ss",
-        "yyyy-MM-dd'T'HH:mm:ssXXX",
-        "yyyy-MM-dd'T'HH:mm:ss.SSS",
-        "yyyy/MM/dd HH:mm:ss",
-        "dd/MM/yyyy HH:mm:ss",
-        "MM/dd/yyyy HH:mm:ss"
-    );
+
+    static final String NAME = "convert_timezone";
+    static final String DESCRIPTION = "Convert datetime between different timezones with DST support";
+    static final Map<String, Object> PARAMETER_SCHEMA = createParameterSchema();
+    static final int CACHE_TTL = 300; // 5分間キャッシュ
+    static final int PARALLEL_THRESHOLD = 128; // マルチコアでの既定値（未計測の目安） これ以上の変換先は並列に変換
+    static final int PARALLEL_CHUNK = 16; // 並列変換で1タスクが受け持つ件数
+
+    /**
+     * 並列変換を行わない場合の閾値
+     */
+    static final int PARALLEL_DISABLED = Integer.MAX_VALUE;
+
+    private static volatile int sharedParallelThreshold = automaticParallelThreshold();
+
+    private final int parallelThreshold;
+
+    /**
+     * コンストラクタ 共有の閾値を使う
+     */
+    public ConvertTimezone() {
+        this(sharedParallelThreshold);
+    }
+
+    /**
+     * 並列変換に切り替える変換先の件数を指定するコンストラクタ
+     */
+    ConvertTimezone(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * application.properties の convert.parallel.threshold を以後作成するインスタンスの閾値にする
+     * 0以下または未設定の場合は自動（共通プールの並列度が2未満なら並列変換しない）
+     */
+    public static void configure(Properties properties) {
+        int threshold = Integer.parseInt(
+            properties.getProperty("convert.parallel.threshold", "0").trim());
+        sharedParallelThreshold = threshold > 0 ? threshold : automaticParallelThreshold();
+        logger.debug("convert_timezone parallel threshold: {}", sharedParallelThreshold);
+    }
+
+    /**
+     * 自動で決める閾値 1コアではfork/joinが順次変換より速くならないため並列変換しない
+     */
+    static int automaticParallelThreshold() {
+        return ForkJoinPool.getCommonPoolParallelism() < 2 ? PARALLEL_DISABLED : PARALLEL_THRESHOLD;
+    }
+
+    /**
+     * 並列変換に切り替える変換先の件数
+     */
+    int parallelThreshold() {
+        return parallelThreshold;
+    }
 
     @Override
     public String getName() {
-        return "convert_timezone";
+        return NAME;
     }
 
     @Override
     public String getDescription() {
-        return "Convert datetime between different timezones with DST support";
+        return DESCRIPTION;
     }
 
     @Override
     public Map<String, Object> getParameterSchema() {
+        return PARAMETER_SCHEMA;
+    }
+
+    /**
+     * パラメータスキーマを作成
+     */
+    private static Map<String, Object> createParameterSchema() {
         return Map.of(
             "type", "object",
-            "properties", Map.of(
-                "datetime", Map.of(
+            "properties", Map.ofEntries(
+                Map.entry("datetime", Map.of(
                     "type", "string",
                     "description", "DateTime to convert (ISO format or common formats)"
-                ),
-                "from_timezone", Map.of(
+                )),
+                Map.entry("datetimes", Map.of(
+                    "type", "array",
+                    "items", Map.of("type", new String[]{"string", "number"}),
+                    "description", "Bulk mode: datetimes to convert (numbers are epoch seconds); "
+                        + "returns columnar arrays instead of per-element objects"
+                )),
+                Map.entry("ndjson", Map.of(
+                    "type", "string",
+                    "description", "Bulk mode: newline-delimited JSON strings or numbers"
+                )),
+                Map.entry("from_timezone", Map.of(
                     "type", "string",
                     "description", "Source timezone (IANA format)"
-                ),
-                "to_timezone", Map.of(
+                )),
+                Map.entry("to_timezone", Map.of(
                     "type", "string",
                     "description", "Target timezone (IANA format) or array for multiple"
-                ),
-                "to_timezones", Map.of(
+                )),
+                Map.entry("to_timezones", Map.of(
                     "type", "array",
                     "items", Map.of("type", "string"),
                     "description", "Multiple target timezones for batch conversion"
-                ),
-                "format", Map.of(
+                )),
+                Map.entry("format", Map.of(
                     "type", "string",
                     "description", "Output format pattern",
                     "default", "ISO8601"
-                ),
-                "include_dst_info", Map.of(
+                )),
+                Map.entry("include_dst_info", Map.of(
                     "type", "boolean",
                     "description", "Include DST information",
                     "default", false
-                ),
-                "include_time_difference", Map.of(
+                )),
+                Map.entry("include_time_difference", Map.of(
                     "type", "boolean",
                     "description", "Include time difference calculation",
                     "default", true
-                ),
-                "relative_time", Map.of(
+                )),
+                Map.entry("relative_time", Map.of(
                     "type", "object",
                     "description", "Convert relative time (e.g., '3 hours from now')",
                     "properties", Map.of(
@@ -95,7 +168,7 @@ public class ConvertTimezone implements MCPTool {
                             "enum", new String[]{"MINUTES", "HOURS", "DAYS", "WEEKS", "MONTHS"}
                         )
                     )
-                )
+                ))
             ),
             "required", new String[]{}
         );
@@ -103,6 +176,17 @@ public class ConvertTimezone implements MCPTool {
 
     @Override
     public ToolResponse execute(Map<String, Object> parameters) throws ToolExecutionException {
+        return execute(parameters, FieldSet.ALL);
+    }
+
+    @Override
+    public boolean supportsFieldProjection() {
+        return true;
+    }
+
+    @Override
+    public ToolResponse execute(Map<String, Object> parameters, FieldSet fields)
+            throws ToolExecutionException {
         logger.debug("Executing convert_timezone with parameters: {}", parameters);
 
         try {
@@ -116,6 +200,12 @@ public class ConvertTimezone implements MCPTool {
             boolean includeTimeDiff = getParameter(parameters, "include_time_difference", true);
             Map<String, Object> relativeTime = getMapParameter(parameters, "relative_time");
 
+            // 一括変換
+            if (parameters.containsKey("datetimes") || parameters.containsKey("ndjson")) {
+                return executeBulk(parameters, fromTimezone,
+                    determineTargetZones(toTimezone, toTimezones), fields);
+            }
+
             // 変換対象の日時を決定
             ZonedDateTime sourceDateTime = determineSourceDateTime(
                 datetimeStr, fromTimezone, relativeTime
@@ -127,56 +217,56 @@ public class ConvertTimezone implements MCPTool {
                 throw new ToolExecutionException("No target timezone specified");
             }
 
-            // レスポンスビルダー
-            ToolResponse.Builder builder = ToolResponse.builder();
-
             // 元の日時情報
-            builder.withData("source", Map.of(
-                "datetime", formatDateTime(sourceDateTime, outputFormat),
-                "timezone", sourceDateTime.getZone().getId(),
-                "unix_timestamp", sourceDateTime.toInstant().getEpochSecond(),
-                "offset", sourceDateTime.getOffset().toString()
-            ));
+            ConversionResult.Source source = null;
+            if (fields.includes("source")) {
+                source = new ConversionResult.Source(
+                    formatDateTime(sourceDateTime, outputFormat),
+                    sourceDateTime.getZone().getId(),
+                    sourceDateTime.toInstant().getEpochSecond(),
+                    sourceDateTime.getOffset().toString()
+                );
+            }
+
+            ConversionResult.Target target = null;
+            List<ConversionResult.Target> targets = null;
 
             // 単一タイムゾーン変換
             if (targetZones.size() == 1) {
-                String targetZone = targetZones.get(0);
-                Map<String, Object> result = convertToTimezone(
-                    sourceDateTime, targetZone, outputFormat, includeDstInfo, includeTimeDiff
-                );
-                builder.withData("target", result);
+                if (fields.includes("target")) {
+                    String targetZone = targetZones.get(0);
+                    target = convertToTimezone(sourceDateTime, targetZone, outputFormat,
+                        includeDstInfo, includeTimeDiff, fields.select("target"));
+                }
             }
             // 複数タイムゾーン変換
-            else {
-                List<Map<String, Object>> results = targetZones.stream()
-                    .map(tz -> {
-                        try {
-                            return convertToTimezone(
-                                sourceDateTime, tz, outputFormat, includeDstInfo, includeTimeDiff
-                            );
-                        } catch (Exception e) {
-                            logger.warn("Failed to convert to timezone: {}", tz, e);
-                            return Map.<String, Object>of(
-                                "timezone", tz,
-                                "error", e.getMessage()
-                            );
-                        }
-                    })
-                    .collect(Collectors.toList());
-
-                builder.withData("targets", results);
+            else if (fields.includes("targets")) {
+                targets = convertAll(sourceDateTime, targetZones, outputFormat,
+                    includeDstInfo, includeTimeDiff, fields.select("targets"));
             }
 
             // 追加情報
-            if (includeTimeDiff && targetZones.size() > 1) {
-                builder.withData("time_matrix", createTimeMatrix(sourceDateTime, targetZones));
+            ConversionResult.TimeOffsets timeOffsets = null;
+            ConversionResult.TimeMatrix timeMatrix = null;
+            boolean matrixRequested = fields.includes("time_matrix");
+            if (includeTimeDiff && targetZones.size() > 1
+                    && (matrixRequested || fields.includes("time_offsets"))) {
+                ConversionResult.TimeOffsets offsets = createTimeOffsets(sourceDateTime, targetZones);
+                timeOffsets = fields.includes("time_offsets") ? offsets : null;
+                timeMatrix = matrixRequested
+                    ? new ConversionResult.TimeMatrix(offsets, this::formatDuration)
+                    : null;
             }
 
-            // メタデータ
-            builder.withMetadata("conversion_count", targetZones.size());
-            builder.withMetadata("execution_time", System.currentTimeMillis());
-
-            return builder.build();
+            // メタデータ（要求された場合のみ生成）
+            int conversionCount = targetZones.size();
+            return ToolResponse.of(
+                new ConversionResult(source, target, targets, timeMatrix, timeOffsets),
+                () -> Map.of(
+                    "conversion_count", conversionCount,
+                    "execution_time", System.currentTimeMillis()
+                )
+            );
 
         } catch (DateTimeParseException e) {
             throw new ToolExecutionException("Invalid datetime format: " + e.getMessage());
@@ -188,6 +278,42 @@ public class ConvertTimezone implements MCPTool {
         }
     }
 
+    /**
+     * 一括変換を実行 タイムゾーンは変換前にすべて解決し、結果は列形式で返す
+     */
+    private ToolResponse executeBulk(Map<String, Object> parameters, String fromTimezone,
+            List<String> targetZones, FieldSet fields) throws ToolExecutionException {
+        if (targetZones.isEmpty()) {
+            throw new ToolExecutionException("No target timezone specified");
+        }
+        ZoneId fromZone = parseTimezone(fromTimezone);
+        List<ZoneId> zones = new ArrayList<>(targetZones.size());
+        for (String targetZone : targetZones) {
+            zones.add(parseTimezone(targetZone));
+        }
+
+        Object datetimes = parameters.get("datetimes");
+        Object ndjson = parameters.get("ndjson");
+        BulkConversion bulk;
+        if (datetimes instanceof List<?> values) {
+            bulk = BulkConversion.fromValues(values, fromZone);
+        } else if (datetimes == null && ndjson instanceof String text) {
+            bulk = BulkConversion.fromNdjson(text, fromZone);
+        } else {
+            throw new ToolExecutionException(
+                "Bulk mode requires either 'datetimes' (array) or 'ndjson' (string)");
+        }
+
+        long conversionCount = (long) bulk.size() * zones.size();
+        return ToolResponse.of(
+            bulk.convert(zones, fields),
+            () -> Map.of(
+                "conversion_count", conversionCount,
+                "execution_time", System.currentTimeMillis()
+            )
+        );
+    }
+
     /**
      * ソース日時を決定
      */
@@ -235,47 +361,15 @@ public class ConvertTimezone implements MCPTool {
     }
 
     /**
-     * 日時文字列をパース
+     * 日時文字列をパース 形式の判定順序はDateTimeSnifferを参照
      */
     private ZonedDateTime parseDateTime(String datetimeStr, ZoneId zone)
             throws ToolExecutionException {
-
-        // ISO形式を試す
-        try {
-            if (datetimeStr.contains("T") && (datetimeStr.contains("+") || datetimeStr.contains("Z"))) {
-                return ZonedDateTime.parse(datetimeStr);
-            }
-        } catch (DateTimeParseException ignored) {}
-
-        // タイムゾーン情報なしのISO形式
-        try {
-            if (datetimeStr.contains("T")) {
-                LocalDateTime ldt = LocalDateTime.parse(datetimeStr);
-                return ldt.atZone(zone);
-            }
-        } catch (DateTimeParseException ignored) {}
-
-        // 一般的なフォーマットを試す
-        for (String pattern : COMMON_FORMATS) {
-            try {
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
-                LocalDateTime ldt = LocalDateTime.parse(datetimeStr, formatter);
-                return ldt.atZone(zone);
-            } catch (DateTimeParseException ignored) {}
+        ZonedDateTime parsed = DateTimeSniffer.parse(datetimeStr, zone);
+        if (parsed == null) {
+            throw new ToolExecutionException("Unable to parse datetime: " + datetimeStr);
         }
-
-        // Unix timestampを試す
-        try {
-            long timestamp = Long.parseLong(datetimeStr);
-            // 10桁ならば秒、13桁ならばミリ秒と判断
-            if (datetimeStr.length() == 10) {
-                return ZonedDateTime.ofInstant(Instant.ofEpochSecond(timestamp), zone);
-            } else if (datetimeStr.length() == 13) {
-                return ZonedDateTime.ofInstant(Instant.ofEpochMilli(timestamp), zone);
-            }
-        } catch (NumberFormatException ignored) {}
-
-        throw new ToolExecutionException("Unable to parse datetime: " + datetimeStr);
+        return parsed;
     }
 
     /**
@@ -297,87 +391,147 @@ public class ConvertTimezone implements MCPTool {
     }
 
     /**
-     * タイムゾーンに変換
+     * 複数のタイムゾーンに変換 parallelThreshold以上の件数はfork/joinで分割して並列に変換する
+     * 結果は入力と同じ順序の配列に書き込むため、並列でも順序は変わらない
      */
-    private Map<String, Object> convertToTimezone(
+    private List<ConversionResult.Target> convertAll(
+            ZonedDateTime sourceDateTime,
+            List<String> targetZones,
+            String outputFormat,
+            boolean includeDstInfo,
+            boolean includeTimeDiff,
+            FieldSet fields) {
+
+        ConversionResult.Target[] results = new ConversionResult.Target[targetZones.size()];
+        IntConsumer convert = index -> {
+            String tz = targetZones.get(index);
+            try {
+                results[index] = convertToTimezone(sourceDateTime, tz, outputFormat,
+                    includeDstInfo, includeTimeDiff, fields);
+            } catch (Exception e) {
+                logger.warn("Failed to convert to timezone: {}", tz, e);
+                results[index] = ConversionResult.Target.failed(tz, e.getMessage());
+            }
+        };
+
+        if (results.length >= parallelThreshold) {
+            ForkJoinPool.commonPool().invoke(new FanOut(convert, 0, results.length));
+        } else {
+            for (int i = 0; i < results.length; i++) {
+                convert.accept(i);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 変換対象の範囲を二分し、PARALLEL_CHUNK以下になったら順に変換するタスク
+     */
+    private static final class FanOut extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        // ForkJoinTaskはSerializableだが、このタスクは直列化しない
+        @SuppressWarnings("serial")
+        private final IntConsumer action;
+        private final int from;
+        private final int to;
+
+        FanOut(IntConsumer action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_CHUNK) {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new FanOut(action, from, middle), new FanOut(action, middle, to));
+        }
+    }
+
+    /**
+     * タイムゾーンに変換 射影に含まれないフィールドは計算しない
+     */
+    private ConversionResult.Target convertToTimezone(
             ZonedDateTime sourceDateTime,
             String targetTimezone,
             String outputFormat,
             boolean includeDstInfo,
-            boolean includeTimeDiff) throws ToolExecutionException {
+            boolean includeTimeDiff,
+            FieldSet fields) throws ToolExecutionException {
 
         ZoneId targetZone = parseTimezone(targetTimezone);
         ZonedDateTime targetDateTime = sourceDateTime.withZoneSameInstant(targetZone);
 
-        Map<String, Object> result = new HashMap<>();
-        result.put("datetime", formatDateTime(targetDateTime, outputFormat));
-        result.put("timezone", targetZone.getId());
-        result.put("unix_timestamp", targetDateTime.toInstant().getEpochSecond());
-        result.put("offset", targetDateTime.getOffset().toString());
-
         // 時差情報
-        if (includeTimeDiff) {
-            Duration diff = Duration.between(
-                sourceDateTime.toOffsetDateTime(),
-                targetDateTime.toOffsetDateTime()
-            );
-
+        ConversionResult.TimeDifference timeDifference = null;
+        if (includeTimeDiff && fields.includes("time_difference")) {
             int offsetDiff = targetDateTime.getOffset().getTotalSeconds() -
                            sourceDateTime.getOffset().getTotalSeconds();
 
-            result.put("time_difference", Map.of(
-                "offset_difference_seconds", offsetDiff,
-                "offset_difference_hours", offsetDiff / 3600.0,
-                "offset_difference", formatDuration(offsetDiff),
-                "same_instant", true
-            ));
+            timeDifference = new ConversionResult.TimeDifference(
+                offsetDiff,
+                offsetDiff / 3600.0,
+                formatDuration(offsetDiff),
+                true
+            );
         }
 
         // DST情報
-        if (includeDstInfo) {
-            result.put("dst_info", getDSTInfo(targetZone, targetDateTime));
-        }
+        boolean dstRequested = includeDstInfo || fields.isExplicit("dst_info");
+        ConversionResult.DstInfo dstInfo = dstRequested && fields.includes("dst_info")
+            ? getDSTInfo(targetZone, targetDateTime)
+            : null;
 
         // 日付コンポーネント
-        result.put("components", Map.of(
-            "date", targetDateTime.toLocalDate().toString(),
-            "time", targetDateTime.toLocalTime().toString(),
-            "day_of_week", targetDateTime.getDayOfWeek().toString()
-        ));
+        ConversionResult.Components components = null;
+        if (fields.includes("components")) {
+            components = new ConversionResult.Components(
+                targetDateTime.toLocalDate().toString(),
+                targetDateTime.toLocalTime().toString(),
+                targetDateTime.getDayOfWeek().toString()
+            );
+        }
 
-        return result;
+        return new ConversionResult.Target(
+            fields.includes("datetime") ? formatDateTime(targetDateTime, outputFormat) : null,
+            fields.includes("timezone") ? targetZone.getId() : null,
+            fields.includes("unix_timestamp") ? targetDateTime.toInstant().getEpochSecond() : null,
+            fields.includes("offset") ? targetDateTime.getOffset().toString() : null,
+            timeDifference,
+            dstInfo,
+            components,
+            null
+        );
     }
 
     /**
-     * 時差マトリックスを作成
+     * タイムゾーンごとのオフセットを一度だけ求める 解決できないタイムゾーンは含めない
+     * 時差マトリックスはこのベクトルから必要に応じて展開する
      */
-    private Map<String, Map<String, String>> createTimeMatrix(
+    private ConversionResult.TimeOffsets createTimeOffsets(
             ZonedDateTime baseTime, List<String> timezones) {
 
-        Map<String, Map<String, String>> matrix = new HashMap<>();
-
-        for (String tz1 : timezones) {
-            Map<String, String> row = new HashMap<>();
-            ZoneId zone1 = ZoneId.of(tz1);
-            ZonedDateTime time1 = baseTime.withZoneSameInstant(zone1);
-
-            for (String tz2 : timezones) {
-                if (tz1.equals(tz2)) {
-                    row.put(tz2, "0h");
-                } else {
-                    ZoneId zone2 = ZoneId.of(tz2);
-                    ZonedDateTime time2 = baseTime.withZoneSameInstant(zone2);
-
-                    int offsetDiff = time2.getOffset().getTotalSeconds() -
-                                   time1.getOffset().getTotalSeconds();
-                    row.put(tz2, formatDuration(offsetDiff));
-                }
+        long epochSecond = baseTime.toEpochSecond();
+        List<String> zones = new ArrayList<>(timezones.size());
+        int[] offsets = new int[timezones.size()];
+        for (String timezone : timezones) {
+            ZoneId zone = ZoneResolver.shared().resolve(timezone);
+            if (zone == null) {
+                logger.debug("Skipping unknown timezone in time matrix: {}", timezone);
+                continue;
             }
-
-            matrix.put(tz1, row);
+            offsets[zones.size()] = OffsetTables.shared().forZone(zone).offsetSeconds(epochSecond);
+            zones.add(timezone);
         }
-
-        return matrix;
+        return new ConversionResult.TimeOffsets(zones, Arrays.copyOf(offsets, zones.size()));
     }
 
     /**
@@ -403,9 +557,13 @@ public class ConvertTimezone implements MCPTool {
         } else if ("UNIX".equalsIgnoreCase(format)) {
             return String.valueOf(dateTime.toInstant().getEpochSecond());
         } else {
+            DateTimeFormatter formatter = FormatterCache.find(format);
+            if (formatter == null) {
+                return dateTime.format(DEFAULT_FORMATTER);
+            }
             try {
-                return dateTime.format(DateTimeFormatter.ofPattern(format));
-            } catch (Exception e) {
+                return dateTime.format(formatter);
+            } catch (DateTimeException e) {
                 return dateTime.format(DEFAULT_FORMATTER);
             }
         }
@@ -414,34 +572,27 @@ public class ConvertTimezone implements MCPTool {
     /**
      * DST情報を取得
      */
-    private Map<String, Object> getDSTInfo(ZoneId zoneId, ZonedDateTime dateTime) {
-        Map<String, Object> info = new HashMap<>();
-
+    private ConversionResult.DstInfo getDSTInfo(ZoneId zoneId, ZonedDateTime dateTime) {
         try {
-            var rules = zoneId.getRules();
-            boolean isDst = rules.isDaylightSavings(dateTime.toInstant());
-            info.put("is_dst", isDst);
-
-            if (isDst) {
-                Duration dstOffset = rules.getDaylightSavings(dateTime.toInstant());
-                info.put("dst_offset", dstOffset.toString());
-            }
+            OffsetTable table = OffsetTables.shared().forZone(zoneId);
+            int dstSeconds = table.daylightSavingsSeconds(dateTime.toEpochSecond());
+            boolean isDst = dstSeconds != 0;
+            String dstOffset = isDst ? Duration.ofSeconds(dstSeconds).toString() : null;
+            return new ConversionResult.DstInfo(isDst, dstOffset, null);
         } catch (Exception e) {
-            info.put("available", false);
+            return new ConversionResult.DstInfo(null, null, false);
         }
-
-        return info;
     }
 
     /**
      * タイムゾーンをパース
      */
     private ZoneId parseTimezone(String timezone) throws ToolExecutionException {
-        try {
-            return ZoneId.of(timezone);
-        } catch (Exception e) {
+        ZoneId zoneId = ZoneResolver.shared().resolve(timezone);
+        if (zoneId == null) {
             throw ToolExecutionException.invalidTimezone(timezone);
         }
+        return zoneId;
     }
 
     /**
@@ -484,6 +635,42 @@ public class ConvertTimezone implements MCPTool {
 
     @Override
     public int getCacheTTL() {
-        return 300; // 5分間キャッシュ
+        return CACHE_TTL;
+    }
+
+    /**
+     * ServiceLoader用のツールプロバイダー
+     */
+    public static final class Provider implements ToolProvider {
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public String getDescription() {
+            return DESCRIPTION;
+        }
+
+        @Override
+        public Map<String, Object> getParameterSchema() {
+            return PARAMETER_SCHEMA;
+        }
+
+        @Override
+        public boolean isCacheable() {
+            return true;
+        }
+
+        @Override
+        public int getCacheTTL() {
+            return CACHE_TTL;
+        }
+
+        @Override
+        public MCPTool create() {
+            return new ConvertTimezone();
+        }
     }
 }
\ No newline at end of file
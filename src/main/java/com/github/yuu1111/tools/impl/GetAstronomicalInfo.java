@@ -1,12 +1,17 @@
 package com.github.yuu1111.tools.impl;
 
+import com.github.yuu1111.services.astronomy.AstronomicalInfo;
 import com.github.yuu1111.services.astronomy.AstronomyService;
+import com.github.yuu1111.services.astronomy.AstronomyService.Calculation;
+import com.github.yuu1111.tools.FieldSet;
 import com.github.yuu1111.tools.MCPTool;
 import com.github.yuu1111.tools.ToolExecutionException;
+import com.github.yuu1111.tools.ToolProvider;
 import com.github.yuu1111.tools.ToolResponse;
+import com.github.yuu1111.tools.result.AstronomyResult;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
-import java.util.HashMap;
+import java.util.EnumSet;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +23,11 @@ import org.slf4j.LoggerFactory;
 public class GetAstronomicalInfo implements MCPTool {
 
     private static final Logger logger = LoggerFactory.getLogger(GetAstronomicalInfo.class);
+
+    static final String NAME = "get_astronomical_info";
+    static final String DESCRIPTION = "Get astronomical information for a specific location and date";
+    static final Map<String, Object> PARAMETER_SCHEMA = createParameterSchema();
+
     private final AstronomyService astronomyService;
 
     public GetAstronomicalInfo() {
@@ -26,16 +36,23 @@ public class GetAstronomicalInfo implements MCPTool {
 
     @Override
     public String getName() {
-        return "get_astronomical_info";
+        return NAME;
     }
 
     @Override
     public String getDescription() {
-        return "Get astronomical information for a specific location and date";
+        return DESCRIPTION;
     }
 
     @Override
     public Map<String, Object> getParameterSchema() {
+        return PARAMETER_SCHEMA;
+    }
+
+    /**
+     * パラメータスキーマを作成
+     */
+    private static Map<String, Object> createParameterSchema() {
         return Map.of(
             "type", "object",
             "properties", Map.of(
@@ -75,6 +92,17 @@ public class GetAstronomicalInfo implements MCPTool {
 
     @Override
     public ToolResponse execute(Map<String, Object> parameters) throws ToolExecutionException {
+        return execute(parameters, FieldSet.ALL);
+    }
+
+    @Override
+    public boolean supportsFieldProjection() {
+        return true;
+    }
+
+    @Override
+    public ToolResponse execute(Map<String, Object> parameters, FieldSet fields)
+            throws ToolExecutionException {
         // パラメータ検証
         Double latitude = getDoubleParameter(parameters, "latitude");
         Double longitude = getDoubleParameter(parameters, "longitude");
@@ -105,56 +133,81 @@ public class GetAstronomicalInfo implements MCPTool {
             // 日付をパース
             LocalDate date = LocalDate.parse(dateStr);
 
-            // 天文情報を取得
-            var astronomicalInfo = astronomyService.getAstronomicalInfo(latitude, longitude, date);
+            // 要求されたフィールドに必要な計算のみを実行
+            FieldSet sunFields = fields.select("sun");
+            FieldSet moonFields = fields.select("moon");
+            boolean twilightRequested = sunFields.includes("twilight")
+                && (includeTwilight || sunFields.isExplicit("twilight"));
+            boolean moonRequested = fields.includes("moon")
+                && (includeMoonPhase || fields.isExplicit("moon"));
+            EnumSet<Calculation> calculations =
+                selectCalculations(sunFields, moonFields, twilightRequested, moonRequested, fields);
 
-            // レスポンスを構築
-            Map<String, Object> response = new HashMap<>();
-            response.put("location", Map.of(
-                "latitude", latitude,
-                "longitude", longitude
-            ));
-            response.put("date", dateStr);
+            AstronomicalInfo astronomicalInfo =
+                astronomyService.getAstronomicalInfo(latitude, longitude, date, calculations);
 
             // 太陽情報
-            Map<String, Object> sunInfo = new HashMap<>();
-            sunInfo.put("sunrise", astronomicalInfo.getSunrise());
-            sunInfo.put("sunset", astronomicalInfo.getSunset());
-            sunInfo.put("solar_noon", astronomicalInfo.getSolarNoon());
-            sunInfo.put("day_length", astronomicalInfo.getDayLength());
-
-            if (includeTwilight) {
-                sunInfo.put("twilight", Map.of(
-                    "civil_dawn", astronomicalInfo.getCivilDawn(),
-                    "civil_dusk", astronomicalInfo.getCivilDusk(),
-                    "nautical_dawn", astronomicalInfo.getNauticalDawn(),
-                    "nautical_dusk", astronomicalInfo.getNauticalDusk(),
-                    "astronomical_dawn", astronomicalInfo.getAstronomicalDawn(),
-                    "astronomical_dusk", astronomicalInfo.getAstronomicalDusk()
-                ));
+            AstronomyResult.Sun sun = null;
+            if (fields.includes("sun")) {
+                AstronomyResult.Twilight twilight = null;
+                if (twilightRequested) {
+                    FieldSet twilightFields = sunFields.select("twilight");
+                    twilight = new AstronomyResult.Twilight(
+                        pick(twilightFields, "civil_dawn", astronomicalInfo.getCivilDawn()),
+                        pick(twilightFields, "civil_dusk", astronomicalInfo.getCivilDusk()),
+                        pick(twilightFields, "nautical_dawn", astronomicalInfo.getNauticalDawn()),
+                        pick(twilightFields, "nautical_dusk", astronomicalInfo.getNauticalDusk()),
+                        pick(twilightFields, "astronomical_dawn",
+                            astronomicalInfo.getAstronomicalDawn()),
+                        pick(twilightFields, "astronomical_dusk",
+                            astronomicalInfo.getAstronomicalDusk())
+                    );
+                }
+                sun = new AstronomyResult.Sun(
+                    pick(sunFields, "sunrise", astronomicalInfo.getSunrise()),
+                    pick(sunFields, "sunset", astronomicalInfo.getSunset()),
+                    pick(sunFields, "solar_noon", astronomicalInfo.getSolarNoon()),
+                    pick(sunFields, "day_length", astronomicalInfo.getDayLength()),
+                    twilight
+                );
             }
-            response.put("sun", sunInfo);
 
             // 月情報
-            if (includeMoonPhase) {
-                Map<String, Object> moonInfo = new HashMap<>();
-                moonInfo.put("moonrise", astronomicalInfo.getMoonrise());
-                moonInfo.put("moonset", astronomicalInfo.getMoonset());
-                moonInfo.put("phase", astronomicalInfo.getMoonPhase().toString());
-                moonInfo.put("illumination", astronomicalInfo.getMoonIllumination());
-                moonInfo.put("age", astronomicalInfo.getMoonAge());
-                moonInfo.put("distance", astronomicalInfo.getMoonDistance());
-                response.put("moon", moonInfo);
+            AstronomyResult.Moon moon = null;
+            if (moonRequested) {
+                boolean phaseCalculated = calculations.contains(Calculation.MOON_PHASE);
+                moon = new AstronomyResult.Moon(
+                    pick(moonFields, "moonrise", astronomicalInfo.getMoonrise()),
+                    pick(moonFields, "moonset", astronomicalInfo.getMoonset()),
+                    pick(moonFields, "phase",
+                        phaseCalculated ? astronomicalInfo.getMoonPhase().toString() : null),
+                    pick(moonFields, "illumination", astronomicalInfo.getMoonIllumination()),
+                    pick(moonFields, "age", astronomicalInfo.getMoonAge()),
+                    pick(moonFields, "distance", astronomicalInfo.getMoonDistance())
+                );
             }
 
             // その他の情報
-            response.put("solar_position", Map.of(
-                "azimuth", astronomicalInfo.getSolarAzimuth(),
-                "altitude", astronomicalInfo.getSolarAltitude()
-            ));
+            AstronomyResult.SolarPosition solarPosition = null;
+            if (fields.includes("solar_position")) {
+                FieldSet positionFields = fields.select("solar_position");
+                solarPosition = new AstronomyResult.SolarPosition(
+                    pick(positionFields, "azimuth", astronomicalInfo.getSolarAzimuth()),
+                    pick(positionFields, "altitude", astronomicalInfo.getSolarAltitude())
+                );
+            }
+
+            AstronomyResult result = new AstronomyResult(
+                fields.includes("location")
+                    ? new AstronomyResult.Location(latitude, longitude) : null,
+                pick(fields, "date", dateStr),
+                sun,
+                moon,
+                solarPosition
+            );
 
             logger.info("Retrieved astronomical info for {},{} on {}", latitude, longitude, dateStr);
-            return ToolResponse.of(response);
+            return ToolResponse.of(result);
 
         } catch (DateTimeParseException e) {
             throw ToolExecutionException.invalidParameter("date", "Invalid format: " + dateStr);
@@ -164,6 +217,42 @@ public class GetAstronomicalInfo implements MCPTool {
         }
     }
 
+    /**
+     * 要求されたフィールドから実行する計算を決定
+     */
+    private static EnumSet<Calculation> selectCalculations(FieldSet sunFields, FieldSet moonFields,
+            boolean twilightRequested, boolean moonRequested, FieldSet fields) {
+        EnumSet<Calculation> calculations = EnumSet.noneOf(Calculation.class);
+        if (sunFields.includesAny("sunrise", "sunset", "solar_noon", "day_length")) {
+            calculations.add(Calculation.SUN_TIMES);
+        }
+        if (twilightRequested) {
+            calculations.add(Calculation.TWILIGHT);
+        }
+        if (moonRequested) {
+            if (moonFields.includesAny("moonrise", "moonset")) {
+                calculations.add(Calculation.MOON_TIMES);
+            }
+            if (moonFields.includesAny("phase", "illumination", "age")) {
+                calculations.add(Calculation.MOON_PHASE);
+            }
+            if (moonFields.includes("distance")) {
+                calculations.add(Calculation.MOON_DISTANCE);
+            }
+        }
+        if (fields.includes("solar_position")) {
+            calculations.add(Calculation.SOLAR_POSITION);
+        }
+        return calculations;
+    }
+
+    /**
+     * 射影に含まれる場合のみ値を返す
+     */
+    private static <T> T pick(FieldSet fields, String name, T value) {
+        return fields.includes(name) ? value : null;
+    }
+
     private Double getDoubleParameter(Map<String, Object> parameters, String key) {
         Object value = parameters.get(key);
         if (value == null) {
@@ -181,4 +270,30 @@ public class GetAstronomicalInfo implements MCPTool {
         }
         return null;
     }
+
+    /**
+     * ServiceLoader用のツールプロバイダー
+     */
+    public static final class Provider implements ToolProvider {
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public String getDescription() {
+            return DESCRIPTION;
+        }
+
+        @Override
+        public Map<String, Object> getParameterSchema() {
+            return PARAMETER_SCHEMA;
+        }
+
+        @Override
+        public MCPTool create() {
+            return new GetAstronomicalInfo();
+        }
+    }
 }
\ No newline at end of file
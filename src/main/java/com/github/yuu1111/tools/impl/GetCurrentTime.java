@@ -1,9 +1,16 @@
 package com.github.yuu1111.tools.impl;
 
+import com.github.yuu1111.format.FormatterCache;
 import com.github.yuu1111.protocol.MCPError;
+import com.github.yuu1111.services.clock.ClockDisciplineService;
+import com.github.yuu1111.services.zone.ZoneResolver;
+import com.github.yuu1111.services.zone.ZoneSearchIndex;
+import com.github.yuu1111.tools.FieldSet;
 import com.github.yuu1111.tools.MCPTool;
 import com.github.yuu1111.tools.ToolExecutionException;
+import com.github.yuu1111.tools.ToolProvider;
 import com.github.yuu1111.tools.ToolResponse;
+import com.github.yuu1111.tools.result.CurrentTimeResult;
 import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.Instant;
@@ -12,9 +19,7 @@ import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,18 +30,51 @@ public class GetCurrentTime implements MCPTool {
 
   private static final Logger logger = LoggerFactory.getLogger(GetCurrentTime.class);
 
+  static final String NAME = "get_current_time";
+  static final String DESCRIPTION =
+      "Get current time in specified timezone with various format options";
+  static final Map<String, Object> PARAMETER_SCHEMA = createParameterSchema();
+
+  /**
+   * 無効なタイムゾーンに対して提案する候補の数
+   */
+  private static final int SUGGESTION_LIMIT = 5;
+
+  private final ClockDisciplineService clockService;
+
+  /**
+   * コンストラクタ 共有の時刻同期サービスで補正した時刻を使う
+   */
+  public GetCurrentTime() {
+    this(ClockDisciplineService.shared());
+  }
+
+  /**
+   * コンストラクタ（時刻同期サービス指定）
+   */
+  public GetCurrentTime(ClockDisciplineService clockService) {
+    this.clockService = clockService;
+  }
+
   @Override
   public String getName() {
-    return "get_current_time";
+    return NAME;
   }
 
   @Override
   public String getDescription() {
-    return "Get current time in specified timezone with various format options";
+    return DESCRIPTION;
   }
 
   @Override
   public Map<String, Object> getParameterSchema() {
+    return PARAMETER_SCHEMA;
+  }
+
+  /**
+   * パラメータスキーマを作成
+   */
+  private static Map<String, Object> createParameterSchema() {
     return Map.of("type", "object", "properties", Map.of("timezone",
         Map.of("type", "string", "description",
             "IANA timezone name (e.g., Asia/Tokyo, America/New_York)", "default", "UTC"), "format",
@@ -55,6 +93,17 @@ public class GetCurrentTime implements MCPTool {
 
   @Override
   public ToolResponse execute(Map<String, Object> parameters) throws ToolExecutionException {
+    return execute(parameters, FieldSet.ALL);
+  }
+
+  @Override
+  public boolean supportsFieldProjection() {
+    return true;
+  }
+
+  @Override
+  public ToolResponse execute(Map<String, Object> parameters, FieldSet fields)
+      throws ToolExecutionException {
     logger.debug("Executing get_current_time with parameters: {}", parameters);
 
     try {
@@ -69,50 +118,55 @@ public class GetCurrentTime implements MCPTool {
       // タイムゾーンを解析
       ZoneId zoneId = parseTimezone(timezoneStr);
 
-      // 現在時刻を取得
-      ZonedDateTime now = ZonedDateTime.now(zoneId);
+      // 現在時刻を取得（時刻同期サービスで推定したずれを補正）
+      ZonedDateTime now = ZonedDateTime.now(clockService.clock().withZone(zoneId));
       Instant instant = now.toInstant();
 
-      // レスポンスを構築
-      ToolResponse.Builder builder = ToolResponse.builder();
-
-      // 基本情報
-      builder.withData("timestamp", formatTimestamp(now, formatStr, customFormat));
-      builder.withData("timezone", zoneId.getId());
-      builder.withData("unix_timestamp", instant.getEpochSecond());
-      builder.withData("unix_timestamp_millis", instant.toEpochMilli());
-
       // オフセット情報
-      if (includeOffset) {
+      String utcOffset = null;
+      Integer utcOffsetSeconds = null;
+      if (includeOffset && fields.includesAny("utc_offset", "utc_offset_seconds")) {
         ZoneOffset offset = now.getOffset();
-        builder.withData("utc_offset", offset.toString());
-        builder.withData("utc_offset_seconds", offset.getTotalSeconds());
+        utcOffset = fields.includes("utc_offset") ? offset.toString() : null;
+        utcOffsetSeconds = fields.includes("utc_offset_seconds") ? offset.getTotalSeconds() : null;
       }
 
       // DST情報
-      if (includeDst) {
-        Map<String, Object> dstInfo = getDSTInfo(zoneId, now);
-        builder.withData("dst_info", dstInfo);
+      CurrentTimeResult.DstInfo dstInfo = null;
+      if ((includeDst || fields.isExplicit("dst_info")) && fields.includes("dst_info")) {
+        dstInfo = getDSTInfo(zoneId, now);
       }
 
       // 詳細なタイムゾーン情報
-      if (includeZoneInfo) {
-        Map<String, Object> zoneInfo = getDetailedZoneInfo(zoneId, now);
-        builder.withData("zone_info", zoneInfo);
+      CurrentTimeResult.ZoneInfo zoneInfo = null;
+      if ((includeZoneInfo || fields.isExplicit("zone_info")) && fields.includes("zone_info")) {
+        zoneInfo = getDetailedZoneInfo(zoneId, now);
       }
 
       // 日付コンポーネント
-      builder.withData("date_components",
-          Map.of("year", now.getYear(), "month", now.getMonthValue(), "day", now.getDayOfMonth(),
-              "hour", now.getHour(), "minute", now.getMinute(), "second", now.getSecond(), "nano",
-              now.getNano(), "day_of_week", now.getDayOfWeek().toString(), "day_of_year",
-              now.getDayOfYear()));
+      CurrentTimeResult.DateComponents dateComponents = null;
+      if (fields.includes("date_components")) {
+        dateComponents = new CurrentTimeResult.DateComponents(now.getYear(), now.getMonthValue(),
+            now.getDayOfMonth(), now.getHour(), now.getMinute(), now.getSecond(), now.getNano(),
+            now.getDayOfWeek().toString(), now.getDayOfYear());
+      }
 
-      // メタデータ
-      builder.withMetadata("execution_time", System.currentTimeMillis());
-      builder.withMetadata("timezone_valid", true);
+      // 時刻同期の状態と誤差の上限
+      CurrentTimeResult.ClockInfo clockInfo = null;
+      if (fields.includes("clock")) {
+        clockInfo = getClockInfo();
+      }
 
-      return builder.build();
+      CurrentTimeResult result = new CurrentTimeResult(
+          fields.includes("timestamp") ? formatTimestamp(now, formatStr, customFormat) : null,
+          fields.includes("timezone") ? zoneId.getId() : null,
+          fields.includes("unix_timestamp") ? instant.getEpochSecond() : null,
+          fields.includes("unix_timestamp_millis") ? instant.toEpochMilli() : null, utcOffset,
+          utcOffsetSeconds, dstInfo, zoneInfo, dateComponents, clockInfo);
+
+      // メタデータ（要求された場合のみ生成）
+      return ToolResponse.of(result,
+          () -> Map.of("execution_time", System.currentTimeMillis(), "timezone_valid", true));
 
     } catch (DateTimeParseException e) {
       throw ToolExecutionException.invalidParameter("custom_format", e.getMessage());
@@ -126,40 +180,23 @@ public class GetCurrentTime implements MCPTool {
    * タイムゾーンを解析
    */
   private ZoneId parseTimezone(String timezone) throws ToolExecutionException {
-    try {
-      // 一般的な略称をIANA形式に変換
-      String normalized = normalizeTimezone(timezone);
-      return ZoneId.of(normalized);
-    } catch (DateTimeException e) {
+    // 略称・大文字小文字の違い・固定オフセットも共有のリゾルバーで解決
+    ZoneId zoneId = ZoneResolver.shared().resolve(timezone);
+    if (zoneId == null) {
       // 利用可能なタイムゾーンを提案
       String suggestions = findSimilarTimezones(timezone);
       throw new ToolExecutionException(MCPError.TIMEZONE_ERROR, "Invalid timezone: " + timezone,
           Map.of("suggestions", suggestions));
     }
+    return zoneId;
   }
 
   /**
-   * タイムゾーン略称を正規化
-   */
-  private String normalizeTimezone(String timezone) {
-    // よく使われる略称のマッピング
-    Map<String, String> abbreviations = Map.of("JST", "Asia/Tokyo", "EST", "America/New_York",
-        "PST", "America/Los_Angeles", "GMT", "Europe/London", "CET", "Europe/Paris", "CST",
-        "America/Chicago", "MST", "America/Denver", "AEST", "Australia/Sydney", "IST",
-        "Asia/Kolkata");
-
-    String upper = timezone.toUpperCase();
-    return abbreviations.getOrDefault(upper, timezone);
-  }
-
-  /**
-   * 類似のタイムゾーンを検索
+   * 類似のタイムゾーンを検索 綴りの誤りや都市名・国名にも共有の検索索引で対応する
    */
   private String findSimilarTimezones(String input) {
-    Set<String> availableZones = ZoneId.getAvailableZoneIds();
-    String lower = input.toLowerCase();
-
-    return availableZones.stream().filter(zone -> zone.toLowerCase().contains(lower)).limit(5)
+    return ZoneSearchIndex.shared().search(input, SUGGESTION_LIMIT).stream()
+        .map(ZoneSearchIndex.Match::zone)
         .reduce((a, b) -> a + ", " + b).orElse("No similar timezones found");
   }
 
@@ -180,7 +217,7 @@ public class GetCurrentTime implements MCPTool {
           if (customFormat == null || customFormat.isBlank()) {
             throw new ToolExecutionException("custom_format is required when format=CUSTOM");
           }
-          yield dateTime.format(DateTimeFormatter.ofPattern(customFormat));
+          yield dateTime.format(FormatterCache.ofPattern(customFormat));
         }
       };
     } catch (IllegalArgumentException e) {
@@ -191,66 +228,70 @@ public class GetCurrentTime implements MCPTool {
   }
 
   /**
-   * DST情報を取得
+   * 時刻同期の状態を取得
    */
-  private Map<String, Object> getDSTInfo(ZoneId zoneId, ZonedDateTime dateTime) {
-    Map<String, Object> dstInfo = new HashMap<>();
+  private CurrentTimeResult.ClockInfo getClockInfo() {
+    ClockDisciplineService.Status status = clockService.status();
+    if (status.lastSync() == null) {
+      return new CurrentTimeResult.ClockInfo(false, status.reference(), 0, null, null, null);
+    }
+    return new CurrentTimeResult.ClockInfo(status.synced(), status.reference(),
+        status.offsetNanos() / 1e6, status.errorBoundNanos() / 1e6,
+        Math.round(status.drift() * 1e6 * 1000) / 1000.0, status.lastSync().toString());
+  }
 
+  /**
+   * DST情報を取得
+   */
+  private CurrentTimeResult.DstInfo getDSTInfo(ZoneId zoneId, ZonedDateTime dateTime) {
     try {
       var rules = zoneId.getRules();
       boolean isDst = rules.isDaylightSavings(dateTime.toInstant());
       Duration dstOffset = rules.getDaylightSavings(dateTime.toInstant());
 
-      dstInfo.put("is_dst", isDst);
-      dstInfo.put("dst_offset_seconds", dstOffset.getSeconds());
-      dstInfo.put("dst_offset", dstOffset.toString());
-
       // 次のDST切り替え日時
+      String nextTransitionAt = null;
+      String nextTransitionType = null;
       var nextTransition = rules.nextTransition(dateTime.toInstant());
       if (nextTransition != null) {
-        dstInfo.put("next_transition", nextTransition.getInstant().toString());
-        dstInfo.put("next_transition_type",
-            nextTransition.isGap() ? "SPRING_FORWARD" : "FALL_BACK");
+        nextTransitionAt = nextTransition.getInstant().toString();
+        nextTransitionType = nextTransition.isGap() ? "SPRING_FORWARD" : "FALL_BACK";
       }
 
+      return new CurrentTimeResult.DstInfo(isDst, dstOffset.getSeconds(), dstOffset.toString(),
+          nextTransitionAt, nextTransitionType, null);
+
     } catch (Exception e) {
       logger.warn("Failed to get DST info for timezone: {}", zoneId, e);
-      dstInfo.put("error", "DST information not available");
+      return CurrentTimeResult.DstInfo.unavailable();
     }
-
-    return dstInfo;
   }
 
   /**
    * 詳細なタイムゾーン情報を取得
    */
-  private Map<String, Object> getDetailedZoneInfo(ZoneId zoneId, ZonedDateTime dateTime) {
-    Map<String, Object> info = new HashMap<>();
-
+  private CurrentTimeResult.ZoneInfo getDetailedZoneInfo(ZoneId zoneId, ZonedDateTime dateTime) {
     try {
       var rules = zoneId.getRules();
 
-      info.put("zone_id", zoneId.getId());
-      info.put("zone_type", zoneId.getClass().getSimpleName());
-      info.put("display_name",
-          zoneId.getDisplayName(java.time.format.TextStyle.FULL, java.util.Locale.ENGLISH));
-      info.put("standard_offset", rules.getStandardOffset(dateTime.toInstant()).toString());
-      info.put("has_fixed_offset", rules.isFixedOffset());
-
       // 履歴情報
+      Integer totalTransitions = null;
+      String lastTransition = null;
       var transitions = rules.getTransitions();
       if (!transitions.isEmpty()) {
-        info.put("total_transitions", transitions.size());
-        var lastTransition = transitions.get(transitions.size() - 1);
-        info.put("last_transition", lastTransition.getInstant().toString());
+        totalTransitions = transitions.size();
+        lastTransition = transitions.get(transitions.size() - 1).getInstant().toString();
       }
 
+      return new CurrentTimeResult.ZoneInfo(zoneId.getId(), zoneId.getClass().getSimpleName(),
+          zoneId.getDisplayName(java.time.format.TextStyle.FULL, java.util.Locale.ENGLISH),
+          rules.getStandardOffset(dateTime.toInstant()).toString(), rules.isFixedOffset(),
+          totalTransitions, lastTransition, null);
+
     } catch (Exception e) {
       logger.warn("Failed to get detailed zone info for: {}", zoneId, e);
-      info.put("error", "Detailed zone information not available");
+      return CurrentTimeResult.ZoneInfo.unavailable();
     }
-
-    return info;
   }
 
   /**
@@ -301,6 +342,32 @@ public class GetCurrentTime implements MCPTool {
     return false; // 現在時刻はキャッシュ不可
   }
 
+  /**
+   * ServiceLoader用のツールプロバイダー
+   */
+  public static final class Provider implements ToolProvider {
+
+    @Override
+    public String getName() {
+      return NAME;
+    }
+
+    @Override
+    public String getDescription() {
+      return DESCRIPTION;
+    }
+
+    @Override
+    public Map<String, Object> getParameterSchema() {
+      return PARAMETER_SCHEMA;
+    }
+
+    @Override
+    public MCPTool create() {
+      return new GetCurrentTime();
+    }
+  }
+
   // サポートされている出力フォーマット
   public enum OutputFormat {
     ISO8601("ISO-8601", DateTimeFormatter.ISO_OFFSET_DATE_TIME), RFC3339("RFC-3339",
@@ -5,12 +5,13 @@ import com.github.yuu1111.services.calendar.CalendarService;
 import com.github.yuu1111.tools.MCPTool;
 import com.github.yuu1111.tools.ToolResponse;
 import com.github.yuu1111.tools.ToolExecutionException;
+import com.github.yuu1111.tools.ToolProvider;
+import com.github.yuu1111.tools.result.ReligiousCalendarResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -20,6 +21,11 @@ import java.util.Map;
 public class GetReligiousCalendar implements MCPTool {
     
     private static final Logger logger = LoggerFactory.getLogger(GetReligiousCalendar.class);
+    
+    static final String NAME = "get_religious_calendar";
+    static final String DESCRIPTION = "Convert Gregorian date to various religious calendars";
+    static final Map<String, Object> PARAMETER_SCHEMA = createParameterSchema();
+    
     private final CalendarService calendarService;
     
     public GetReligiousCalendar() {
@@ -28,16 +34,23 @@ public class GetReligiousCalendar implements MCPTool {
     
     @Override
     public String getName() {
-        return "get_religious_calendar";
+        return NAME;
     }
     
     @Override
     public String getDescription() {
-        return "Convert Gregorian date to various religious calendars";
+        return DESCRIPTION;
     }
     
     @Override
     public Map<String, Object> getParameterSchema() {
+        return PARAMETER_SCHEMA;
+    }
+    
+    /**
+     * パラメータスキーマを作成
+     */
+    private static Map<String, Object> createParameterSchema() {
         return Map.of(
             "type", "object",
             "properties", Map.of(
@@ -93,25 +106,28 @@ public class GetReligiousCalendar implements MCPTool {
             var calendarInfo = calendarService.convertToReligiousCalendar(date, type);
             
             // レスポンスを構築
-            Map<String, Object> response = new HashMap<>();
-            response.put("gregorian_date", dateStr);
-            response.put("calendar_type", calendarType);
-            response.put("converted_date", calendarInfo.toMap());
-            
-            if (includeHolidays) {
-                response.put("holidays", calendarInfo.getHolidays());
-                response.put("observances", calendarInfo.getObservances());
-            }
-            
-            response.put("metadata", Map.of(
-                "calendar_name", calendarInfo.getCalendarName(),
-                "era", calendarInfo.getEra(),
-                "week_day", calendarInfo.getWeekDay(),
-                "is_leap_year", calendarInfo.isLeapYear()
-            ));
+            ReligiousCalendarResult result = new ReligiousCalendarResult(
+                dateStr,
+                calendarType,
+                new ReligiousCalendarResult.ConvertedDate(
+                    calendarInfo.getYear(),
+                    calendarInfo.getMonth(),
+                    calendarInfo.getDay(),
+                    calendarInfo.getMonthName(),
+                    calendarInfo.formatDate()
+                ),
+                includeHolidays ? calendarInfo.getHolidays() : null,
+                includeHolidays ? calendarInfo.getObservances() : null,
+                new ReligiousCalendarResult.CalendarMetadata(
+                    calendarInfo.getCalendarName(),
+                    calendarInfo.getEra(),
+                    calendarInfo.getWeekDay(),
+                    calendarInfo.isLeapYear()
+                )
+            );
             
             logger.info("Converted {} to {} calendar", dateStr, calendarType);
-            return ToolResponse.of(response);
+            return ToolResponse.of(result);
             
         } catch (DateTimeParseException e) {
             throw ToolExecutionException.invalidParameter("date", "Invalid format: " + dateStr);
@@ -120,4 +136,30 @@ public class GetReligiousCalendar implements MCPTool {
             throw new ToolExecutionException("Failed to convert calendar: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * ServiceLoader用のツールプロバイダー
+     */
+    public static final class Provider implements ToolProvider {
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public String getDescription() {
+            return DESCRIPTION;
+        }
+
+        @Override
+        public Map<String, Object> getParameterSchema() {
+            return PARAMETER_SCHEMA;
+        }
+
+        @Override
+        public MCPTool create() {
+            return new GetReligiousCalendar();
+        }
+    }
 }
\ No newline at end of file
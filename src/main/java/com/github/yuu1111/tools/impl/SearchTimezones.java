@@ -0,0 +1,130 @@
+package com.github.yuu1111.tools.impl;
+
+import com.github.yuu1111.services.clock.ClockDisciplineService;
+import com.github.yuu1111.services.zone.OffsetTables;
+import com.github.yuu1111.services.zone.ZoneSearchIndex;
+import com.github.yuu1111.tools.MCPTool;
+import com.github.yuu1111.tools.ToolExecutionException;
+import com.github.yuu1111.tools.ToolProvider;
+import com.github.yuu1111.tools.ToolResponse;
+import com.github.yuu1111.tools.result.TimezoneSearchResult;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * タイムゾーン検索ツール 入力途中の名前や綴りを誤った名前からタイムゾーンの候補を返す
+ */
+public class SearchTimezones implements MCPTool {
+
+  static final String NAME = "search_timezones";
+  static final String DESCRIPTION =
+      "Search timezones by partial or misspelled name, city, country or abbreviation";
+  static final Map<String, Object> PARAMETER_SCHEMA = createParameterSchema();
+
+  /**
+   * limitの上限
+   */
+  static final int MAX_LIMIT = 50;
+
+  private final ZoneSearchIndex index;
+
+  /**
+   * コンストラクタ 共有の検索索引を使う
+   */
+  public SearchTimezones() {
+    this(ZoneSearchIndex.shared());
+  }
+
+  /**
+   * コンストラクタ（検索索引指定）
+   */
+  public SearchTimezones(ZoneSearchIndex index) {
+    this.index = index;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public String getDescription() {
+    return DESCRIPTION;
+  }
+
+  @Override
+  public Map<String, Object> getParameterSchema() {
+    return PARAMETER_SCHEMA;
+  }
+
+  /**
+   * パラメータスキーマを作成
+   */
+  private static Map<String, Object> createParameterSchema() {
+    return Map.of("type", "object", "properties", Map.of(
+        "query", Map.of("type", "string", "description",
+            "Timezone ID, city, country or abbreviation to search for (typos are tolerated)",
+            "example", "new yrok"),
+        "limit", Map.of("type", "integer", "description", "Maximum number of suggestions",
+            "default", ZoneSearchIndex.DEFAULT_LIMIT, "minimum", 1, "maximum", MAX_LIMIT)),
+        "required", new String[]{"query"});
+  }
+
+  @Override
+  public ToolResponse execute(Map<String, Object> parameters) throws ToolExecutionException {
+    if (!(parameters.get("query") instanceof String query) || query.isBlank()) {
+      throw ToolExecutionException.invalidParameter("query", "parameter is required");
+    }
+    int limit = ZoneSearchIndex.DEFAULT_LIMIT;
+    Object limitValue = parameters.get("limit");
+    if (limitValue != null) {
+      // 2.5のような小数は切り捨てずに拒否する
+      if (!(limitValue instanceof Integer || limitValue instanceof Long)
+          || ((Number) limitValue).longValue() < 1
+          || ((Number) limitValue).longValue() > MAX_LIMIT) {
+        throw ToolExecutionException.invalidParameter("limit",
+            "must be an integer between 1 and " + MAX_LIMIT);
+      }
+      limit = ((Number) limitValue).intValue();
+    }
+
+    long now = ClockDisciplineService.shared().clock().instant().getEpochSecond();
+    OffsetTables tables = OffsetTables.shared();
+    var suggestions = index.search(query, limit).stream()
+        .map(match -> new TimezoneSearchResult.Suggestion(match.zone(), match.matched(),
+            match.kind().name().toLowerCase(Locale.ROOT),
+            Math.round(match.score() * 1000) / 1000.0,
+            ZoneOffset.ofTotalSeconds(tables.forZone(ZoneId.of(match.zone()))
+                .offsetSeconds(now)).getId()))
+        .toList();
+    return ToolResponse.of(new TimezoneSearchResult(query, suggestions));
+  }
+
+  /**
+   * ServiceLoader用のツールプロバイダー
+   */
+  public static final class Provider implements ToolProvider {
+
+    @Override
+    public String getName() {
+      return NAME;
+    }
+
+    @Override
+    public String getDescription() {
+      return DESCRIPTION;
+    }
+
+    @Override
+    public Map<String, Object> getParameterSchema() {
+      return PARAMETER_SCHEMA;
+    }
+
+    @Override
+    public MCPTool create() {
+      return new SearchTimezones();
+    }
+  }
+}
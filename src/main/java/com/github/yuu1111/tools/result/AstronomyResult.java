@@ -0,0 +1,58 @@
+package com.github.yuu1111.tools.result;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+/**
+ * get_astronomical_info の実行結果
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record AstronomyResult(Location location, String date, Sun sun, Moon moon,
+                              SolarPosition solarPosition) {
+
+  /**
+   * 観測地点
+   */
+  public record Location(double latitude, double longitude) {
+
+  }
+
+  /**
+   * 太陽情報
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record Sun(String sunrise, String sunset, String solarNoon, String dayLength,
+                    Twilight twilight) {
+
+  }
+
+  /**
+   * 薄明時刻
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record Twilight(String civilDawn, String civilDusk, String nauticalDawn,
+                         String nauticalDusk, String astronomicalDawn, String astronomicalDusk) {
+
+  }
+
+  /**
+   * 月情報
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public record Moon(String moonrise, String moonset, String phase, Double illumination,
+                     Double age, Double distance) {
+
+  }
+
+  /**
+   * 太陽位置
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public record SolarPosition(Double azimuth, Double altitude) {
+
+  }
+}
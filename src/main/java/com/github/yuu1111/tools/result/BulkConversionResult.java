@@ -0,0 +1,26 @@
+package com.github.yuu1111.tools.result;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import java.util.List;
+
+/**
+ * convert_timezone の一括変換の結果 入力の各行を列ごとの配列として返す
+ * すべての配列は入力と同じ順序・同じ長さで、解析できなかった行はinvalidRowsに行番号を持つ
+ * （その行のlocalDatetimesはnull、epochSecondsとoffsetSecondsは0）
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record BulkConversionResult(int count, long[] epochSeconds, List<Column> targets,
+                                   int[] invalidRows) {
+
+  /**
+   * 変換先タイムゾーンごとの列
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record Column(String timezone, int[] offsetSeconds, String[] localDatetimes) {
+
+  }
+}
@@ -0,0 +1,142 @@
+package com.github.yuu1111.tools.result;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.io.Serial;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * convert_timezone の実行結果 単一変換ではtarget、複数変換ではtargetsを持つ
+ * 複数変換の時差はtimeOffsets（タイムゾーンごとのオフセット）で表し、timeMatrixはそこから展開する
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record ConversionResult(Source source, Target target, List<Target> targets,
+                               TimeMatrix timeMatrix, TimeOffsets timeOffsets) {
+
+  /**
+   * 変換元の日時
+   */
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record Source(String datetime, String timezone, long unixTimestamp, String offset) {
+
+  }
+
+  /**
+   * 変換先の日時 変換に失敗した場合はtimezoneとerrorのみを持つ
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record Target(String datetime, String timezone, Long unixTimestamp, String offset,
+                       TimeDifference timeDifference, DstInfo dstInfo, Components components,
+                       String error) {
+
+    /**
+     * 変換に失敗した場合
+     */
+    public static Target failed(String timezone, String error) {
+      return new Target(null, timezone, null, null, null, null, null, error);
+    }
+  }
+
+  /**
+   * 時差情報
+   */
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record TimeDifference(int offsetDifferenceSeconds, double offsetDifferenceHours,
+                               String offsetDifference, boolean sameInstant) {
+
+  }
+
+  /**
+   * 時差マトリックスのコンパクトな表現 zones[i]のUTCオフセットがoffsetSeconds[i]
+   * 任意の2つのタイムゾーンの時差はオフセットの差になる
+   */
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record TimeOffsets(List<String> zones, int[] offsetSeconds) {
+
+    /**
+     * fromからtoへの時差（秒）
+     */
+    public int difference(int from, int to) {
+      return offsetSeconds[to] - offsetSeconds[from];
+    }
+  }
+
+  /**
+   * 時差マトリックスの展開ビュー {from: {to: "+9h"}} の形式
+   * 各セルの文字列はシリアライズ時に生成し、中間のMapは作らない
+   */
+  @JsonSerialize(using = TimeMatrix.Serializer.class)
+  public record TimeMatrix(TimeOffsets offsets, IntFunction<String> formatter) {
+
+    /**
+     * fromからtoへの時差の表記 同じタイムゾーンは "0h"
+     */
+    public String get(int from, int to) {
+      return from == to ? "0h" : formatter.apply(offsets.difference(from, to));
+    }
+
+    /**
+     * 展開ビューのシリアライザー 同じ時差の表記は一度だけ生成する
+     */
+    static final class Serializer extends StdSerializer<TimeMatrix> {
+
+      @Serial
+      private static final long serialVersionUID = 1L;
+
+      Serializer() {
+        super(TimeMatrix.class);
+      }
+
+      @Override
+      public void serialize(TimeMatrix matrix, JsonGenerator gen, SerializerProvider provider)
+          throws IOException {
+        List<String> zones = matrix.offsets().zones();
+        Map<Integer, String> labels = new HashMap<>();
+        gen.writeStartObject();
+        for (int from = 0; from < zones.size(); from++) {
+          gen.writeFieldName(zones.get(from));
+          gen.writeStartObject();
+          for (int to = 0; to < zones.size(); to++) {
+            String label = from == to
+                ? "0h"
+                : labels.computeIfAbsent(matrix.offsets().difference(from, to),
+                    difference -> matrix.formatter().apply(difference));
+            gen.writeStringField(zones.get(to), label);
+          }
+          gen.writeEndObject();
+        }
+        gen.writeEndObject();
+      }
+    }
+  }
+
+  /**
+   * DST情報
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record DstInfo(@JsonProperty("is_dst") Boolean isDst, String dstOffset,
+                        Boolean available) {
+
+  }
+
+  /**
+   * 日付コンポーネント
+   */
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record Components(String date, String time, String dayOfWeek) {
+
+  }
+}
@@ -0,0 +1,72 @@
+package com.github.yuu1111.tools.result;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+/**
+ * get_current_time の実行結果
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record CurrentTimeResult(String timestamp, String timezone, Long unixTimestamp,
+                                Long unixTimestampMillis, String utcOffset,
+                                Integer utcOffsetSeconds, DstInfo dstInfo, ZoneInfo zoneInfo,
+                                DateComponents dateComponents, ClockInfo clock) {
+
+  /**
+   * DST情報
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record DstInfo(@JsonProperty("is_dst") Boolean isDst, Long dstOffsetSeconds,
+                        String dstOffset, String nextTransition, String nextTransitionType,
+                        String error) {
+
+    /**
+     * DST情報を取得できなかった場合
+     */
+    public static DstInfo unavailable() {
+      return new DstInfo(null, null, null, null, null, "DST information not available");
+    }
+  }
+
+  /**
+   * 詳細なタイムゾーン情報
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record ZoneInfo(String zoneId, String zoneType, String displayName,
+                         String standardOffset, Boolean hasFixedOffset, Integer totalTransitions,
+                         String lastTransition, String error) {
+
+    /**
+     * タイムゾーン情報を取得できなかった場合
+     */
+    public static ZoneInfo unavailable() {
+      return new ZoneInfo(null, null, null, null, null, null, null,
+          "Detailed zone information not available");
+    }
+  }
+
+  /**
+   * 時刻同期の状態 時刻は推定したずれで補正済みで、誤差はerror_bound_ms以内と推定される
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record ClockInfo(@JsonProperty("synchronized") boolean synced, String reference,
+                          double offsetMs, Double errorBoundMs, Double driftPpm,
+                          String lastSync) {
+
+  }
+
+  /**
+   * 日付コンポーネント
+   */
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record DateComponents(int year, int month, int day, int hour, int minute, int second,
+                               int nano, String dayOfWeek, int dayOfYear) {
+
+  }
+}
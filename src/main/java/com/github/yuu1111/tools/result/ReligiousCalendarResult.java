@@ -0,0 +1,35 @@
+package com.github.yuu1111.tools.result;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import java.util.Map;
+
+/**
+ * get_religious_calendar の実行結果
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record ReligiousCalendarResult(String gregorianDate, String calendarType,
+                                      ConvertedDate convertedDate, Map<String, String> holidays,
+                                      Map<String, String> observances,
+                                      CalendarMetadata metadata) {
+
+  /**
+   * 変換後の日付
+   */
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record ConvertedDate(int year, int month, int day, String monthName, String formatted) {
+
+  }
+
+  /**
+   * 暦の付加情報
+   */
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record CalendarMetadata(String calendarName, String era, String weekDay,
+                                 @JsonProperty("is_leap_year") boolean isLeapYear) {
+
+  }
+}
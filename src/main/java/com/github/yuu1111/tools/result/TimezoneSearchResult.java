@@ -0,0 +1,23 @@
+package com.github.yuu1111.tools.result;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import java.util.List;
+
+/**
+ * search_timezones の実行結果
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record TimezoneSearchResult(String query, List<Suggestion> suggestions) {
+
+  /**
+   * 候補のタイムゾーン matchedは一致した名前、kindはその種類（zone・city・country・abbreviation）
+   */
+  @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+  public record Suggestion(String timezone, String matched, String kind, double score,
+                           String utcOffset) {
+
+  }
+}
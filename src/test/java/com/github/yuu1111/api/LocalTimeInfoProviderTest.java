@@ -0,0 +1,47 @@
+package com.github.yuu1111.api;
+
+import com.github.yuu1111.api.WorldTimeAPIClient.TimeInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * LocalTimeInfoProviderのテスト
+ */
+@DisplayName("LocalTimeInfoProvider Tests")
+class LocalTimeInfoProviderTest {
+
+    @Test
+    @DisplayName("DST期間中のフィールドをWorldTimeAPIと同じ形式で計算する")
+    void testDaylightSavingFields() throws Exception {
+        Clock clock = Clock.fixed(Instant.parse("2024-07-01T16:00:00Z"), ZoneOffset.UTC);
+        TimeInfo info = new LocalTimeInfoProvider(clock).getTimeSync("America/New_York");
+
+        assertThat(info.datetime).isEqualTo("2024-07-01T12:00:00.000000-04:00");
+        assertThat(info.utcDatetime).isEqualTo("2024-07-01T16:00:00.000000+00:00");
+        assertThat(info.utcOffset).isEqualTo("-04:00");
+        assertThat(info.unixtime).isEqualTo(1719849600L);
+        assertThat(info.dst).isTrue();
+        assertThat(info.dstOffset).isEqualTo(3600);
+        assertThat(info.dstFrom).isEqualTo("2024-03-10T07:00:00+00:00");
+        assertThat(info.dstUntil).isEqualTo("2024-11-03T06:00:00+00:00");
+        assertThat(info.rawOffset).isEqualTo(-18000);
+        assertThat(info.abbreviation).isEqualTo("EDT");
+        assertThat(info.weekNumber).isEqualTo(27);
+        assertThat(info.dayOfWeek).isEqualTo(1);
+        assertThat(info.dayOfYear).isEqualTo(183);
+    }
+
+    @Test
+    @DisplayName("存在しないタイムゾーンはIOExceptionになる")
+    void testUnknownTimezone() {
+        assertThatThrownBy(() -> new LocalTimeInfoProvider().getTimeSync("Mars/Olympus"))
+            .isInstanceOf(java.io.IOException.class)
+            .hasMessageContaining("Timezone not found");
+    }
+}
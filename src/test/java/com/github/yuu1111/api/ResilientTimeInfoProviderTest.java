@@ -0,0 +1,120 @@
+package com.github.yuu1111.api;
+
+import com.github.yuu1111.api.WorldTimeAPIClient.TimeInfo;
+import com.github.yuu1111.resilience.CircuitBreaker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ResilientTimeInfoProviderのテスト
+ */
+@DisplayName("ResilientTimeInfoProvider Tests")
+class ResilientTimeInfoProviderTest {
+
+    @Test
+    @DisplayName("リモートが失敗し続けるとブレーカーが開き、ローカルのtzdbで応答する")
+    void testFallsBackToLocalWhileOpen() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        AtomicInteger remoteCalls = new AtomicInteger();
+        TimeInfoProvider remote = new StubRemote(() -> {
+            remoteCalls.incrementAndGet();
+            if (failing.get()) {
+                throw new IOException("Server error: 503");
+            }
+            return new LocalTimeInfoProvider().getTimeSync("Asia/Tokyo")
+                .withSource(TimeInfo.Source.REMOTE);
+        });
+        ResilientTimeInfoProvider provider = new ResilientTimeInfoProvider(remote,
+            new LocalTimeInfoProvider(), CircuitBreaker.Config.builder()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .permittedCallsInHalfOpen(1)
+                .openDuration(Duration.ofMillis(100))
+                .build());
+
+        for (int i = 0; i < 6; i++) {
+            TimeInfo info = provider.getTimeSync("Asia/Tokyo");
+            assertThat(info.source).isEqualTo(TimeInfo.Source.LOCAL_FALLBACK);
+            assertThat(info.timezone).isEqualTo("Asia/Tokyo");
+        }
+        // OPEN中はリモートを呼び出さない
+        assertThat(remoteCalls.get()).isEqualTo(4);
+        assertThat(provider.getCircuitBreakerMetrics().state())
+            .isEqualTo(CircuitBreaker.State.OPEN);
+
+        // HALF_OPENの試行呼び出しが成功するとリモートに戻る
+        failing.set(false);
+        Thread.sleep(150);
+        assertThat(provider.getTimeSync("Asia/Tokyo").source).isEqualTo(TimeInfo.Source.REMOTE);
+        assertThat(provider.getCircuitBreakerMetrics().state())
+            .isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("タイムゾーン一覧の非同期取得は呼び出し元をブロックせず、失敗時はローカルのtzdbの一覧で完了する")
+    void testAvailableTimezonesIsAsynchronous() throws Exception {
+        CompletableFuture<List<String>> pending = new CompletableFuture<>();
+        TimeInfoProvider remote = new StubRemote(() -> {
+            throw new IOException("unused");
+        }, pending);
+        ResilientTimeInfoProvider provider = new ResilientTimeInfoProvider(remote);
+
+        CompletableFuture<List<String>> timezones = provider.getAvailableTimezones();
+        assertThat(timezones).isNotDone();
+
+        pending.completeExceptionally(new IOException("Server error: 503"));
+        assertThat(timezones.get(1, TimeUnit.SECONDS)).contains("Asia/Tokyo");
+        assertThat(provider.getFallbackCount()).isEqualTo(1);
+        assertThat(provider.getCircuitBreakerMetrics().failureRate()).isPositive();
+    }
+
+    @FunctionalInterface
+    private interface RemoteCall {
+        TimeInfo get() throws IOException;
+    }
+
+    /**
+     * テスト用のリモートプロバイダー
+     */
+    private record StubRemote(RemoteCall call, CompletableFuture<List<String>> timezones)
+        implements TimeInfoProvider {
+
+        StubRemote(RemoteCall call) {
+            this(call, CompletableFuture.completedFuture(List.of()));
+        }
+
+        @Override
+        public TimeInfo getTimeSync(String timezone) throws IOException {
+            return call.get();
+        }
+
+        @Override
+        public CompletableFuture<TimeInfo> getCurrentTime(String timezone) {
+            try {
+                return CompletableFuture.completedFuture(call.get());
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        @Override
+        public List<String> getTimezonesSync() {
+            return List.of();
+        }
+
+        @Override
+        public CompletableFuture<List<String>> getAvailableTimezones() {
+            return timezones;
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.github.yuu1111.api;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * WorldTimeAPIClientのテスト
+ */
+@DisplayName("WorldTimeAPIClient Tests")
+class WorldTimeAPIClientTest {
+
+    private static final String TOKYO_BODY = """
+        {"timezone":"Asia/Tokyo","datetime":"2024-01-15T12:00:00.000000+09:00",
+         "utc_datetime":"2024-01-15T03:00:00.000000+00:00","utc_offset":"+09:00",
+         "unixtime":1705287600,"dst":false,"dst_offset":0,"raw_offset":32400,
+         "abbreviation":"JST","week_number":3,"day_of_week":1,"day_of_year":15}
+        """;
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    @DisplayName("キャッシュされた時刻情報はネットワークを経由せずに返し、統計を記録する")
+    void testCacheHitsAreRecorded() throws Exception {
+        server.enqueue(new MockResponse().setBody(TOKYO_BODY));
+        WorldTimeAPIClient client = new WorldTimeAPIClient(WorldTimeAPIConfig.builder()
+            .baseUrl(server.url("/api").toString())
+            .cacheTtl(Duration.ofMinutes(1))
+            .build());
+
+        WorldTimeAPIClient.TimeInfo first = client.getTimeSync("Asia/Tokyo");
+        WorldTimeAPIClient.TimeInfo second = client.getTimeSync("Asia/Tokyo");
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.abbreviation).isEqualTo("JST");
+        assertThat(server.getRequestCount()).isEqualTo(1);
+
+        CacheStats stats = client.getCacheStats();
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(1);
+        assertThat(stats.requestCount()).isEqualTo(2);
+        client.shutdown();
+    }
+
+    @Test
+    @DisplayName("5xxと429はRetry-Afterを尊重して非同期に再試行する")
+    void testRetriesServerErrorsAndRateLimits() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "0"));
+        server.enqueue(new MockResponse().setBody(TOKYO_BODY));
+        WorldTimeAPIClient client = new WorldTimeAPIClient(WorldTimeAPIConfig.builder()
+            .baseUrl(server.url("/api").toString())
+            .retryBaseDelay(Duration.ofMillis(10))
+            .retryMaxDelay(Duration.ofMillis(50))
+            .cacheEnabled(false)
+            .build());
+
+        assertThat(client.getTimeSync("Asia/Tokyo").timezone).isEqualTo("Asia/Tokyo");
+        assertThat(server.getRequestCount()).isEqualTo(3);
+
+        WorldTimeAPIClient.Metrics metrics = client.getMetrics();
+        assertThat(metrics.calls()).isEqualTo(1);
+        assertThat(metrics.attempts()).isEqualTo(3);
+        assertThat(metrics.retries()).isEqualTo(2);
+        assertThat(metrics.failures()).isZero();
+        client.shutdown();
+    }
+
+    @Test
+    @DisplayName("ディスパッチャーの同時実行数を使い切っても、待機中の呼び出しはスレッドプールに拒否されない")
+    void testSaturatedDispatcher() throws Exception {
+        int calls = 40;
+        for (int i = 0; i < calls; i++) {
+            server.enqueue(new MockResponse().setBody(TOKYO_BODY).setBodyDelay(5, TimeUnit.MILLISECONDS));
+        }
+        WorldTimeAPIClient client = new WorldTimeAPIClient(WorldTimeAPIConfig.builder()
+            .baseUrl(server.url("/api").toString())
+            .maxRetries(0)
+            .dispatcherMaxRequests(2)
+            .dispatcherMaxRequestsPerHost(2)
+            .cacheEnabled(false)
+            .build());
+
+        List<CompletableFuture<WorldTimeAPIClient.TimeInfo>> futures = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            futures.add(client.getCurrentTime("Asia/Tokyo"));
+        }
+        assertThat(client.getMetrics().queuedCalls()).isPositive();
+
+        for (CompletableFuture<WorldTimeAPIClient.TimeInfo> future : futures) {
+            assertThat(future.get(10, TimeUnit.SECONDS).timezone).isEqualTo("Asia/Tokyo");
+        }
+        assertThat(client.getMetrics().failures()).isZero();
+        assertThat(server.getRequestCount()).isEqualTo(calls);
+        client.shutdown();
+    }
+
+    @Test
+    @DisplayName("期限を超える再試行は行わない")
+    void testDeadlineStopsRetries() {
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "30"));
+        WorldTimeAPIClient client = new WorldTimeAPIClient(WorldTimeAPIConfig.builder()
+            .baseUrl(server.url("/api").toString())
+            .callDeadline(Duration.ofSeconds(2))
+            .cacheEnabled(false)
+            .build());
+
+        assertThatThrownBy(() -> client.getTimeSync("Asia/Tokyo"))
+            .hasMessageContaining("Rate limit exceeded");
+        assertThat(server.getRequestCount()).isEqualTo(1);
+        client.shutdown();
+    }
+
+    @Test
+    @DisplayName("再試行を待っている間にシャットダウンすると、呼び出し元は待たされずに失敗する")
+    void testShutdownFailsPendingRetries() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        WorldTimeAPIClient client = new WorldTimeAPIClient(WorldTimeAPIConfig.builder()
+            .baseUrl(server.url("/api").toString())
+            .retryBaseDelay(Duration.ofSeconds(2))
+            .retryMaxDelay(Duration.ofSeconds(4))
+            .callDeadline(Duration.ofSeconds(30))
+            .cacheEnabled(false)
+            .build());
+
+        CompletableFuture<WorldTimeAPIClient.TimeInfo> call = CompletableFuture.supplyAsync(() -> {
+            try {
+                return client.getTimeSync("Asia/Tokyo");
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+        assertThat(server.takeRequest(5, TimeUnit.SECONDS)).isNotNull();
+        Thread.sleep(100);
+        client.shutdown();
+
+        assertThatThrownBy(() -> call.get(1, TimeUnit.SECONDS))
+            .hasRootCauseMessage("WorldTimeAPI client is shut down");
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("未知のフィールドや型の異なる数値を含む応答もストリーミングでデコードできる")
+    void testStreamingDecoding() throws Exception {
+        server.enqueue(new MockResponse().setBody("""
+            {"abbreviation":"UTC","extra":{"nested":[1,2,3]},"unixtime":1705287600.0,
+             "dst":false,"dst_offset":0,"raw_offset":0,"timezone":"Etc/UTC",
+             "datetime":"2024-01-15T03:00:00.000000+00:00","utc_offset":"+00:00",
+             "week_number":3,"day_of_week":1,"day_of_year":15,"client_ip":null}
+            """));
+        server.enqueue(new MockResponse().setBody("[\"Africa/Abidjan\",\"Asia/Tokyo\"]"));
+        WorldTimeAPIClient client = new WorldTimeAPIClient(WorldTimeAPIConfig.builder()
+            .baseUrl(server.url("/api").toString())
+            .cacheEnabled(false)
+            .build());
+
+        WorldTimeAPIClient.TimeInfo info = client.getTimeSync("Etc/UTC");
+        assertThat(info.unixtime).isEqualTo(1705287600L);
+        assertThat(info.dayOfYear).isEqualTo(15);
+        assertThat(info.clientIp).isNull();
+        assertThat(client.getTimezonesSync()).containsExactly("Africa/Abidjan", "Asia/Tokyo");
+        client.shutdown();
+    }
+
+    @Test
+    @DisplayName("最初の試行がp90を超えて遅れるとヘッジを送信し、先に返った応答を使う")
+    void testHedgedRequest() throws Exception {
+        WorldTimeAPIClient client = new WorldTimeAPIClient(WorldTimeAPIConfig.builder()
+            .baseUrl(server.url("/api").toString())
+            .cacheEnabled(false)
+            .hedgingEnabled(true)
+            .hedgeMinDelay(Duration.ofMillis(20))
+            .build());
+
+        // レイテンシの計測数が揃うまではヘッジしない
+        for (int i = 0; i < HedgePolicy.MIN_SAMPLES; i++) {
+            server.enqueue(new MockResponse().setBody(TOKYO_BODY));
+            client.getTimeSync("Asia/Tokyo");
+        }
+        assertThat(client.getMetrics().hedges()).isZero();
+        assertThat(client.getMetrics().hedgeDelayMs()).isGreaterThanOrEqualTo(20);
+
+        server.enqueue(new MockResponse().setBody(TOKYO_BODY).setHeadersDelay(3, TimeUnit.SECONDS));
+        server.enqueue(new MockResponse().setBody(TOKYO_BODY));
+        long start = System.nanoTime();
+        assertThat(client.getTimeSync("Asia/Tokyo").timezone).isEqualTo("Asia/Tokyo");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+
+        WorldTimeAPIClient.Metrics metrics = client.getMetrics();
+        assertThat(metrics.hedges()).isEqualTo(1);
+        assertThat(metrics.hedgeWins()).isEqualTo(1);
+        client.shutdown();
+    }
+
+    @Test
+    @DisplayName("最初の試行とヘッジがどちらも失敗した場合はヘッジの勝ちとして数えない")
+    void testHedgeFailureIsNotCountedAsWin() throws Exception {
+        WorldTimeAPIClient client = new WorldTimeAPIClient(WorldTimeAPIConfig.builder()
+            .baseUrl(server.url("/api").toString())
+            .maxRetries(0)
+            .cacheEnabled(false)
+            .hedgingEnabled(true)
+            .hedgeMinDelay(Duration.ofMillis(20))
+            .build());
+        for (int i = 0; i < HedgePolicy.MIN_SAMPLES; i++) {
+            server.enqueue(new MockResponse().setBody(TOKYO_BODY));
+            client.getTimeSync("Asia/Tokyo");
+        }
+
+        // ヘッジの方が後に失敗し、最後に完了した試行として呼び出しの結果になる
+        server.enqueue(new MockResponse().setResponseCode(503).setHeadersDelay(200, TimeUnit.MILLISECONDS));
+        server.enqueue(new MockResponse().setResponseCode(503).setHeadersDelay(600, TimeUnit.MILLISECONDS));
+        assertThatThrownBy(() -> client.getTimeSync("Asia/Tokyo")).hasMessageContaining("503");
+
+        WorldTimeAPIClient.Metrics metrics = client.getMetrics();
+        assertThat(metrics.hedges()).isEqualTo(1);
+        assertThat(metrics.hedgeWins()).isZero();
+        client.shutdown();
+    }
+
+    @Test
+    @DisplayName("IPの応答から/24単位の対応を学習し、同じプレフィックスと読み込んだプレフィックスはIPを問い合わせない")
+    void testIpPrefixCache(@TempDir Path dir) throws Exception {
+        Path prefixes = dir.resolve("prefixes.txt");
+        Files.writeString(prefixes, "# 読み込み用\n198.51.100.0/24 Europe/Paris\ninvalid line\n");
+        server.enqueue(new MockResponse().setBody(TOKYO_BODY));
+        server.enqueue(new MockResponse().setBody(TOKYO_BODY));
+        server.enqueue(new MockResponse().setBody(TOKYO_BODY));
+        WorldTimeAPIClient client = new WorldTimeAPIClient(WorldTimeAPIConfig.builder()
+            .baseUrl(server.url("/api").toString())
+            .ipPrefixFile(prefixes)
+            .build());
+
+        client.getTimeByIP("203.0.113.5").get(5, TimeUnit.SECONDS);
+        WorldTimeAPIClient.TimeInfo neighbor = client.getTimeByIP("203.0.113.77").get(5, TimeUnit.SECONDS);
+        client.getTimeByIP("198.51.100.7").get(5, TimeUnit.SECONDS);
+
+        assertThat(neighbor.clientIp).isEqualTo("203.0.113.77");
+        assertThat(server.takeRequest().getPath()).isEqualTo("/api/ip/203.0.113.5");
+        assertThat(server.takeRequest().getPath()).isEqualTo("/api/timezone/Asia/Tokyo");
+        assertThat(server.takeRequest().getPath()).isEqualTo("/api/timezone/Europe/Paris");
+        assertThat(client.getMetrics().ipPrefixes()).isEqualTo(2);
+        assertThat(client.getMetrics().ipCacheHits()).isEqualTo(2);
+        client.shutdown();
+    }
+
+    @Test
+    @DisplayName("学習したプレフィックスは上限を超えると破棄され、読み込んだプレフィックスは残る")
+    void testLearnedPrefixesAreBounded() {
+        IpPrefixCache cache = new IpPrefixCache(100, Duration.ofHours(1), Runnable::run);
+        cache.insert(IpPrefixCache.parseAddress("10.0.0.0"), 8, "Europe/Paris");
+        cache.insert(IpPrefixCache.parseAddress("10.1.2.16"), 28, "Asia/Tokyo");
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.learn(new byte[]{10, (byte) (i >>> 8), (byte) i, 1}, "America/New_York");
+        }
+
+        assertThat(cache.learnedSize()).isLessThanOrEqualTo(100);
+        assertThat(cache.preloadedSize()).isEqualTo(2);
+        // 学習した/24より長い読み込み済みのプレフィックスが優先され、短いものより学習した対応が優先される
+        cache.learn(IpPrefixCache.parseAddress("10.1.2.1"), "America/Chicago");
+        assertThat(cache.lookup(IpPrefixCache.parseAddress("10.1.2.20"))).isEqualTo("Asia/Tokyo");
+        assertThat(cache.lookup(IpPrefixCache.parseAddress("10.1.2.99"))).isEqualTo("America/Chicago");
+        assertThat(cache.lookup(IpPrefixCache.parseAddress("10.200.200.1"))).isEqualTo("Europe/Paris");
+    }
+
+    @Test
+    @DisplayName("代替サーバーが返す503はすべて再試行で吸収される")
+    void testRetriesAgainstStandIn() throws Exception {
+        try (WorldTimeAPIStandIn standIn = WorldTimeAPIStandIn.builder().errorRate(0.2).build().start()) {
+            WorldTimeAPIClient client = new WorldTimeAPIClient(WorldTimeAPIConfig.builder()
+                .baseUrl(standIn.baseUrl())
+                .retryBaseDelay(Duration.ofMillis(1))
+                .retryMaxDelay(Duration.ofMillis(5))
+                .cacheEnabled(false)
+                .build());
+
+            for (int i = 0; i < 20; i++) {
+                assertThat(client.getTimeSync("Europe/Paris").timezone).isEqualTo("Europe/Paris");
+            }
+
+            WorldTimeAPIClient.Metrics metrics = client.getMetrics();
+            assertThat(standIn.serverErrorCount()).isPositive();
+            assertThat(metrics.retries()).isEqualTo(standIn.serverErrorCount());
+            assertThat(metrics.attempts()).isEqualTo(standIn.requestCount());
+            client.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("タイムゾーン一覧はファイルに永続化され、古くなると条件付きリクエストで更新される")
+    void testPersistentCatalogue(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("catalogue.json");
+        WorldTimeAPIConfig config = WorldTimeAPIConfig.builder()
+            .baseUrl(server.url("/api").toString())
+            .catalogueFile(file)
+            .build();
+
+        // 初回起動時はJVMのtzdbで即座に応答し、裏で一覧を取得する
+        // 応答は一覧を返した後に用意するため、裏の取得はそれまで完了しない
+        WorldTimeAPIClient cold = new WorldTimeAPIClient(config);
+        assertThat(cold.getTimezonesSync()).hasSize(ZoneId.getAvailableZoneIds().size());
+        server.enqueue(new MockResponse().setBody("[\"Asia/Tokyo\"]").setHeader("ETag", "\"v1\""));
+        cold.lastCatalogueRefresh().get(5, TimeUnit.SECONDS);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+        cold.shutdown();
+        assertThat(Files.exists(file)).isTrue();
+
+        // 再起動後はネットワークなしで保存済みの一覧を返す
+        WorldTimeAPIClient warm = new WorldTimeAPIClient(config);
+        assertThat(warm.getTimezonesSync()).containsExactly("Asia/Tokyo");
+        assertThat(server.getRequestCount()).isEqualTo(1);
+        warm.shutdown();
+
+        // 期限切れ後はETagで検証し、304なら保存済みの一覧を使い続ける
+        server.enqueue(new MockResponse().setResponseCode(304));
+        WorldTimeAPIClient stale = new WorldTimeAPIClient(WorldTimeAPIConfig.builder()
+            .baseUrl(server.url("/api").toString())
+            .catalogueFile(file)
+            .catalogueMaxAge(Duration.ofMillis(1))
+            .build());
+        stale.start();
+        stale.lastCatalogueRefresh().get(5, TimeUnit.SECONDS);
+        server.takeRequest();
+        RecordedRequest revalidation = server.takeRequest(5, TimeUnit.SECONDS);
+        assertThat(revalidation.getHeader("If-None-Match")).isEqualTo("\"v1\"");
+        stale.shutdown();
+    }
+
+    @Test
+    @DisplayName("永続化ファイルの相対パスは作業ディレクトリではなくデータディレクトリを基準に解決する")
+    void testDataDirectory(@TempDir Path dir) {
+        Properties properties = new Properties();
+        properties.setProperty("worldtime.api.catalogue.file", "cache/catalogue.json");
+        assertThat(WorldTimeAPIConfig.fromProperties(properties).catalogueFile())
+            .isEqualTo(WorldTimeAPIConfig.DEFAULT_DATA_DIRECTORY.resolve("cache/catalogue.json"))
+            .isAbsolute();
+
+        properties.setProperty("worldtime.api.data.directory", dir.toString());
+        properties.setProperty("worldtime.api.ip.prefix.file", "/etc/prefixes.txt");
+        WorldTimeAPIConfig config = WorldTimeAPIConfig.fromProperties(properties);
+        assertThat(config.catalogueFile()).isEqualTo(dir.resolve("cache/catalogue.json"));
+        assertThat(config.ipPrefixFile()).isEqualTo(Path.of("/etc/prefixes.txt"));
+    }
+
+    @Test
+    @DisplayName("プロパティから作成した設定は共有クライアントとtoBuilderにそのまま引き継がれる")
+    void testSharedClientUsesProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("worldtime.api.url", "http://localhost:1/api");
+        properties.setProperty("worldtime.api.deadline", "1234");
+        properties.setProperty("worldtime.api.hedge.enabled", "true");
+        WorldTimeAPIConfig config = WorldTimeAPIConfig.fromProperties(properties);
+        assertThat(config.toBuilder().build()).isEqualTo(config);
+
+        WorldTimeAPIClient previous = WorldTimeAPIClient.shared();
+        WorldTimeAPIClient client = new WorldTimeAPIClient(config);
+        try {
+            WorldTimeAPIClient.install(client);
+
+            assertThat(WorldTimeAPIClient.shared()).isSameAs(client);
+            assertThat(WorldTimeAPIClient.shared().config().baseUrl())
+                .isEqualTo("http://localhost:1/api");
+            assertThat(WorldTimeAPIClient.shared().config().callDeadline())
+                .isEqualTo(Duration.ofMillis(1234));
+            assertThat(WorldTimeAPIClient.shared().config().hedgingEnabled()).isTrue();
+        } finally {
+            WorldTimeAPIClient.install(previous);
+            client.shutdown();
+        }
+    }
+}
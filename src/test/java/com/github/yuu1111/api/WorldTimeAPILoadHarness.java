@@ -0,0 +1,212 @@
+package com.github.yuu1111.api;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.yuu1111.api.WorldTimeAPIStandIn.LatencyModel;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.LoggerFactory;
+
+/**
+ * WorldTimeAPIClientの負荷試験ハーネス
+ * ローカルの代替サーバーに対して一定のリクエストレートでクライアントを駆動し、
+ * レイテンシのパーセンタイル・リトライによる増幅率・キャッシュヒット率を出力する
+ * 応答待ちで送信が遅れないよう予定時刻から計測する（coordinated omissionを避ける）
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ * java -cp target/classes:target/test-classes:$(cat target/test.classpath) \
+ *   com.github.yuu1111.api.WorldTimeAPILoadHarness \
+ *   scenario=tail rate=200 duration=20 zones=50 cache=true hedge=false
+ * </pre>
+ */
+public class WorldTimeAPILoadHarness {
+
+    private static final List<Double> PERCENTILES = List.of(0.5, 0.9, 0.99, 0.999);
+
+    private final WorldTimeAPIClient client;
+    private final WorldTimeAPIStandIn standIn;
+    private final List<String> zones;
+    private final double[] cumulativeWeights;
+    private final LatencyHistogram latencies = new LatencyHistogram(Duration.ofDays(1));
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    WorldTimeAPILoadHarness(WorldTimeAPIClient client, WorldTimeAPIStandIn standIn,
+                            List<String> zones) {
+        this.client = client;
+        this.standIn = standIn;
+        this.zones = zones;
+        this.cumulativeWeights = zipfWeights(zones.size());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String scenario = options.getOrDefault("scenario", "tail");
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "20")));
+        int zoneCount = Integer.parseInt(options.getOrDefault("zones", "50"));
+        boolean cache = Boolean.parseBoolean(options.getOrDefault("cache", "true"));
+        boolean hedge = Boolean.parseBoolean(options.getOrDefault("hedge", "false"));
+
+        // リクエストごとのログ出力が計測結果に影響しないようにする
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.getLoggerList().forEach(logger -> logger.setLevel(Level.WARN));
+
+        try (WorldTimeAPIStandIn standIn = scenario(scenario).build().start()) {
+            WorldTimeAPIClient client = new WorldTimeAPIClient(WorldTimeAPIConfig.builder()
+                .baseUrl(standIn.baseUrl())
+                .cacheEnabled(cache)
+                .hedgingEnabled(hedge)
+                .build());
+            List<String> zones = ZoneId.getAvailableZoneIds().stream().sorted().limit(zoneCount).toList();
+            WorldTimeAPILoadHarness harness = new WorldTimeAPILoadHarness(client, standIn, zones);
+
+            System.out.printf("scenario=%s rate=%d/s duration=%ds zones=%d cache=%s hedge=%s%n",
+                scenario, rate, duration.toSeconds(), zones.size(), cache, hedge);
+            harness.run(rate, duration);
+            harness.report(System.out);
+            client.shutdown();
+        }
+    }
+
+    /**
+     * 代表的なシナリオ
+     */
+    static WorldTimeAPIStandIn.Builder scenario(String name) {
+        WorldTimeAPIStandIn.Builder builder = WorldTimeAPIStandIn.builder();
+        return switch (name) {
+            case "baseline" -> builder;
+            case "clean" -> builder.latency(LatencyModel.logNormal(Duration.ofMillis(20), 0.3));
+            case "tail" -> builder.latency(LatencyModel.withTail(
+                LatencyModel.logNormal(Duration.ofMillis(40), 0.5), 0.02, Duration.ofSeconds(2)));
+            case "errors" -> builder.latency(LatencyModel.logNormal(Duration.ofMillis(40), 0.5))
+                .errorRate(0.1);
+            case "bursts" -> builder.latency(LatencyModel.logNormal(Duration.ofMillis(40), 0.5))
+                .rateLimitBursts(Duration.ofSeconds(10), Duration.ofSeconds(1), Duration.ofSeconds(1));
+            default -> throw new IllegalArgumentException("Unknown scenario: " + name);
+        };
+    }
+
+    /**
+     * 一定のレートでリクエストを送信し、すべての応答を待つ
+     */
+    void run(int requestsPerSecond, Duration duration) throws InterruptedException {
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long total = duration.toNanos() / intervalNanos;
+        long start = System.nanoTime();
+        AtomicLong sent = new AtomicLong();
+
+        ScheduledFuture<?> task = ticker.scheduleAtFixedRate(() -> {
+            long index = sent.getAndIncrement();
+            if (index >= total) {
+                return;
+            }
+            long intended = start + index * intervalNanos;
+            client.getCurrentTime(nextZone()).whenComplete((info, error) -> {
+                long latency = System.nanoTime() - intended;
+                latencies.record(latency);
+                maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                (error == null ? completed : failed).increment();
+            });
+        }, 0, intervalNanos, TimeUnit.NANOSECONDS);
+
+        long deadline = start + duration.toNanos() + TimeUnit.SECONDS.toNanos(15);
+        while (completed.sum() + failed.sum() < total && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        task.cancel(false);
+        ticker.shutdownNow();
+    }
+
+    /**
+     * 結果を出力
+     */
+    void report(PrintStream out) {
+        long ok = completed.sum();
+        long errors = failed.sum();
+        long logical = ok + errors;
+        out.printf("requests: %d ok, %d failed (%.2f%%)%n", ok, errors,
+            logical == 0 ? 0.0 : 100.0 * errors / logical);
+
+        StringBuilder line = new StringBuilder("latency ms:");
+        for (double percentile : PERCENTILES) {
+            line.append(String.format(" p%s=%.1f", format(percentile * 100),
+                latencies.percentile(percentile, 1) / 1e6));
+        }
+        line.append(String.format(" max=%.1f", maxLatencyNanos.get() / 1e6));
+        out.println(line);
+
+        WorldTimeAPIClient.Metrics metrics = client.getMetrics();
+        out.printf("retry amplification: %.3f server requests per client call"
+                + " (%.3f attempts per network call, %d retries)%n",
+            logical == 0 ? 0.0 : (double) standIn.requestCount() / logical,
+            metrics.calls() == 0 ? 0.0 : (double) metrics.attempts() / metrics.calls(),
+            metrics.retries());
+
+        CacheStats stats = client.getCacheStats();
+        if (stats.requestCount() > 0) {
+            out.printf("cache hit rate: %.1f%% (%d hits, %d misses)%n", stats.hitRate() * 100,
+                stats.hitCount(), stats.missCount());
+        } else {
+            out.println("cache hit rate: n/a (cache disabled)");
+        }
+        out.printf("hedges: %d sent, %d won, delay %dms%n", metrics.hedges(), metrics.hedgeWins(),
+            metrics.hedgeDelayMs());
+        out.printf("server: %d requests, %d x 503, %d x 429%n", standIn.requestCount(),
+            standIn.serverErrorCount(), standIn.rateLimitedCount());
+    }
+
+    /**
+     * Zipf分布（s=1）でタイムゾーンを選ぶ 一部のタイムゾーンにアクセスが集中する実際の傾向に近い
+     */
+    private String nextZone() {
+        double value = ThreadLocalRandom.current().nextDouble();
+        int index = Arrays.binarySearch(cumulativeWeights, value);
+        return zones.get(Math.min(zones.size() - 1, index >= 0 ? index : -index - 1));
+    }
+
+    private static double[] zipfWeights(int count) {
+        double[] weights = new double[count];
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += 1.0 / (i + 1);
+            weights[i] = sum;
+        }
+        for (int i = 0; i < count; i++) {
+            weights[i] /= sum;
+        }
+        return weights;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                options.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+}
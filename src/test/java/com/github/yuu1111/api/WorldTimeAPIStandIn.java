@@ -0,0 +1,297 @@
+package com.github.yuu1111.api;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.yuu1111.json.JsonSupport;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WorldTimeAPIのローカル代替サーバー
+ * /timezone・/timezone/{zone}・/ip/{ip} をJVMのtzdbから応答し、遅延分布・エラー率・429のバーストを再現する
+ * 負荷試験やテストでネットワークなしにクライアントを計測するために使う
+ */
+public class WorldTimeAPIStandIn implements AutoCloseable {
+
+    private static final String CATALOGUE_ETAG = "\"tzdb\"";
+
+    private final MockWebServer server = new MockWebServer();
+    private final LocalTimeInfoProvider local = new LocalTimeInfoProvider();
+    private final String catalogue;
+    private final LatencyModel latency;
+    private final double errorRate;
+    private final Duration burstPeriod;
+    private final Duration burstLength;
+    private final Duration retryAfter;
+    private final String ipZone;
+    private final Random random;
+    private final long startNanos = System.nanoTime();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+
+    private WorldTimeAPIStandIn(Builder builder) {
+        this.latency = builder.latency;
+        this.errorRate = builder.errorRate;
+        this.burstPeriod = builder.burstPeriod;
+        this.burstLength = builder.burstLength;
+        this.retryAfter = builder.retryAfter;
+        this.ipZone = builder.ipZone;
+        this.random = new Random(builder.seed);
+        ArrayNode zones = JsonSupport.mapper().createArrayNode();
+        local.getTimezonesSync().forEach(zones::add);
+        this.catalogue = zones.toString();
+        server.setDispatcher(new StandInDispatcher());
+    }
+
+    /**
+     * サーバーを起動
+     */
+    public WorldTimeAPIStandIn start() throws IOException {
+        server.start();
+        return this;
+    }
+
+    /**
+     * クライアントに設定するベースURL
+     */
+    public String baseUrl() {
+        return server.url("/api").toString();
+    }
+
+    /**
+     * 受信したリクエスト数
+     */
+    public long requestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * 5xxを返した回数
+     */
+    public long serverErrorCount() {
+        return serverErrors.sum();
+    }
+
+    /**
+     * 429を返した回数
+     */
+    public long rateLimitedCount() {
+        return rateLimited.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private class StandInDispatcher extends Dispatcher {
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            requests.increment();
+            MockResponse response = respond(request);
+            long delay = nextLatencyNanos();
+            if (delay > 0) {
+                response.setHeadersDelay(delay, TimeUnit.NANOSECONDS);
+            }
+            return response;
+        }
+
+        private MockResponse respond(RecordedRequest request) {
+            if (inBurst()) {
+                rateLimited.increment();
+                return new MockResponse().setResponseCode(429)
+                    .setHeader("Retry-After", retryAfter.toSeconds());
+            }
+            if (nextDouble() < errorRate) {
+                serverErrors.increment();
+                return new MockResponse().setResponseCode(503);
+            }
+
+            String path = request.getRequestUrl().encodedPath();
+            if (path.equals("/api/timezone")) {
+                if (CATALOGUE_ETAG.equals(request.getHeader("If-None-Match"))) {
+                    return new MockResponse().setResponseCode(304);
+                }
+                return json(catalogue).setHeader("ETag", CATALOGUE_ETAG);
+            }
+            if (path.startsWith("/api/timezone/")) {
+                return time(path.substring("/api/timezone/".length()), null);
+            }
+            if (path.startsWith("/api/ip/")) {
+                return time(ipZone, path.substring("/api/ip/".length()));
+            }
+            return new MockResponse().setResponseCode(404).setBody("{\"error\":\"unknown url\"}");
+        }
+
+        private MockResponse time(String timezone, String clientIp) {
+            ZoneId zone;
+            try {
+                zone = ZoneId.of(timezone);
+            } catch (DateTimeException e) {
+                return new MockResponse().setResponseCode(404)
+                    .setBody("{\"error\":\"unknown location\"}");
+            }
+            WorldTimeAPIClient.TimeInfo info = local.getTimeInfo(zone, Instant.now());
+            ObjectNode body = JsonSupport.mapper().createObjectNode()
+                .put("timezone", info.timezone)
+                .put("datetime", info.datetime)
+                .put("utc_datetime", info.utcDatetime)
+                .put("utc_offset", info.utcOffset)
+                .put("unixtime", info.unixtime)
+                .put("dst", info.dst)
+                .put("dst_offset", info.dstOffset)
+                .put("dst_from", info.dstFrom)
+                .put("dst_until", info.dstUntil)
+                .put("raw_offset", info.rawOffset)
+                .put("abbreviation", info.abbreviation)
+                .put("week_number", info.weekNumber)
+                .put("day_of_week", info.dayOfWeek)
+                .put("day_of_year", info.dayOfYear)
+                .put("client_ip", clientIp);
+            return json(body.toString());
+        }
+
+        private MockResponse json(String body) {
+            return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+        }
+    }
+
+    /**
+     * 429のバースト期間中かどうか 各周期の先頭burstLengthの間はすべて429を返す
+     */
+    private boolean inBurst() {
+        if (burstPeriod == null) {
+            return false;
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed % burstPeriod.toNanos() < burstLength.toNanos();
+    }
+
+    private long nextLatencyNanos() {
+        synchronized (random) {
+            return latency.nextNanos(random);
+        }
+    }
+
+    private double nextDouble() {
+        synchronized (random) {
+            return random.nextDouble();
+        }
+    }
+
+    /**
+     * 応答遅延の分布
+     */
+    @FunctionalInterface
+    public interface LatencyModel {
+
+        long nextNanos(Random random);
+
+        /**
+         * 遅延なし
+         */
+        static LatencyModel none() {
+            return random -> 0;
+        }
+
+        /**
+         * 固定の遅延
+         */
+        static LatencyModel fixed(Duration latency) {
+            return random -> latency.toNanos();
+        }
+
+        /**
+         * 範囲内の一様分布
+         */
+        static LatencyModel uniform(Duration min, Duration max) {
+            return random -> random.nextLong(min.toNanos(), max.toNanos() + 1);
+        }
+
+        /**
+         * 中央値とσを指定した対数正規分布 実際のAPI応答に近い右に裾の長い分布
+         */
+        static LatencyModel logNormal(Duration median, double sigma) {
+            return random -> (long) (median.toNanos() * Math.exp(sigma * random.nextGaussian()));
+        }
+
+        /**
+         * 通常の分布に、確率tailRateで遅い応答を混ぜる
+         */
+        static LatencyModel withTail(LatencyModel base, double tailRate, Duration slow) {
+            return random -> random.nextDouble() < tailRate ? slow.toNanos() : base.nextNanos(random);
+        }
+    }
+
+    /**
+     * 代替サーバーのビルダー
+     */
+    public static class Builder {
+
+        private LatencyModel latency = LatencyModel.none();
+        private double errorRate;
+        private Duration burstPeriod;
+        private Duration burstLength = Duration.ZERO;
+        private Duration retryAfter = Duration.ZERO;
+        private String ipZone = "Etc/UTC";
+        private long seed = 42;
+
+        public Builder latency(LatencyModel latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * 503を返す確率
+         */
+        public Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * period周期ごとにlength間だけ429を返す
+         */
+        public Builder rateLimitBursts(Duration period, Duration length, Duration retryAfter) {
+            this.burstPeriod = period;
+            this.burstLength = length;
+            this.retryAfter = retryAfter;
+            return this;
+        }
+
+        /**
+         * /ip/{ip} の応答に使うタイムゾーン
+         */
+        public Builder ipZone(String ipZone) {
+            this.ipZone = ipZone;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public WorldTimeAPIStandIn build() {
+            return new WorldTimeAPIStandIn(this);
+        }
+    }
+}
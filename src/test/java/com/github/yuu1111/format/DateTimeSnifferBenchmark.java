@@ -0,0 +1,113 @@
+package com.github.yuu1111.format;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * DateTimeSnifferのスループット計測
+ * 入力の種類ごとに、例外で次の形式を試す従来の方式と比較する
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes com.github.yuu1111.format.DateTimeSnifferBenchmark [seconds]
+ * </pre>
+ */
+public class DateTimeSnifferBenchmark {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Tokyo");
+
+    private static final Map<String, String> INPUTS = Map.of(
+        "iso-offset", "2024-01-15T10:30:00+09:00",
+        "iso-local", "2024-01-15T10:30:00",
+        "dash", "2024-01-15 10:30:00",
+        "day-first", "15/01/2024 10:30:00",
+        "month-first", "01/15/2024 10:30:00",
+        "epoch", "1705282200",
+        "invalid", "not a date"
+    );
+
+    /**
+     * 変更前のparseDateTimeと同じ順序で形式を試す
+     */
+    private static final List<DateTimeFormatter> LEGACY_FORMATS = List.of(
+        "yyyy-MM-dd HH:mm:ss",
+        "yyyy-MM-dd'T'HH:mm:ss",
+        "yyyy-MM-dd'T'HH:mm:ssXXX",
+        "yyyy-MM-dd'T'HH:mm:ss.SSS",
+        "yyyy/MM/dd HH:mm:ss",
+        "dd/MM/yyyy HH:mm:ss",
+        "MM/dd/yyyy HH:mm:ss"
+    ).stream().map(DateTimeFormatter::ofPattern).toList();
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        System.out.printf("%-12s %14s %14s %8s%n", "input", "legacy ops/s", "sniffer ops/s", "speedup");
+        INPUTS.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
+            String input = entry.getValue();
+            double legacy = measure(DateTimeSnifferBenchmark::legacyParse, input, seconds);
+            double sniffer = measure(DateTimeSniffer::parse, input, seconds);
+            System.out.printf("%-12s %,14.0f %,14.0f %7.1fx%n", entry.getKey(), legacy, sniffer,
+                sniffer / legacy);
+        });
+    }
+
+    /**
+     * ウォームアップの後、指定秒数の間に実行できた回数から1秒あたりの回数を求める
+     */
+    private static double measure(BiFunction<String, ZoneId, ZonedDateTime> parser, String input,
+                                  long seconds) {
+        run(parser, input, 200_000_000L);
+        long budget = seconds * 1_000_000_000L;
+        long start = System.nanoTime();
+        long operations = run(parser, input, budget);
+        return operations * 1e9 / (System.nanoTime() - start);
+    }
+
+    private static long run(BiFunction<String, ZoneId, ZonedDateTime> parser, String input,
+                            long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        long operations = 0;
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < 1000; i++) {
+                sink = parser.apply(input, ZONE);
+            }
+            operations += 1000;
+        }
+        return operations;
+    }
+
+    private static ZonedDateTime legacyParse(String text, ZoneId zone) {
+        try {
+            if (text.contains("T") && (text.contains("+") || text.contains("Z"))) {
+                return ZonedDateTime.parse(text);
+            }
+        } catch (DateTimeParseException ignored) {}
+        try {
+            if (text.contains("T")) {
+                return LocalDateTime.parse(text).atZone(zone);
+            }
+        } catch (DateTimeParseException ignored) {}
+        for (DateTimeFormatter formatter : LEGACY_FORMATS) {
+            try {
+                return LocalDateTime.parse(text, formatter).atZone(zone);
+            } catch (DateTimeParseException ignored) {}
+        }
+        try {
+            long timestamp = Long.parseLong(text);
+            if (text.length() == 10) {
+                return ZonedDateTime.ofInstant(Instant.ofEpochSecond(timestamp), zone);
+            } else if (text.length() == 13) {
+                return ZonedDateTime.ofInstant(Instant.ofEpochMilli(timestamp), zone);
+            }
+        } catch (NumberFormatException ignored) {}
+        return null;
+    }
+}
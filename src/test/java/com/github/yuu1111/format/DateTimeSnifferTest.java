@@ -0,0 +1,62 @@
+package com.github.yuu1111.format;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * DateTimeSnifferのテスト
+ */
+@DisplayName("DateTimeSniffer Tests")
+class DateTimeSnifferTest {
+
+    private static final ZoneId TOKYO = ZoneId.of("Asia/Tokyo");
+
+    @Test
+    @DisplayName("入力の形式を一度で判定し、対応する形式としてパースする")
+    void testParsesSupportedShapes() {
+        assertThat(DateTimeSniffer.parse("2024-01-15T10:30:00+09:00", TOKYO))
+            .isEqualTo(ZonedDateTime.parse("2024-01-15T10:30:00+09:00"));
+        assertThat(DateTimeSniffer.parse("2024-01-15T10:30:00.5-05:00", TOKYO))
+            .isEqualTo(ZonedDateTime.of(2024, 1, 15, 10, 30, 0, 500_000_000, ZoneOffset.ofHours(-5)));
+        assertThat(DateTimeSniffer.parse("2024-01-15T10:30Z", TOKYO).getOffset())
+            .isEqualTo(ZoneOffset.UTC);
+        assertThat(DateTimeSniffer.parse("2024-01-15T10:30:00+01:00[Europe/Paris]", TOKYO).getZone())
+            .isEqualTo(ZoneId.of("Europe/Paris"));
+        assertThat(DateTimeSniffer.parse("2024-01-15T10:30:00.123", TOKYO))
+            .isEqualTo(ZonedDateTime.of(2024, 1, 15, 10, 30, 0, 123_000_000, TOKYO));
+        assertThat(DateTimeSniffer.parse("2024/01/15 10:30:00", TOKYO))
+            .isEqualTo(ZonedDateTime.of(2024, 1, 15, 10, 30, 0, 0, TOKYO));
+        assertThat(DateTimeSniffer.parse("1705282200", TOKYO).toInstant().getEpochSecond())
+            .isEqualTo(1705282200L);
+        assertThat(DateTimeSniffer.parse("1705282200123", TOKYO).toInstant().toEpochMilli())
+            .isEqualTo(1705282200123L);
+    }
+
+    @Test
+    @DisplayName("日と月の順序は値から決め、曖昧な場合は日が先として扱う")
+    void testDayMonthOrder() {
+        assertThat(DateTimeSniffer.classify("15/01/2024 10:30:00"))
+            .isEqualTo(DateTimeSniffer.Shape.SLASH_DMY);
+        assertThat(DateTimeSniffer.classify("01/15/2024 10:30:00"))
+            .isEqualTo(DateTimeSniffer.Shape.SLASH_MDY);
+        assertThat(DateTimeSniffer.parse("02/03/2024 10:30:00", TOKYO).getMonthValue()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("解析できない入力や存在しない日付は例外ではなくnullを返す")
+    void testRejectsInvalidInput() {
+        assertThat(DateTimeSniffer.parse("2024-02-30 10:00:00", TOKYO)).isNull();
+        assertThat(DateTimeSniffer.parse("2024-01-15T25:00:00", TOKYO)).isNull();
+        assertThat(DateTimeSniffer.parse("2024-01-15T10:00:00+19:00", TOKYO)).isNull();
+        assertThat(DateTimeSniffer.parse("2024-01-15T10:00:00+01:00[Nowhere/City]", TOKYO)).isNull();
+        assertThat(DateTimeSniffer.parse("next tuesday", TOKYO)).isNull();
+        assertThat(DateTimeSniffer.parse("", TOKYO)).isNull();
+        assertThat(DateTimeSniffer.parse("12345", TOKYO)).isNull();
+    }
+}
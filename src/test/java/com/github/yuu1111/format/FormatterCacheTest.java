@@ -0,0 +1,32 @@
+package com.github.yuu1111.format;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * FormatterCacheのテスト
+ */
+@DisplayName("FormatterCache Tests")
+class FormatterCacheTest {
+
+    @Test
+    @DisplayName("同じパターンとロケールでは同じフォーマッタを返し、不正なパターンもキャッシュする")
+    void testCachesFormattersAndInvalidPatterns() {
+        DateTimeFormatter first = FormatterCache.ofPattern("yyyy/MM/dd HH:mm", Locale.ROOT);
+
+        assertThat(FormatterCache.ofPattern("yyyy/MM/dd HH:mm", Locale.ROOT)).isSameAs(first);
+        assertThat(FormatterCache.ofPattern("yyyy/MM/dd HH:mm", Locale.JAPAN)).isNotSameAs(first)
+            .extracting(DateTimeFormatter::getLocale).isEqualTo(Locale.JAPAN);
+
+        long misses = FormatterCache.stats().missCount();
+        assertThatThrownBy(() -> FormatterCache.ofPattern("yyyy-MM-dd {", Locale.ROOT))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(FormatterCache.find("yyyy-MM-dd {", Locale.ROOT)).isNull();
+        assertThat(FormatterCache.stats().missCount()).isEqualTo(misses + 1);
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.yuu1111.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.yuu1111.json.JsonSupport;
+import com.github.yuu1111.services.zone.TzdbSnapshots;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * StdioMCPServerのテスト
+ */
+@DisplayName("StdioMCPServer Tests")
+class StdioMCPServerTest {
+
+    @Test
+    @DisplayName("server/infoはHTTPサーバーと同じく有効なtzdataを返す")
+    void testServerInfoReportsTzdata() throws Exception {
+        StringWriter output = new StringWriter();
+        StdioMCPServer server = new StdioMCPServer(
+            new BufferedReader(new StringReader(
+                "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"server/info\"}\n")),
+            new PrintWriter(output, true));
+
+        server.start();
+
+        String[] lines = output.toString().split("\n");
+        JsonNode response = JsonSupport.mapper().readTree(lines[lines.length - 1]);
+        JsonNode tzdata = response.path("result").path("tzdata");
+        assertThat(response.path("id").asText()).isEqualTo("1");
+        assertThat(tzdata.path("version").asText()).isEqualTo(TzdbSnapshots.version());
+        assertThat(tzdata.path("source").asText()).isEqualTo(TzdbSnapshots.source());
+        assertThat(tzdata.has("provider_installed")).isTrue();
+    }
+}
@@ -0,0 +1,192 @@
+package com.github.yuu1111.server;
+
+import com.github.yuu1111.protocol.MCPError;
+import com.github.yuu1111.resilience.Bulkhead;
+import com.github.yuu1111.resilience.CircuitBreaker;
+import com.github.yuu1111.tools.FieldSet;
+import com.github.yuu1111.tools.MCPTool;
+import com.github.yuu1111.tools.ToolExecutionException;
+import com.github.yuu1111.tools.ToolResponse;
+import com.github.yuu1111.tools.impl.ConvertTimezone;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ToolRegistryのバルクヘッド・サーキットブレーカーのテスト
+ */
+@DisplayName("ToolRegistry Tests")
+class ToolRegistryTest {
+
+    private ToolRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ToolRegistry(
+            new Bulkhead.Config(1, 0, Duration.ZERO),
+            CircuitBreaker.Config.builder()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .permittedCallsInHalfOpen(1)
+                .openDuration(Duration.ofMillis(100))
+                .build()
+        );
+    }
+
+    @Test
+    @DisplayName("エラー率が閾値を超えるとブレーカーが開き即座に失敗する")
+    void testCircuitBreakerOpens() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        registry.register(new StubTool("flaky", params -> {
+            if (failing.get()) {
+                throw new ToolExecutionException("boom");
+            }
+            return ToolResponse.single("ok", true);
+        }));
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> registry.execute("flaky", Map.of()))
+                .hasMessageContaining("boom");
+        }
+
+        assertThatThrownBy(() -> registry.execute("flaky", Map.of()))
+            .isInstanceOf(ToolExecutionException.class)
+            .satisfies(e -> assertThat(((ToolExecutionException) e).getMcpError().code())
+                .isEqualTo(MCPError.API_ERROR))
+            .hasMessageContaining("Circuit breaker open");
+
+        // OPEN期間経過後の試行呼び出しが成功すれば復帰する
+        failing.set(false);
+        Thread.sleep(150);
+        assertThat(registry.execute("flaky", Map.of()).data()).containsEntry("ok", true);
+        assertThat(registry.getToolHealth().get("flaky")).containsEntry("state", "CLOSED");
+    }
+
+    @Test
+    @DisplayName("パラメータエラーはブレーカーの判定に含めない")
+    void testClientErrorsDoNotTripBreaker() throws Exception {
+        registry.register(new StubTool("strict", params -> {
+            throw ToolExecutionException.invalidParameter("timezone", "bad");
+        }));
+
+        for (int i = 0; i < 6; i++) {
+            assertThatThrownBy(() -> registry.execute("strict", Map.of()))
+                .hasMessageContaining("Invalid parameter");
+        }
+        assertThat(registry.getToolHealth().get("strict")).containsEntry("state", "CLOSED");
+    }
+
+    @Test
+    @DisplayName("同時実行数の上限を超えた呼び出しは拒否され、他のツールには影響しない")
+    void testBulkheadIsolation() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        registry.register(new StubTool("slow", params -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ToolResponse.single("done", true);
+        }));
+        registry.register(new StubTool("fast", params -> ToolResponse.single("done", true)));
+
+        Thread worker = Thread.ofVirtual().start(() -> {
+            try {
+                registry.execute("slow", Map.of());
+            } catch (ToolExecutionException ignored) {
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> registry.execute("slow", Map.of()))
+            .hasMessageContaining("Tool is saturated");
+        assertThat(registry.execute("fast", Map.of()).data()).containsEntry("done", true);
+
+        release.countDown();
+        worker.join();
+    }
+
+    @Test
+    @DisplayName("射影に対応していないツールの結果はfieldsで絞り込まれる")
+    void testGenericFieldProjection() throws Exception {
+        registry.register(new StubTool("wide", params -> ToolResponse.of(Map.of(
+            "sun", Map.of("sunrise", "06:00", "sunset", "18:00"),
+            "moon", Map.of("phase", "FULL_MOON")
+        ))));
+
+        Map<String, Object> data = registry.execute("wide", Map.of("fields", "sun.sunset")).data();
+
+        assertThat(data).containsOnlyKeys("sun");
+        assertThat(data.get("sun")).isEqualTo(Map.of("sunset", "18:00"));
+    }
+
+    @Test
+    @DisplayName("tools/listのスキーマにfieldsとinclude_metadataが全ツール分公開される")
+    @SuppressWarnings("unchecked")
+    void testCommonParametersAreAdvertised() {
+        registry.register(new StubTool("bare", params -> ToolResponse.single("ok", true)));
+        registry.register(new ConvertTimezone());
+
+        List<Map<String, Object>> tools = registry.getAllTools();
+
+        assertThat(tools).hasSize(2).allSatisfy(info -> {
+            Map<String, Object> parameters = (Map<String, Object>) info.get("parameters");
+            Map<String, Object> properties = (Map<String, Object>) parameters.get("properties");
+            assertThat(properties)
+                .containsEntry(FieldSet.PARAMETER, FieldSet.SCHEMA)
+                .containsEntry(
+                    ToolResponse.INCLUDE_METADATA_PARAMETER, ToolResponse.INCLUDE_METADATA_SCHEMA);
+        });
+        Map<String, Object> convert = (Map<String, Object>) tools.stream()
+            .filter(info -> "convert_timezone".equals(info.get("name")))
+            .findFirst()
+            .orElseThrow()
+            .get("parameters");
+        assertThat((Map<String, Object>) convert.get("properties"))
+            .containsKeys("datetime", "from_timezone", "to_timezone", "fields");
+        assertThat(convert.get("required"))
+            .isEqualTo(new ConvertTimezone().getParameterSchema().get("required"));
+    }
+
+    /**
+     * テスト用のツール
+     */
+    private record StubTool(String name, Body body) implements MCPTool {
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return "stub";
+        }
+
+        @Override
+        public Map<String, Object> getParameterSchema() {
+            return Map.of("type", "object");
+        }
+
+        @Override
+        public ToolResponse execute(Map<String, Object> parameters) throws ToolExecutionException {
+            return body.apply(parameters);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        ToolResponse apply(Map<String, Object> parameters) throws ToolExecutionException;
+    }
+}
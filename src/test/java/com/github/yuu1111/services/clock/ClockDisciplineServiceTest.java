@@ -0,0 +1,139 @@
+package com.github.yuu1111.services.clock;
+
+import com.github.yuu1111.tools.ToolResponse;
+import com.github.yuu1111.tools.impl.GetCurrentTime;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ClockDisciplineServiceのテスト
+ */
+@DisplayName("ClockDisciplineService Tests")
+class ClockDisciplineServiceTest {
+
+    private static final Duration SKEW = Duration.ofSeconds(5);
+
+    @Test
+    @DisplayName("参照元とのずれを推定し、補正した時計と誤差の上限を返す")
+    void testEstimatesOffset() {
+        ClockDisciplineService service = new ClockDisciplineService(
+            new ClockTimeReference("skewed", Clock.offset(Clock.systemUTC(), SKEW)),
+            ClockDisciplineService.Config.builder().reference("local").build());
+        assertThat(service.status().synced()).isFalse();
+        assertThat(service.status().errorBoundNanos()).isEqualTo(-1);
+
+        for (int i = 0; i < 3; i++) {
+            service.poll();
+        }
+
+        ClockDisciplineService.Status status = service.status();
+        assertThat(status.synced()).isTrue();
+        assertThat(status.reference()).isEqualTo("skewed");
+        assertThat(Duration.ofNanos(status.offsetNanos())).isBetween(
+            SKEW.minusMillis(50), SKEW.plusMillis(50));
+        assertThat(status.errorBoundNanos()).isLessThan(Duration.ofMillis(50).toNanos());
+
+        Instant expected = Instant.now().plus(SKEW);
+        assertThat(Duration.between(expected, service.clock().instant()).abs())
+            .isLessThan(Duration.ofMillis(100));
+    }
+
+    @Test
+    @DisplayName("get_current_timeは補正した時刻と同期状態を返す")
+    void testCurrentTimeUsesDisciplinedClock() throws Exception {
+        ClockDisciplineService service = new ClockDisciplineService(
+            new ClockTimeReference("skewed", Clock.offset(Clock.systemUTC(), SKEW)),
+            ClockDisciplineService.Config.builder().reference("local").build());
+        service.poll();
+
+        ToolResponse response = new GetCurrentTime(service).execute(Map.of());
+
+        long unix = ((Number) response.data().get("unix_timestamp")).longValue();
+        assertThat(unix).isBetween(Instant.now().plus(SKEW).getEpochSecond() - 1,
+            Instant.now().plus(SKEW).getEpochSecond() + 1);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> clock = (Map<String, Object>) response.data().get("clock");
+        assertThat(clock).containsEntry("synchronized", true).containsKey("error_bound_ms");
+    }
+
+    @Test
+    @DisplayName("HTTP参照元はWorldTimeAPIの失敗が続くとブレーカーを開き、以降のポーリングはリクエストを送らずに失敗する")
+    void testHttpReferenceCircuitBreaker() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            for (int i = 0; i < 3; i++) {
+                server.enqueue(new MockResponse().setResponseCode(503));
+            }
+            Properties properties = new Properties();
+            properties.setProperty("worldtime.api.url", server.url("/api").toString());
+            HttpTimeReference reference = new HttpTimeReference(ClockDisciplineService.httpProvider(
+                properties, ClockDisciplineService.Config.builder().reference("http").build()));
+
+            for (int i = 0; i < 4; i++) {
+                assertThatThrownBy(() -> reference.sample(Clock.systemUTC()))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("LOCAL_FALLBACK");
+            }
+            assertThat(server.getRequestCount()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("最小遅延の計測が古くても、直近の同期が成功していれば同期中として扱う")
+    void testStalenessFollowsLastPoll() {
+        ClockDisciplineService service = new ClockDisciplineService(
+            new ClockTimeReference("skewed", Clock.offset(Clock.systemUTC(), SKEW)),
+            ClockDisciplineService.Config.builder()
+                .reference("local")
+                .pollInterval(Duration.ofMillis(100))
+                .build());
+        long now = System.nanoTime();
+        long epoch = ClockSample.epochNanos(Instant.now());
+        long second = Duration.ofSeconds(1).toNanos();
+
+        // 1秒前の計測は遅延が最小のためずれの推定に使われ続ける
+        service.update(sample(SKEW.toNanos(), Duration.ofMillis(2).toNanos(), epoch - second,
+            now - second));
+        service.update(sample(SKEW.toNanos() + 40_000_000, Duration.ofMillis(80).toNanos(), epoch,
+            now));
+
+        ClockDisciplineService.Status status = service.status();
+        assertThat(status.synced()).isTrue();
+        assertThat(Duration.ofNanos(status.offsetNanos())).isBetween(
+            SKEW.minusMillis(1), SKEW.plusMillis(1));
+        assertThat(status.errorBoundNanos()).isLessThan(Duration.ofMillis(10).toNanos());
+        assertThat(status.lastSync()).isEqualTo(
+            Instant.ofEpochSecond(0, epoch + SKEW.toNanos() + 40_000_000));
+    }
+
+    @Test
+    @DisplayName("NTPタイムスタンプの変換は往復で一致する")
+    void testNtpTimestampRoundTrip() {
+        long epochNanos = ClockSample.epochNanos(Instant.parse("2024-01-15T03:00:00.123456789Z"));
+        byte[] buffer = new byte[48];
+
+        SntpTimeReference.writeTimestamp(buffer, 40, epochNanos);
+
+        assertThat(SntpTimeReference.readTimestamp(buffer, 40)).isCloseTo(epochNanos, within(1L));
+    }
+
+    /**
+     * 指定したずれと往復遅延の計測を作成
+     */
+    private static ClockSample sample(long offsetNanos, long delayNanos, long destination,
+        long monotonicNanos) {
+        long origin = destination - delayNanos;
+        long receive = origin + offsetNanos + delayNanos / 2;
+        return new ClockSample(origin, receive, receive, destination, 0, monotonicNanos);
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.yuu1111.services.zone;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * OffsetTableのテスト
+ */
+@DisplayName("OffsetTable Tests")
+class OffsetTableTest {
+
+    @Test
+    @DisplayName("すべてのタイムゾーンでZoneRulesと同じオフセットと夏時間を返す")
+    void testMatchesZoneRulesForAllZones() {
+        OffsetTables tables = new OffsetTables(
+            OffsetTables.Config.builder().startYear(1950).endYear(2050).build());
+        Random random = new Random(42);
+        long from = Instant.parse("1940-01-01T00:00:00Z").getEpochSecond();
+        long to = Instant.parse("2060-01-01T00:00:00Z").getEpochSecond();
+
+        for (String id : ZoneId.getAvailableZoneIds()) {
+            ZoneRules rules = ZoneId.of(id).getRules();
+            OffsetTable table = tables.forZone(ZoneId.of(id));
+
+            for (int i = 0; i < 200; i++) {
+                long epochSecond = from + (long) (random.nextDouble() * (to - from));
+                assertOffsets(table, rules, epochSecond);
+            }
+            // 切り替えの直前と切り替え時刻ちょうど
+            ZoneOffsetTransition transition = rules.nextTransition(Instant.parse("2000-01-01T00:00:00Z"));
+            if (transition != null) {
+                assertOffsets(table, rules, transition.toEpochSecond() - 1);
+                assertOffsets(table, rules, transition.toEpochSecond());
+            }
+        }
+        assertThat(tables.size()).isEqualTo(ZoneId.getAvailableZoneIds().size());
+    }
+
+    private static void assertOffsets(OffsetTable table, ZoneRules rules, long epochSecond) {
+        Instant instant = Instant.ofEpochSecond(epochSecond);
+        assertThat(table.offsetSeconds(epochSecond))
+            .as("%s at %s", table.zoneId(), instant)
+            .isEqualTo(rules.getOffset(instant).getTotalSeconds());
+        assertThat(table.isDaylightSavings(epochSecond))
+            .as("%s DST at %s", table.zoneId(), instant)
+            .isEqualTo(rules.isDaylightSavings(instant));
+    }
+}
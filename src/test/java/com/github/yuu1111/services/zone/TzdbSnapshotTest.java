@@ -0,0 +1,146 @@
+package com.github.yuu1111.services.zone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.yuu1111.tools.ToolResponse;
+import com.github.yuu1111.tools.impl.SearchTimezones;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRulesProvider;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TzdbSnapshotTest {
+
+    @Test
+    @DisplayName("JDKのtzdb.datを読み込むとすべてのタイムゾーンでJDKと同じルールになる")
+    void testMatchesJdkRules() throws IOException {
+        TzdbSnapshot snapshot = TzdbSnapshot.load(SnapshotZoneRulesProvider.jdkFile());
+
+        assertThat(snapshot.version()).isEqualTo(ZoneRulesProvider.getVersions("UTC").lastKey());
+        for (String id : ZoneId.getAvailableZoneIds()) {
+            assertThat(snapshot.rules(id)).as(id).isEqualTo(ZoneId.of(id).getRules());
+        }
+    }
+
+    @Test
+    @DisplayName("スナップショットを切り替えるとルールが変わったタイムゾーンのキャッシュだけを破棄する")
+    void testActivateInvalidatesChangedZones(@TempDir Path directory) throws IOException {
+        TzdbSnapshot jdk = TzdbSnapshot.load(SnapshotZoneRulesProvider.jdkFile());
+        write(directory.resolve(TzdbSnapshotWatcher.FILE_NAME), "2099z", jdk,
+            Map.of("Asia/Tokyo", "Europe/London"));
+        TzdbSnapshotWatcher watcher = new TzdbSnapshotWatcher(TzdbSnapshotWatcher.Config.builder()
+            .directory(directory)
+            .pollInterval(Duration.ofSeconds(1))
+            .build());
+        ZoneResolver resolver = ZoneResolver.shared();
+        ZoneResolver.Resolved paris = resolver.lookup("Europe/Paris");
+        resolver.lookup("Asia/Tokyo");
+        Instant summer = Instant.parse("2024-07-01T00:00:00Z");
+
+        try {
+            assertThat(watcher.poll()).isTrue();
+            assertThat(watcher.poll()).isFalse();
+
+            assertThat(TzdbSnapshots.version()).isEqualTo("2099z");
+            assertThat(resolver.lookup("Europe/Paris")).isSameAs(paris);
+            assertThat(resolver.rules("asia/tokyo")).isEqualTo(ZoneId.of("Europe/London").getRules());
+            assertThat(OffsetTables.shared().forZone(ZoneId.of("Asia/Tokyo"))
+                .offsetSeconds(summer.getEpochSecond())).isEqualTo(3600);
+        } finally {
+            assertThat(TzdbSnapshots.activate(jdk)).containsExactly("Asia/Tokyo");
+            SnapshotZoneRulesProvider.activate(null);
+        }
+        assertThat(resolver.rules("Asia/Tokyo")).isEqualTo(ZoneId.of("Asia/Tokyo").getRules());
+    }
+
+    @Test
+    @DisplayName("スナップショットを切り替えても検索索引はそのまま使え、search_timezonesのオフセットは新しいルールになる")
+    void testSearchAfterActivate(@TempDir Path directory) throws Exception {
+        TzdbSnapshot jdk = TzdbSnapshot.load(SnapshotZoneRulesProvider.jdkFile());
+        Path file = directory.resolve(TzdbSnapshotWatcher.FILE_NAME);
+        write(file, "2099z", jdk, Map.of("Asia/Tokyo", "Europe/London"));
+        ZoneSearchIndex index = ZoneSearchIndex.shared();
+        List<ZoneSearchIndex.Match> before = index.search("tokoy", 3);
+
+        try {
+            TzdbSnapshots.load(file);
+
+            assertThat(ZoneSearchIndex.shared()).isSameAs(index);
+            assertThat(index.search("tokoy", 3)).isEqualTo(before);
+            String expected = ZoneId.of("Europe/London").getRules().getOffset(Instant.now()).getId();
+            assertThat(searchOffset("tokoy")).isEqualTo(expected);
+        } finally {
+            TzdbSnapshots.activate(jdk);
+            SnapshotZoneRulesProvider.activate(null);
+        }
+        assertThat(searchOffset("tokoy")).isEqualTo("+09:00");
+    }
+
+    @Test
+    @DisplayName("UTCのルールが想定と異なるファイルは読み込まず、現在のtzdataを使い続ける")
+    void testRejectsUnexpectedFormat(@TempDir Path directory) throws IOException {
+        TzdbSnapshot jdk = TzdbSnapshot.load(SnapshotZoneRulesProvider.jdkFile());
+        Path file = directory.resolve(TzdbSnapshotWatcher.FILE_NAME);
+        write(file, "2099z", jdk, Map.of("Etc/UTC", "Europe/London"));
+        String version = TzdbSnapshots.version();
+        TzdbSnapshotWatcher watcher = new TzdbSnapshotWatcher(TzdbSnapshotWatcher.Config.builder()
+            .directory(directory)
+            .pollInterval(Duration.ofSeconds(1))
+            .build());
+
+        assertThatThrownBy(() -> TzdbSnapshot.load(file))
+            .isInstanceOf(StreamCorruptedException.class)
+            .hasMessageContaining("Etc/UTC");
+        assertThat(watcher.poll()).isFalse();
+        assertThat(TzdbSnapshots.version()).isEqualTo(version);
+    }
+
+    private static String searchOffset(String query) throws Exception {
+        ToolResponse response = new SearchTimezones().execute(Map.of("query", query, "limit", 1));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> suggestions =
+            (List<Map<String, Object>>) response.data().get("suggestions");
+        assertThat(suggestions.get(0)).containsEntry("timezone", "Asia/Tokyo");
+        return (String) suggestions.get(0).get("utc_offset");
+    }
+
+    /**
+     * sourceのルールを使ってtzdb.datを書く replaceのタイムゾーンは対応するタイムゾーンのルールにする
+     */
+    private static void write(Path file, String version, TzdbSnapshot source,
+                              Map<String, String> replace) throws IOException {
+        List<String> regions = source.zoneIds().stream().sorted().toList();
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeByte(1);
+            out.writeUTF("TZDB");
+            out.writeShort(1);
+            out.writeUTF(version);
+            out.writeShort(regions.size());
+            for (String region : regions) {
+                out.writeUTF(region);
+            }
+            out.writeShort(regions.size());
+            for (String region : regions) {
+                byte[] bytes = source.ruleBytes(replace.getOrDefault(region, region));
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+            out.writeShort(regions.size());
+            for (int i = 0; i < regions.size(); i++) {
+                out.writeShort(i);
+                out.writeShort(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.yuu1111.services.zone;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ZoneResolverのテスト
+ */
+@DisplayName("ZoneResolver Tests")
+class ZoneResolverTest {
+
+    @Test
+    @DisplayName("IANAのID・略称・旧形式のID・固定オフセットを大文字小文字を区別せずに解決する")
+    void testResolvesNames() {
+        ZoneResolver resolver = new ZoneResolver();
+
+        assertThat(resolver.resolve("Asia/Tokyo")).isEqualTo(ZoneId.of("Asia/Tokyo"));
+        assertThat(resolver.resolve("asia/tokyo")).isEqualTo(ZoneId.of("Asia/Tokyo"));
+        assertThat(resolver.resolve("jst")).isEqualTo(ZoneId.of("Asia/Tokyo"));
+        assertThat(resolver.resolve("PDT")).isEqualTo(ZoneId.of("America/Los_Angeles"));
+        assertThat(resolver.resolve("US/Eastern")).isEqualTo(ZoneId.of("US/Eastern"));
+        assertThat(resolver.resolve("EST")).isEqualTo(ZoneId.of("America/New_York"));
+        assertThat(resolver.resolve("cet")).isEqualTo(ZoneId.of("CET"));
+        assertThat(resolver.resolve("+09:00")).isEqualTo(ZoneOffset.ofHours(9));
+        assertThat(resolver.resolve("utc+5:30")).isEqualTo(ZoneId.of("UTC+05:30"));
+        assertThat(resolver.resolve(" Europe/London ")).isEqualTo(ZoneId.of("Europe/London"));
+    }
+
+    @Test
+    @DisplayName("表記が違っても同じ解決結果を共有し、解決できない名前もキャッシュする")
+    void testInternsAndCachesUnknownNames() {
+        ZoneResolver resolver = new ZoneResolver();
+
+        assertThat(resolver.lookup("ASIA/TOKYO")).isSameAs(resolver.lookup("JST"));
+        assertThat(resolver.rules("Asia/Tokyo")).isSameAs(resolver.rules("asia/tokyo"));
+
+        assertThat(resolver.resolve("Invalid/Zone")).isNull();
+        assertThat(resolver.lookup("Invalid/Zone").isKnown()).isFalse();
+        assertThat(resolver.resolve(null)).isNull();
+        assertThat(resolver.resolve("")).isNull();
+        assertThat(resolver.stats().hitCount()).isGreaterThanOrEqualTo(1);
+    }
+}
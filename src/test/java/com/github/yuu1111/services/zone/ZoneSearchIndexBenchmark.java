@@ -0,0 +1,78 @@
+package com.github.yuu1111.services.zone;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * ZoneSearchIndexのスループット計測
+ * 入力の種類ごとに、変更前のfindSimilarTimezones（全IDの部分一致走査）と比較する
+ * 従来の方式は部分一致しか見つけられないため、綴りの誤りでは候補が空になる
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes com.github.yuu1111.services.zone.ZoneSearchIndexBenchmark [seconds]
+ * </pre>
+ */
+public class ZoneSearchIndexBenchmark {
+
+    private static final Map<String, String> INPUTS = Map.of(
+        "typo", "Asia/Tokio",
+        "transposed", "new yrok",
+        "partial", "Europe/Pari",
+        "city-alias", "san fran",
+        "country", "germny",
+        "short", "to",
+        "unknown", "xyzzy"
+    );
+
+    private static final ZoneSearchIndex INDEX = ZoneSearchIndex.shared();
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        System.out.printf("%-12s %14s %14s %8s  %s%n", "input", "linear ops/s", "index ops/s",
+            "speedup", "top suggestion");
+        INPUTS.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
+            String input = entry.getValue();
+            double linear = measure(ZoneSearchIndexBenchmark::linearScan, input, seconds);
+            double indexed = measure(query -> INDEX.search(query, 5), input, seconds);
+            List<ZoneSearchIndex.Match> matches = INDEX.search(input, 1);
+            System.out.printf("%-12s %,14.0f %,14.0f %7.1fx  %s%n", entry.getKey(), linear, indexed,
+                indexed / linear, matches.isEmpty() ? "-" : matches.get(0).zone());
+        });
+    }
+
+    /**
+     * ウォームアップの後、指定秒数の間に実行できた回数から1秒あたりの回数を求める
+     */
+    private static double measure(Function<String, Object> search, String input, long seconds) {
+        run(search, input, 200_000_000L);
+        long budget = seconds * 1_000_000_000L;
+        long start = System.nanoTime();
+        long operations = run(search, input, budget);
+        return operations * 1e9 / (System.nanoTime() - start);
+    }
+
+    private static long run(Function<String, Object> search, String input, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        long operations = 0;
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < 100; i++) {
+                sink = search.apply(input);
+            }
+            operations += 100;
+        }
+        return operations;
+    }
+
+    /**
+     * 変更前のfindSimilarTimezonesと同じ処理
+     */
+    private static Object linearScan(String input) {
+        String lower = input.toLowerCase();
+        return ZoneId.getAvailableZoneIds().stream().filter(zone -> zone.toLowerCase().contains(lower))
+            .limit(5).reduce((a, b) -> a + ", " + b).orElse("No similar timezones found");
+    }
+}
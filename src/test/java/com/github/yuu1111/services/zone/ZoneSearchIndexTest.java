@@ -0,0 +1,78 @@
+package com.github.yuu1111.services.zone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.yuu1111.tools.ToolExecutionException;
+import com.github.yuu1111.tools.ToolResponse;
+import com.github.yuu1111.tools.impl.SearchTimezones;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ZoneSearchIndexTest {
+
+    private final ZoneSearchIndex index = ZoneSearchIndex.shared();
+
+    @Test
+    @DisplayName("綴りの誤り・入力途中の名前・都市名・国名・略称から最も近いタイムゾーンを先頭に返す")
+    void testRanksClosestZoneFirst() {
+        Map<String, String> expected = Map.of(
+            "tokoy", "Asia/Tokyo",
+            "Asia/Tokio", "Asia/Tokyo",
+            "new yrok", "America/New_York",
+            "los angles", "America/Los_Angeles",
+            "Europe/Pari", "Europe/Paris",
+            "san fran", "America/Los_Angeles",
+            "germny", "Europe/Berlin",
+            "Kolkatta", "Asia/Kolkata",
+            "PST", "America/Los_Angeles"
+        );
+
+        expected.forEach((query, zone) ->
+            assertThat(index.search(query, 3)).as(query).first()
+                .extracting(ZoneSearchIndex.Match::zone).isEqualTo(zone));
+        assertThat(index.search("germny", 1).get(0).kind()).isEqualTo(ZoneSearchIndex.Kind.COUNTRY);
+        assertThat(index.search("xyzzy", 5)).isEmpty();
+        assertThat(index.search("to", 20)).extracting(ZoneSearchIndex.Match::zone)
+            .doesNotHaveDuplicates().hasSize(20);
+    }
+
+    @Test
+    @DisplayName("編集距離は隣接する2文字の入れ替えを1回と数える")
+    void testDistance() {
+        assertThat(ZoneSearchIndex.distance("tokoy", "tokyo", 5, 5)).isEqualTo(1);
+        assertThat(ZoneSearchIndex.distance("londn", "london", 6, 6)).isEqualTo(1);
+        assertThat(ZoneSearchIndex.distance("kitten", "sitting", 7, 7)).isEqualTo(3);
+        assertThat(ZoneSearchIndex.distance("abcdef", "uvwxyz", 6, 2)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("search_timezonesツールは候補と現在のUTCオフセットを返す")
+    void testSearchTimezonesTool() throws Exception {
+        ToolResponse response = new SearchTimezones().execute(Map.of("query", "tokoy", "limit", 2));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> suggestions =
+            (List<Map<String, Object>>) response.data().get("suggestions");
+        assertThat(suggestions).hasSizeLessThanOrEqualTo(2);
+        assertThat(suggestions.get(0))
+            .containsEntry("timezone", "Asia/Tokyo")
+            .containsEntry("matched", "Tokyo")
+            .containsEntry("kind", "city")
+            .containsEntry("utc_offset", "+09:00");
+    }
+
+    @Test
+    @DisplayName("search_timezonesのlimitは整数のみ受け付け、小数は切り捨てずに拒否する")
+    void testLimitMustBeIntegral() {
+        SearchTimezones tool = new SearchTimezones();
+
+        for (Object limit : List.of(2.5, 2.0, "2", 0, 4_294_967_298L)) {
+            assertThatThrownBy(() -> tool.execute(Map.of("query", "tokyo", "limit", limit)))
+                .isInstanceOf(ToolExecutionException.class)
+                .hasMessageContaining("limit");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.yuu1111.tools;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ToolDiscoveryのテスト
+ */
+@DisplayName("ToolDiscovery Tests")
+class ToolDiscoveryTest {
+
+    @Test
+    @DisplayName("ServiceLoaderで登録済みのツールを検出できる")
+    void testDiscoverTools() {
+        List<MCPTool> tools = ToolDiscovery.discoverTools();
+
+        assertThat(tools).extracting(MCPTool::getName).contains(
+            "get_current_time", "convert_timezone", "search_timezones", "get_religious_calendar",
+            "get_astronomical_info"
+        );
+    }
+
+    @Test
+    @DisplayName("記述情報の取得では実装を生成せず、初回実行時に生成する")
+    void testLazyInstantiation() throws ToolExecutionException {
+        LazyTool tool = ToolDiscovery.discoverTools().stream()
+            .filter(t -> t.getName().equals("get_current_time"))
+            .map(LazyTool.class::cast)
+            .findFirst()
+            .orElseThrow();
+
+        assertThat(tool.getDescription()).isNotBlank();
+        assertThat(tool.getParameterSchema()).containsKey("properties");
+        assertThat(tool.isInstantiated()).isFalse();
+
+        tool.execute(Map.of("timezone", "UTC"));
+        assertThat(tool.isInstantiated()).isTrue();
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.yuu1111.tools.impl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import org.slf4j.LoggerFactory;
+
+/**
+ * convert_timezone の並列変換の計測
+ * 変換先の件数ごとに順次変換とfork/joinによる並列変換の1リクエストあたりの時間を比較し、
+ * 並列の方が速くなる件数を求める 結果は application.properties の convert.parallel.threshold に設定する
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:$(cat target/test.classpath) \
+ *   com.github.yuu1111.tools.impl.ConvertTimezoneFanOutBenchmark [seconds]
+ * </pre>
+ */
+public class ConvertTimezoneFanOutBenchmark {
+
+    private static final int[] SIZES = {8, 16, 32, 64, 128, 256, 400};
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws Exception {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 1;
+
+        // リクエストごとのログ出力が計測結果に影響しないようにする
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.getLoggerList().forEach(logger -> logger.setLevel(Level.WARN));
+
+        List<String> allZones = ZoneId.getAvailableZoneIds().stream().sorted().toList();
+        ConvertTimezone sequential = new ConvertTimezone(Integer.MAX_VALUE);
+        ConvertTimezone parallel = new ConvertTimezone(1);
+
+        System.out.printf("cores=%d commonPoolParallelism=%d automaticThreshold=%s%n",
+            Runtime.getRuntime().availableProcessors(), ForkJoinPool.getCommonPoolParallelism(),
+            ConvertTimezone.automaticParallelThreshold() == ConvertTimezone.PARALLEL_DISABLED
+                ? "disabled" : ConvertTimezone.automaticParallelThreshold());
+        System.out.printf("%6s %16s %16s %8s%n", "zones", "sequential us/op", "fork/join us/op",
+            "speedup");
+        Integer crossover = null;
+        for (int size : SIZES) {
+            Map<String, Object> parameters = Map.of(
+                "datetime", "2024-03-10T12:00:00Z",
+                "to_timezones", allZones.subList(0, Math.min(size, allZones.size())),
+                "include_dst_info", true,
+                "include_time_difference", false
+            );
+            double sequentialMicros = measure(sequential, parameters, seconds);
+            double parallelMicros = measure(parallel, parameters, seconds);
+            double speedup = sequentialMicros / parallelMicros;
+            System.out.printf("%6d %16.1f %16.1f %7.2fx%n", size, sequentialMicros, parallelMicros,
+                speedup);
+            // それ以降のすべての件数で並列の方が速い最小の件数
+            if (speedup <= 1.0) {
+                crossover = null;
+            } else if (crossover == null) {
+                crossover = size;
+            }
+        }
+        System.out.println(crossover == null
+            ? "fork/join was not faster at any size"
+            : "fork/join is faster from " + crossover + " zones");
+    }
+
+    /**
+     * ウォームアップの後、1リクエストあたりの平均時間（マイクロ秒）を求める
+     */
+    private static double measure(ConvertTimezone tool, Map<String, Object> parameters,
+                                  long seconds) throws Exception {
+        run(tool, parameters, 500_000_000L);
+        long start = System.nanoTime();
+        long operations = run(tool, parameters, seconds * 1_000_000_000L);
+        return (System.nanoTime() - start) / 1e3 / operations;
+    }
+
+    private static long run(ConvertTimezone tool, Map<String, Object> parameters, long budgetNanos)
+            throws Exception {
+        long deadline = System.nanoTime() + budgetNanos;
+        long operations = 0;
+        while (System.nanoTime() < deadline) {
+            sink = tool.execute(parameters);
+            operations++;
+        }
+        return operations;
+    }
+}
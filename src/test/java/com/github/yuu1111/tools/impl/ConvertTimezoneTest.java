@@ -0,0 +1,126 @@
+package com.github.yuu1111.tools.impl;
+
+import com.github.yuu1111.tools.FieldSet;
+import com.github.yuu1111.tools.ToolResponse;
+import com.github.yuu1111.tools.result.BulkConversionResult;
+import com.github.yuu1111.tools.result.ConversionResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ConvertTimezoneツールのテスト
+ */
+@DisplayName("ConvertTimezone Tool Tests")
+class ConvertTimezoneTest {
+
+    private ConvertTimezone tool;
+
+    @BeforeEach
+    void setUp() {
+        tool = new ConvertTimezone();
+    }
+
+    @Test
+    @DisplayName("時差マトリックスはオフセットのベクトルから入力の順序で展開する")
+    @SuppressWarnings("unchecked")
+    void testTimeMatrix() throws Exception {
+        ToolResponse response = tool.execute(Map.of(
+            "datetime", "2024-01-15T00:00:00Z",
+            "to_timezones", List.of("Asia/Tokyo", "Asia/Kolkata", "Invalid/Zone", "UTC")
+        ));
+
+        Map<String, Object> offsets = (Map<String, Object>) response.data().get("time_offsets");
+        assertThat((List<String>) offsets.get("zones")).containsExactly("Asia/Tokyo", "Asia/Kolkata", "UTC");
+        assertThat((List<Integer>) offsets.get("offset_seconds")).containsExactly(32400, 19800, 0);
+
+        Map<String, Map<String, String>> matrix =
+            (Map<String, Map<String, String>>) response.data().get("time_matrix");
+        assertThat(matrix.keySet()).containsExactly("Asia/Tokyo", "Asia/Kolkata", "UTC");
+        assertThat(matrix.get("Asia/Tokyo")).containsExactly(
+            entry("Asia/Tokyo", "0h"), entry("Asia/Kolkata", "-3h30m"), entry("UTC", "-9h"));
+        assertThat(matrix.get("UTC")).containsEntry("Asia/Kolkata", "+5h30m");
+    }
+
+    @Test
+    @DisplayName("並列に変換しても結果は入力の順序になる")
+    void testParallelFanOutKeepsOrder() throws Exception {
+        List<String> zones = ZoneId.getAvailableZoneIds().stream().sorted().limit(100).toList();
+        Map<String, Object> parameters = Map.of(
+            "datetime", "2024-03-10T12:00:00Z",
+            "to_timezones", zones,
+            "include_dst_info", true
+        );
+
+        ConversionResult parallel = (ConversionResult) new ConvertTimezone(1).execute(parameters).result();
+        ConversionResult sequential =
+            (ConversionResult) new ConvertTimezone(Integer.MAX_VALUE).execute(parameters).result();
+
+        assertThat(parallel.targets()).extracting(ConversionResult.Target::timezone)
+            .containsExactlyElementsOf(zones);
+        assertThat(parallel.targets()).isEqualTo(sequential.targets());
+    }
+
+    @Test
+    @DisplayName("並列変換の閾値は設定で変えられ、未設定なら共通プールの並列度から決まる")
+    void testParallelThresholdConfiguration() {
+        Properties properties = new Properties();
+        try {
+            properties.setProperty("convert.parallel.threshold", "48");
+            ConvertTimezone.configure(properties);
+            assertThat(new ConvertTimezone().parallelThreshold()).isEqualTo(48);
+        } finally {
+            ConvertTimezone.configure(new Properties());
+        }
+        assertThat(new ConvertTimezone().parallelThreshold()).isEqualTo(
+            ForkJoinPool.getCommonPoolParallelism() < 2
+                ? ConvertTimezone.PARALLEL_DISABLED : ConvertTimezone.PARALLEL_THRESHOLD);
+    }
+
+    @Test
+    @DisplayName("一括変換は入力の順序のまま列形式で結果を返す")
+    void testBulkConversion() throws Exception {
+        ToolResponse response = tool.execute(Map.of(
+            "datetimes", List.of(1705282200, "2024-07-01 12:00:00", "not a date", 1705282200.5),
+            "from_timezone", "UTC",
+            "to_timezones", List.of("Asia/Tokyo", "America/New_York")
+        ));
+
+        BulkConversionResult result = (BulkConversionResult) response.result();
+        assertThat(result.count()).isEqualTo(4);
+        assertThat(result.epochSeconds()).containsExactly(1705282200L, 1719835200L, 0L, 1705282200L);
+        assertThat(result.invalidRows()).containsExactly(2);
+
+        BulkConversionResult.Column tokyo = result.targets().get(0);
+        assertThat(tokyo.timezone()).isEqualTo("Asia/Tokyo");
+        assertThat(tokyo.offsetSeconds()).containsExactly(32400, 32400, 0, 32400);
+        assertThat(tokyo.localDatetimes()).containsExactly(
+            "2024-01-15T10:30", "2024-07-01T21:00", null, "2024-01-15T10:30:00.500");
+
+        BulkConversionResult.Column newYork = result.targets().get(1);
+        assertThat(newYork.offsetSeconds()).containsExactly(-18000, -14400, 0, -18000);
+    }
+
+    @Test
+    @DisplayName("NDJSONの入力を受け付け、要求された列だけを返す")
+    void testBulkNdjsonWithProjection() throws Exception {
+        ToolResponse response = tool.execute(Map.of(
+            "ndjson", "\"2024-01-15T10:30:00Z\"\n\n1705282200\n",
+            "to_timezone", "Europe/London"
+        ), FieldSet.compile("targets.offset_seconds"));
+
+        BulkConversionResult result = (BulkConversionResult) response.result();
+        assertThat(result.count()).isEqualTo(2);
+        assertThat(result.epochSeconds()).isNull();
+        assertThat(result.targets().get(0).offsetSeconds()).containsExactly(0, 0);
+        assertThat(result.targets().get(0).localDatetimes()).isNull();
+    }
+}